@@ -30,8 +30,11 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelProtoDataType;
-import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.runtime.ColumnarBatch;
+import org.apache.calcite.schema.BatchScannableTable;
 import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.SplittableTable;
 import org.apache.calcite.schema.Statistic;
 import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.impl.AbstractTableQueryable;
@@ -45,6 +48,8 @@
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -59,7 +64,11 @@
  * values in the column; see {@link Representation} and
  * {@link RepresentationType}.
  */
-class ArrayTable extends AbstractQueryableTable implements ScannableTable {
+class ArrayTable extends AbstractQueryableTable
+    implements BatchScannableTable, SplittableTable {
+  /** Minimum number of rows in a split. */
+  static final int MIN_SPLIT_SIZE = 8192;
+
   private final RelProtoDataType protoRowType;
   private final Supplier<Content> supplier;
 
@@ -95,6 +104,37 @@ class ArrayTable extends AbstractQueryableTable implements ScannableTable {
     };
   }
 
+  @Override public Enumerable<ColumnarBatch> scanBatches(DataContext root,
+      int batchSize) {
+    return new AbstractEnumerable<ColumnarBatch>() {
+      @Override public Enumerator<ColumnarBatch> enumerator() {
+        final Content content = supplier.get();
+        return content.batchEnumerator(batchSize);
+      }
+    };
+  }
+
+  @Override public List<Split> splits(DataContext root,
+      List<RexNode> filters, int @Nullable [] projects, int maxSplitCount) {
+    final Content content = supplier.get();
+    final int splitCount =
+        Math.max(1, Math.min(maxSplitCount, content.size / MIN_SPLIT_SIZE));
+    final List<Split> splits = new ArrayList<>();
+    for (int i = 0; i < splitCount; i++) {
+      final int start = (int) ((long) content.size * i / splitCount);
+      final int end = (int) ((long) content.size * (i + 1) / splitCount);
+      splits.add(() ->
+          ColumnarBatch.toRows(
+              new AbstractEnumerable<ColumnarBatch>() {
+                @Override public Enumerator<ColumnarBatch> enumerator() {
+                  return content.batchEnumerator(start, end,
+                      ColumnarBatch.DEFAULT_CAPACITY);
+                }
+              }));
+    }
+    return splits;
+  }
+
   @Override public <T> Queryable<T> asQueryable(final QueryProvider queryProvider,
       SchemaPlus schema, String tableName) {
     return new AbstractTableQueryable<T>(queryProvider, schema, this,
@@ -192,6 +232,21 @@ enum RepresentationType {
      * @see ByteStringDictionary
      */
     BYTE_STRING_DICTIONARY,
+
+    /** Array of primitives held outside the Java heap, with a bitmap of null
+     * values. Values are stored in the narrowest type that holds them.
+     *
+     * @see DirectPrimitiveArray
+     */
+    DIRECT_PRIMITIVE_ARRAY,
+
+    /** Dictionary of strings held outside the Java heap. The dictionary is
+     * sorted, and stored as UTF-8; the code of each row is stored as in
+     * {@link #DIRECT_PRIMITIVE_ARRAY}.
+     *
+     * @see DirectStringDictionary
+     */
+    DIRECT_STRING_DICTIONARY,
   }
 
   /** Column definition and value set. */
@@ -245,6 +300,15 @@ public interface Representation {
     Object freeze(ColumnLoader.ValueSet valueSet, int @Nullable [] sources);
 
     @Nullable Object getObject(Object dataSet, int ordinal);
+
+    /** Returns the value at a given ordinal of a numeric data set, converted
+     * to {@code int}.
+     *
+     * <p>The representations of string and byte-string columns
+     * ({@link StringDictionary}, {@link ByteStringDictionary} and
+     * {@link DirectStringDictionary}) throw
+     * {@link UnsupportedOperationException}; call {@link #getObject}
+     * instead. */
     int getInt(Object dataSet, int ordinal);
 
     /** Creates a data set that is the same as a given data set
@@ -256,6 +320,29 @@ public interface Representation {
      * size.) */
     int size(Object dataSet);
 
+    /** Returns the type of vector that {@link #copyTo} writes into, or null
+     * if values are written as objects.
+     *
+     * <p>The default implementation returns null. */
+    default @Nullable Primitive vectorPrimitive() {
+      return null;
+    }
+
+    /** Copies {@code count} values, starting at ordinal {@code start}, into
+     * a column of a batch, starting at row 0.
+     *
+     * <p>The default implementation reads each value using
+     * {@link #getObject(Object, int)}; representations override it to copy
+     * more efficiently. */
+    default void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      final @Nullable Object[] vector =
+          (@Nullable Object[]) batch.vector(column);
+      for (int i = 0; i < count; i++) {
+        vector[i] = getObject(dataSet, start + i);
+      }
+    }
+
     /** Converts a data set to a string. */
     String toString(Object dataSet);
   }
@@ -305,6 +392,15 @@ public static class ObjectArray implements Representation {
       return ((Comparable[]) dataSet).length;
     }
 
+    @Override public @Nullable Primitive vectorPrimitive() {
+      return null;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      System.arraycopy(dataSet, start, batch.vector(column), 0, count);
+    }
+
     @Override public String toString(Object dataSet) {
       return Arrays.toString((Comparable[]) dataSet);
     }
@@ -356,14 +452,34 @@ public static class PrimitiveArray implements Representation {
       return Array.getLength(dataSet);
     }
 
+    @Override public Primitive vectorPrimitive() {
+      return p;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      if (primitive == p) {
+        System.arraycopy(dataSet, start, batch.vector(column), 0, count);
+        return;
+      }
+      // Values are stored in a narrower type than they are returned in.
+      // Floating-point values are never narrowed, so they are not handled
+      // here.
+      for (int i = 0; i < count; i++) {
+        batch.setLong(column, i, Array.getLong(dataSet, start + i));
+      }
+    }
+
     @Override public String toString(Object dataSet) {
       return p.arrayToString(dataSet);
     }
   }
 
   /** Representation that stores column values in a dictionary of
-   * primitive values, then uses a short code for each row. */
+   * primitive values, then uses an {@code int} code for each row. */
   public static class PrimitiveDictionary implements Representation {
+    private final ObjectDictionary dictionary = intCodeDictionary();
+
     PrimitiveDictionary() {
     }
 
@@ -376,30 +492,42 @@ public static class PrimitiveDictionary implements Representation {
     }
 
     @Override public Object freeze(ColumnLoader.ValueSet valueSet, int @Nullable [] sources) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.freeze(valueSet, sources);
     }
 
     @Override public Object permute(Object dataSet, int[] sources) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.permute(dataSet, sources);
     }
 
-    @Override public Object getObject(Object dataSet, int ordinal) {
-      throw new UnsupportedOperationException(); // TODO:
+    @Override public @Nullable Object getObject(Object dataSet, int ordinal) {
+      return dictionary.getObject(dataSet, ordinal);
     }
 
     @Override public int getInt(Object dataSet, int ordinal) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.getInt(dataSet, ordinal);
     }
 
     @Override public int size(Object dataSet) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.size(dataSet);
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      dictionary.copyTo(dataSet, start, count, batch, column);
     }
 
     @Override public String toString(Object dataSet) {
-      throw new UnsupportedOperationException(); // TODO:
+      return Column.asList(this, dataSet).toString();
     }
   }
 
+  /** Creates a representation that stores the distinct values of a column in
+   * a sorted array, and for each row the {@code int} index of its value. */
+  private static ObjectDictionary intCodeDictionary() {
+    return new ObjectDictionary(0,
+        new PrimitiveArray(0, Primitive.INT, Primitive.INT));
+  }
+
   /** Representation that stores the values of a column as a
    * dictionary of objects. */
   public static class ObjectDictionary implements Representation {
@@ -478,13 +606,31 @@ public static class ObjectDictionary implements Representation {
       return representation.size(pair.left);
     }
 
+    @Override public @Nullable Primitive vectorPrimitive() {
+      return null;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      final Pair<Object, @Nullable Comparable[]> pair = unfreeze(dataSet);
+      final @Nullable Comparable[] codeValues = pair.right;
+      final @Nullable Object[] vector =
+          (@Nullable Object[]) batch.vector(column);
+      for (int i = 0; i < count; i++) {
+        vector[i] = codeValues[representation.getInt(pair.left, start + i)];
+      }
+    }
+
     @Override public String toString(Object dataSet) {
       return Column.asList(this, dataSet).toString();
     }
   }
 
-  /** Representation that stores string column values. */
+  /** Representation that stores string column values in a dictionary, then
+   * uses an {@code int} code for each row. */
   public static class StringDictionary implements Representation {
+    private final ObjectDictionary dictionary = intCodeDictionary();
+
     StringDictionary() {
     }
 
@@ -497,23 +643,28 @@ public static class StringDictionary implements Representation {
     }
 
     @Override public Object freeze(ColumnLoader.ValueSet valueSet, int @Nullable [] sources) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.freeze(valueSet, sources);
     }
 
     @Override public Object permute(Object dataSet, int[] sources) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.permute(dataSet, sources);
     }
 
-    @Override public Object getObject(Object dataSet, int ordinal) {
-      throw new UnsupportedOperationException(); // TODO:
+    @Override public @Nullable Object getObject(Object dataSet, int ordinal) {
+      return dictionary.getObject(dataSet, ordinal);
     }
 
     @Override public int getInt(Object dataSet, int ordinal) {
-      throw new UnsupportedOperationException(); // TODO:
+      throw new UnsupportedOperationException("not numeric");
     }
 
     @Override public int size(Object dataSet) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.size(dataSet);
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      dictionary.copyTo(dataSet, start, count, batch, column);
     }
 
     @Override public String toString(Object dataSet) {
@@ -521,8 +672,11 @@ public static class StringDictionary implements Representation {
     }
   }
 
-  /** Representation that stores byte-string column values. */
+  /** Representation that stores byte-string column values in a dictionary, then
+   * uses an {@code int} code for each row. */
   public static class ByteStringDictionary implements Representation {
+    private final ObjectDictionary dictionary = intCodeDictionary();
+
     ByteStringDictionary() {
     }
 
@@ -535,23 +689,28 @@ public static class ByteStringDictionary implements Representation {
     }
 
     @Override public Object freeze(ColumnLoader.ValueSet valueSet, int @Nullable [] sources) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.freeze(valueSet, sources);
     }
 
     @Override public Object permute(Object dataSet, int[] sources) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.permute(dataSet, sources);
     }
 
-    @Override public Object getObject(Object dataSet, int ordinal) {
-      throw new UnsupportedOperationException(); // TODO:
+    @Override public @Nullable Object getObject(Object dataSet, int ordinal) {
+      return dictionary.getObject(dataSet, ordinal);
     }
 
     @Override public int getInt(Object dataSet, int ordinal) {
-      throw new UnsupportedOperationException(); // TODO:
+      throw new UnsupportedOperationException("not numeric");
     }
 
     @Override public int size(Object dataSet) {
-      throw new UnsupportedOperationException(); // TODO:
+      return dictionary.size(dataSet);
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      dictionary.copyTo(dataSet, start, count, batch, column);
     }
 
     @Override public String toString(Object dataSet) {
@@ -603,6 +762,17 @@ public static class Constant implements Representation {
       return pair.right;
     }
 
+    @Override public @Nullable Primitive vectorPrimitive() {
+      return null;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      Pair<@Nullable Object, Integer> pair = unfreeze(dataSet);
+      Arrays.fill((@Nullable Object[]) batch.vector(column), 0, count,
+          pair.left);
+    }
+
     @Override public String toString(Object dataSet) {
       Pair<@Nullable Object, Integer> pair = unfreeze(dataSet);
       return Collections.nCopies(pair.right, pair.left).toString();
@@ -704,19 +874,7 @@ public static class BitSlicedPrimitiveArray implements Representation {
     }
 
     @Override public Object getObject(Object dataSet, int ordinal) {
-      final long[] longs = (long[]) dataSet;
-      final int chunksPerWord = 64 / bitCount;
-      final int word = ordinal / chunksPerWord;
-      final long v = longs[word];
-      final int chunk = ordinal % chunksPerWord;
-      final int mask = (1 << bitCount) - 1;
-      final int signMask = 1 << (bitCount - 1);
-      final int shift = chunk * bitCount;
-      final long w = v >> shift;
-      long x = w & mask;
-      if (signed && (x & signMask) != 0) {
-        x = -x;
-      }
+      final long x = getValue((long[]) dataSet, ordinal);
       switch (primitive) {
       case BOOLEAN:
         return x != 0;
@@ -736,7 +894,11 @@ public static class BitSlicedPrimitiveArray implements Representation {
     }
 
     @Override public int getInt(Object dataSet, int ordinal) {
-      final long[] longs = (long[]) dataSet;
+      return (int) getValue((long[]) dataSet, ordinal);
+    }
+
+    /** Returns the value at a given ordinal, widened to {@code long}. */
+    private long getValue(long[] longs, int ordinal) {
       final int chunksPerWord = 64 / bitCount;
       final int word = ordinal / chunksPerWord;
       final long v = longs[word];
@@ -749,7 +911,7 @@ public static class BitSlicedPrimitiveArray implements Representation {
       if (signed && (x & signMask) != 0) {
         x = -x;
       }
-      return (int) x;
+      return x;
     }
 
     public static long getLong(int bitCount, long[] values, int ordinal) {
@@ -791,11 +953,286 @@ public static void orLong(
       return longs.length * chunksPerWord; // may be slightly too high
     }
 
+    @Override public Primitive vectorPrimitive() {
+      return primitive;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      final long[] longs = (long[]) dataSet;
+      for (int i = 0; i < count; i++) {
+        batch.setLong(column, i, getValue(longs, start + i));
+      }
+    }
+
     @Override public String toString(Object dataSet) {
       return Column.asList(this, dataSet).toString();
     }
   }
 
+  /** Representation that stores the values of a column of primitive values
+   * outside the Java heap, in a {@link DirectVector}.
+   *
+   * <p>If the column has no null values, {@link #copyTo} copies values
+   * directly into a primitive vector, without creating objects. */
+  public static class DirectPrimitiveArray implements Representation {
+    final int ordinal;
+    private final Primitive primitive;
+    private final Primitive p;
+    private final boolean nullable;
+
+    DirectPrimitiveArray(int ordinal, Primitive primitive, Primitive p,
+        boolean nullable) {
+      this.ordinal = ordinal;
+      this.primitive = primitive;
+      this.p = p;
+      this.nullable = nullable;
+    }
+
+    @Override public String toString() {
+      return "DirectPrimitiveArray(ordinal=" + ordinal
+          + ", primitive=" + primitive
+          + ", p=" + p
+          + ", nullable=" + nullable
+          + ")";
+    }
+
+    @Override public RepresentationType getType() {
+      return RepresentationType.DIRECT_PRIMITIVE_ARRAY;
+    }
+
+    @Override public Object freeze(ColumnLoader.ValueSet valueSet,
+        int @Nullable [] sources) {
+      final List<@Nullable Comparable> values =
+          permuteList(valueSet.values, sources);
+      final DirectVector vector =
+          new DirectVector(primitive, values.size(), nullable);
+      for (int i = 0; i < values.size(); i++) {
+        vector.set(i, values.get(i));
+      }
+      return vector;
+    }
+
+    @Override public Object permute(Object dataSet, int[] sources) {
+      return ((DirectVector) dataSet).permute(sources);
+    }
+
+    @Override public @Nullable Object getObject(Object dataSet, int ordinal) {
+      final DirectVector vector = (DirectVector) dataSet;
+      if (vector.isNull(ordinal)) {
+        return null;
+      }
+      switch (p) {
+      case BOOLEAN:
+        return vector.getLong(ordinal) != 0;
+      case BYTE:
+        return (byte) vector.getLong(ordinal);
+      case CHAR:
+        return (char) vector.getLong(ordinal);
+      case SHORT:
+        return (short) vector.getLong(ordinal);
+      case INT:
+        return (int) vector.getLong(ordinal);
+      case LONG:
+        return vector.getLong(ordinal);
+      case FLOAT:
+        return (float) vector.getDouble(ordinal);
+      case DOUBLE:
+        return vector.getDouble(ordinal);
+      default:
+        throw new AssertionError(p + " unexpected");
+      }
+    }
+
+    @Override public int getInt(Object dataSet, int ordinal) {
+      final DirectVector vector = (DirectVector) dataSet;
+      return primitive == Primitive.FLOAT || primitive == Primitive.DOUBLE
+          ? (int) vector.getDouble(ordinal)
+          : (int) vector.getLong(ordinal);
+    }
+
+    @Override public int size(Object dataSet) {
+      return ((DirectVector) dataSet).size();
+    }
+
+    @Override public @Nullable Primitive vectorPrimitive() {
+      return nullable ? null : p;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      final DirectVector vector = (DirectVector) dataSet;
+      if (nullable) {
+        final @Nullable Object[] objects =
+            (@Nullable Object[]) batch.vector(column);
+        for (int i = 0; i < count; i++) {
+          objects[i] = getObject(vector, start + i);
+        }
+      } else if (primitive == p) {
+        vector.copyTo(start, count, batch.vector(column));
+      } else {
+        // Values are stored in a narrower type than they are returned in.
+        for (int i = 0; i < count; i++) {
+          batch.setLong(column, i, vector.getLong(start + i));
+        }
+      }
+    }
+
+    @Override public String toString(Object dataSet) {
+      return Column.asList(this, dataSet).toString();
+    }
+  }
+
+  /** Representation that stores the values of a column of strings outside
+   * the Java heap, as a sorted dictionary of UTF-8 strings and a code for
+   * each row.
+   *
+   * <p>Strings are decoded when they are read; {@link #copyTo} decodes a
+   * string only once if consecutive rows have the same value. */
+  public static class DirectStringDictionary implements Representation {
+    final int ordinal;
+    /** Type in which codes are stored. */
+    private final Primitive codePrimitive;
+
+    DirectStringDictionary(int ordinal, Primitive codePrimitive) {
+      this.ordinal = ordinal;
+      this.codePrimitive = codePrimitive;
+    }
+
+    @Override public String toString() {
+      return "DirectStringDictionary(ordinal=" + ordinal
+          + ", codePrimitive=" + codePrimitive
+          + ")";
+    }
+
+    @Override public RepresentationType getType() {
+      return RepresentationType.DIRECT_STRING_DICTIONARY;
+    }
+
+    @Override public Object freeze(ColumnLoader.ValueSet valueSet,
+        int @Nullable [] sources) {
+      final String[] strings = new String[valueSet.map.size()];
+      int k = 0;
+      for (Comparable value : valueSet.map.keySet()) {
+        strings[k++] = (String) value;
+      }
+      Arrays.sort(strings);
+      final byte[][] encoded = new byte[strings.length][];
+      long byteCount = 0;
+      for (int i = 0; i < strings.length; i++) {
+        encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        byteCount += encoded[i].length;
+      }
+      if (byteCount > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("dictionary is too large: "
+            + byteCount + " bytes");
+      }
+      final ByteBuffer bytes = ByteBuffer.allocateDirect((int) byteCount);
+      final DirectVector offsets =
+          new DirectVector(Primitive.INT, strings.length + 1, false);
+      for (int i = 0; i < encoded.length; i++) {
+        offsets.setLong(i, bytes.position());
+        bytes.put(encoded[i]);
+      }
+      offsets.setLong(strings.length, bytes.position());
+
+      final List<@Nullable Comparable> values =
+          permuteList(valueSet.values, sources);
+      final DirectVector codes =
+          new DirectVector(codePrimitive, values.size(),
+              valueSet.containsNull);
+      for (int i = 0; i < values.size(); i++) {
+        final Comparable value = values.get(i);
+        if (value == null) {
+          codes.setNull(i);
+        } else {
+          final int code = Arrays.binarySearch(strings, value);
+          assert code >= 0 : code + ", " + value;
+          codes.setLong(i, code);
+        }
+      }
+      return new Data(codes, bytes, offsets);
+    }
+
+    @Override public Object permute(Object dataSet, int[] sources) {
+      final Data data = (Data) dataSet;
+      return new Data(data.codes.permute(sources), data.bytes, data.offsets);
+    }
+
+    @Override public @Nullable Object getObject(Object dataSet, int ordinal) {
+      final Data data = (Data) dataSet;
+      if (data.codes.isNull(ordinal)) {
+        return null;
+      }
+      return data.decode((int) data.codes.getLong(ordinal));
+    }
+
+    @Override public int getInt(Object dataSet, int ordinal) {
+      throw new UnsupportedOperationException("not numeric");
+    }
+
+    @Override public int size(Object dataSet) {
+      return ((Data) dataSet).codes.size();
+    }
+
+    @Override public @Nullable Primitive vectorPrimitive() {
+      return null;
+    }
+
+    @Override public void copyTo(Object dataSet, int start, int count,
+        ColumnarBatch batch, int column) {
+      final Data data = (Data) dataSet;
+      final @Nullable Object[] vector =
+          (@Nullable Object[]) batch.vector(column);
+      int previousCode = -1;
+      @Nullable String previous = null;
+      for (int i = 0; i < count; i++) {
+        if (data.codes.isNull(start + i)) {
+          vector[i] = null;
+          continue;
+        }
+        final int code = (int) data.codes.getLong(start + i);
+        if (code != previousCode) {
+          previousCode = code;
+          previous = data.decode(code);
+        }
+        vector[i] = previous;
+      }
+    }
+
+    @Override public String toString(Object dataSet) {
+      return Column.asList(this, dataSet).toString();
+    }
+
+    /** Data set of a {@link DirectStringDictionary}. */
+    static class Data {
+      final DirectVector codes;
+      /** UTF-8 bytes of the strings in the dictionary, one after another. */
+      final ByteBuffer bytes;
+      /** Offset in {@link #bytes} of each string, and the offset of the end
+       * of the last string. */
+      final DirectVector offsets;
+
+      Data(DirectVector codes, ByteBuffer bytes, DirectVector offsets) {
+        this.codes = codes;
+        this.bytes = bytes;
+        this.offsets = offsets;
+      }
+
+      /** Returns the string with a given code. */
+      String decode(int code) {
+        final int start = (int) offsets.getLong(code);
+        final byte[] b = new byte[(int) offsets.getLong(code + 1) - start];
+        // Read from a duplicate, so that concurrent readers do not share a
+        // position
+        final ByteBuffer buffer = bytes.duplicate();
+        buffer.position(start);
+        buffer.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+      }
+    }
+  }
+
   private static <E> List<E> permuteList(
       final List<E> list, final int @Nullable [] sources) {
     if (sources == null) {
@@ -846,6 +1283,20 @@ public <T> Enumerator<T> enumerator() {
       return new ArrayEnumerator(size, columns);
     }
 
+    /** Returns an enumerator over the rows of this table, in batches of at
+     * most {@code batchSize} rows. */
+    public Enumerator<ColumnarBatch> batchEnumerator(int batchSize) {
+      return batchEnumerator(0, size, batchSize);
+    }
+
+    /** Returns an enumerator over rows {@code start} (inclusive) to
+     * {@code end} (exclusive) of this table, in batches of at most
+     * {@code batchSize} rows. */
+    public Enumerator<ColumnarBatch> batchEnumerator(int start, int end,
+        int batchSize) {
+      return new BatchEnumerator(start, end, columns, batchSize);
+    }
+
     /** Enumerator over a table with a single column; each element
      * returned is an object. */
     private static class ObjectEnumerator implements Enumerator<@Nullable Object> {
@@ -908,5 +1359,55 @@ private static class ArrayEnumerator implements Enumerator<@Nullable Object[]> {
       @Override public void close() {
       }
     }
+
+    /** Enumerator over a table that returns a batch of rows at a time. The
+     * same batch is re-filled on each call to {@link #moveNext()}. */
+    private static class BatchEnumerator implements Enumerator<ColumnarBatch> {
+      final int first;
+      final int end;
+      final List<Column> columns;
+      final ColumnarBatch batch;
+      int start;
+
+      BatchEnumerator(int first, int end, List<Column> columns,
+          int batchSize) {
+        this.first = first;
+        this.end = end;
+        this.start = first;
+        this.columns = columns;
+        final List<@Nullable Primitive> primitives = new ArrayList<>();
+        for (Column column : columns) {
+          primitives.add(column.representation.vectorPrimitive());
+        }
+        this.batch =
+            ColumnarBatch.create(primitives,
+                Math.max(1, Math.min(batchSize, end - first)));
+      }
+
+      @Override public ColumnarBatch current() {
+        return batch;
+      }
+
+      @Override public boolean moveNext() {
+        if (start >= end) {
+          return false;
+        }
+        final int count = Math.min(batch.capacity(), end - start);
+        for (Ord<Column> column : Ord.zip(columns)) {
+          column.e.representation.copyTo(column.e.dataSet, start, count,
+              batch, column.i);
+        }
+        batch.reset(count);
+        start += count;
+        return true;
+      }
+
+      @Override public void reset() {
+        start = first;
+      }
+
+      @Override public void close() {
+      }
+    }
   }
 }
@@ -19,6 +19,7 @@
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.adapter.jdbc.JdbcSchema;
 import org.apache.calcite.avatica.ColumnMetaData;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.jdbc.CalciteConnection;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.QueryProvider;
@@ -55,6 +56,7 @@ public class CloneSchema extends AbstractSchema {
   // TODO: test Factory
 
   private final SchemaPlus sourceSchema;
+  private final boolean offHeap;
 
   /**
    * Creates a CloneSchema.
@@ -62,8 +64,20 @@ public class CloneSchema extends AbstractSchema {
    * @param sourceSchema JDBC data source
    */
   public CloneSchema(SchemaPlus sourceSchema) {
+    this(sourceSchema, CalciteSystemProperty.CLONE_OFF_HEAP.value());
+  }
+
+  /**
+   * Creates a CloneSchema, specifying where to store the copied tables.
+   *
+   * @param sourceSchema JDBC data source
+   * @param offHeap Whether to store columns of primitive values and strings
+   *                outside the Java heap
+   */
+  public CloneSchema(SchemaPlus sourceSchema, boolean offHeap) {
     super();
     this.sourceSchema = sourceSchema;
+    this.offHeap = offHeap;
   }
 
   @Override protected Map<String, Table> getTableMap() {
@@ -86,7 +100,7 @@ private Table createCloneTable(QueryProvider queryProvider,
     final JavaTypeFactory typeFactory =
         ((CalciteConnection) queryProvider).getTypeFactory();
     return createCloneTable(typeFactory, Schemas.proto(sourceTable),
-        ImmutableList.of(), null, queryable);
+        ImmutableList.of(), null, queryable, offHeap);
   }
 
   @Deprecated // to be removed before 2.0
@@ -101,6 +115,24 @@ public static <T> Table createCloneTable(final JavaTypeFactory typeFactory,
   public static <T> Table createCloneTable(final JavaTypeFactory typeFactory,
       final RelProtoDataType protoRowType, final List<RelCollation> collations,
       final @Nullable List<ColumnMetaData.Rep> repList, final Enumerable<T> source) {
+    return createCloneTable(typeFactory, protoRowType, collations, repList,
+        source, CalciteSystemProperty.CLONE_OFF_HEAP.value());
+  }
+
+  /** Creates a table that holds a copy of the rows of {@code source}.
+   *
+   * @param typeFactory Type factory
+   * @param protoRowType Row type
+   * @param collations Collations of the source, if known
+   * @param repList Physical row types, or null if not known
+   * @param source Source data
+   * @param offHeap Whether to store columns of primitive values and strings
+   *                outside the Java heap
+   */
+  public static <T> Table createCloneTable(final JavaTypeFactory typeFactory,
+      final RelProtoDataType protoRowType, final List<RelCollation> collations,
+      final @Nullable List<ColumnMetaData.Rep> repList, final Enumerable<T> source,
+      final boolean offHeap) {
     final Type elementType;
     if (source instanceof QueryableTable) {
       elementType = ((QueryableTable) source).getElementType();
@@ -119,7 +151,7 @@ public static <T> Table createCloneTable(final JavaTypeFactory typeFactory,
         Suppliers.memoize(() -> {
           final ColumnLoader loader =
               new ColumnLoader<>(typeFactory, source, protoRowType,
-                  repList);
+                  repList, offHeap);
           final List<RelCollation> collation2 =
               collations.isEmpty()
                   && loader.sortField >= 0
@@ -147,21 +179,30 @@ public static <T> Table createCloneTable(final JavaTypeFactory typeFactory,
    *         jdbcDriver: 'com.mysql.jdbc.Driver',
    *         jdbcUrl: 'jdbc:mysql://localhost/foodmart',
    *         jdbcUser: 'foodmart',
-   *         jdbcPassword: 'foodmart'
+   *         jdbcPassword: 'foodmart',
+   *         offHeap: true
    *       }
    *     }
    *   ]
    * }</pre></blockquote>
+   *
+   * <p>The optional {@code offHeap} operand specifies whether to store columns
+   * outside the Java heap; the default is the value of
+   * {@link CalciteSystemProperty#CLONE_OFF_HEAP}.
    */
   public static class Factory implements SchemaFactory {
     @Override public Schema create(
         SchemaPlus parentSchema,
         String name,
         Map<String, Object> operand) {
+      final Object offHeap = operand.get("offHeap");
       SchemaPlus schema =
           parentSchema.add(name,
               JdbcSchema.create(parentSchema, name + "$source", operand));
-      return new CloneSchema(schema);
+      return new CloneSchema(schema,
+          offHeap == null
+              ? CalciteSystemProperty.CLONE_OFF_HEAP.value()
+              : Boolean.parseBoolean(offHeap.toString()));
     }
   }
 }
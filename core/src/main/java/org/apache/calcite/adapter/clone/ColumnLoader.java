@@ -19,6 +19,7 @@
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.tree.Primitive;
@@ -59,20 +60,42 @@
   public final List<T> list = new ArrayList<>();
   public final List<ArrayTable.Column> representationValues = new ArrayList<>();
   private final JavaTypeFactory typeFactory;
+  private final boolean offHeap;
   public final int sortField;
 
   /** Creates a column loader, and performs the load.
+   *
+   * <p>Columns are stored outside the Java heap if
+   * {@link CalciteSystemProperty#CLONE_OFF_HEAP} is set.
    *
    * @param typeFactory Type factory
    * @param sourceTable Source data
    * @param protoRowType Logical row type
    * @param repList Physical row types, or null if not known */
-  @SuppressWarnings("method.invocation.invalid")
   ColumnLoader(JavaTypeFactory typeFactory,
       Enumerable<T> sourceTable,
       RelProtoDataType protoRowType,
       @Nullable List<ColumnMetaData.Rep> repList) {
+    this(typeFactory, sourceTable, protoRowType, repList,
+        CalciteSystemProperty.CLONE_OFF_HEAP.value());
+  }
+
+  /** Creates a column loader, and performs the load.
+   *
+   * @param typeFactory Type factory
+   * @param sourceTable Source data
+   * @param protoRowType Logical row type
+   * @param repList Physical row types, or null if not known
+   * @param offHeap Whether to store columns of primitive values and strings
+   *                outside the Java heap */
+  @SuppressWarnings("method.invocation.invalid")
+  ColumnLoader(JavaTypeFactory typeFactory,
+      Enumerable<T> sourceTable,
+      RelProtoDataType protoRowType,
+      @Nullable List<ColumnMetaData.Rep> repList,
+      boolean offHeap) {
     this.typeFactory = typeFactory;
+    this.offHeap = offHeap;
     final RelDataType rowType = protoRowType.apply(typeFactory);
     if (repList == null) {
       repList =
@@ -192,7 +215,7 @@ private void load(final RelDataType elementType,
       final Class clazz = pair.e instanceof Class
           ? (Class) pair.e
           : Object.class;
-      ValueSet valueSet = new ValueSet(clazz);
+      ValueSet valueSet = new ValueSet(clazz, offHeap);
       for (Object o : list2) {
         valueSet.add((Comparable) o);
       }
@@ -293,6 +316,9 @@ private void load(final RelDataType elementType,
    */
   static class ValueSet {
     final Class clazz;
+    /** Whether to choose a representation that stores values outside the
+     * Java heap, if there is one for the type of the values. */
+    final boolean offHeap;
     final Map<Comparable, Comparable> map = new HashMap<>();
     final List<@Nullable Comparable> values = new ArrayList<>();
     @Nullable Comparable min;
@@ -300,7 +326,12 @@ static class ValueSet {
     boolean containsNull;
 
     ValueSet(Class clazz) {
+      this(clazz, false);
+    }
+
+    ValueSet(Class clazz, boolean offHeap) {
       this.clazz = clazz;
+      this.offHeap = offHeap;
     }
 
     void add(@Nullable Comparable e) {
@@ -335,6 +366,13 @@ ArrayTable.Column freeze(int ordinal, int @Nullable [] sources) {
     }
 
     ArrayTable.Representation chooseRep(int ordinal) {
+      if (offHeap) {
+        final ArrayTable.Representation representation =
+            chooseOffHeapRep(ordinal);
+        if (representation != null) {
+          return representation;
+        }
+      }
       Primitive primitive = Primitive.of(clazz);
       Primitive boxPrimitive = Primitive.ofBox(clazz);
       Primitive p = primitive != null ? primitive : boxPrimitive;
@@ -373,6 +411,69 @@ ArrayTable.Representation chooseRep(int ordinal) {
       return new ArrayTable.ObjectArray(ordinal);
     }
 
+    /** Chooses a representation that stores values outside the Java heap,
+     * or returns null if there is none suitable.
+     *
+     * <p>Columns whose values are all null, or all the same, are left to the
+     * on-heap representations, which store them in very little memory. */
+    private ArrayTable.@Nullable Representation chooseOffHeapRep(
+        int ordinal) {
+      if (map.isEmpty() || map.size() == 1 && !containsNull) {
+        return null;
+      }
+      if (clazz == String.class) {
+        long charCount = 0;
+        for (Comparable value : map.keySet()) {
+          charCount += ((String) value).length();
+        }
+        // The dictionary is held in one buffer, and a char takes at most 3
+        // bytes in UTF-8.
+        if (charCount * 3 > Integer.MAX_VALUE) {
+          return null;
+        }
+        final int codeCount = map.size();
+        final Primitive codePrimitive =
+            codeCount <= Byte.MAX_VALUE + 1 ? Primitive.BYTE
+                : codeCount <= Short.MAX_VALUE + 1 ? Primitive.SHORT
+                : Primitive.INT;
+        return new ArrayTable.DirectStringDictionary(ordinal, codePrimitive);
+      }
+      final Primitive primitive = Primitive.of(clazz);
+      final Primitive p =
+          primitive != null ? primitive : Primitive.ofBox(clazz);
+      if (p == null) {
+        return null;
+      }
+      switch (p) {
+      case BOOLEAN:
+        return new ArrayTable.DirectPrimitiveArray(ordinal, Primitive.BYTE, p,
+            containsNull);
+      case CHAR:
+      case FLOAT:
+      case DOUBLE:
+        return new ArrayTable.DirectPrimitiveArray(ordinal, p, p,
+            containsNull);
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        // Store values in the narrowest type that holds them all.
+        final long min = toLong(requireNonNull(this.min, "min"));
+        final long max = toLong(requireNonNull(this.max, "max"));
+        final Primitive storage =
+            min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE ? Primitive.BYTE
+                : min >= Short.MIN_VALUE && max <= Short.MAX_VALUE
+                ? Primitive.SHORT
+                : min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE
+                ? Primitive.INT
+                : Primitive.LONG;
+        return new ArrayTable.DirectPrimitiveArray(ordinal, storage, p,
+            containsNull);
+      default:
+        return null;
+      }
+    }
+
     private static long toLong(Object o) {
       // We treat Boolean and Character as if they were subclasses of
       // Number but actually they are not.
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.clone;
+
+import org.apache.calcite.linq4j.tree.Primitive;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Vector of fixed-width primitive values held outside the Java heap.
+ *
+ * <p>Values are stored in direct {@link ByteBuffer}s, each holding up to
+ * {@link #CHUNK_SIZE} values, so that a vector may hold more than 2 GB.
+ * If the vector may contain null values, a bitmap, also in a direct buffer,
+ * has a bit set for each null value.
+ *
+ * <p>A vector is written once, by the thread that loads the table, and may
+ * then be read by several threads at a time; all reads use absolute
+ * positions or a duplicate of the buffer.
+ */
+final class DirectVector {
+  static final int CHUNK_SHIFT = 20;
+  static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  /** Type in which values are stored. {@code boolean} values are stored
+   * as {@code byte}. */
+  final Primitive primitive;
+  private final int width;
+  private final int size;
+  private final ByteBuffer[] chunks;
+  private final @Nullable ByteBuffer nulls;
+
+  /** Creates a DirectVector whose values are all zero.
+   *
+   * @param primitive Type in which values are stored
+   * @param size Number of values
+   * @param nullable Whether the vector may contain null values
+   */
+  DirectVector(Primitive primitive, int size, boolean nullable) {
+    this.primitive = primitive;
+    this.width = width(primitive);
+    this.size = size;
+    this.chunks = new ByteBuffer[(size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT];
+    for (int i = 0; i < chunks.length; i++) {
+      final int n = Math.min(CHUNK_SIZE, size - (i << CHUNK_SHIFT));
+      chunks[i] = allocate(n * width);
+    }
+    this.nulls = nullable ? allocate((size + 7) >>> 3) : null;
+  }
+
+  private static ByteBuffer allocate(int capacity) {
+    // Direct buffers are zeroed on allocation
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+  }
+
+  /** Returns the number of bytes used to store a value of a given type. */
+  static int width(Primitive primitive) {
+    switch (primitive) {
+    case BOOLEAN:
+    case BYTE:
+      return 1;
+    case CHAR:
+    case SHORT:
+      return 2;
+    case INT:
+    case FLOAT:
+      return 4;
+    case LONG:
+    case DOUBLE:
+      return 8;
+    default:
+      throw new AssertionError("not a fixed-width primitive: " + primitive);
+    }
+  }
+
+  /** Returns the number of values. */
+  int size() {
+    return size;
+  }
+
+  /** Returns the number of bytes of direct memory used by this vector. */
+  long byteCount() {
+    return (long) size * width + (nulls == null ? 0 : nulls.capacity());
+  }
+
+  boolean isNull(int i) {
+    return nulls != null
+        && (nulls.get(i >>> 3) & (1 << (i & 7))) != 0;
+  }
+
+  void setNull(int i) {
+    final ByteBuffer nulls = this.nulls;
+    if (nulls == null) {
+      throw new IllegalStateException("vector is not nullable");
+    }
+    nulls.put(i >>> 3, (byte) (nulls.get(i >>> 3) | (1 << (i & 7))));
+  }
+
+  /** Returns a fixed-point value, widened to {@code long}. */
+  long getLong(int i) {
+    final ByteBuffer chunk = chunks[i >>> CHUNK_SHIFT];
+    final int offset = (i & CHUNK_MASK) * width;
+    switch (primitive) {
+    case BOOLEAN:
+    case BYTE:
+      return chunk.get(offset);
+    case CHAR:
+      return chunk.getChar(offset);
+    case SHORT:
+      return chunk.getShort(offset);
+    case INT:
+      return chunk.getInt(offset);
+    case LONG:
+      return chunk.getLong(offset);
+    default:
+      throw new AssertionError("not fixed-point: " + primitive);
+    }
+  }
+
+  /** Returns a floating-point value, widened to {@code double}. */
+  double getDouble(int i) {
+    final ByteBuffer chunk = chunks[i >>> CHUNK_SHIFT];
+    final int offset = (i & CHUNK_MASK) * width;
+    switch (primitive) {
+    case FLOAT:
+      return chunk.getFloat(offset);
+    case DOUBLE:
+      return chunk.getDouble(offset);
+    default:
+      return getLong(i);
+    }
+  }
+
+  /** Sets a fixed-point value, narrowing it to the type of this vector. */
+  void setLong(int i, long value) {
+    final ByteBuffer chunk = chunks[i >>> CHUNK_SHIFT];
+    final int offset = (i & CHUNK_MASK) * width;
+    switch (primitive) {
+    case BOOLEAN:
+    case BYTE:
+      chunk.put(offset, (byte) value);
+      break;
+    case CHAR:
+      chunk.putChar(offset, (char) value);
+      break;
+    case SHORT:
+      chunk.putShort(offset, (short) value);
+      break;
+    case INT:
+      chunk.putInt(offset, (int) value);
+      break;
+    case LONG:
+      chunk.putLong(offset, value);
+      break;
+    case FLOAT:
+    case DOUBLE:
+      setDouble(i, value);
+      break;
+    default:
+      throw new AssertionError("unexpected " + primitive);
+    }
+  }
+
+  /** Sets a floating-point value. */
+  void setDouble(int i, double value) {
+    final ByteBuffer chunk = chunks[i >>> CHUNK_SHIFT];
+    final int offset = (i & CHUNK_MASK) * width;
+    switch (primitive) {
+    case FLOAT:
+      chunk.putFloat(offset, (float) value);
+      break;
+    case DOUBLE:
+      chunk.putDouble(offset, value);
+      break;
+    default:
+      throw new AssertionError("not floating-point: " + primitive);
+    }
+  }
+
+  /** Sets a value from an object, which may be null, a {@link Number},
+   * a {@link Boolean} or a {@link Character}. */
+  void set(int i, @Nullable Object value) {
+    if (value == null) {
+      setNull(i);
+    } else if (value instanceof Boolean) {
+      setLong(i, (Boolean) value ? 1L : 0L);
+    } else if (value instanceof Character) {
+      setLong(i, (Character) value);
+    } else if (value instanceof Float || value instanceof Double) {
+      setDouble(i, ((Number) value).doubleValue());
+    } else {
+      setLong(i, ((Number) value).longValue());
+    }
+  }
+
+  /** Creates a vector that contains the same values as this one, with value
+   * {@code i} taken from value {@code sources[i]} of this vector. */
+  DirectVector permute(int[] sources) {
+    final DirectVector v = new DirectVector(primitive, size, nulls != null);
+    for (int i = 0; i < sources.length; i++) {
+      final int source = sources[i];
+      if (isNull(source)) {
+        v.setNull(i);
+      } else if (primitive == Primitive.FLOAT
+          || primitive == Primitive.DOUBLE) {
+        v.setDouble(i, getDouble(source));
+      } else {
+        v.setLong(i, getLong(source));
+      }
+    }
+    return v;
+  }
+
+  /** Copies {@code count} values, starting at {@code start}, into an array
+   * whose component type is the type in which values are stored. Null values
+   * are copied as zero. */
+  void copyTo(int start, int count, Object array) {
+    int done = 0;
+    while (done < count) {
+      final int i = start + done;
+      final int offset = i & CHUNK_MASK;
+      final int n = Math.min(count - done, CHUNK_SIZE - offset);
+      // A duplicate has its own position, and big-endian byte order
+      final ByteBuffer buffer =
+          chunks[i >>> CHUNK_SHIFT].duplicate().order(ByteOrder.nativeOrder());
+      buffer.position(offset * width);
+      switch (primitive) {
+      case BYTE:
+        buffer.get((byte[]) array, done, n);
+        break;
+      case CHAR:
+        buffer.asCharBuffer().get((char[]) array, done, n);
+        break;
+      case SHORT:
+        buffer.asShortBuffer().get((short[]) array, done, n);
+        break;
+      case INT:
+        buffer.asIntBuffer().get((int[]) array, done, n);
+        break;
+      case LONG:
+        buffer.asLongBuffer().get((long[]) array, done, n);
+        break;
+      case FLOAT:
+        buffer.asFloatBuffer().get((float[]) array, done, n);
+        break;
+      case DOUBLE:
+        buffer.asDoubleBuffer().get((double[]) array, done, n);
+        break;
+      default:
+        throw new AssertionError("cannot copy " + primitive);
+      }
+      done += n;
+    }
+  }
+
+  @Override public String toString() {
+    return "DirectVector(primitive=" + primitive + ", size=" + size
+        + ", nullable=" + (nulls != null) + ")";
+  }
+}
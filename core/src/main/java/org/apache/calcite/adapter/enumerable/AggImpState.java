@@ -48,6 +48,14 @@ public AggImpState(int aggIdx, AggregateCall call, boolean windowContext) {
     this.implementor = implementor;
   }
 
+  /** Creates an AggImpState with a given implementor. */
+  public AggImpState(int aggIdx, AggregateCall call,
+      AggImplementor implementor) {
+    this.aggIdx = aggIdx;
+    this.call = call;
+    this.implementor = implementor;
+  }
+
   @Override public String toString() {
     return "AggImpState{aggIdx=" + aggIdx + ", call=" + call
         + ", implementor=" + implementor + "}";
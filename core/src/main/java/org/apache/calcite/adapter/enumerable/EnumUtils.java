@@ -18,6 +18,7 @@
 
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.config.CalciteConnectionConfig;
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
@@ -42,11 +43,13 @@
 import org.apache.calcite.linq4j.tree.UnaryExpression;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexProgramBuilder;
+import org.apache.calcite.runtime.ParallelEnumerables;
 import org.apache.calcite.runtime.SortedMultiMap;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.runtime.Utilities;
@@ -1201,4 +1204,57 @@ public static Function<Object, Object> toExternal(RelDataType type,
       return Arrays.asList(objects.clone());
     };
   }
+
+  /** Returns the number of bytes that a memory-intensive operator may use
+   * before it spills to disk, or a non-positive number if it should never
+   * spill.
+   *
+   * <p>The value comes from the {@link CalciteConnectionConfig} in the
+   * planner's context, if there is one.
+   *
+   * @see org.apache.calcite.config.CalciteConnectionProperty#MEMORY_BUDGET */
+  static long memoryBudget(RelNode rel) {
+    return rel.getCluster().getPlanner().getContext()
+        .maybeUnwrap(CalciteConnectionConfig.class)
+        .map(CalciteConnectionConfig::memoryBudget)
+        .orElse(-1L);
+  }
+
+  /** Returns the maximum number of threads that an operator may use, or 1
+   * if it should run in the calling thread.
+   *
+   * <p>The value comes from the {@link CalciteConnectionConfig} in the
+   * planner's context, if there is one.
+   *
+   * @see org.apache.calcite.config.CalciteConnectionProperty#PARALLELISM */
+  public static int parallelism(RelNode rel) {
+    return rel.getCluster().getPlanner().getContext()
+        .maybeUnwrap(CalciteConnectionConfig.class)
+        .map(CalciteConnectionConfig::parallelism)
+        .orElse(1);
+  }
+
+  /** Returns the number of threads that an operator should use to process
+   * its input, or 1 if it should run in the calling thread.
+   *
+   * <p>The value is the {@link CalciteConnectionConfig#parallelism()} of the
+   * planner's context, reduced so that each thread is expected to process at
+   * least {@link ParallelEnumerables#MIN_ROWS_PER_WORKER} rows of
+   * {@code input}.
+   *
+   * @see org.apache.calcite.config.CalciteConnectionProperty#PARALLELISM */
+  static int parallelism(RelNode rel, RelNode input) {
+    final int parallelism = parallelism(rel);
+    if (parallelism <= 1) {
+      return 1;
+    }
+    final RelMetadataQuery mq = rel.getCluster().getMetadataQuery();
+    final Double rowCount = mq.getRowCount(input);
+    if (rowCount == null) {
+      return parallelism;
+    }
+    final double workers =
+        Math.ceil(rowCount / ParallelEnumerables.MIN_ROWS_PER_WORKER);
+    return (int) Math.max(1, Math.min(parallelism, workers));
+  }
 }
@@ -33,6 +33,7 @@
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Util;
 
 import com.google.common.collect.ImmutableList;
 
@@ -346,6 +347,48 @@ public EnumerableAggregate(RelOptCluster cluster, RelTraitSet traitSet,
                   resultBlock.toBlock(),
                   requireNonNull(key_, "key_"),
                   acc_));
+      final long memoryBudget = EnumUtils.memoryBudget(this);
+      if (memoryBudget > 0) {
+        builder.add(
+            Expressions.return_(null,
+                Expressions.call(
+                    BuiltInMethod.SPILLING_GROUP_BY.method,
+                    Expressions.list(childExp,
+                        keySelector_,
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
+                            resultSelector_),
+                        Util.first(keyPhysType.comparer(),
+                            Expressions.constant(null)),
+                        Expressions.constant(memoryBudget),
+                        Expressions.constant(
+                            getRelTypeName() + "#" + getId())))));
+        return implementor.result(physType, builder.toBlock());
+      }
+      final int parallelism = EnumUtils.parallelism(this, getInput());
+      if (parallelism > 1) {
+        builder.add(
+            Expressions.return_(null,
+                Expressions.call(
+                    BuiltInMethod.PARALLEL_GROUP_BY.method,
+                    Expressions.list(childExp,
+                        keySelector_,
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
+                            resultSelector_),
+                        Util.first(keyPhysType.comparer(),
+                            Expressions.constant(null)),
+                        Expressions.constant(parallelism)))));
+        return implementor.result(physType, builder.toBlock());
+      }
       builder.add(
           Expressions.return_(null,
               Expressions.call(childExp,
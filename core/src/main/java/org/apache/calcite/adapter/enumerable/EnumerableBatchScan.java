@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.tree.Blocks;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollationTraitDef;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.runtime.BatchPredicate;
+import org.apache.calcite.schema.BatchScannableTable;
+import org.apache.calcite.schema.Table;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.BuiltInMethod;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/** Scan of a {@link BatchScannableTable} in
+ * {@link EnumerableConvention enumerable calling convention}
+ * that reads the table a batch at a time.
+ *
+ * <p>The scan evaluates its filters on the column vectors of each batch, and
+ * creates a row only for the rows that match every filter. Each filter is a
+ * comparison between a fixed-point or double column and a literal, or a test
+ * whether a column is null; see {@link #canEvaluate(RexNode)}.
+ *
+ * @see EnumerableBatchScanRule */
+public class EnumerableBatchScan extends TableScan implements EnumerableRel {
+  /** Types whose values are held as {@code double}. */
+  private static final ImmutableList<SqlTypeName> DOUBLE_TYPES =
+      ImmutableList.of(SqlTypeName.FLOAT, SqlTypeName.DOUBLE);
+
+  public final ImmutableList<RexNode> filters;
+
+  /** Creates an EnumerableBatchScan.
+   *
+   * <p>Use {@link #create} unless you know what you are doing. */
+  public EnumerableBatchScan(RelOptCluster cluster, RelTraitSet traitSet,
+      RelOptTable table, List<RexNode> filters) {
+    super(cluster, traitSet, ImmutableList.of(), table);
+    assert getConvention() instanceof EnumerableConvention;
+    this.filters = ImmutableList.copyOf(filters);
+    Preconditions.checkArgument(canHandle(table),
+        "not a BatchScannableTable: %s", table);
+    for (RexNode filter : this.filters) {
+      Preconditions.checkArgument(canEvaluate(filter),
+          "cannot evaluate on column vectors: %s", filter);
+    }
+  }
+
+  /** Creates an EnumerableBatchScan. */
+  public static EnumerableBatchScan create(RelOptCluster cluster,
+      RelOptTable relOptTable, List<RexNode> filters) {
+    final Table table = relOptTable.unwrap(Table.class);
+    final RelTraitSet traitSet =
+        cluster.traitSetOf(EnumerableConvention.INSTANCE)
+            .replaceIfs(RelCollationTraitDef.INSTANCE, () -> {
+              if (table != null) {
+                return table.getStatistic().getCollations();
+              }
+              return ImmutableList.of();
+            });
+    return new EnumerableBatchScan(cluster, traitSet, relOptTable, filters);
+  }
+
+  /** Returns whether a table can be read by an EnumerableBatchScan. */
+  public static boolean canHandle(RelOptTable table) {
+    return table.maybeUnwrap(BatchScannableTable.class).isPresent();
+  }
+
+  /** Returns whether an EnumerableBatchScan can evaluate a condition on column
+   * vectors. */
+  public static boolean canEvaluate(RexNode condition) {
+    return toPredicate(condition) != null;
+  }
+
+  @Override public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
+    assert inputs.isEmpty();
+    return new EnumerableBatchScan(getCluster(), traitSet, table, filters);
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        .itemIf("filters", filters, !filters.isEmpty());
+  }
+
+  @Override public double estimateRowCount(RelMetadataQuery mq) {
+    return table.getRowCount()
+        * RelMdUtil.estimateSelectivity(this,
+            RexUtil.composeConjunction(getCluster().getRexBuilder(),
+                filters));
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    final RelOptCost cost = super.computeSelfCost(planner, mq);
+    if (cost == null) {
+      return null;
+    }
+    // Evaluating a filter on column vectors is cheaper than creating a row
+    // for each value of the table and then applying a filter to it.
+    return cost.multiplyBy(0.5d);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    final PhysType physType =
+        PhysTypeImpl.of(implementor.getTypeFactory(), getRowType(),
+            getRowType().getFieldCount() == 1
+                ? JavaRowFormat.SCALAR
+                : JavaRowFormat.ARRAY);
+    final List<Expression> names = new ArrayList<>();
+    for (String name : table.getQualifiedName()) {
+      names.add(Expressions.constant(name));
+    }
+    final List<BatchPredicate> predicates = new ArrayList<>();
+    for (RexNode filter : filters) {
+      predicates.add(requireNonNull(toPredicate(filter), "predicate"));
+    }
+    Expression expression =
+        Expressions.call(BuiltInMethod.SCHEMAS_ENUMERABLE_BATCH_SCANNABLE.method,
+            Expressions.convert_(
+                Expressions.call(BuiltInMethod.SCHEMAS_TABLE.method,
+                    DataContext.ROOT,
+                    Expressions.newArrayInit(String.class, names)),
+                BatchScannableTable.class),
+            DataContext.ROOT,
+            implementor.stash(ImmutableList.copyOf(predicates), List.class));
+    if (physType.getFormat() == JavaRowFormat.SCALAR) {
+      expression = Expressions.call(BuiltInMethod.SLICE0.method, expression);
+    }
+    return implementor.result(physType, Blocks.toBlock(expression));
+  }
+
+  /** Converts a condition into a predicate on a column vector, or returns
+   * null if it cannot be evaluated that way. */
+  private static @Nullable BatchPredicate toPredicate(RexNode condition) {
+    switch (condition.getKind()) {
+    case IS_NULL:
+    case IS_NOT_NULL:
+      final RexNode operand = ((RexCall) condition).operands.get(0);
+      if (!(operand instanceof RexInputRef)) {
+        return null;
+      }
+      return BatchPredicate.isNull(((RexInputRef) operand).getIndex(),
+          condition.getKind() == SqlKind.IS_NOT_NULL);
+
+    case EQUALS:
+    case NOT_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL:
+      final RexCall call = (RexCall) condition;
+      RexNode op0 = call.operands.get(0);
+      RexNode op1 = call.operands.get(1);
+      SqlKind kind = call.getKind();
+      if (op0 instanceof RexLiteral) {
+        op0 = call.operands.get(1);
+        op1 = call.operands.get(0);
+        kind = kind.reverse();
+      }
+      final int column = column(op0);
+      if (column < 0
+          || !(op1 instanceof RexLiteral)
+          || ((RexLiteral) op1).isNull()) {
+        return null;
+      }
+      final RexLiteral literal = (RexLiteral) op1;
+      final SqlTypeName typeName = op0.getType().getSqlTypeName();
+      final SqlTypeName literalTypeName = literal.getType().getSqlTypeName();
+      if (SqlTypeName.INT_TYPES.contains(typeName)
+          && SqlTypeName.INT_TYPES.contains(literalTypeName)) {
+        return BatchPredicate.compare(column, op(kind),
+            requireNonNull(literal.getValueAs(Long.class), "value"));
+      }
+      // REAL is not included: a REAL column holds float values, and the
+      // literal is not rounded to float as it would be in generated code.
+      if (DOUBLE_TYPES.contains(typeName)
+          && DOUBLE_TYPES.contains(literalTypeName)) {
+        return BatchPredicate.compare(column, op(kind),
+            requireNonNull(literal.getValueAs(Double.class), "value"));
+      }
+      return null;
+
+    default:
+      return null;
+    }
+  }
+
+  /** Returns the ordinal of the column that an expression reads, if it is a
+   * reference to a field or a cast that widens a fixed-point field, or -1. */
+  private static int column(RexNode e) {
+    if (e instanceof RexInputRef) {
+      return ((RexInputRef) e).getIndex();
+    }
+    if (e.getKind() == SqlKind.CAST) {
+      final RexNode operand = ((RexCall) e).operands.get(0);
+      final int from =
+          SqlTypeName.INT_TYPES.indexOf(operand.getType().getSqlTypeName());
+      final int to =
+          SqlTypeName.INT_TYPES.indexOf(e.getType().getSqlTypeName());
+      if (operand instanceof RexInputRef && from >= 0 && from <= to) {
+        return ((RexInputRef) operand).getIndex();
+      }
+    }
+    return -1;
+  }
+
+  private static BatchPredicate.Op op(SqlKind kind) {
+    switch (kind) {
+    case EQUALS:
+      return BatchPredicate.Op.EQUALS;
+    case NOT_EQUALS:
+      return BatchPredicate.Op.NOT_EQUALS;
+    case LESS_THAN:
+      return BatchPredicate.Op.LESS_THAN;
+    case LESS_THAN_OR_EQUAL:
+      return BatchPredicate.Op.LESS_THAN_OR_EQUAL;
+    case GREATER_THAN:
+      return BatchPredicate.Op.GREATER_THAN;
+    case GREATER_THAN_OR_EQUAL:
+      return BatchPredicate.Op.GREATER_THAN_OR_EQUAL;
+    default:
+      throw new AssertionError(kind);
+    }
+  }
+}
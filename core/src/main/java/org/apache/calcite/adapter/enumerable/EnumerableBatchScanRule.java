@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalTableScan;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.BatchScannableTable;
+
+import org.immutables.value.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Rule to convert a {@link LogicalFilter} on a {@link LogicalTableScan} of a
+ * {@link BatchScannableTable} into an {@link EnumerableBatchScan}.
+ *
+ * <p>The conditions that the scan can evaluate on column vectors become its
+ * filters; the rule does not fire if there are none. The other conditions
+ * remain in a filter on top of the scan.
+ *
+ * @see EnumerableRules#ENUMERABLE_BATCH_SCAN_RULE
+ */
+@Value.Enclosing
+public class EnumerableBatchScanRule
+    extends RelRule<EnumerableBatchScanRule.Config> {
+  /** Creates an EnumerableBatchScanRule. */
+  protected EnumerableBatchScanRule(Config config) {
+    super(config);
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final Filter filter = call.rel(0);
+    final TableScan scan = call.rel(1);
+    final List<RexNode> filters = new ArrayList<>();
+    final List<RexNode> remaining = new ArrayList<>();
+    for (RexNode condition : RelOptUtil.conjunctions(filter.getCondition())) {
+      if (EnumerableBatchScan.canEvaluate(condition)) {
+        filters.add(condition);
+      } else {
+        remaining.add(condition);
+      }
+    }
+    if (filters.isEmpty()) {
+      return;
+    }
+    call.transformTo(
+        call.builder()
+            .push(
+                EnumerableBatchScan.create(scan.getCluster(), scan.getTable(),
+                    filters))
+            .filter(remaining)
+            .build());
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableEnumerableBatchScanRule.Config.of()
+        .withOperandSupplier(b0 ->
+            b0.operand(LogicalFilter.class).oneInput(b1 ->
+                b1.operand(LogicalTableScan.class)
+                    .predicate(scan ->
+                        EnumerableBatchScan.canHandle(scan.getTable()))
+                    .noInputs()));
+
+    @Override default EnumerableBatchScanRule toRule() {
+      return new EnumerableBatchScanRule(this);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelDistribution;
+import org.apache.calcite.rel.RelDistributionTraitDef;
+import org.apache.calcite.rel.RelDistributions;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Exchange;
+import org.apache.calcite.util.BuiltInMethod;
+
+/** Implementation of {@link org.apache.calcite.rel.core.Exchange} in
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableConvention enumerable calling convention}.
+ *
+ * <p>Within a single process there is a single consumer, which receives all
+ * rows of the input, so the distribution of the exchange is always
+ * {@link RelDistributions#SINGLETON}, whatever distribution was requested.
+ * The exchange runs its input on a worker thread of
+ * {@link org.apache.calcite.runtime.ParallelEnumerables#pool()}, so that the
+ * input and the operators above the exchange run concurrently. */
+public class EnumerableExchange extends Exchange implements EnumerableRel {
+  /**
+   * Creates an EnumerableExchange.
+   *
+   * <p>Use {@link #create} unless you know what you're doing.
+   */
+  public EnumerableExchange(RelOptCluster cluster, RelTraitSet traitSet,
+      RelNode input, RelDistribution distribution) {
+    super(cluster, traitSet, input, distribution);
+    assert getConvention() instanceof EnumerableConvention;
+  }
+
+  /** Creates an EnumerableExchange. */
+  public static EnumerableExchange create(RelNode input) {
+    final RelOptCluster cluster = input.getCluster();
+    final RelDistribution distribution =
+        RelDistributionTraitDef.INSTANCE.canonize(RelDistributions.SINGLETON);
+    final RelTraitSet traitSet =
+        input.getTraitSet().replace(EnumerableConvention.INSTANCE)
+            .replace(distribution);
+    return new EnumerableExchange(cluster, traitSet, input, distribution);
+  }
+
+  @Override public Exchange copy(RelTraitSet traitSet, RelNode newInput,
+      RelDistribution newDistribution) {
+    return new EnumerableExchange(getCluster(), traitSet, newInput,
+        newDistribution);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    final BlockBuilder builder = new BlockBuilder();
+    final EnumerableRel child = (EnumerableRel) getInput();
+    final Result result = implementor.visitChild(this, 0, child, pref);
+    final Expression childExp = builder.append("child", result.block);
+    builder.add(
+        Expressions.return_(null,
+            Expressions.call(BuiltInMethod.PARALLEL_GATHER.method,
+                childExp)));
+    return implementor.result(result.physType, builder.toBlock());
+  }
+}
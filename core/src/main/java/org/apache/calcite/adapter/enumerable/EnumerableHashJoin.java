@@ -16,9 +16,12 @@
  */
 package org.apache.calcite.adapter.enumerable;
 
+import org.apache.calcite.linq4j.function.LongFunction1;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.ParameterExpression;
+import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.plan.DeriveMode;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptCost;
@@ -48,6 +51,8 @@
 import java.util.List;
 import java.util.Set;
 
+import static java.util.Objects.requireNonNull;
+
 /** Implementation of {@link org.apache.calcite.rel.core.Join} in
  * {@link org.apache.calcite.adapter.enumerable.EnumerableConvention enumerable calling convention}. */
 public class EnumerableHashJoin extends Join implements EnumerableRel {
@@ -256,6 +261,77 @@ private Result implementHashJoin(EnumerableRelImplementor implementor, Prefer pr
                 rightResult.physType, nonEquiCondition);
       }
     }
+    final long memoryBudget = EnumUtils.memoryBudget(this);
+    if (memoryBudget > 0) {
+      return implementor.result(
+          physType,
+          builder.append(
+              Expressions.call(
+                  BuiltInMethod.SPILLING_HASH_JOIN.method,
+                  Expressions.list(
+                      leftExpression,
+                      rightExpression,
+                      leftResult.physType.generateAccessor(joinInfo.leftKeys),
+                      rightResult.physType.generateAccessor(joinInfo.rightKeys),
+                      EnumUtils.joinSelector(joinType,
+                          physType,
+                          ImmutableList.of(
+                              leftResult.physType, rightResult.physType)),
+                      Util.first(keyPhysType.comparer(),
+                          Expressions.constant(null)),
+                      Expressions.constant(joinType.generatesNullsOnLeft()),
+                      Expressions.constant(joinType.generatesNullsOnRight()),
+                      predicate,
+                      Expressions.constant(memoryBudget),
+                      Expressions.constant(getRelTypeName() + "#" + getId()))))
+              .toBlock());
+    }
+    final int parallelism = EnumUtils.parallelism(this, left);
+    if (parallelism > 1 && !joinType.generatesNullsOnLeft()) {
+      return implementor.result(
+          physType,
+          builder.append(
+              Expressions.call(
+                  BuiltInMethod.PARALLEL_HASH_JOIN.method,
+                  Expressions.list(
+                      leftExpression,
+                      rightExpression,
+                      leftResult.physType.generateAccessor(joinInfo.leftKeys),
+                      rightResult.physType.generateAccessor(joinInfo.rightKeys),
+                      EnumUtils.joinSelector(joinType,
+                          physType,
+                          ImmutableList.of(
+                              leftResult.physType, rightResult.physType)),
+                      Util.first(keyPhysType.comparer(),
+                          Expressions.constant(null)),
+                      Expressions.constant(joinType.generatesNullsOnLeft()),
+                      Expressions.constant(joinType.generatesNullsOnRight()),
+                      predicate,
+                      Expressions.constant(parallelism))))
+              .toBlock());
+    }
+    final @Nullable Pair<Expression, Expression> longKeySelectors =
+        longKeySelectors(leftResult.physType, rightResult.physType);
+    if (longKeySelectors != null) {
+      return implementor.result(
+          physType,
+          builder.append(
+              Expressions.call(
+                  BuiltInMethod.HASH_JOIN_LONG.method,
+                  Expressions.list(
+                      leftExpression,
+                      rightExpression,
+                      longKeySelectors.left,
+                      longKeySelectors.right,
+                      EnumUtils.joinSelector(joinType,
+                          physType,
+                          ImmutableList.of(
+                              leftResult.physType, rightResult.physType)),
+                      Expressions.constant(joinType.generatesNullsOnLeft()),
+                      Expressions.constant(joinType.generatesNullsOnRight()),
+                      predicate)))
+              .toBlock());
+    }
     return implementor.result(
         physType,
         builder.append(
@@ -281,4 +357,68 @@ private Result implementHashJoin(EnumerableRelImplementor implementor, Prefer pr
                     .append(predicate)))
             .toBlock());
   }
+
+  /** Returns functions that compute the join key of each left and right row
+   * as a primitive {@code long}, or null if the keys are not suitable.
+   *
+   * <p>Keys are suitable if they are NOT NULL and of a fixed-point primitive
+   * type. A single key is widened to {@code long}; two keys of at most 32 bits
+   * each are packed into one {@code long}. Suitable joins use
+   * {@link org.apache.calcite.linq4j.EnumerableDefaults#hashJoinLong}, which
+   * neither boxes keys nor creates a list per key. */
+  private @Nullable Pair<Expression, Expression> longKeySelectors(
+      PhysType leftPhysType, PhysType rightPhysType) {
+    final int keyCount = joinInfo.leftKeys.size();
+    if (keyCount < 1 || keyCount > 2) {
+      return null;
+    }
+    for (int i = 0; i < keyCount; i++) {
+      if (!isLongKey(leftPhysType, joinInfo.leftKeys.get(i), keyCount)
+          || !isLongKey(rightPhysType, joinInfo.rightKeys.get(i), keyCount)) {
+        return null;
+      }
+    }
+    return Pair.of(longKeySelector(leftPhysType, joinInfo.leftKeys),
+        longKeySelector(rightPhysType, joinInfo.rightKeys));
+  }
+
+  private static boolean isLongKey(PhysType physType, int field,
+      int keyCount) {
+    if (physType.fieldNullable(field)) {
+      return false;
+    }
+    final Primitive primitive = Primitive.of(physType.fieldClass(field));
+    if (primitive == null) {
+      return false;
+    }
+    switch (primitive) {
+    case BYTE:
+    case CHAR:
+    case SHORT:
+    case INT:
+      return true;
+    case LONG:
+      return keyCount == 1;
+    default:
+      return false;
+    }
+  }
+
+  private static Expression longKeySelector(PhysType physType,
+      List<Integer> keys) {
+    final ParameterExpression row_ =
+        Expressions.parameter(physType.getJavaRowType(), "row");
+    @Nullable Expression key = null;
+    for (int field : keys) {
+      final Expression value =
+          EnumUtils.convert(physType.fieldReference(row_, field), long.class);
+      key = key == null
+          ? value
+          : Expressions.or(
+              Expressions.leftShift(key, Expressions.constant(32)),
+              Expressions.and(value, Expressions.constant(0xFFFFFFFFL)));
+    }
+    return Expressions.lambda(LongFunction1.class, requireNonNull(key, "key"),
+        row_);
+  }
 }
@@ -22,6 +22,7 @@
 import org.apache.calcite.interpreter.Compiler;
 import org.apache.calcite.interpreter.InterpretableConvention;
 import org.apache.calcite.interpreter.InterpretableRel;
+import org.apache.calcite.interpreter.Interpreter;
 import org.apache.calcite.interpreter.Node;
 import org.apache.calcite.interpreter.Row;
 import org.apache.calcite.interpreter.Sink;
@@ -40,6 +41,7 @@
 import org.apache.calcite.rel.convert.ConverterImpl;
 import org.apache.calcite.runtime.ArrayBindable;
 import org.apache.calcite.runtime.Bindable;
+import org.apache.calcite.runtime.Enumerables;
 import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.runtime.Typed;
 import org.apache.calcite.util.Util;
@@ -52,13 +54,21 @@
 import org.codehaus.commons.compiler.CompilerFactoryFactory;
 import org.codehaus.commons.compiler.ICompilerFactory;
 import org.codehaus.commons.compiler.ISimpleCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Relational expression that converts an enumerable input to interpretable
@@ -89,6 +99,9 @@ protected EnumerableInterpretable(RelOptCluster cluster, RelNode input) {
     return new EnumerableNode(enumerable, implementor.compiler, this);
   }
 
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(EnumerableInterpretable.class);
+
   /**
    * The cache storing Bindable objects, instantiated via dynamically generated Java classes.
    *
@@ -105,6 +118,28 @@ protected EnumerableInterpretable(RelOptCluster cluster, RelNode input) {
   public static Bindable toBindable(Map<String, Object> parameters,
       CalcitePrepare.@Nullable SparkHandler spark, EnumerableRel rel,
       EnumerableRel.Prefer prefer) {
+    return toBindable(parameters, spark, rel, prefer, false);
+  }
+
+  /** Generates code for an enumerable relational expression, and returns a
+   * Bindable that executes it.
+   *
+   * <p>If {@code compileAsync}, and if the interpreter returns rows in the
+   * same format as the generated code, compiles the code in a background
+   * thread and returns immediately. Until the code has been compiled, the
+   * Bindable executes {@code rel} using the {@link Interpreter}; if the
+   * interpreter cannot execute {@code rel}, it waits for the compiler.
+   *
+   * @param parameters Internal parameters; populated with values to be
+   *                   read by the generated code
+   * @param spark Spark handler, or null
+   * @param rel Relational expression
+   * @param prefer Preferred format of the rows
+   * @param compileAsync Whether to compile in a background thread
+   */
+  public static Bindable toBindable(Map<String, Object> parameters,
+      CalcitePrepare.@Nullable SparkHandler spark, EnumerableRel rel,
+      EnumerableRel.Prefer prefer, boolean compileAsync) {
     EnumerableRelImplementor relImplementor =
         new EnumerableRelImplementor(rel.getCluster().getRexBuilder(),
             parameters);
@@ -121,9 +156,15 @@ public static Bindable toBindable(Map<String, Object> parameters,
     try {
       if (spark != null && spark.enabled()) {
         return spark.compile(expr, s);
-      } else {
-        return getBindable(expr, s, rel.getRowType().getFieldCount());
       }
+      final int fieldCount = rel.getRowType().getFieldCount();
+      if (compileAsync
+          && relImplementor.rootFormat
+              == (fieldCount == 1 ? JavaRowFormat.SCALAR : JavaRowFormat.ARRAY)) {
+        return compileAsync(expr, s, rel, fieldCount,
+            Objects.requireNonNull(relImplementor.rootElementType, "rootElementType"));
+      }
+      return getBindable(expr, s, fieldCount);
     } catch (Exception e) {
       throw Helper.INSTANCE.wrap("Error while compiling generated Java code:\n"
           + s, e);
@@ -168,6 +209,30 @@ static Bindable getBindable(ClassDeclaration expr, String classBody, int fieldCo
     return compileToBindable(expr.name, s, compiler);
   }
 
+  /** Starts compiling a class in the background, and returns a Bindable that
+   * interprets {@code rel} until the class is ready. */
+  private static Bindable compileAsync(ClassDeclaration expr, String classBody,
+      RelNode rel, int fieldCount, Type elementType) {
+    if (CalciteSystemProperty.BINDABLE_CACHE_MAX_SIZE.value() != 0) {
+      final Bindable bindable = BINDABLE_CACHE.getIfPresent(classBody);
+      if (bindable != null) {
+        return bindable;
+      }
+    }
+    final CompletableFuture<Bindable> future =
+        CompletableFuture.supplyAsync(() -> {
+          try {
+            return getBindable(expr, classBody, fieldCount);
+          } catch (Exception e) {
+            throw Helper.INSTANCE.wrap(
+                "Error while compiling generated Java code:\n" + classBody, e);
+          }
+        }, CompilerHolder.EXECUTOR);
+    return fieldCount == 1
+        ? new AsyncBindable<>(future, rel, true, elementType)
+        : new AsyncArrayBindable(future, rel);
+  }
+
   private static Bindable<?> compileToBindable(String className, String s, ISimpleCompiler compiler)
       throws CompileException, ClassNotFoundException, InvocationTargetException,
       InstantiationException, IllegalAccessException {
@@ -190,6 +255,102 @@ static class StaticFieldDetector extends VisitorImpl<Void> {
     }
   }
 
+  /** Holds the executor that compiles code in the background, so that it is
+   * created only when first needed. */
+  private static class CompilerHolder {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    static final ExecutorService EXECUTOR =
+        Executors.newFixedThreadPool(
+            Math.max(1,
+                Math.min(4, Runtime.getRuntime().availableProcessors() / 2)),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable,
+                      "calcite-compiler-" + THREAD_COUNT.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Bindable that executes a relational expression using the interpreter
+   * until the code generated for it has been compiled.
+   *
+   * @param <T> Element type */
+  private static class AsyncBindable<T> implements Bindable<T>, Typed {
+    private final CompletableFuture<Bindable> future;
+    private final RelNode rel;
+    /** Whether the generated code returns scalars rather than arrays. */
+    private final boolean scalar;
+    private final Type elementType;
+    /** Whether the interpreter can execute {@link #rel}; cleared when it
+     * first fails to. */
+    private volatile boolean interpretable = true;
+
+    AsyncBindable(CompletableFuture<Bindable> future, RelNode rel,
+        boolean scalar, Type elementType) {
+      this.future = future;
+      this.rel = rel;
+      this.scalar = scalar;
+      this.elementType = elementType;
+    }
+
+    @Override public Type getElementType() {
+      return elementType;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public Enumerable<T> bind(DataContext dataContext) {
+      if (interpretable && !Hook.USE_COMPILED_CODE.get(future.isDone())) {
+        final Interpreter interpreter;
+        try {
+          interpreter = new Interpreter(dataContext, rel);
+        } catch (RuntimeException | AssertionError e) {
+          // Usually the interpreter has no implementation for one of the
+          // relational expressions, and throws AssertionError; anything else
+          // may be a bug. Either way, wait for the compiler.
+          if (e instanceof AssertionError) {
+            LOGGER.debug("Cannot interpret plan; waiting for compiled code",
+                e);
+          } else {
+            LOGGER.warn("Error while interpreting plan; waiting for compiled "
+                + "code", e);
+          }
+          interpretable = false;
+          return compiled().bind(dataContext);
+        }
+        return scalar
+            ? (Enumerable<T>) Enumerables.slice0(interpreter)
+            : (Enumerable<T>) interpreter;
+      }
+      return compiled().bind(dataContext);
+    }
+
+    /** Waits for the compiler, and returns the compiled Bindable. */
+    @SuppressWarnings("unchecked")
+    private Bindable<T> compiled() {
+      try {
+        return future.join();
+      } catch (CompletionException e) {
+        throw Util.throwAsRuntime(Util.causeOrSelf(e));
+      }
+    }
+  }
+
+  /** Bindable that returns arrays, and executes a relational expression
+   * using the interpreter until the code generated for it has been
+   * compiled. */
+  private static class AsyncArrayBindable
+      extends AsyncBindable<@Nullable Object[]> implements ArrayBindable {
+    AsyncArrayBindable(CompletableFuture<Bindable> future, RelNode rel) {
+      super(future, rel, false, Object[].class);
+    }
+
+    @Override public Class<Object[]> getElementType() {
+      return Object[].class;
+    }
+  }
+
   /** Converts a bindable over scalar values into an array bindable, with each
    * row as an array of 1 element. */
   static ArrayBindable box(final Bindable bindable) {
@@ -27,6 +27,7 @@
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.Util;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -106,6 +107,22 @@ public static EnumerableLimitSort create(
     final Expression offsetVal = this.offset == null ? Expressions.constant(Integer.valueOf(0))
         : getExpression(this.offset);
 
+    final long memoryBudget = EnumUtils.memoryBudget(this);
+    if (memoryBudget > 0) {
+      builder.add(
+          Expressions.return_(null,
+              Expressions.call(BuiltInMethod.SPILLING_ORDER_BY.method,
+                  childExp,
+                  builder.append("keySelector", pair.left),
+                  Util.first(builder.appendIfNotNull("comparator", pair.right),
+                      Expressions.constant(null)),
+                  offsetVal,
+                  fetchVal,
+                  Expressions.constant(memoryBudget),
+                  Expressions.constant(getRelTypeName() + "#" + getId()))));
+      return implementor.result(physType, builder.toBlock());
+    }
+
     builder.add(
         Expressions.return_(
             null, Expressions.call(
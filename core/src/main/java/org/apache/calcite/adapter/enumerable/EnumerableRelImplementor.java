@@ -17,6 +17,7 @@
 package org.apache.calcite.adapter.enumerable;
 
 import org.apache.calcite.DataContext;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.function.Function1;
@@ -44,10 +45,12 @@
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.runtime.Bindable;
+import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.sql.SqlExplainLevel;
 import org.apache.calcite.sql.validate.SqlConformance;
 import org.apache.calcite.sql.validate.SqlConformanceEnum;
 import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.TryThreadLocal;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Equivalence;
@@ -55,6 +58,8 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -78,7 +83,19 @@
  * operators of {@link EnumerableConvention} calling convention.
  */
 public class EnumerableRelImplementor extends JavaRelImplementor {
+  /** Implementor that is generating code in the current thread, if literals
+   * are to be read from the {@link DataContext}; see
+   * {@link #stashLiteral(Object, Type)}. */
+  static final TryThreadLocal<@Nullable EnumerableRelImplementor>
+      THREAD_LITERAL_IMPLEMENTOR = TryThreadLocal.of(null);
+
   public final Map<String, Object> map;
+  /** Format of the rows returned by the class that {@link #implementRoot}
+   * generated, or null if it has not been called. */
+  @Nullable JavaRowFormat rootFormat;
+  /** Element type of the class that {@link #implementRoot} generated, or
+   * null if it has not been called. */
+  @Nullable Type rootElementType;
   private final Map<String, RexToLixTranslator.InputGetter> corrVars =
       new HashMap<>();
   private static final Equivalence<Object> IDENTITY = Equivalence.identity();
@@ -110,7 +127,11 @@ public EnumerableRel.Result visitChild(
   public ClassDeclaration implementRoot(EnumerableRel rootRel,
       EnumerableRel.Prefer prefer) {
     EnumerableRel.Result result;
-    try {
+    final boolean hoistLiterals =
+        Hook.HOIST_LITERALS.get(
+            CalciteSystemProperty.BINDABLE_CACHE_HOIST_LITERALS.value());
+    try (TryThreadLocal.Memo ignored =
+             THREAD_LITERAL_IMPLEMENTOR.push(hoistLiterals ? this : null)) {
       result = rootRel.implement(this, prefer);
     } catch (RuntimeException e) {
       IllegalStateException ex = new IllegalStateException("Unable to implement "
@@ -148,6 +169,8 @@ public ClassDeclaration implementRoot(EnumerableRel rootRel,
       break;
     }
 
+    rootFormat = result.format;
+    rootElementType = result.physType.getJavaRowType();
     final List<MemberDeclaration> memberDeclarations = new ArrayList<>();
     new TypeRegistrar(memberDeclarations).go(result);
 
@@ -456,6 +479,28 @@ public <T> Expression stash(T input, Class<? super T> clazz) {
     return x;
   }
 
+  /**
+   * Stashes the value of a literal for the executor, and returns an
+   * expression of a given type that reads it.
+   *
+   * <p>Unlike {@link #stash}, never returns a constant and does not
+   * de-duplicate values. Therefore queries that differ only in the values of
+   * their literals generate the same code, and can share a compiled class.
+   *
+   * @param value Value of the literal; a number if {@code type} is primitive
+   * @param type Java type of the expression that reads the value
+   * @return Expression that will represent {@code value} in runtime
+   */
+  Expression stashLiteral(Object value, Type type) {
+    final Primitive primitive = Primitive.of(type);
+    final String name = "v" + map.size() + "stashed";
+    final ParameterExpression x =
+        Expressions.variable(Primitive.box(type), name);
+    map.put(name, primitive == null ? value : primitive.number((Number) value));
+    stashedParameters.put(IDENTITY.wrap(x), x);
+    return primitive == null ? x : Expressions.unbox(x, primitive);
+  }
+
   public void registerCorrelVariable(final String name,
       final ParameterExpression pe,
       final BlockBuilder corrBlock, final PhysType physType) {
@@ -86,6 +86,13 @@ private EnumerableRules() {
   public static final EnumerableSortRule ENUMERABLE_SORT_RULE =
       EnumerableSortRule.DEFAULT_CONFIG.toRule(EnumerableSortRule.class);
 
+  /** Rule that converts a
+   * {@link org.apache.calcite.rel.logical.LogicalExchange} to an
+   * {@link EnumerableExchange}. */
+  public static final EnumerableExchangeRule ENUMERABLE_EXCHANGE_RULE =
+      EnumerableExchangeRule.DEFAULT_CONFIG
+          .toRule(EnumerableExchangeRule.class);
+
   public static final EnumerableLimitSortRule ENUMERABLE_LIMIT_SORT_RULE =
       EnumerableLimitSortRule.Config.DEFAULT.toRule();
 
@@ -172,6 +179,16 @@ private EnumerableRules() {
       EnumerableTableScanRule.DEFAULT_CONFIG
           .toRule(EnumerableTableScanRule.class);
 
+  /** Rule that converts a {@link org.apache.calcite.rel.logical.LogicalFilter}
+   * on a scan of a {@link org.apache.calcite.schema.BatchScannableTable} to an
+   * {@link EnumerableBatchScan}.
+   *
+   * <p>It is not one of the default rules; the planner uses it if
+   * {@link org.apache.calcite.config.CalciteConnectionProperty#BATCH_SCAN} is
+   * true. */
+  public static final EnumerableBatchScanRule ENUMERABLE_BATCH_SCAN_RULE =
+      EnumerableBatchScanRule.Config.DEFAULT.toRule();
+
   /** Rule that converts a
    * {@link org.apache.calcite.rel.logical.LogicalTableFunctionScan} to
    * {@link EnumerableConvention enumerable calling convention}. */
@@ -212,6 +229,7 @@ private EnumerableRules() {
           EnumerableRules.ENUMERABLE_CALC_RULE,
           EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
           EnumerableRules.ENUMERABLE_SORT_RULE,
+          EnumerableRules.ENUMERABLE_EXCHANGE_RULE,
           EnumerableRules.ENUMERABLE_LIMIT_RULE,
           EnumerableRules.ENUMERABLE_COLLECT_RULE,
           EnumerableRules.ENUMERABLE_UNCOLLECT_RULE,
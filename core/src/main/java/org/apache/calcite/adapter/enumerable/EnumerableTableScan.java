@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.adapter.enumerable;
 
+import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.interpreter.Row;
@@ -43,6 +44,7 @@
 import org.apache.calcite.schema.ProjectableFilterableTable;
 import org.apache.calcite.schema.QueryableTable;
 import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.schema.SplittableTable;
 import org.apache.calcite.schema.StreamableTable;
 import org.apache.calcite.schema.Table;
 import org.apache.calcite.schema.TransientTable;
@@ -198,6 +200,27 @@ public static JavaRowFormat deduceFormat(RelOptTable table) {
   }
 
   private Expression getExpression(PhysType physType) {
+    final SplittableTable splittableTable =
+        table.unwrap(SplittableTable.class);
+    final int parallelism = EnumUtils.parallelism(this);
+    if (splittableTable != null
+        && parallelism > 1
+        && elementType == Object[].class) {
+      final List<Expression> names = new ArrayList<>();
+      for (String name : table.getQualifiedName()) {
+        names.add(Expressions.constant(name));
+      }
+      final Expression expression =
+          Expressions.call(BuiltInMethod.SCHEMAS_ENUMERABLE_SPLITTABLE.method,
+              Expressions.convert_(
+                  Expressions.call(BuiltInMethod.SCHEMAS_TABLE.method,
+                      DataContext.ROOT,
+                      Expressions.newArrayInit(String.class, names)),
+                  SplittableTable.class),
+              DataContext.ROOT,
+              Expressions.constant(parallelism));
+      return toRows(physType, expression);
+    }
     final Expression expression = table.getExpression(Queryable.class);
     if (expression == null) {
       throw new IllegalStateException(
@@ -237,7 +260,8 @@ private Expression toRows(PhysType physType, Expression expression) {
         && getRowType().getFieldCount() == 1
         && (table.unwrap(ScannableTable.class) != null
             || table.unwrap(FilterableTable.class) != null
-            || table.unwrap(ProjectableFilterableTable.class) != null)) {
+            || table.unwrap(ProjectableFilterableTable.class) != null
+            || table.unwrap(SplittableTable.class) != null)) {
       return Expressions.call(BuiltInMethod.SLICE0.method, expression);
     }
     JavaRowFormat oldFormat = format();
@@ -136,11 +136,12 @@ public static EnumerableValues create(RelOptCluster cluster,
       for (Pair<RelDataTypeField, RexLiteral> pair
           : Pair.zip(fields, tuple)) {
         literals.add(
-            RexToLixTranslator.translateLiteral(
-                pair.right,
-                pair.left.getType(),
-                typeFactory,
-                RexImpTable.NullAs.NULL));
+            RexToLixTranslator.hoistLiteral(pair.right,
+                RexToLixTranslator.translateLiteral(
+                    pair.right,
+                    pair.left.getType(),
+                    typeFactory,
+                    RexImpTable.NullAs.NULL)));
       }
       expressions.add(physType.record(literals));
     }
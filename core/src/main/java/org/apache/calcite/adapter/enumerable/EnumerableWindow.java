@@ -48,6 +48,7 @@
 import org.apache.calcite.rex.RexWindowBound;
 import org.apache.calcite.runtime.SortedMultiMap;
 import org.apache.calcite.sql.SqlAggFunction;
+import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.validate.SqlConformance;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.ImmutableBitSet;
@@ -216,6 +217,12 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
       final Expression collectionExpr = partitionIterator.left;
       final Expression iterator_ = partitionIterator.right;
 
+      // Whether the start of the frame moves as the current row moves. If so,
+      // aggregates that can remove rows remove them as they leave the frame,
+      // and MIN and MAX use a deque of the values that may become the result.
+      final boolean frameStartMoves =
+          !(group.lowerBound.isUnbounded() && group.lowerBound.isPreceding());
+
       List<AggImpState> aggs = new ArrayList<>();
       List<AggregateCall> aggregateCalls = group.getAggregateCalls(this);
       for (int aggIdx = 0; aggIdx < aggregateCalls.size(); aggIdx++) {
@@ -223,7 +230,14 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
         if (call.ignoreNulls()) {
           throw new UnsupportedOperationException("IGNORE NULLS not supported");
         }
-        aggs.add(new AggImpState(aggIdx, call, true));
+        final SqlKind kind = call.getAggregation().getKind();
+        if (frameStartMoves && (kind == SqlKind.MIN || kind == SqlKind.MAX)) {
+          aggs.add(
+              new AggImpState(aggIdx, call,
+                  new RexImpTable.MinMaxDequeImplementor()));
+        } else {
+          aggs.add(new AggImpState(aggIdx, call, true));
+        }
       }
 
       // The output from this stage is the input plus the aggregate functions.
@@ -298,6 +312,16 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
       declareAndResetState(typeFactory, builder, result, windowIdx, aggs,
           outputPhysType, outputRow);
 
+      final List<AggImpState> removableAggs = new ArrayList<>();
+      final List<AggImpState> recomputedAggs = new ArrayList<>();
+      for (AggImpState agg : aggs) {
+        if (frameStartMoves && canRemove(agg)) {
+          removableAggs.add(agg);
+        } else {
+          recomputedAggs.add(agg);
+        }
+      }
+
       // There are assumptions that minX==0. If ever change this, look for
       // frameRowCount, bounds checking, etc
       final Expression minX = Expressions.constant(0);
@@ -387,7 +411,7 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
       builder6.add(
           Expressions.statement(Expressions.assign(actualStart, startX)));
 
-      for (final AggImpState agg : aggs) {
+      for (final AggImpState agg : recomputedAggs) {
         List<Expression> aggState = requireNonNull(agg.state, "agg.state");
         agg.implementor.implementReset(requireNonNull(agg.context, "agg.context"),
             new WinAggResetContextImpl(builder6, aggState, i_, startX, endX,
@@ -419,25 +443,15 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
                         Expressions.add(prevEnd, Expressions.constant(1))))));
       }
 
-      if (lowerBoundCanChange instanceof BinaryExpression) {
-        builder5.add(
-            Expressions.statement(Expressions.assign(prevStart, startX)));
-      }
-      builder5.add(
-          Expressions.statement(Expressions.assign(prevEnd, endX)));
-
-      final BlockBuilder builder7 = new BlockBuilder(true, builder5);
-      final DeclarationStatement jDecl =
-          Expressions.declare(0, "j", actualStart);
-
       final PhysType inputPhysTypeFinal = inputPhysType;
-      final Function<BlockBuilder, WinAggFrameResultContext>
-          resultContextBuilder =
-          getBlockBuilderWinAggFrameResultContextFunction(typeFactory,
-              implementor.getConformance(), result, translatedConstants,
-              comparator_, rows_, i_, startX, endX, minX, maxX,
-              hasRows, frameRowCount, partitionRowCount,
-              jDecl, inputPhysTypeFinal);
+      final Function<DeclarationStatement,
+          Function<BlockBuilder, WinAggFrameResultContext>> frameContext =
+          decl ->
+              getBlockBuilderWinAggFrameResultContextFunction(typeFactory,
+                  implementor.getConformance(), result, translatedConstants,
+                  comparator_, rows_, i_, startX, endX, minX, maxX,
+                  hasRows, frameRowCount, partitionRowCount,
+                  decl, inputPhysTypeFinal);
 
       final Function<AggImpState, List<RexNode>> rexArguments = agg -> {
         List<Integer> argList = agg.call.getArgList();
@@ -452,7 +466,81 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
         return args;
       };
 
-      implementAdd(aggs, builder7, resultContextBuilder, rexArguments, jDecl);
+      // If the new frame starts within the previous frame, and neither end
+      // has moved backwards, removable aggregates remove the rows that have
+      // left the frame, then add the rows that have entered it. Otherwise they
+      // are reset, and add every row of the frame.
+      //
+      //   int addStart;
+      //   if (start < prevStart || end < prevEnd || start > prevEnd) {
+      //     // implementReset
+      //     addStart = start;
+      //   } else {
+      //     for (int k = prevStart; k < start; k++) {
+      //       // implementRemove
+      //     }
+      //     addStart = prevEnd + 1;
+      //   }
+      @Nullable ParameterExpression addStart = null;
+      if (!removableAggs.isEmpty()) {
+        addStart =
+            Expressions.parameter(0, int.class, builder5.newName("addStart"));
+        final BlockBuilder resetBuilder = new BlockBuilder(true, builder5);
+        for (final AggImpState agg : removableAggs) {
+          agg.implementor.implementReset(
+              requireNonNull(agg.context, "agg.context"),
+              new WinAggResetContextImpl(resetBuilder,
+                  requireNonNull(agg.state, "agg.state"), i_, startX, endX,
+                  hasRows, frameRowCount, partitionRowCount));
+        }
+        resetBuilder.add(
+            Expressions.statement(Expressions.assign(addStart, startX)));
+
+        final BlockBuilder slideBuilder = new BlockBuilder(true, builder5);
+        final DeclarationStatement kDecl =
+            Expressions.declare(0, builder5.newName("k"), prevStart);
+        final BlockBuilder removeBuilder = new BlockBuilder(true, slideBuilder);
+        implementAdd(removableAggs, removeBuilder, frameContext.apply(kDecl),
+            rexArguments, kDecl, true);
+        final BlockStatement removeBlock = removeBuilder.toBlock();
+        if (!removeBlock.statements.isEmpty()) {
+          slideBuilder.add(
+              Expressions.for_(kDecl,
+                  Expressions.lessThan(kDecl.parameter, startX),
+                  Expressions.preIncrementAssign(kDecl.parameter),
+                  removeBlock));
+        }
+        slideBuilder.add(
+            Expressions.statement(
+                Expressions.assign(addStart,
+                    Expressions.add(prevEnd, Expressions.constant(1)))));
+
+        builder5.add(Expressions.declare(0, addStart, null));
+        builder5.add(
+            Expressions.ifThenElse(
+                Expressions.foldOr(
+                    ImmutableList.of(Expressions.lessThan(startX, prevStart),
+                        Expressions.lessThan(endX, prevEnd),
+                        Expressions.greaterThan(startX, prevEnd))),
+                resetBuilder.toBlock(),
+                slideBuilder.toBlock()));
+      }
+
+      if (lowerBoundCanChange instanceof BinaryExpression) {
+        builder5.add(
+            Expressions.statement(Expressions.assign(prevStart, startX)));
+      }
+      builder5.add(
+          Expressions.statement(Expressions.assign(prevEnd, endX)));
+
+      final BlockBuilder builder7 = new BlockBuilder(true, builder5);
+      final DeclarationStatement jDecl =
+          Expressions.declare(0, "j", actualStart);
+      final Function<BlockBuilder, WinAggFrameResultContext>
+          resultContextBuilder = frameContext.apply(jDecl);
+
+      implementAdd(recomputedAggs, builder7, resultContextBuilder, rexArguments,
+          jDecl, false);
 
       BlockStatement forBlock = builder7.toBlock();
       if (!forBlock.statements.isEmpty()) {
@@ -468,6 +556,26 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
         builder5.add(forAggLoop);
       }
 
+      if (addStart != null) {
+        final BlockBuilder addBuilder = new BlockBuilder(true, builder5);
+        final DeclarationStatement jDecl2 =
+            Expressions.declare(0, builder5.newName("j"), addStart);
+        implementAdd(removableAggs, addBuilder, frameContext.apply(jDecl2),
+            rexArguments, jDecl2, false);
+        final BlockStatement addBlock = addBuilder.toBlock();
+        if (!addBlock.statements.isEmpty()) {
+          Statement addLoop =
+              Expressions.for_(jDecl2,
+                  Expressions.lessThanOrEqual(jDecl2.parameter, endX),
+                  Expressions.preIncrementAssign(jDecl2.parameter),
+                  addBlock);
+          if (!hasRows.equals(Expressions.constant(true))) {
+            addLoop = Expressions.ifThen(hasRows, addLoop);
+          }
+          builder5.add(addLoop);
+        }
+      }
+
       if (implementResult(aggs, builder5, resultContextBuilder, rexArguments,
               true)) {
         builder4.add(
@@ -821,11 +929,13 @@ private void declareAndResetState(final JavaTypeFactory typeFactory,
     }
   }
 
+  /** Generates code to add the row at {@code jDecl} to (or, if
+   * {@code remove}, remove it from) the accumulator of each aggregate. */
   private static void implementAdd(List<AggImpState> aggs,
       final BlockBuilder builder7,
       final Function<BlockBuilder, WinAggFrameResultContext> frame,
       final Function<AggImpState, List<RexNode>> rexArguments,
-      final DeclarationStatement jDecl) {
+      final DeclarationStatement jDecl, boolean remove) {
     for (final AggImpState agg : aggs) {
       final WinAggAddContext addContext =
           new WinAggAddContextImpl(builder7, requireNonNull(agg.state, "agg.state"), frame) {
@@ -841,10 +951,24 @@ private static void implementAdd(List<AggImpState> aggs,
               return null; // REVIEW
             }
           };
-      agg.implementor.implementAdd(requireNonNull(agg.context, "agg.context"), addContext);
+      final AggContext context = requireNonNull(agg.context, "agg.context");
+      if (remove) {
+        ((RemovableAggImplementor) agg.implementor)
+            .implementRemove(context, addContext);
+      } else {
+        agg.implementor.implementAdd(context, addContext);
+      }
     }
   }
 
+  /** Returns whether an aggregate can remove rows from its accumulator as they
+   * leave the frame. */
+  private static boolean canRemove(AggImpState agg) {
+    return agg.implementor instanceof RemovableAggImplementor
+        && ((RemovableAggImplementor) agg.implementor)
+            .canRemove(requireNonNull(agg.context, "agg.context"));
+  }
+
   private static boolean implementResult(List<AggImpState> aggs,
       final BlockBuilder builder,
       final Function<BlockBuilder, WinAggFrameResultContext> frame,
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+/**
+ * Implements an aggregate function that can also remove a value from its
+ * accumulator.
+ *
+ * <p>When the frame of a windowed aggregate slides forward, as in
+ * {@code SUM(x) OVER (ORDER BY y ROWS 10 PRECEDING)},
+ * {@link EnumerableWindow} removes the rows that have left the frame and
+ * adds the rows that have entered it, rather than resetting the accumulator
+ * and adding every row of the new frame.
+ *
+ * @see org.apache.calcite.adapter.enumerable.StrictAggImplementor
+ */
+public interface RemovableAggImplementor extends AggImplementor {
+  /**
+   * Returns whether this implementation can remove values in the given
+   * context. Calcite calls this method after
+   * {@link #getStateType(AggContext)}.
+   *
+   * @param info Aggregate context
+   * @return Whether {@link #implementRemove(AggContext, AggAddContext)} may
+   *   be called
+   */
+  boolean canRemove(AggContext info);
+
+  /**
+   * Updates intermediate values to account for a value that has been added
+   * and is no longer in the set being aggregated.
+   * {@link AggAddContext#arguments()} returns the arguments of the value to be
+   * removed.
+   *
+   * @param info Aggregate context
+   * @param remove Context of the value to be removed
+   */
+  void implementRemove(AggContext info, AggAddContext remove);
+}
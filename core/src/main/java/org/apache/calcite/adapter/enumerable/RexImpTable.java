@@ -44,6 +44,7 @@
 import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexPatternFieldRef;
+import org.apache.calcite.runtime.MinMaxDeque;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.schema.FunctionContext;
 import org.apache.calcite.schema.ImplementableAggFunction;
@@ -599,22 +600,22 @@ Builder populate2() {
 
       // LIKE, ILIKE and SIMILAR
       map.put(LIKE,
-          new MethodImplementor(BuiltInMethod.LIKE.method, NullPolicy.STRICT,
-              false));
+          new LikeImplementor("like", BuiltInMethod.LIKE.method,
+              BuiltInMethod.LIKE_ESCAPE.method));
       map.put(ILIKE,
-          new MethodImplementor(BuiltInMethod.ILIKE.method, NullPolicy.STRICT,
-              false));
+          new LikeImplementor("ilike", BuiltInMethod.ILIKE.method,
+              BuiltInMethod.ILIKE_ESCAPE.method));
       map.put(RLIKE,
-          new MethodImplementor(BuiltInMethod.RLIKE.method, NullPolicy.STRICT,
-              false));
+          new ReflectiveImplementor(BuiltInMethod.RLIKE.method,
+              NullPolicy.STRICT));
       map.put(SIMILAR_TO,
-          new MethodImplementor(BuiltInMethod.SIMILAR.method, NullPolicy.STRICT,
-              false));
+          new LikeImplementor("similar", BuiltInMethod.SIMILAR.method,
+              BuiltInMethod.SIMILAR_ESCAPE.method));
 
       // POSIX REGEX
-      final MethodImplementor posixRegexImplementorCaseSensitive =
+      final ReflectiveImplementor posixRegexImplementorCaseSensitive =
           new PosixRegexMethodImplementor(true);
-      final MethodImplementor posixRegexImplementorCaseInsensitive =
+      final ReflectiveImplementor posixRegexImplementorCaseInsensitive =
           new PosixRegexMethodImplementor(false);
       map.put(SqlStdOperatorTable.POSIX_REGEX_CASE_INSENSITIVE,
           posixRegexImplementorCaseInsensitive);
@@ -1160,6 +1161,17 @@ static class CountImplementor extends StrictAggImplementor {
           Expressions.statement(
               Expressions.postIncrementAssign(add.accumulator().get(0))));
     }
+
+    @Override protected boolean canRemoveNotNull(AggContext info) {
+      return true;
+    }
+
+    @Override protected void implementNotNullRemove(AggContext info,
+        AggAddContext remove) {
+      remove.currentBlock().add(
+          Expressions.statement(
+              Expressions.postDecrementAssign(remove.accumulator().get(0))));
+    }
   }
 
   /** Implementor for the {@code COUNT} windowed aggregate function. */
@@ -1191,6 +1203,20 @@ static class CountWinImplementor extends StrictWinAggImplementor {
               Expressions.postIncrementAssign(add.accumulator().get(0))));
     }
 
+    @Override protected boolean canRemoveNotNull(WinAggContext info) {
+      return true;
+    }
+
+    @Override protected void implementNotNullRemove(WinAggContext info,
+        WinAggAddContext remove) {
+      if (justFrameRowCount) {
+        return;
+      }
+      remove.currentBlock().add(
+          Expressions.statement(
+              Expressions.postDecrementAssign(remove.accumulator().get(0))));
+    }
+
     @Override protected Expression implementNotNullResult(WinAggContext info,
         WinAggResultContext result) {
       if (justFrameRowCount) {
@@ -1226,6 +1252,30 @@ static class SumImplementor extends StrictAggImplementor {
       accAdvance(add, acc, next);
     }
 
+    /** {@inheritDoc}
+     *
+     * <p>Only sums of exact values can remove values; removing a value from
+     * a sum of floating-point values would accumulate rounding errors. */
+    @Override protected boolean canRemoveNotNull(AggContext info) {
+      final Primitive primitive = Primitive.ofBoxOr(info.returnType());
+      return info.returnType() == BigDecimal.class
+          || (primitive != null && primitive.isFixedNumeric());
+    }
+
+    @Override protected void implementNotNullRemove(AggContext info,
+        AggAddContext remove) {
+      Expression acc = remove.accumulator().get(0);
+      Expression next;
+      if (info.returnType() == BigDecimal.class) {
+        next = Expressions.call(acc, "subtract", remove.arguments().get(0));
+      } else {
+        final Expression arg =
+            EnumUtils.convert(remove.arguments().get(0), acc.type);
+        next = Expressions.subtract(acc, arg);
+      }
+      accAdvance(remove, acc, next);
+    }
+
     @Override public Expression implementNotNullResult(AggContext info,
         AggResultContext result) {
       return super.implementNotNullResult(info, result);
@@ -1261,6 +1311,61 @@ static class MinMaxImplementor extends StrictAggImplementor {
     }
   }
 
+  /** Implementor for the {@code MIN} and {@code MAX} windowed aggregate
+   * functions over a frame whose start moves. It holds the values that may
+   * become the result in a {@link MinMaxDeque}, so that it can remove rows as
+   * they leave the frame. */
+  static class MinMaxDequeImplementor extends StrictWinAggImplementor {
+    @Override public List<Type> getNotNullState(WinAggContext info) {
+      return Collections.singletonList(MinMaxDeque.class);
+    }
+
+    @Override protected void implementNotNullReset(WinAggContext info,
+        WinAggResetContext reset) {
+      final boolean isMin = info.aggregation().kind == SqlKind.MIN;
+      reset.currentBlock().add(
+          Expressions.statement(
+              Expressions.assign(reset.accumulator().get(0),
+                  Expressions.new_(MinMaxDeque.class,
+                      Expressions.constant(isMin)))));
+    }
+
+    @Override public void implementNotNullAdd(WinAggContext info,
+        WinAggAddContext add) {
+      add.currentBlock().add(
+          Expressions.statement(
+              Expressions.call(add.accumulator().get(0),
+                  BuiltInMethod.MIN_MAX_DEQUE_ADD.method,
+                  add.currentPosition(),
+                  Expressions.convert_(
+                      Expressions.box(add.arguments().get(0)),
+                      Comparable.class))));
+    }
+
+    @Override protected boolean canRemoveNotNull(WinAggContext info) {
+      return true;
+    }
+
+    @Override protected void implementNotNullRemove(WinAggContext info,
+        WinAggAddContext remove) {
+      remove.currentBlock().add(
+          Expressions.statement(
+              Expressions.call(remove.accumulator().get(0),
+                  BuiltInMethod.MIN_MAX_DEQUE_REMOVE.method,
+                  remove.currentPosition())));
+    }
+
+    @Override protected Expression implementNotNullResult(WinAggContext info,
+        WinAggResultContext result) {
+      final Type type =
+          Primitive.box(EnumUtils.fromInternal(info.returnType()));
+      return Expressions.convert_(
+          Expressions.call(result.accumulator().get(0),
+              BuiltInMethod.MIN_MAX_DEQUE_RESULT.method),
+          type);
+    }
+  }
+
   /** Implementor for the {@code ARG_MIN} and {@code ARG_MAX} aggregate
    * functions. */
   static class ArgMinMaxImplementor extends StrictAggImplementor {
@@ -2437,11 +2542,12 @@ static Expression call(Method method, @Nullable Expression target,
   }
 
   /** Implementor for {@link org.apache.calcite.sql.fun.SqlPosixRegexOperator}s. */
-  private static class PosixRegexMethodImplementor extends MethodImplementor {
+  private static class PosixRegexMethodImplementor
+      extends ReflectiveImplementor {
     protected final boolean caseSensitive;
 
     PosixRegexMethodImplementor(boolean caseSensitive) {
-      super(BuiltInMethod.POSIX_REGEX.method, NullPolicy.STRICT, false);
+      super(BuiltInMethod.POSIX_REGEX.method, NullPolicy.STRICT);
       this.caseSensitive = caseSensitive;
     }
 
@@ -3857,6 +3963,29 @@ private static class IsTrueImplementor extends AbstractRexCallImplementor {
     }
   }
 
+  /** Implementor for the {@code LIKE}, {@code ILIKE} and {@code SIMILAR TO}
+   * operators, with and without escape.
+   *
+   * <p>The methods belong to {@link org.apache.calcite.runtime.PatternFunction},
+   * which caches the compiled pattern. */
+  private static class LikeImplementor extends AbstractRexCallImplementor {
+    private final AbstractRexCallImplementor[] implementors;
+
+    LikeImplementor(String variableName, Method method, Method escapeMethod) {
+      super(variableName, NullPolicy.STRICT, false);
+      this.implementors = new AbstractRexCallImplementor[] {
+          new ReflectiveImplementor(method, nullPolicy),
+          new ReflectiveImplementor(escapeMethod, nullPolicy)
+      };
+    }
+
+    @Override Expression implementSafe(RexToLixTranslator translator,
+        RexCall call, List<Expression> argValueList) {
+      return implementors[call.getOperands().size() - 2]
+          .implementSafe(translator, call, argValueList);
+    }
+  }
+
   /** Implementor for the {@code REGEXP_REPLACE} function. */
   private static class RegexpReplaceImplementor extends AbstractRexCallImplementor {
     private final AbstractRexCallImplementor[] implementors = {
@@ -1075,11 +1075,14 @@ private static Expression scaleIntervalToNumber(
     }
     // Generate one line of code for the value of RexLiteral, e.g.,
     // "final int literal_value = 10;"
-    final Expression valueExpression = literal.isNull()
+    final Expression translatedLiteral = literal.isNull()
         // Note: even for null literal, we can't loss its type information
         ? getTypedNullLiteral(literal)
         : translateLiteral(literal, literal.getType(),
             typeFactory, RexImpTable.NullAs.NOT_POSSIBLE);
+    final Expression valueExpression = staticList == null
+        ? hoistLiteral(literal, translatedLiteral)
+        : translatedLiteral;
     final ParameterExpression valueVariable;
     final Expression literalValue =
         appendConstant("literal_value", valueExpression);
@@ -1109,6 +1112,57 @@ private static Expression scaleIntervalToNumber(
     return result;
   }
 
+  /** If the current {@link EnumerableRelImplementor} reads literals from the
+   * {@link DataContext}, stashes the value of a numeric, character or
+   * datetime literal and returns an expression that reads it; otherwise
+   * returns the translated literal.
+   *
+   * <p>Other literals, such as symbols and booleans, remain constants;
+   * implementors of some operators need to know their values.
+   *
+   * @param literal Literal
+   * @param expression Result of {@link #translateLiteral} for the literal
+   */
+  static Expression hoistLiteral(RexLiteral literal, Expression expression) {
+    final EnumerableRelImplementor implementor =
+        EnumerableRelImplementor.THREAD_LITERAL_IMPLEMENTOR.get();
+    if (implementor == null) {
+      return expression;
+    }
+    final Object value;
+    switch (literal.getTypeName()) {
+    case DECIMAL:
+      if (expression.getType() == BigDecimal.class) {
+        value = literal.getValueAs(BigDecimal.class);
+        break;
+      }
+      // fall through
+    case TINYINT:
+    case SMALLINT:
+    case INTEGER:
+    case BIGINT:
+    case FLOAT:
+    case REAL:
+    case DOUBLE:
+    case CHAR:
+    case VARCHAR:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      if (!(expression instanceof ConstantExpression)) {
+        return expression;
+      }
+      value = ((ConstantExpression) expression).value;
+      break;
+    default:
+      return expression;
+    }
+    if (value == null) {
+      return expression;
+    }
+    return implementor.stashLiteral(value, expression.getType());
+  }
+
   /**
    * Returns an {@code Expression} for null literal without losing its type
    * information.
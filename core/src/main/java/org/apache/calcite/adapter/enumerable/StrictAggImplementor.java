@@ -35,9 +35,14 @@
  * @see org.apache.calcite.adapter.enumerable.RexImpTable.CountImplementor
  * @see org.apache.calcite.adapter.enumerable.RexImpTable.SumImplementor
  */
-public abstract class StrictAggImplementor implements AggImplementor {
+public abstract class StrictAggImplementor
+    implements RemovableAggImplementor {
   private boolean needTrackEmptySet;
   private boolean trackNullsPerRow;
+  /** Whether the state counts the rows that have non-null arguments, rather
+   * than just recording whether there are any, so that rows can be
+   * removed. */
+  private boolean countNonNullRows;
   private int stateSize;
 
   protected boolean nonDefaultOnEmptySet(AggContext info) {
@@ -64,10 +69,17 @@ protected static void accAdvance(AggAddContext add, Expression acc,
     }
     final boolean hasNullableArgs = anyNullable(info.parameterRelTypes());
     trackNullsPerRow = !(info instanceof WinAggContext) || hasNullableArgs;
+    countNonNullRows = trackNullsPerRow
+        && info instanceof WinAggContext
+        && canRemoveNotNull(info);
 
     List<Type> res = new ArrayList<>(subState.size() + 1);
     res.addAll(subState);
-    res.add(boolean.class); // has not nulls
+    if (countNonNullRows) {
+      res.add(long.class); // number of rows with not-null arguments
+    } else {
+      res.add(boolean.class); // has not nulls
+    }
     return res;
   }
 
@@ -114,6 +126,20 @@ protected void implementNotNullReset(AggContext info,
   }
 
   @Override public final void implementAdd(AggContext info, final AggAddContext add) {
+    implementAddOrRemove(info, add, false);
+  }
+
+  @Override public final boolean canRemove(AggContext info) {
+    return (!trackNullsPerRow || countNonNullRows) && canRemoveNotNull(info);
+  }
+
+  @Override public final void implementRemove(AggContext info,
+      AggAddContext remove) {
+    implementAddOrRemove(info, remove, true);
+  }
+
+  private void implementAddOrRemove(AggContext info, AggAddContext add,
+      boolean remove) {
     final List<RexNode> args = add.rexArguments();
     final RexToLixTranslator translator = add.rowTranslator();
     final List<Expression> conditions = new ArrayList<>();
@@ -137,25 +163,55 @@ protected void implementNotNullReset(AggContext info,
         : new BlockBuilder(true, add.currentBlock());
     if (trackNullsPerRow) {
       List<Expression> acc = add.accumulator();
+      final Expression flag = acc.get(acc.size() - 1);
       thenBlock.add(
           Expressions.statement(
-              Expressions.assign(acc.get(acc.size() - 1),
-                  Expressions.constant(true))));
+              countNonNullRows
+                  ? (remove
+                      ? Expressions.postDecrementAssign(flag)
+                      : Expressions.postIncrementAssign(flag))
+                  : Expressions.assign(flag, Expressions.constant(true))));
     }
     if (argsNotNull) {
-      implementNotNullAdd(info, add);
+      implementNotNullAddOrRemove(info, add, remove);
       return;
     }
 
     add.nestBlock(thenBlock);
-    implementNotNullAdd(info, add);
+    implementNotNullAddOrRemove(info, add, remove);
     add.exitBlock();
     add.currentBlock().add(Expressions.ifThen(condition, thenBlock.toBlock()));
   }
 
+  private void implementNotNullAddOrRemove(AggContext info, AggAddContext add,
+      boolean remove) {
+    if (remove) {
+      implementNotNullRemove(info, add);
+    } else {
+      implementNotNullAdd(info, add);
+    }
+  }
+
   protected abstract void implementNotNullAdd(AggContext info,
       AggAddContext add);
 
+  /** Returns whether this aggregate function can remove a value whose
+   * arguments are not null. If so, it must override
+   * {@link #implementNotNullRemove(AggContext, AggAddContext)}.
+   *
+   * <p>The default implementation returns false. */
+  protected boolean canRemoveNotNull(AggContext info) {
+    return false;
+  }
+
+  /** Updates the intermediate values to remove a value whose arguments are
+   * not null; called only if {@link #canRemoveNotNull(AggContext)}
+   * returned true. */
+  protected void implementNotNullRemove(AggContext info,
+      AggAddContext remove) {
+    throw new UnsupportedOperationException("remove");
+  }
+
   @Override public final Expression implementResult(AggContext info,
       final AggResultContext result) {
     if (!needTrackEmptySet) {
@@ -177,7 +233,9 @@ protected abstract void implementNotNullAdd(AggContext info,
     thenBlock.add(Expressions.statement(Expressions.assign(res, nonNull)));
     BlockStatement thenBranch = thenBlock.toBlock();
     Expression seenNotNullRows =
-        trackNullsPerRow
+        countNonNullRows
+        ? Expressions.notEqual(acc.get(acc.size() - 1), Expressions.constant(0L))
+        : trackNullsPerRow
         ? acc.get(acc.size() - 1)
         : ((WinAggResultContext) result).hasRows();
 
@@ -32,6 +32,15 @@ public abstract class StrictWinAggImplementor extends StrictAggImplementor
   protected abstract void implementNotNullAdd(WinAggContext info,
       WinAggAddContext add);
 
+  protected boolean canRemoveNotNull(WinAggContext info) {
+    return super.canRemoveNotNull(info);
+  }
+
+  protected void implementNotNullRemove(WinAggContext info,
+      WinAggAddContext remove) {
+    super.implementNotNullRemove(info, remove);
+  }
+
   protected boolean nonDefaultOnEmptySet(WinAggContext info) {
     return super.nonDefaultOnEmptySet(info);
   }
@@ -55,6 +64,15 @@ protected Expression implementNotNullResult(WinAggContext info,
     implementNotNullAdd((WinAggContext) info, (WinAggAddContext) add);
   }
 
+  @Override protected final boolean canRemoveNotNull(AggContext info) {
+    return canRemoveNotNull((WinAggContext) info);
+  }
+
+  @Override protected final void implementNotNullRemove(AggContext info,
+      AggAddContext remove) {
+    implementNotNullRemove((WinAggContext) info, (WinAggAddContext) remove);
+  }
+
   @Override protected boolean nonDefaultOnEmptySet(AggContext info) {
     return nonDefaultOnEmptySet((WinAggContext) info);
   }
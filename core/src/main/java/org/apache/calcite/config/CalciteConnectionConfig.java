@@ -110,4 +110,26 @@ public interface CalciteConnectionConfig extends ConnectionConfig {
   boolean lenientOperatorLookup();
   /** Returns the value of {@link CalciteConnectionProperty#TOPDOWN_OPT}. */
   boolean topDownOpt();
+  /** Returns the value of {@link CalciteConnectionProperty#MEMORY_BUDGET}. */
+  long memoryBudget();
+  /** Returns the value of {@link CalciteConnectionProperty#PARALLELISM}. */
+  int parallelism();
+  /** Returns the value of {@link CalciteConnectionProperty#PLAN_CACHE_SIZE}. */
+  int planCacheSize();
+  /** Returns the value of
+   * {@link CalciteConnectionProperty#METADATA_CACHE_SIZE}. */
+  int metadataCacheSize();
+  /** Returns the value of {@link CalciteConnectionProperty#ASYNC_COMPILE}. */
+  boolean asyncCompile();
+  /** Returns the value of {@link CalciteConnectionProperty#BATCH_SCAN}. */
+  boolean batchScan();
+  /** Returns the value of
+   * {@link CalciteConnectionProperty#PLANNER_PARALLELISM}. */
+  int plannerParallelism();
+  /** Returns the value of
+   * {@link CalciteConnectionProperty#PLANNER_TIME_BUDGET}. */
+  long plannerTimeBudget();
+  /** Returns the value of
+   * {@link CalciteConnectionProperty#PLANNER_RULE_BUDGET}. */
+  long plannerRuleBudget();
 }
@@ -208,4 +208,46 @@ public boolean isSet(CalciteConnectionProperty property) {
   @Override public boolean topDownOpt() {
     return CalciteConnectionProperty.TOPDOWN_OPT.wrap(properties).getBoolean();
   }
+
+  @Override public long memoryBudget() {
+    return CalciteConnectionProperty.MEMORY_BUDGET.wrap(properties).getLong();
+  }
+
+  @Override public int parallelism() {
+    return CalciteConnectionProperty.PARALLELISM.wrap(properties).getInt();
+  }
+
+  @Override public int planCacheSize() {
+    return CalciteConnectionProperty.PLAN_CACHE_SIZE.wrap(properties).getInt();
+  }
+
+  @Override public int metadataCacheSize() {
+    return CalciteConnectionProperty.METADATA_CACHE_SIZE.wrap(properties)
+        .getInt();
+  }
+
+  @Override public boolean asyncCompile() {
+    return CalciteConnectionProperty.ASYNC_COMPILE.wrap(properties)
+        .getBoolean();
+  }
+
+  @Override public boolean batchScan() {
+    return CalciteConnectionProperty.BATCH_SCAN.wrap(properties)
+        .getBoolean();
+  }
+
+  @Override public int plannerParallelism() {
+    return CalciteConnectionProperty.PLANNER_PARALLELISM.wrap(properties)
+        .getInt();
+  }
+
+  @Override public long plannerTimeBudget() {
+    return CalciteConnectionProperty.PLANNER_TIME_BUDGET.wrap(properties)
+        .getLong();
+  }
+
+  @Override public long plannerRuleBudget() {
+    return CalciteConnectionProperty.PLANNER_RULE_BUDGET.wrap(properties)
+        .getLong();
+  }
 }
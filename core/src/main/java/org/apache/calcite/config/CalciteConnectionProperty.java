@@ -178,7 +178,72 @@ public enum CalciteConnectionProperty implements ConnectionProperty {
   LENIENT_OPERATOR_LOOKUP("lenientOperatorLookup", Type.BOOLEAN, false, false),
 
   /** Whether to enable top-down optimization in Volcano planner. */
-  TOPDOWN_OPT("topDownOpt", Type.BOOLEAN, CalciteSystemProperty.TOPDOWN_OPT.value(), false);
+  TOPDOWN_OPT("topDownOpt", Type.BOOLEAN, CalciteSystemProperty.TOPDOWN_OPT.value(), false),
+
+  /** Number of bytes of memory that each memory-intensive operator (such as
+   * hash join, hash aggregate and sort) may use before it spills intermediate
+   * results to temporary files. If negative or zero, the default, operators
+   * never spill. */
+  MEMORY_BUDGET("memoryBudget", Type.NUMBER, -1L, false),
+
+  /** Maximum number of threads that an operator (such as hash join or hash
+   * aggregate) may use to process its input. The default, 1, means that
+   * operators run in the calling thread. */
+  PARALLELISM("parallelism", Type.NUMBER, 1, false),
+
+  /** Maximum number of prepared statements that a connection remembers,
+   * so that it does not need to parse, validate, optimize and generate code
+   * for a query that it has executed recently. The default, 0, disables the
+   * cache.
+   *
+   * @see org.apache.calcite.prepare.PlanCache */
+  PLAN_CACHE_SIZE("planCacheSize", Type.NUMBER, 0, false),
+
+  /** Maximum number of row counts, distinct row counts and selectivities
+   * that a connection remembers between statements, so that the planner does
+   * not need to compute them again for the same tables and filters. Values
+   * are shared for table scans and for expressions whose inputs are not
+   * Volcano planner subsets, which mainly benefits Hep planner programs. The
+   * default, 0, disables the cache.
+   *
+   * @see org.apache.calcite.rel.metadata.RelMetadataCache */
+  METADATA_CACHE_SIZE("metadataCacheSize", Type.NUMBER, 0, false),
+
+  /** Whether to compile the code generated for a query in a background
+   * thread, and meanwhile execute the query using the interpreter. Later
+   * executions of the same prepared statement use the compiled code once it
+   * is ready. Default false. */
+  ASYNC_COMPILE("asyncCompile", Type.BOOLEAN, false, false),
+
+  /** Whether to read tables that implement
+   * {@link org.apache.calcite.schema.BatchScannableTable}, such as in-memory
+   * clones, a batch of rows at a time, evaluating simple filters on the
+   * column vectors of each batch before creating rows. Default false.
+   *
+   * @see org.apache.calcite.adapter.enumerable.EnumerableBatchScan */
+  BATCH_SCAN("batchScan", Type.BOOLEAN, false, false),
+
+  /** Number of threads that the Volcano planner uses to fire rule matches.
+   * For a given value the plan is deterministic, but it may differ from the
+   * plan for another value. The default, 1, fires rules in the calling
+   * thread. Ignored if {@link #TOPDOWN_OPT} is true.
+   *
+   * @see org.apache.calcite.plan.volcano.VolcanoPlanner#setRuleParallelism */
+  PLANNER_PARALLELISM("plannerParallelism", Type.NUMBER, 1, false),
+
+  /** Maximum time, in milliseconds, that the Volcano planner may spend firing
+   * rules for a query. When it runs out, the planner returns the cheapest
+   * plan that it has found so far. The default, 0, means no limit.
+   *
+   * @see org.apache.calcite.plan.volcano.VolcanoPlanner#setPlanningBudget */
+  PLANNER_TIME_BUDGET("plannerTimeBudget", Type.NUMBER, 0L, false),
+
+  /** Maximum number of rules that the Volcano planner may fire for a query.
+   * When it runs out, the planner returns the cheapest plan that it has found
+   * so far. The default, 0, means no limit.
+   *
+   * @see org.apache.calcite.plan.volcano.VolcanoPlanner#setPlanningBudget */
+  PLANNER_RULE_BUDGET("plannerRuleBudget", Type.NUMBER, 0L, false);
 
   private final String camelName;
   private final Type type;
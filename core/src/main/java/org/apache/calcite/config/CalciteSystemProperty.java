@@ -375,6 +375,35 @@
       intProperty("calcite.bindable.cache.concurrencyLevel", 1,
           v -> v >= 1 && v <= Integer.MAX_VALUE);
 
+  /**
+   * Whether generated Java code should read the values of numeric, character
+   * and datetime literals from the {@link org.apache.calcite.DataContext}
+   * rather than contain them as constants.
+   *
+   * <p>The default value is false.</p>
+   *
+   * <p>If true, queries that differ only in the values of literals generate
+   * the same code, and therefore share an entry in the cache of Bindable
+   * objects (see {@link #BINDABLE_CACHE_MAX_SIZE}). The generated code may be
+   * slightly slower, because the Java compiler cannot fold the values.</p>
+   */
+  public static final CalciteSystemProperty<Boolean> BINDABLE_CACHE_HOIST_LITERALS =
+      booleanProperty("calcite.bindable.cache.hoistLiterals", false);
+
+  /**
+   * Whether tables copied into memory by
+   * {@link org.apache.calcite.adapter.clone.CloneSchema} store columns of
+   * primitive values and strings outside the Java heap.
+   *
+   * <p>The default value is false.</p>
+   *
+   * <p>Off-heap columns do not add to the work of the garbage collector, so
+   * are preferable for large tables. The amount of memory available to them
+   * is limited by the JVM option {@code -XX:MaxDirectMemorySize}.</p>
+   */
+  public static final CalciteSystemProperty<Boolean> CLONE_OFF_HEAP =
+      booleanProperty("calcite.clone.offHeap", false);
+
   private static CalciteSystemProperty<Boolean> booleanProperty(String key,
       boolean defaultValue) {
     // Note that "" -> true (convenient for command-lines flags like '-Dflag')
@@ -25,20 +25,28 @@
 import org.apache.calcite.adapter.enumerable.RexToLixTranslator;
 import org.apache.calcite.adapter.enumerable.impl.AggAddContextImpl;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.interpreter.Row.RowBuilder;
+import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.MemberDeclaration;
 import org.apache.calcite.linq4j.tree.ParameterExpression;
+import org.apache.calcite.linq4j.tree.Primitive;
+import org.apache.calcite.linq4j.tree.Statement;
+import org.apache.calcite.linq4j.tree.Types;
 import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.runtime.FunctionContexts;
 import org.apache.calcite.schema.FunctionContext;
 import org.apache.calcite.schema.impl.AggregateFunctionImpl;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeUtil;
 import org.apache.calcite.sql.validate.SqlConformance;
 import org.apache.calcite.sql.validate.SqlConformanceEnum;
 import org.apache.calcite.util.ImmutableBitSet;
@@ -47,9 +55,13 @@
 import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.codehaus.commons.compiler.CompileException;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -66,11 +78,15 @@
  * Interpreter node that implements an
  * {@link org.apache.calcite.rel.core.Aggregate}.
  */
-public class AggregateNode extends AbstractSingleNode<Aggregate> {
+public class AggregateNode extends AbstractSingleNode<Aggregate>
+    implements PushNode {
+  private static final Method ROW_BUILDER_SET =
+      Types.lookupMethod(RowBuilder.class, "set", int.class, Object.class);
+
   private final List<Grouping> groups = new ArrayList<>();
   private final ImmutableBitSet unionGroups;
   private final int outputRowLength;
-  private final ImmutableList<AccumulatorFactory> accumulatorFactories;
+  private final Supplier<GroupAccumulator> groupAccumulatorFactory;
   private final DataContext dataContext;
 
   public AggregateNode(Compiler compiler, Aggregate rel) {
@@ -88,21 +104,32 @@ public AggregateNode(Compiler compiler, Aggregate rel) {
     this.outputRowLength = unionGroups.cardinality()
         + rel.getAggCallList().size();
 
+    final @Nullable Supplier<GroupAccumulator> compiledFactory =
+        compileGroupAccumulator(rel, outputRowLength);
     ImmutableList.Builder<AccumulatorFactory> builder = ImmutableList.builder();
-    for (AggregateCall aggregateCall : rel.getAggCallList()) {
-      @SuppressWarnings("method.invocation.invalid")
-      AccumulatorFactory accumulator = getAccumulator(aggregateCall, false);
-      builder.add(accumulator);
+    if (compiledFactory == null) {
+      for (AggregateCall aggregateCall : rel.getAggCallList()) {
+        @SuppressWarnings("method.invocation.invalid")
+        AccumulatorFactory accumulator = getAccumulator(aggregateCall, false);
+        builder.add(accumulator);
+      }
     }
-    accumulatorFactories = builder.build();
+    final ImmutableList<AccumulatorFactory> factories = builder.build();
+    groupAccumulatorFactory = compiledFactory != null
+        ? compiledFactory
+        : () -> {
+          final AccumulatorList list = new AccumulatorList();
+          for (AccumulatorFactory factory : factories) {
+            list.add(factory.get());
+          }
+          return list;
+        };
   }
 
   @Override public void run() throws InterruptedException {
     Row r;
     while ((r = source.receive()) != null) {
-      for (Grouping group : groups) {
-        group.send(r);
-      }
+      push(r);
     }
 
     for (Grouping group : groups) {
@@ -110,6 +137,12 @@ public AggregateNode(Compiler compiler, Aggregate rel) {
     }
   }
 
+  @Override public void push(Row row) {
+    for (Grouping group : groups) {
+      group.send(row);
+    }
+  }
+
   private AccumulatorFactory getAccumulator(final AggregateCall call,
       boolean ignoreFilter) {
     if (call.filterArg >= 0 && !ignoreFilter) {
@@ -269,6 +302,215 @@ private AccumulatorFactory getAccumulator(final AggregateCall call,
     }
   }
 
+  /** Generates and compiles a class that computes every aggregate call of
+   * {@code aggregate} for one group, holding the state of each call in
+   * primitive fields. Returns null if there are no calls, or if any call is
+   * DISTINCT or is not COUNT, or SUM, $SUM0, MIN, MAX or AVG of a numeric
+   * argument returning INTEGER, BIGINT or DOUBLE.
+   *
+   * <p>For {@code SUM(x), COUNT(*) FILTER (WHERE b)} with no GROUP BY, where
+   * {@code x} is an INTEGER, the generated code is as follows:
+   *
+   * <blockquote><pre>
+   * public Object get() {
+   *   return new AggregateNode.GroupAccumulator() {
+   *     int s0;
+   *     long n0;
+   *     long n1;
+   *
+   *     public void send(Row row) {
+   *       if (row.getObject(0) != null) {
+   *         final int x0 = ((Number) row.getObject(0)).intValue();
+   *         s0 += x0;
+   *         n0 += 1L;
+   *       }
+   *       if (Boolean.TRUE.equals(row.getObject(1))) {
+   *         n1 += 1L;
+   *       }
+   *     }
+   *
+   *     public void end(Row.RowBuilder r) {
+   *       if (n0 != 0L) {
+   *         r.set(0, Integer.valueOf(s0));
+   *       }
+   *       r.set(1, Long.valueOf(n1));
+   *     }
+   *   };
+   * }</pre></blockquote>
+   */
+  private static @Nullable Supplier<GroupAccumulator> compileGroupAccumulator(
+      Aggregate aggregate, int outputRowLength) {
+    final List<AggregateCall> aggCalls = aggregate.getAggCallList();
+    if (aggCalls.isEmpty()) {
+      return null;
+    }
+    final List<RelDataTypeField> inputFields =
+        aggregate.getInput().getRowType().getFieldList();
+    final List<@Nullable Primitive> primitives = new ArrayList<>();
+    for (AggregateCall call : aggCalls) {
+      if (call.isDistinct()) {
+        return null;
+      }
+      if (call.getAggregation() == SqlStdOperatorTable.COUNT) {
+        primitives.add(null);
+        continue;
+      }
+      if ((call.getAggregation() != SqlStdOperatorTable.SUM
+              && call.getAggregation() != SqlStdOperatorTable.SUM0
+              && call.getAggregation() != SqlStdOperatorTable.MIN
+              && call.getAggregation() != SqlStdOperatorTable.MAX
+              && call.getAggregation() != SqlStdOperatorTable.AVG)
+          || call.getArgList().size() != 1
+          || !SqlTypeUtil.isNumeric(
+              inputFields.get(call.getArgList().get(0)).getType())) {
+        return null;
+      }
+      switch (call.getType().getSqlTypeName()) {
+      case INTEGER:
+        primitives.add(Primitive.INT);
+        break;
+      case BIGINT:
+        primitives.add(Primitive.LONG);
+        break;
+      case DOUBLE:
+        primitives.add(Primitive.DOUBLE);
+        break;
+      default:
+        return null;
+      }
+    }
+
+    final ParameterExpression row_ = Expressions.parameter(Row.class, "row");
+    final ParameterExpression r_ =
+        Expressions.parameter(RowBuilder.class, "r");
+    final List<MemberDeclaration> members = new ArrayList<>();
+    final List<Statement> sendStatements = new ArrayList<>();
+    final List<Statement> endStatements = new ArrayList<>();
+    final int offset = outputRowLength - aggCalls.size();
+    for (Ord<AggregateCall> call : Ord.zip(aggCalls)) {
+      final @Nullable Primitive primitive = primitives.get(call.i);
+      final AggregateCall aggCall = call.e;
+
+      // Number of rows (or, if there is an argument, non-null values) seen
+      final ParameterExpression n_ =
+          Expressions.parameter(long.class, "n" + call.i);
+      final Expression increment =
+          Expressions.addAssign(n_, Expressions.constant(1L));
+      members.add(Expressions.fieldDecl(0, n_));
+
+      final List<Expression> conditions = new ArrayList<>();
+      if (aggCall.filterArg >= 0) {
+        conditions.add(
+            Expressions.call(
+                Expressions.field(null, Boolean.class, "TRUE"), "equals",
+                Expressions.call(row_, "getObject",
+                    Expressions.constant(aggCall.filterArg))));
+      }
+      for (int arg : aggCall.getArgList()) {
+        conditions.add(
+            Expressions.notEqual(
+                Expressions.call(row_, "getObject", Expressions.constant(arg)),
+                Expressions.constant(null)));
+      }
+
+      final Statement update;
+      final Expression result;
+      if (primitive == null) {
+        // COUNT
+        update = Expressions.statement(increment);
+        result = Expressions.box(n_);
+      } else {
+        // Accumulated value; the sum, minimum or maximum
+        final Class<?> clazz =
+            requireNonNull(primitive.primitiveClass, "primitiveClass");
+        final ParameterExpression s_ =
+            Expressions.parameter(clazz, "s" + call.i);
+        final ParameterExpression x_ =
+            Expressions.parameter(clazz, "x" + call.i);
+        members.add(Expressions.fieldDecl(0, s_));
+        final Statement accumulate;
+        if (aggCall.getAggregation() == SqlStdOperatorTable.MIN
+            || aggCall.getAggregation() == SqlStdOperatorTable.MAX) {
+          final String method =
+              aggCall.getAggregation() == SqlStdOperatorTable.MIN
+                  ? "min" : "max";
+          accumulate =
+              Expressions.ifThenElse(
+                  Expressions.equal(n_, Expressions.constant(0L)),
+                  Expressions.statement(Expressions.assign(s_, x_)),
+                  Expressions.statement(
+                      Expressions.assign(s_,
+                          Expressions.call(Math.class, method, s_, x_))));
+        } else {
+          accumulate = Expressions.statement(Expressions.addAssign(s_, x_));
+        }
+        update =
+            Expressions.block(
+                Expressions.declare(Modifier.FINAL, x_,
+                    Expressions.unbox(
+                        Expressions.convert_(
+                            Expressions.call(row_, "getObject",
+                                Expressions.constant(
+                                    aggCall.getArgList().get(0))),
+                            Number.class),
+                        primitive)),
+                accumulate,
+                Expressions.statement(increment));
+        if (aggCall.getAggregation() == SqlStdOperatorTable.AVG) {
+          result =
+              Expressions.box(
+                  Expressions.convert_(Expressions.divide(s_, n_), clazz),
+                  primitive);
+        } else {
+          result = Expressions.box(s_, primitive);
+        }
+      }
+
+      sendStatements.add(
+          conditions.isEmpty()
+              ? update
+              : Expressions.ifThen(Expressions.foldAnd(conditions), update));
+
+      final Statement set =
+          Expressions.statement(
+              Expressions.call(r_, ROW_BUILDER_SET,
+                  Expressions.constant(offset + call.i), result));
+      endStatements.add(
+          primitive == null
+              || aggCall.getAggregation() == SqlStdOperatorTable.SUM0
+              ? set
+              : Expressions.ifThen(
+                  Expressions.notEqual(n_, Expressions.constant(0L)), set));
+    }
+    members.add(
+        Expressions.methodDecl(Modifier.PUBLIC, void.class, "send",
+            ImmutableList.of(row_), Expressions.block(sendStatements)));
+    members.add(
+        Expressions.methodDecl(Modifier.PUBLIC, void.class, "end",
+            ImmutableList.of(r_), Expressions.block(endStatements)));
+
+    final List<MemberDeclaration> declarations =
+        ImmutableList.of(
+            Expressions.methodDecl(Modifier.PUBLIC, Object.class, "get",
+                ImmutableList.of(),
+                Expressions.block(
+                    Expressions.return_(null,
+                        Expressions.new_(GroupAccumulator.class,
+                            ImmutableList.of(), members)))));
+    final String s = Expressions.toString(declarations, "\n", false);
+    if (CalciteSystemProperty.DEBUG.value()) {
+      Util.debugCode(System.out, s);
+    }
+    try {
+      @SuppressWarnings("unchecked")
+      final Supplier<GroupAccumulator> supplier =
+          JaninoRexCompiler.compileClass(Supplier.class, "Accumulators", s);
+      return supplier;
+    } catch (CompileException | IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private static AggregateFunctionImpl getAggFunction(Class<?> clazz) {
     return requireNonNull(
         AggregateFunctionImpl.create(clazz),
@@ -369,7 +611,7 @@ private ScalarAccumulator(ScalarAccumulatorDef def, Object[] values) {
    */
   private class Grouping {
     private final ImmutableBitSet grouping;
-    private final Map<Row, AccumulatorList> accumulators = new HashMap<>();
+    private final Map<Row, GroupAccumulator> accumulators = new HashMap<>();
 
     private Grouping(ImmutableBitSet grouping) {
       this.grouping = grouping;
@@ -384,21 +626,14 @@ public void send(Row row) {
       }
       Row key = builder.build();
 
-      if (!accumulators.containsKey(key)) {
-        AccumulatorList list = new AccumulatorList();
-        for (AccumulatorFactory factory : accumulatorFactories) {
-          list.add(factory.get());
-        }
-        accumulators.put(key, list);
-      }
-
-      accumulators.get(key).send(row);
+      accumulators.computeIfAbsent(key, k -> groupAccumulatorFactory.get())
+          .send(row);
     }
 
     public void end(Sink sink) throws InterruptedException {
-      for (Map.Entry<Row, AccumulatorList> e : accumulators.entrySet()) {
+      for (Map.Entry<Row, GroupAccumulator> e : accumulators.entrySet()) {
         final Row key = e.getKey();
-        final AccumulatorList list = e.getValue();
+        final GroupAccumulator list = e.getValue();
 
         RowBuilder rb = Row.newBuilder(outputRowLength);
         int index = 0;
@@ -421,14 +656,15 @@ public void end(Sink sink) throws InterruptedException {
   /**
    * A list of accumulators used during grouping.
    */
-  private static class AccumulatorList extends ArrayList<Accumulator> {
-    public void send(Row row) {
+  private static class AccumulatorList extends ArrayList<Accumulator>
+      implements GroupAccumulator {
+    @Override public void send(Row row) {
       for (Accumulator a : this) {
         a.send(row);
       }
     }
 
-    public void end(RowBuilder r) {
+    @Override public void end(RowBuilder r) {
       for (int accIndex = 0, rowIndex = r.size() - size();
           rowIndex < r.size(); rowIndex++, accIndex++) {
         r.set(rowIndex, get(accIndex).end());
@@ -436,6 +672,20 @@ public void end(RowBuilder r) {
     }
   }
 
+  /**
+   * Computes the aggregate calls of an {@link Aggregate} for one group.
+   *
+   * <p>It is public so that generated code can implement it.
+   */
+  public interface GroupAccumulator {
+    /** Adds an input row. */
+    void send(Row row);
+
+    /** Writes the value of each aggregate call into the last fields of an
+     * output row. */
+    void end(RowBuilder r);
+  }
+
   /**
    * Defines function implementation for
    * things like {@code count()} and {@code sum()}.
@@ -578,7 +828,7 @@ public MinLong() {
    */
   public static class MinFloat extends NumericComparison<Float> {
     public MinFloat() {
-      super(Float.MAX_VALUE, Math::min);
+      super(Float.POSITIVE_INFINITY, Math::min);
     }
   }
 
@@ -587,20 +837,25 @@ public MinFloat() {
    */
   public static class MinDouble extends NumericComparison<Double> {
     public MinDouble() {
-      super(Double.MAX_VALUE, Math::min);
+      super(Double.POSITIVE_INFINITY, Math::min);
     }
   }
 
   /** Implementation of {@code MIN} function to calculate the minimum of
    * {@code BigDecimal} values as a user-defined aggregate.
+   *
+   * <p>There is no smallest {@code BigDecimal}, so the accumulator starts
+   * as null, and takes the first value.
    */
-  public static class MinBigDecimal extends NumericComparison<BigDecimal> {
+  public static class MinBigDecimal
+      extends NumericComparison<@Nullable BigDecimal> {
     public MinBigDecimal() {
-      super(new BigDecimal(Double.MAX_VALUE), MinBigDecimal::min);
+      super(null, MinBigDecimal::min);
     }
 
-    public static BigDecimal min(BigDecimal a, BigDecimal b) {
-      return a.min(b);
+    public static @Nullable BigDecimal min(@Nullable BigDecimal a,
+        @Nullable BigDecimal b) {
+      return a == null ? b : b == null ? a : a.min(b);
     }
   }
 
@@ -650,7 +905,7 @@ public MaxLong() {
    */
   public static class MaxFloat extends NumericComparison<Float> {
     public MaxFloat() {
-      super(Float.MIN_VALUE, Math::max);
+      super(Float.NEGATIVE_INFINITY, Math::max);
     }
   }
 
@@ -659,20 +914,25 @@ public MaxFloat() {
    */
   public static class MaxDouble extends NumericComparison<Double> {
     public MaxDouble() {
-      super(Double.MIN_VALUE, Math::max);
+      super(Double.NEGATIVE_INFINITY, Math::max);
     }
   }
 
   /** Implementation of {@code MAX} function to calculate the maximum of
    * {@code BigDecimal} values as a user-defined aggregate.
+   *
+   * <p>There is no largest {@code BigDecimal}, so the accumulator starts
+   * as null, and takes the first value.
    */
-  public static class MaxBigDecimal extends NumericComparison<BigDecimal> {
+  public static class MaxBigDecimal
+      extends NumericComparison<@Nullable BigDecimal> {
     public MaxBigDecimal() {
-      super(new BigDecimal(Double.MIN_VALUE), MaxBigDecimal::max);
+      super(null, MaxBigDecimal::max);
     }
 
-    public static BigDecimal max(BigDecimal a, BigDecimal b) {
-      return a.max(b);
+    public static @Nullable BigDecimal max(@Nullable BigDecimal a,
+        @Nullable BigDecimal b) {
+      return a == null ? b : b == null ? a : a.max(b);
     }
   }
 
@@ -45,6 +45,7 @@
 import org.apache.calcite.rel.core.Match;
 import org.apache.calcite.rel.core.Minus;
 import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.ProjectingScan;
 import org.apache.calcite.rel.core.SetOp;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.core.TableScan;
@@ -206,7 +207,7 @@ public interface Config extends RelRule.Config {
   /** Scan of a table that implements {@link ScannableTable} and therefore can
    * be converted into an {@link Enumerable}. */
   public static class BindableTableScan
-      extends TableScan implements BindableRel {
+      extends TableScan implements BindableRel, ProjectingScan {
     public final ImmutableList<RexNode> filters;
     public final ImmutableIntList projects;
 
@@ -261,6 +262,10 @@ public static BindableTableScan create(RelOptCluster cluster,
       return Object[].class;
     }
 
+    @Override public ImmutableIntList getProjects() {
+      return projects;
+    }
+
     @Override public RelWriter explainTerms(RelWriter pw) {
       return super.explainTerms(pw)
           .itemIf("filters", filters, !filters.isEmpty())
@@ -193,12 +193,20 @@ private static class EnumeratorSource implements Source {
   private static class ListSink implements Sink {
     final ArrayDeque<Row> list;
 
+    /** Node to which rows are passed as they arrive, or null if rows are
+     * queued until the consuming node runs. */
+    @Nullable PushNode consumer;
+
     private ListSink(ArrayDeque<Row> list) {
       this.list = list;
     }
 
     @Override public void send(Row row) throws InterruptedException {
-      list.add(row);
+      if (consumer != null) {
+        consumer.push(row);
+      } else {
+        list.add(row);
+      }
     }
 
     @Override public void end() throws InterruptedException {
@@ -372,6 +380,9 @@ Pair<RelNode, Map<RelNode, NodeInfo>> visitRoot(RelNode p) {
       final NodeInfo nodeInfo = nodes.get(p);
       assert nodeInfo != null;
       nodeInfo.node = node;
+      if (node instanceof PushNode) {
+        fuse(p, (PushNode) node);
+      }
       if (inputs != null) {
         for (int i = 0; i < inputs.size(); i++) {
           final RelNode input = inputs.get(i);
@@ -380,6 +391,26 @@ Pair<RelNode, Map<RelNode, NodeInfo>> visitRoot(RelNode p) {
       }
     }
 
+    /** If {@code p} is the only consumer of its only input, connects the
+     * input's sink directly to {@code node}, so that rows are processed as
+     * they are produced rather than being queued. */
+    private void fuse(RelNode p, PushNode node) {
+      final List<RelNode> inputs = Util.first(relInputs.get(p), p.getInputs());
+      if (inputs.size() != 1) {
+        return;
+      }
+      final NodeInfo inputInfo = nodes.get(inputs.get(0));
+      if (inputInfo == null
+          || inputInfo.rowEnumerable != null
+          || inputInfo.sinks.size() != 1) {
+        return;
+      }
+      final ListSink sink = inputInfo.sinks.get(new Edge(p, 0));
+      if (sink != null && sink.list.isEmpty()) {
+        sink.consumer = node;
+      }
+    }
+
     /** Fallback rewrite method.
      *
      * <p>Overriding methods (each with a different sub-class of {@link RelNode}
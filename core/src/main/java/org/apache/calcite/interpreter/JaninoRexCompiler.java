@@ -198,6 +198,13 @@ static Scalar.Producer baz(ParameterExpression context_,
 
   static Scalar.Producer getScalar(ClassDeclaration expr, String s)
       throws CompileException, IOException {
+    return compileClass(Scalar.Producer.class, expr.name, s);
+  }
+
+  /** Compiles a class body that implements a given interface, and returns an
+   * instance of the class. */
+  static <T> T compileClass(Class<T> interfaceClass, String className,
+      String s) throws CompileException, IOException {
     ICompilerFactory compilerFactory;
     ClassLoader classLoader =
         Objects.requireNonNull(JaninoRexCompiler.class.getClassLoader(), "classLoader");
@@ -208,13 +215,13 @@ static Scalar.Producer getScalar(ClassDeclaration expr, String s)
           "Unable to instantiate java compiler", e);
     }
     IClassBodyEvaluator cbe = compilerFactory.newClassBodyEvaluator();
-    cbe.setClassName(expr.name);
-    cbe.setImplementedInterfaces(new Class[] {Scalar.Producer.class});
+    cbe.setClassName(className);
+    cbe.setImplementedInterfaces(new Class[] {interfaceClass});
     cbe.setParentClassLoader(classLoader);
     if (CalciteSystemProperty.DEBUG.value()) {
       // Add line numbers to the generated janino class
       cbe.setDebuggingInformation(true, true, true);
     }
-    return (Scalar.Producer) cbe.createInstance(new StringReader(s));
+    return interfaceClass.cast(cbe.createInstance(new StringReader(s)));
   }
 }
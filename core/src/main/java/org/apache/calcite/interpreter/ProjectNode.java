@@ -22,7 +22,8 @@
  * Interpreter node that implements a
  * {@link org.apache.calcite.rel.core.Project}.
  */
-public class ProjectNode extends AbstractSingleNode<Project> {
+public class ProjectNode extends AbstractSingleNode<Project>
+    implements PushNode {
   private final Scalar scalar;
   private final Context context;
   private final int projectCount;
@@ -38,10 +39,14 @@ public ProjectNode(Compiler compiler, Project rel) {
   @Override public void run() throws InterruptedException {
     Row row;
     while ((row = source.receive()) != null) {
-      context.values = row.getValues();
-      Object[] values = new Object[projectCount];
-      scalar.execute(context, values);
-      sink.send(new Row(values));
+      push(row);
     }
   }
+
+  @Override public void push(Row row) throws InterruptedException {
+    context.values = row.getValues();
+    Object[] values = new Object[projectCount];
+    scalar.execute(context, values);
+    sink.send(new Row(values));
+  }
 }
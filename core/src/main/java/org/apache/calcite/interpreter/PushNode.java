@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.interpreter;
+
+/**
+ * {@link Node} that can process each row of its single input as soon as the
+ * input produces it, rather than reading all rows from a {@link Source} when
+ * it runs.
+ *
+ * <p>If no other node reads the input, the interpreter connects the input's
+ * {@link Sink} directly to this node. Rows then flow through a chain of such
+ * nodes (for example, a filter, then a project, then an aggregate) without
+ * being stored in a queue between each pair of nodes.
+ *
+ * <p>The node's {@link #run()} method is still called, after its input has
+ * finished; it must read any rows that are in its {@link Source}, and then
+ * do any work, such as emitting aggregated rows, that needs all of its input.
+ */
+interface PushNode extends Node {
+  /** Processes a row produced by this node's input. */
+  void push(Row row) throws InterruptedException;
+}
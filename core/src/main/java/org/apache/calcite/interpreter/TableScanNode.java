@@ -17,6 +17,7 @@
 package org.apache.calcite.interpreter;
 
 import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.enumerable.EnumUtils;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Queryable;
 import org.apache.calcite.plan.RelOptTable;
@@ -34,6 +35,7 @@
 import org.apache.calcite.schema.ScannableTable;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.schema.SplittableTable;
 import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.ImmutableIntList;
 import org.apache.calcite.util.Util;
@@ -51,6 +53,7 @@
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.apache.calcite.util.Static.RESOURCE;
 
@@ -116,7 +119,9 @@ private static TableScanNode createScannable(Compiler compiler, TableScan rel,
       ImmutableList<RexNode> filters, @Nullable ImmutableIntList projects,
       ScannableTable scannableTable) {
     final Enumerable<Row> rowEnumerable =
-        Enumerables.toRow(scannableTable.scan(compiler.getDataContext()));
+        Enumerables.toRow(
+            scan(compiler, rel, new ArrayList<>(), null,
+                () -> scannableTable.scan(compiler.getDataContext())));
     return createEnumerable(compiler, rel, rowEnumerable, null, filters,
         projects);
   }
@@ -175,7 +180,8 @@ private static TableScanNode createFilterable(Compiler compiler,
     final DataContext root = compiler.getDataContext();
     final List<RexNode> mutableFilters = Lists.newArrayList(filters);
     final Enumerable<@Nullable Object[]> enumerable =
-        filterableTable.scan(root, mutableFilters);
+        scan(compiler, rel, mutableFilters, null,
+            () -> filterableTable.scan(root, mutableFilters));
     for (RexNode filter : mutableFilters) {
       if (!filters.contains(filter)) {
         throw RESOURCE.filterableTableInventedFilter(filter.toString()).ex();
@@ -226,7 +232,8 @@ private static TableScanNode createProjectableFilterable(Compiler compiler,
         }
       }
       final Enumerable<@Nullable Object[]> enumerable1 =
-          pfTable.scan(root, mutableFilters, projectInts);
+          scan(compiler, rel, mutableFilters, projectInts,
+              () -> pfTable.scan(root, mutableFilters, projectInts));
       final Enumerable<Row> rowEnumerable = Enumerables.toRow(enumerable1);
       final ImmutableIntList rejectedProjects;
       if (originalProjects == null || originalProjects.equals(projects)) {
@@ -241,6 +248,22 @@ private static TableScanNode createProjectableFilterable(Compiler compiler,
     }
   }
 
+  /** Returns the rows of a table. If the table is a {@link SplittableTable}
+   * and the connection allows more than one thread, reads several splits
+   * concurrently; otherwise calls {@code scanner}. */
+  private static Enumerable<@Nullable Object[]> scan(Compiler compiler,
+      TableScan rel, List<RexNode> filters, int @Nullable [] projects,
+      Supplier<Enumerable<@Nullable Object[]>> scanner) {
+    final SplittableTable splittableTable =
+        rel.getTable().unwrap(SplittableTable.class);
+    final int parallelism = EnumUtils.parallelism(rel);
+    if (splittableTable != null && parallelism > 1) {
+      return Schemas.enumerable(splittableTable, compiler.getDataContext(),
+          filters, projects, parallelism);
+    }
+    return scanner.get();
+  }
+
   private static TableScanNode createEnumerable(Compiler compiler,
       TableScan rel, Enumerable<Row> enumerable,
       final @Nullable ImmutableIntList acceptedProjects, List<RexNode> rejectedFilters,
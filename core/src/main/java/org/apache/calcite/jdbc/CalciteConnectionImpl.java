@@ -45,6 +45,8 @@
 import org.apache.calcite.materialize.MaterializationService;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.prepare.CalciteCatalogReader;
+import org.apache.calcite.prepare.PlanCache;
+import org.apache.calcite.rel.metadata.RelMetadataCache;
 import org.apache.calcite.rel.type.DelegatingTypeSystem;
 import org.apache.calcite.rel.type.RelDataTypeSystem;
 import org.apache.calcite.rel.type.TimeFrameSet;
@@ -106,6 +108,8 @@
   final CalciteSchema rootSchema;
   final Supplier<CalcitePrepare> prepareFactory;
   final CalciteServer server = new CalciteServerImpl();
+  final @Nullable PlanCache planCache;
+  final @Nullable RelMetadataCache metadataCache;
 
   // must be package-protected
   static final Trojan TROJAN = createTrojan();
@@ -153,6 +157,11 @@ protected CalciteConnectionImpl(Driver driver, AvaticaFactory factory,
     this.properties.put(InternalProperty.UNQUOTED_CASING, cfg.unquotedCasing());
     this.properties.put(InternalProperty.QUOTED_CASING, cfg.quotedCasing());
     this.properties.put(InternalProperty.QUOTING, cfg.quoting());
+    final int planCacheSize = cfg.planCacheSize();
+    this.planCache = planCacheSize > 0 ? new PlanCache(planCacheSize) : null;
+    final int metadataCacheSize = cfg.metadataCacheSize();
+    this.metadataCache =
+        metadataCacheSize > 0 ? new RelMetadataCache(metadataCacheSize) : null;
   }
 
   CalciteMetaImpl meta() {
@@ -187,6 +196,12 @@ void init() {
               ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
               getHoldability()));
     }
+    if (iface == PlanCache.class && planCache != null) {
+      return iface.cast(planCache);
+    }
+    if (iface == RelMetadataCache.class && metadataCache != null) {
+      return iface.cast(metadataCache);
+    }
     return super.unwrap(iface);
   }
 
@@ -537,6 +552,14 @@ static class ContextImpl implements CalcitePrepare.Context {
       return mutableRootSchema;
     }
 
+    @Override public @Nullable PlanCache getPlanCache() {
+      return connection.planCache;
+    }
+
+    @Override public @Nullable RelMetadataCache getMetadataCache() {
+      return connection.metadataCache;
+    }
+
     @Override public List<String> getDefaultSchemaPath() {
       final String schemaName;
       try {
@@ -30,9 +30,11 @@
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.prepare.CalcitePrepareImpl;
+import org.apache.calcite.prepare.PlanCache;
 import org.apache.calcite.rel.RelCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.rel.metadata.RelMetadataCache;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rex.RexNode;
@@ -133,6 +135,18 @@ interface Context {
 
     /** Gets a runner; it can execute a relational expression. */
     RelRunner getRelRunner();
+
+    /** Returns the cache of prepared queries, or null if queries are not
+     * cached. */
+    default @Nullable PlanCache getPlanCache() {
+      return null;
+    }
+
+    /** Returns the cache of metadata shared between statements, or null if
+     * metadata is not shared. */
+    default @Nullable RelMetadataCache getMetadataCache() {
+      return null;
+    }
   }
 
   /** Callback to register Spark as the main engine. */
@@ -372,6 +386,15 @@ public Enumerable<T> enumerable(DataContext dataContext) {
     public List<RelCollation> getCollationList() {
       return collationList;
     }
+
+    /** Returns a copy of this signature with a different SQL string and root
+     * schema, for a statement that re-uses a cached plan. */
+    public CalciteSignature<T> copy(@Nullable String sql,
+        @Nullable CalciteSchema rootSchema) {
+      return new CalciteSignature<>(sql, parameters, internalParameters,
+          rowType, columns, cursorFactory, rootSchema, collationList,
+          maxRowCount, bindable, statementType);
+    }
   }
 
   /** A union type of the three possible ways of expressing a query: as a SQL
@@ -51,6 +51,7 @@
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.sql.DataSource;
 
 /**
@@ -73,6 +74,9 @@ public abstract class CalciteSchema {
   protected final NameMap<FunctionEntry> nullaryFunctionMap;
   protected final NameMap<CalciteSchema> subSchemaMap;
   private @Nullable List<? extends List<String>> path;
+  /** Number of times that an explicit object in this schema or one of its
+   * descendants has been added or removed. Maintained on the root only. */
+  private final AtomicLong modCount = new AtomicLong();
 
   protected CalciteSchema(@Nullable CalciteSchema parent, Schema schema,
       String name,
@@ -199,6 +203,7 @@ public TableEntry add(String tableName, Table table,
     final TableEntryImpl entry =
         new TableEntryImpl(this, tableName, table, sqls);
     tableMap.put(tableName, entry);
+    modified();
     return entry;
   }
 
@@ -207,6 +212,7 @@ public TypeEntry add(String name, RelProtoDataType type) {
     final TypeEntry entry =
         new TypeEntryImpl(this, name, type);
     typeMap.put(name, entry);
+    modified();
     return entry;
   }
 
@@ -218,6 +224,7 @@ private FunctionEntry add(String name, Function function) {
     if (function.getParameters().isEmpty()) {
       nullaryFunctionMap.put(name, entry);
     }
+    modified();
     return entry;
   }
 
@@ -227,9 +234,29 @@ private LatticeEntry add(String name, Lattice lattice) {
     }
     final LatticeEntryImpl entry = new LatticeEntryImpl(this, name, lattice);
     latticeMap.put(name, entry);
+    modified();
     return entry;
   }
 
+  /** Returns the number of times that tables, functions, types, lattices or
+   * sub-schemas have been added to or removed from the tree of schemas that
+   * contains this schema.
+   *
+   * <p>The count does not change if the underlying {@link Schema} of a
+   * schema in the tree changes the objects that it defines implicitly.
+   * A cache of objects derived from the tree, such as
+   * {@link org.apache.calcite.prepare.PlanCache}, can compare the count with
+   * the count when it was populated to find out whether it is stale. */
+  public long getModCount() {
+    return root().modCount.get();
+  }
+
+  /** Records that an explicit object has been added to or removed from this
+   * schema. */
+  protected void modified() {
+    root().modCount.incrementAndGet();
+  }
+
   public CalciteSchema root() {
     for (CalciteSchema schema = this;;) {
       if (schema.parent == null) {
@@ -530,12 +557,20 @@ public static CalciteSchema createRootSchema(boolean addMetadataSchema,
 
   @Experimental
   public boolean removeSubSchema(String name) {
-    return subSchemaMap.remove(name) != null;
+    if (subSchemaMap.remove(name) == null) {
+      return false;
+    }
+    modified();
+    return true;
   }
 
   @Experimental
   public boolean removeTable(String name) {
-    return tableMap.remove(name) != null;
+    if (tableMap.remove(name) == null) {
+      return false;
+    }
+    modified();
+    return true;
   }
 
   @Experimental
@@ -545,12 +580,17 @@ public boolean removeFunction(String name) {
       return false;
     }
     functionMap.remove(name, remove);
+    modified();
     return true;
   }
 
   @Experimental
   public boolean removeType(String name) {
-    return typeMap.remove(name) != null;
+    if (typeMap.remove(name) == null) {
+      return false;
+    }
+    modified();
+    return true;
   }
 
   /**
@@ -724,6 +764,7 @@ CalciteSchema calciteSchema() {
 
     @Override public void setPath(ImmutableList<ImmutableList<String>> path) {
       CalciteSchema.this.path = path;
+      modified();
     }
 
     @Override public void add(String name, Table table) {
@@ -17,6 +17,9 @@
 package org.apache.calcite.materialize;
 
 import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.schema.ColumnStatistic;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.List;
 
@@ -58,4 +61,17 @@ boolean isForeignKey(RelOptTable fromTable, List<Integer> fromColumns,
    * <p>For example, {@code isKey(EMP, [DEPTNO]} returns true;
    * <p>For example, {@code isKey(DEPT, [DEPTNO]} returns false. */
   boolean isKey(RelOptTable table, List<Integer> columns);
+
+  /** Returns statistics about the values of a column: the number of distinct
+   * values, the fraction of nulls, and a histogram; or null if not known.
+   *
+   * <p>For example, {@code columnStatistic(EMP, DEPTNO)} might return
+   * a statistic with 3 distinct values, no nulls, and a histogram whose
+   * bounds are [10, 20, 30].
+   *
+   * <p>The default implementation returns null. */
+  default @Nullable ColumnStatistic columnStatistic(RelOptTable table,
+      int column) {
+    return null;
+  }
 }
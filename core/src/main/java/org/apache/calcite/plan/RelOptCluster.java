@@ -28,6 +28,7 @@
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.util.TryThreadLocal;
 
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
@@ -61,6 +62,13 @@ public class RelOptCluster {
   private final RelTraitSet emptyTraitSet;
   private @Nullable RelMetadataQuery mq;
   private Supplier<RelMetadataQuery> mqSupplier;
+  /** Metadata queries of threads that have their own; see
+   * {@link #pushThreadMetadataQuery(RelMetadataQuery)}. */
+  private final TryThreadLocal<@Nullable RelMetadataQuery> threadMq =
+      TryThreadLocal.of(null);
+  /** Number of threads that have their own metadata query. Read before
+   * {@link #threadMq}, which is more expensive to read. */
+  private final AtomicInteger threadMqCount = new AtomicInteger();
 
   //~ Constructors -----------------------------------------------------------
 
@@ -194,12 +202,34 @@ public void setMetadataQuerySupplier(
    * for example if you are in a {@link RelOptRule#onMatch(RelOptRuleCall)}
    * method, then use {@link RelOptRuleCall#getMetadataQuery()} instead. */
   public RelMetadataQuery getMetadataQuery() {
+    if (threadMqCount.get() > 0) {
+      final RelMetadataQuery mq = threadMq.get();
+      if (mq != null) {
+        return mq;
+      }
+    }
     if (mq == null) {
       mq = castNonNull(mqSupplier).get();
     }
     return mq;
   }
 
+  /**
+   * Makes the current thread use a given RelMetadataQuery, rather than the
+   * one shared by other threads, until the returned object is closed.
+   *
+   * <p>A RelMetadataQuery is not thread-safe. A planner that fires rules in
+   * several threads at a time gives each thread its own.
+   */
+  public TryThreadLocal.Memo pushThreadMetadataQuery(RelMetadataQuery mq) {
+    threadMqCount.incrementAndGet();
+    final TryThreadLocal.Memo memo = threadMq.push(mq);
+    return () -> {
+      memo.close();
+      threadMqCount.decrementAndGet();
+    };
+  }
+
   /**
    * Returns the supplier of RelMetadataQuery.
    */
@@ -18,10 +18,13 @@
 
 import org.apache.calcite.rel.RelNode;
 
+import com.google.common.collect.ImmutableMap;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.EventListener;
 import java.util.EventObject;
+import java.util.Map;
 
 /**
  * RelOptListener defines an interface for listening to events which occur
@@ -81,6 +84,16 @@ public interface RelOptListener extends EventListener {
    */
   void relChosen(RelChosenEvent event);
 
+  /**
+   * Notifies this listener that the planner has finished, and reports how
+   * much work it did. Planners that do not collect statistics never call
+   * this method.
+   *
+   * @param event details about the event
+   */
+  default void planningFinished(PlanningFinishedEvent event) {
+  }
+
   //~ Inner Classes ----------------------------------------------------------
 
   /**
@@ -184,4 +197,93 @@ public RuleProductionEvent(
       super(eventSource, rel, ruleCall, before);
     }
   }
+
+  /** Event indicating that a planner has finished. The rel is the chosen
+   * plan. */
+  class PlanningFinishedEvent extends RelEvent {
+    private final long elapsedNanos;
+    private final boolean budgetExhausted;
+    private final int setCount;
+    private final int relCount;
+    private final ImmutableMap<String, RuleStatistics> ruleStatistics;
+
+    public PlanningFinishedEvent(
+        Object eventSource,
+        RelNode rel,
+        long elapsedNanos,
+        boolean budgetExhausted,
+        int setCount,
+        int relCount,
+        Map<String, RuleStatistics> ruleStatistics) {
+      super(eventSource, rel);
+      this.elapsedNanos = elapsedNanos;
+      this.budgetExhausted = budgetExhausted;
+      this.setCount = setCount;
+      this.relCount = relCount;
+      this.ruleStatistics = ImmutableMap.copyOf(ruleStatistics);
+    }
+
+    /** Returns the time spent planning, in nanoseconds. */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /** Returns whether the planner stopped firing rules because it ran out
+     * of budget, and therefore the plan may not be the cheapest. */
+    public boolean isBudgetExhausted() {
+      return budgetExhausted;
+    }
+
+    /** Returns the number of equivalence sets created. */
+    public int getSetCount() {
+      return setCount;
+    }
+
+    /** Returns the number of relational expressions registered. */
+    public int getRelCount() {
+      return relCount;
+    }
+
+    /** Returns statistics for each rule that fired, keyed by the rule's
+     * description. */
+    public ImmutableMap<String, RuleStatistics> getRuleStatistics() {
+      return ruleStatistics;
+    }
+
+    /** Returns the number of times that rules fired. */
+    public long getRuleFireCount() {
+      long count = 0;
+      for (RuleStatistics statistics : ruleStatistics.values()) {
+        count += statistics.getFireCount();
+      }
+      return count;
+    }
+  }
+
+  /** Number of times that a planner rule fired, and the time it took. */
+  class RuleStatistics {
+    private final long fireCount;
+    private final long nanos;
+
+    public RuleStatistics(long fireCount, long nanos) {
+      this.fireCount = fireCount;
+      this.nanos = nanos;
+    }
+
+    public long getFireCount() {
+      return fireCount;
+    }
+
+    /** Returns the time spent in the rule's
+     * {@link RelOptRule#onMatch(RelOptRuleCall)} method, in nanoseconds,
+     * including registering the expressions that it produced. */
+    public long getNanos() {
+      return nanos;
+    }
+
+    @Override public String toString() {
+      return "RuleStatistics(fireCount=" + fireCount + ", nanos=" + nanos
+          + ")";
+    }
+  }
 }
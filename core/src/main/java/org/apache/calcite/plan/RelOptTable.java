@@ -26,6 +26,7 @@
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.schema.ColumnStatistic;
 import org.apache.calcite.schema.ColumnStrategy;
 import org.apache.calcite.schema.Wrapper;
 import org.apache.calcite.util.ImmutableBitSet;
@@ -114,6 +115,16 @@ public interface RelOptTable extends Wrapper {
    */
   @Nullable List<RelReferentialConstraint> getReferentialConstraints();
 
+  /**
+   * Returns statistics about the values of a column of this table, or null
+   * if not known.
+   *
+   * @param column Ordinal of the column
+   */
+  default @Nullable ColumnStatistic getColumnStatistic(int column) {
+    return null;
+  }
+
   /**
    * Generates code for this table.
    *
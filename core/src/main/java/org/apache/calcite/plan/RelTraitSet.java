@@ -28,9 +28,9 @@
 
 import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -702,9 +702,10 @@ public RelTraitSet simplify() {
     return x;
   }
 
-  /** Cache of trait sets. */
+  /** Cache of trait sets. Thread-safe, because rules may fire, and create
+   * trait sets, in several threads at a time. */
   private static class Cache {
-    final Map<RelTraitSet, RelTraitSet> map = new HashMap<>();
+    final Map<RelTraitSet, RelTraitSet> map = new ConcurrentHashMap<>();
 
     Cache() {
     }
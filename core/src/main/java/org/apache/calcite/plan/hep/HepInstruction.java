@@ -261,6 +261,30 @@ class State extends HepState {
     }
   }
 
+  /** Instruction that sets whether matching is incremental. */
+  static class MatchIncremental extends HepInstruction {
+    final boolean incremental;
+
+    MatchIncremental(boolean incremental) {
+      this.incremental = incremental;
+    }
+
+    @Override State prepare(PrepareContext px) {
+      return new State(px);
+    }
+
+    /** State for a {@link MatchIncremental} instruction. */
+    class State extends HepState {
+      State(PrepareContext px) {
+        super(px);
+      }
+
+      @Override void execute() {
+        planner.executeMatchIncremental(MatchIncremental.this, this);
+      }
+    }
+  }
+
   /** Instruction that executes a sub-program. */
   static class SubProgram extends HepInstruction {
     final HepProgram subProgram;
@@ -112,6 +112,10 @@ public class HepPlanner extends AbstractRelOptPlanner {
 
   private final Function2<RelNode, RelNode, Void> onCopyHook;
 
+  /** Vertices on which no rule of the current rule set matched, and which
+   * have not changed since; used only if matching is incremental. */
+  private final Set<HepRelVertex> unmatchedVertices = new HashSet<>();
+
   private final List<RelOptMaterialization> materializations =
       new ArrayList<>();
 
@@ -174,6 +178,7 @@ public HepPlanner(
       removeRule(rule);
     }
     this.materializations.clear();
+    this.unmatchedVertices.clear();
   }
 
   @Override public RelNode changeTraits(RelNode rel, RelTraitSet toTraits) {
@@ -229,6 +234,12 @@ void executeMatchLimit(HepInstruction.MatchLimit instruction,
     state.programState.matchLimit = instruction.limit;
   }
 
+  void executeMatchIncremental(HepInstruction.MatchIncremental instruction,
+      HepInstruction.MatchIncremental.State state) {
+    LOGGER.trace("Setting incremental matching to {}", instruction.incremental);
+    state.programState.matchIncremental = instruction.incremental;
+  }
+
   void executeMatchOrder(HepInstruction.MatchOrder instruction,
       HepInstruction.MatchOrder.State state) {
     LOGGER.trace("Setting match order to {}", instruction.order);
@@ -362,16 +373,21 @@ void executeEndGroup(HepInstruction.EndGroup instruction,
   }
 
   private int depthFirstApply(HepProgram.State programState,
-      Iterator<HepRelVertex> iter, Collection<RelOptRule> rules,
+      Iterator<HepRelVertex> iter, RuleIndex rules,
       boolean forceConversions, int nMatches) {
     while (iter.hasNext()) {
       HepRelVertex vertex = iter.next();
-      for (RelOptRule rule : rules) {
+      if (unmatchedVertices.contains(vertex)) {
+        continue;
+      }
+      boolean matched = false;
+      for (RelOptRule rule : rules.rulesFor(vertex.getCurrentRel())) {
         HepRelVertex newVertex =
             applyRule(rule, vertex, forceConversions);
         if (newVertex == null || newVertex == vertex) {
           continue;
         }
+        matched = true;
         ++nMatches;
         if (nMatches >= programState.matchLimit) {
           return nMatches;
@@ -386,6 +402,9 @@ private int depthFirstApply(HepProgram.State programState,
                 nMatches);
         break;
       }
+      if (!matched && rules.incremental) {
+        unmatchedVertices.add(vertex);
+      }
     }
     return nMatches;
   }
@@ -406,6 +425,10 @@ private void applyRules(HepProgram.State programState,
         programState.matchOrder != HepMatchOrder.ARBITRARY
             && programState.matchOrder != HepMatchOrder.DEPTH_FIRST;
 
+    final RuleIndex ruleIndex =
+        new RuleIndex(rules, programState.matchIncremental);
+    unmatchedVertices.clear();
+
     int nMatches = 0;
 
     boolean fixedPoint;
@@ -415,12 +438,17 @@ private void applyRules(HepProgram.State programState,
       fixedPoint = true;
       while (iter.hasNext()) {
         HepRelVertex vertex = iter.next();
-        for (RelOptRule rule : rules) {
+        if (unmatchedVertices.contains(vertex)) {
+          continue;
+        }
+        boolean matched = false;
+        for (RelOptRule rule : ruleIndex.rulesFor(vertex.getCurrentRel())) {
           HepRelVertex newVertex =
               applyRule(rule, vertex, forceConversions);
           if (newVertex == null || newVertex == vertex) {
             continue;
           }
+          matched = true;
           ++nMatches;
           if (nMatches >= programState.matchLimit) {
             return;
@@ -434,7 +462,8 @@ private void applyRules(HepProgram.State programState,
             iter = getGraphIterator(programState, newVertex);
             if (programState.matchOrder == HepMatchOrder.DEPTH_FIRST) {
               nMatches =
-                  depthFirstApply(programState, iter, rules, forceConversions, nMatches);
+                  depthFirstApply(programState, iter, ruleIndex,
+                      forceConversions, nMatches);
               if (nMatches >= programState.matchLimit) {
                 return;
               }
@@ -445,6 +474,9 @@ private void applyRules(HepProgram.State programState,
           }
           break;
         }
+        if (!matched && ruleIndex.incremental) {
+          unmatchedVertices.add(vertex);
+        }
       }
     } while (!fixedPoint);
   }
@@ -874,6 +906,7 @@ private void contractVertices(
       graph.addEdge(parent, preservedVertex);
       updateVertex(parent, parentRel);
     }
+    forgetUnmatched(parents);
 
     // NOTE:  we don't actually do graph.removeVertex(discardedVertex),
     // because it might still be reachable from preservedVertex.
@@ -906,6 +939,29 @@ private void clearCache(HepRelVertex vertex) {
     }
   }
 
+  /** Removes some vertices, and all of their ancestors, from the set of
+   * vertices on which no rule matched. Called when the inputs of the
+   * vertices have changed, so a rule may now match. */
+  private void forgetUnmatched(List<HepRelVertex> vertices) {
+    if (unmatchedVertices.isEmpty()) {
+      return;
+    }
+    // Visit every ancestor, even via vertices that are not in the set;
+    // a vertex may be in the set even if one of its inputs is not.
+    final Set<HepRelVertex> visited = new HashSet<>(vertices);
+    final Queue<HepRelVertex> queue = new ArrayDeque<>(vertices);
+    while (!queue.isEmpty()) {
+      final HepRelVertex vertex = queue.remove();
+      unmatchedVertices.remove(vertex);
+      for (DefaultEdge edge : graph.getInwardEdges(vertex)) {
+        final HepRelVertex source = (HepRelVertex) edge.source;
+        if (visited.add(source)) {
+          queue.add(source);
+        }
+      }
+    }
+  }
+
   private void updateVertex(HepRelVertex vertex, RelNode rel) {
     if (rel != vertex.getCurrentRel()) {
       // REVIEW jvs 5-Apr-2006:  We'll do this again later
@@ -990,6 +1046,7 @@ private void collectGarbage() {
     }
     assert !sweepSet.isEmpty();
     graph.removeAllVertices(sweepSet);
+    unmatchedVertices.removeAll(sweepSet);
     graphSizeLastGC = graph.vertexSet().size();
 
     // Clean up digest map too.
@@ -1067,4 +1124,36 @@ private void dumpGraph() {
   @Override public void addMaterialization(RelOptMaterialization materialization) {
     materializations.add(materialization);
   }
+
+  /** Rules of a rule set, indexed by the class of relational expression that
+   * their root operand can match. */
+  private static class RuleIndex {
+    final Collection<RelOptRule> rules;
+    /** Whether to remember vertices on which no rule matched. */
+    final boolean incremental;
+    private final Map<Class<? extends RelNode>, List<RelOptRule>> map =
+        new HashMap<>();
+
+    RuleIndex(Collection<RelOptRule> rules, boolean matchIncremental) {
+      this.rules = rules;
+      this.incremental = matchIncremental
+          && rules.stream().noneMatch(rule ->
+              rule instanceof ConverterRule
+                  || rule instanceof CommonRelSubExprRule);
+    }
+
+    /** Returns the rules that might match a relational expression, in the
+     * same order as in the rule set. */
+    List<RelOptRule> rulesFor(RelNode rel) {
+      return map.computeIfAbsent(rel.getClass(), c -> {
+        final List<RelOptRule> list = new ArrayList<>();
+        for (RelOptRule rule : rules) {
+          if (rule.getOperand().getMatchedClass().isAssignableFrom(c)) {
+            list.add(rule);
+          }
+        }
+        return list;
+      });
+    }
+  }
 }
@@ -76,6 +76,7 @@ class State extends HepState {
     final ImmutableList<HepState> instructionStates;
     int matchLimit = MATCH_UNTIL_FIXPOINT;
     HepMatchOrder matchOrder = HepMatchOrder.DEPTH_FIRST;
+    boolean matchIncremental;
     HepInstruction.EndGroup.@Nullable State group;
 
     State(PrepareContext px, List<HepInstruction> instructions) {
@@ -111,6 +112,7 @@ class State extends HepState {
     @Override void init() {
       matchLimit = MATCH_UNTIL_FIXPOINT;
       matchOrder = HepMatchOrder.DEPTH_FIRST;
+      matchIncremental = false;
       group = null;
     }
 
@@ -201,6 +201,29 @@ public HepProgramBuilder addMatchLimit(int limit) {
     return addInstruction(new HepInstruction.MatchLimit(limit));
   }
 
+  /**
+   * Adds an instruction to change whether pattern matching is incremental for
+   * subsequent instructions. The setting will take effect for the rest of the
+   * program (not counting subprograms) or until another such instruction is
+   * encountered.
+   *
+   * <p>If matching is incremental, the planner remembers each vertex on which
+   * no rule matched, and does not try the rules on that vertex again until
+   * the vertex or one of its descendants changes. This avoids re-examining
+   * the whole graph after each transformation, which makes large plans much
+   * faster to optimize. It assumes that whether a rule matches depends only
+   * on the vertex and its inputs; it has no effect on instructions that
+   * contain a {@link org.apache.calcite.rel.convert.ConverterRule} or
+   * {@link org.apache.calcite.plan.CommonRelSubExprRule}, which depend on
+   * the vertex's parents.
+   *
+   * @param incremental whether matching is incremental; default false
+   */
+  public HepProgramBuilder addMatchIncremental(boolean incremental) {
+    checkArgument(group < 0);
+    return addInstruction(new HepInstruction.MatchIncremental(incremental));
+  }
+
   /**
    * Adds an instruction to execute a subprogram. Note that this is different
    * from adding the instructions from the subprogram individually. When added
@@ -58,7 +58,7 @@ class IterativeRuleDriver implements RuleDriver {
       try {
         match.onMatch();
       } catch (VolcanoTimeoutException e) {
-        LOGGER.warn("Volcano planning times out, cancels the subsequent optimization.");
+        planner.logStopped();
         planner.canonize();
         break;
       }
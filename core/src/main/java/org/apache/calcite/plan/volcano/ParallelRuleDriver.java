@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.plan.volcano;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.metadata.JaninoRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMetadataQueryBase;
+import org.apache.calcite.runtime.ParallelEnumerables;
+import org.apache.calcite.util.TryThreadLocal;
+import org.apache.calcite.util.Util;
+import org.apache.calcite.util.trace.CalciteTrace;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rule driver that fires several rule matches at a time, in parallel.
+ *
+ * <p>Like {@link IterativeRuleDriver}, it takes matches from an
+ * {@link IterativeRuleQueue} until the queue is empty. It takes a batch of
+ * matches at a time, and fires them in two phases:
+ *
+ * <ol>
+ * <li>Each of several threads fires some of the matches. A rule may read the
+ * planner's state, but the actions that would modify it (for example
+ * {@link VolcanoRuleCall#transformTo}, {@link VolcanoPlanner#prune}, and
+ * listener events) are deferred. Each thread uses its own
+ * {@link org.apache.calcite.rel.metadata.RelMetadataQuery}.
+ *
+ * <li>The driver's thread performs the deferred actions, registering the
+ * new relational expressions, in the order that the matches were taken from
+ * the queue.
+ * </ol>
+ *
+ * <p>Because the planner's state is modified only in the second phase, in a
+ * fixed order, the final plan does not depend on how the threads were
+ * scheduled. It may differ from the plan that {@link IterativeRuleDriver}
+ * would find, because the matches in a batch do not see each other's
+ * results, and the size of a batch depends on the parallelism.
+ *
+ * <p>If a rule needs to modify the planner's state while it is firing (for
+ * example, it calls {@link VolcanoPlanner#register} and uses the result), the
+ * first phase abandons the match and the second phase fires it again, in
+ * order. The driver remembers such rules and fires their later matches only
+ * in the second phase.
+ *
+ * <p>If the planner times out (see {@link VolcanoPlanner#checkCancel()})
+ * while a thread is firing a match in the first phase, that thread leaves
+ * the match and the rest of its matches to the second phase. The second
+ * phase performs the deferred actions of the matches before it, then fires
+ * it, which throws {@link VolcanoTimeoutException} again; so planning stops
+ * at the first match, in queue order, that timed out, and the deferred
+ * actions of the matches after it are discarded.
+ */
+class ParallelRuleDriver implements RuleDriver {
+  private static final Logger LOGGER = CalciteTrace.getPlannerTracer();
+
+  /** Number of matches in a batch, per thread. */
+  static final int MATCHES_PER_TASK = 8;
+
+  /** Rule call that the current thread is firing in the first phase. */
+  private static final TryThreadLocal<@Nullable VolcanoRuleCall> FIRING =
+      TryThreadLocal.of(null);
+
+  private final VolcanoPlanner planner;
+  private final IterativeRuleQueue ruleQueue;
+  private final int parallelism;
+
+  /** Rules that have needed to modify the planner while firing; their
+   * matches are fired only in the second phase. */
+  private final Set<RelOptRule> sequentialRules = new HashSet<>();
+
+  /** Number of threads that are firing this driver's rules in the first
+   * phase. Read before {@link #FIRING}, which is more expensive to read.
+   * Per driver, so that a planner is not slowed down by another planner that
+   * is firing rules at the same time. */
+  private final AtomicInteger firingCount = new AtomicInteger();
+
+  ParallelRuleDriver(VolcanoPlanner planner, int parallelism) {
+    this.planner = planner;
+    this.ruleQueue = new IterativeRuleQueue(planner);
+    this.parallelism = parallelism;
+  }
+
+  /** Returns the rule call that the current thread is firing for a given
+   * planner in parallel with other calls, or null. */
+  static @Nullable VolcanoRuleCall firingCall(VolcanoPlanner planner) {
+    final RuleDriver driver = planner.ruleDriver;
+    if (!(driver instanceof ParallelRuleDriver)
+        || ((ParallelRuleDriver) driver).firingCount.get() == 0) {
+      return null;
+    }
+    final VolcanoRuleCall call = FIRING.get();
+    return call != null && call.volcanoPlanner == planner ? call : null;
+  }
+
+  /** Throws {@link SequentialFallback} if the current thread is firing a
+   * rule for a given planner in parallel with other threads. Called by
+   * planner methods that modify the planner's state and whose effects the
+   * rule may depend on. */
+  static void checkSequential(VolcanoPlanner planner) {
+    if (firingCall(planner) != null) {
+      throw SequentialFallback.INSTANCE;
+    }
+  }
+
+  @Override public IterativeRuleQueue getRuleQueue() {
+    return ruleQueue;
+  }
+
+  @Override public void drive() {
+    final int batchSize = parallelism * MATCHES_PER_TASK;
+    final List<VolcanoRuleMatch> batch = new ArrayList<>();
+    while (true) {
+      assert planner.root != null : "RelSubset must not be null at this point";
+      LOGGER.debug("Best cost before rule match: {}", planner.root.bestCost);
+
+      batch.clear();
+      while (batch.size() < batchSize) {
+        final VolcanoRuleMatch match = ruleQueue.popMatch();
+        if (match == null) {
+          break;
+        }
+        assert match.getRule().matches(match);
+        batch.add(match);
+      }
+      if (batch.isEmpty()) {
+        break;
+      }
+
+      try {
+        fire(batch);
+      } catch (VolcanoTimeoutException e) {
+        planner.logStopped();
+        planner.canonize();
+        break;
+      }
+
+      // The root may have been merged with another
+      // subset. Find the new root subset.
+      planner.canonize();
+    }
+  }
+
+  /** Fires a batch of matches. */
+  private void fire(List<VolcanoRuleMatch> batch) {
+    final List<VolcanoRuleMatch> parallelMatches = new ArrayList<>();
+    for (VolcanoRuleMatch match : batch) {
+      if (!sequentialRules.contains(match.getRule())) {
+        parallelMatches.add(match);
+      }
+    }
+
+    // Phase 1. Fire matches in parallel, deferring their actions.
+    if (parallelMatches.size() > 1) {
+      final RelOptCluster cluster = requireNonNull(planner.root).getCluster();
+      final @Nullable JaninoRelMetadataProvider metadataProvider =
+          RelMetadataQueryBase.THREAD_PROVIDERS.get();
+      final int taskCount = Math.min(parallelism, parallelMatches.size());
+      final AtomicBoolean timedOut = new AtomicBoolean();
+      final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int i = 0; i < taskCount; i++) {
+        final List<VolcanoRuleMatch> matches =
+            parallelMatches.subList(
+                parallelMatches.size() * i / taskCount,
+                parallelMatches.size() * (i + 1) / taskCount);
+        tasks.add(
+            ParallelEnumerables.pool().submit(() ->
+                fireDeferred(cluster, metadataProvider, matches,
+                    timedOut)));
+      }
+      @Nullable Throwable throwable = null;
+      for (ForkJoinTask<?> task : tasks) {
+        try {
+          task.join();
+        } catch (RuntimeException | Error e) {
+          // Wait for the other tasks before re-throwing, so that no task
+          // is still reading the planner's state.
+          if (throwable == null) {
+            throwable = e instanceof CompletionException
+                ? Util.causeOrSelf(e)
+                : e;
+          }
+        }
+      }
+      if (throwable != null) {
+        throw Util.throwAsRuntime(throwable);
+      }
+      if (!timedOut.get()) {
+        for (VolcanoRuleMatch match : parallelMatches) {
+          if (match.deferredActions == null) {
+            sequentialRules.add(match.getRule());
+          }
+        }
+      }
+    }
+
+    // Phase 2. In order, perform deferred actions, and fire the matches that
+    // could not be fired in parallel.
+    for (VolcanoRuleMatch match : batch) {
+      final List<Runnable> actions = match.deferredActions;
+      if (actions == null) {
+        match.onMatch();
+        continue;
+      }
+      match.deferredActions = null;
+      planner.ruleCallStack.push(match);
+      try {
+        for (Runnable action : actions) {
+          action.run();
+        }
+      } finally {
+        planner.ruleCallStack.pop();
+      }
+    }
+  }
+
+  /** Fires matches in the current thread, deferring their actions. Stops,
+   * and sets {@code timedOut}, if the planner times out. */
+  private void fireDeferred(RelOptCluster cluster,
+      @Nullable JaninoRelMetadataProvider metadataProvider,
+      List<VolcanoRuleMatch> matches, AtomicBoolean timedOut) {
+    // RelMetadataQuery.instance() reads the metadata provider from a
+    // thread-local, so create the query after setting it.
+    final @Nullable JaninoRelMetadataProvider previousProvider =
+        RelMetadataQueryBase.THREAD_PROVIDERS.get();
+    RelMetadataQueryBase.THREAD_PROVIDERS.set(metadataProvider);
+    firingCount.incrementAndGet();
+    try (TryThreadLocal.Memo ignore =
+             cluster.pushThreadMetadataQuery(
+                 cluster.getMetadataQuerySupplier().get())) {
+      for (VolcanoRuleMatch match : matches) {
+        match.deferredActions = new ArrayList<>();
+        try (TryThreadLocal.Memo ignore2 = FIRING.push(match)) {
+          match.onMatch();
+        } catch (SequentialFallback e) {
+          LOGGER.debug("Rule [{}] needs to modify the planner; will fire "
+              + "sequentially", match.getRule());
+          match.deferredActions = null;
+        } catch (VolcanoTimeoutException e) {
+          // The second phase will fire this match, and time out, after
+          // performing the deferred actions of the matches before it.
+          match.deferredActions = null;
+          timedOut.set(true);
+          break;
+        }
+      }
+    } finally {
+      firingCount.decrementAndGet();
+      RelMetadataQueryBase.THREAD_PROVIDERS.set(previousProvider);
+    }
+  }
+
+  @Override public void onProduce(RelNode rel, RelSubset subset) {
+  }
+
+  @Override public void onSetMerged(RelSet set) {
+  }
+
+  @Override public void clear() {
+    ruleQueue.clear();
+    sequentialRules.clear();
+  }
+
+  /** Thrown by a rule call, firing in parallel with other calls, that needs
+   * to modify the planner's state. */
+  static class SequentialFallback extends RuntimeException {
+    static final SequentialFallback INSTANCE = new SequentialFallback();
+
+    private SequentialFallback() {
+      super("rule must fire sequentially", null, false, false);
+    }
+  }
+}
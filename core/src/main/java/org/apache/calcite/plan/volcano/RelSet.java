@@ -265,6 +265,7 @@ RelSubset getOrCreateSubset(
     RelSubset subset = getSubset(traits);
 
     if (subset == null) {
+      ParallelRuleDriver.checkSequential(planner);
       needsConverter = true;
       subset = new RelSubset(cluster, this, traits);
 
@@ -278,6 +279,7 @@ RelSubset getOrCreateSubset(
       }
     } else if ((required && !subset.isRequired())
         || (!required && !subset.isDelivered())) {
+      ParallelRuleDriver.checkSequential(planner);
       needsConverter = true;
     }
 
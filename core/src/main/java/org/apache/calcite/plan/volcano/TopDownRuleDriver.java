@@ -109,7 +109,7 @@ class TopDownRuleDriver implements RuleDriver {
         task.perform();
       }
     } catch (VolcanoTimeoutException ex) {
-      LOGGER.warn("Volcano planning times out, cancels the subsequent optimization.");
+      planner.logStopped();
     }
   }
 
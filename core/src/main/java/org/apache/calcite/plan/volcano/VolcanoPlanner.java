@@ -26,6 +26,7 @@
 import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptCostFactory;
 import org.apache.calcite.plan.RelOptLattice;
+import org.apache.calcite.plan.RelOptListener;
 import org.apache.calcite.plan.RelOptMaterialization;
 import org.apache.calcite.plan.RelOptMaterializations;
 import org.apache.calcite.plan.RelOptPlanner;
@@ -81,6 +82,9 @@
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -198,6 +202,36 @@ public class VolcanoPlanner extends AbstractRelOptPlanner {
    */
   boolean topDownOpt = CalciteSystemProperty.TOPDOWN_OPT.value();
 
+  /**
+   * Number of threads that fire rule matches; if greater than 1, and top-down
+   * optimization is disabled, the planner uses a {@link ParallelRuleDriver}.
+   */
+  int ruleParallelism = 1;
+
+  /** Maximum time, in milliseconds, that {@link #findBestExp()} may spend
+   * firing rules; 0 means no limit. */
+  private long timeBudgetMillis = 0;
+
+  /** Maximum number of rule firings in {@link #findBestExp()}; 0 means no
+   * limit. */
+  private long ruleBudget = 0;
+
+  /** Value of {@link System#nanoTime()} when {@link #findBestExp()} started. */
+  private long startNanos;
+
+  /** Whether the current call to {@link #findBestExp()} has run out of
+   * budget. */
+  private volatile boolean budgetExhausted;
+
+  /** Number of rule firings in the current call to {@link #findBestExp()}.
+   * Rules may fire in several threads; see {@link ParallelRuleDriver}. */
+  private final AtomicLong ruleFireCount = new AtomicLong();
+
+  /** Number of firings of, and time spent in, each rule, in the current call
+   * to {@link #findBestExp()}. */
+  private final Map<RelOptRule, RuleCounter> ruleCounters =
+      new ConcurrentHashMap<>();
+
   /**
    * Extra roots for explorations.
    */
@@ -243,6 +277,8 @@ public VolcanoPlanner(@Nullable RelOptCostFactory costFactory,
   private void initRuleQueue() {
     if (topDownOpt) {
       ruleDriver = new TopDownRuleDriver(this);
+    } else if (ruleParallelism > 1) {
+      ruleDriver = new ParallelRuleDriver(this, ruleParallelism);
     } else {
       ruleDriver = new IterativeRuleDriver(this);
     }
@@ -264,6 +300,52 @@ public void setTopDownOpt(boolean value) {
     initRuleQueue();
   }
 
+  /**
+   * Sets the number of threads that fire rule matches.
+   *
+   * <p>If greater than 1, the planner fires several rule matches at a time,
+   * and registers their results in the order that the matches were queued,
+   * so that the final plan does not depend on how threads are scheduled.
+   * The plan is the same each time for a given value, but may differ from
+   * the plan for 1, because the matches fired together do not see each
+   * other's results. Ignored if top-down optimization is enabled.
+   *
+   * @see ParallelRuleDriver
+   */
+  public void setRuleParallelism(int value) {
+    if (value < 1) {
+      throw new IllegalArgumentException("parallelism must be positive: "
+          + value);
+    }
+    if (ruleParallelism == value) {
+      return;
+    }
+    ruleParallelism = value;
+    initRuleQueue();
+  }
+
+  /**
+   * Sets how much effort {@link #findBestExp()} may spend firing rules.
+   *
+   * <p>When either limit is reached, and the root has at least one complete
+   * implementation, the planner stops firing rules and returns the cheapest
+   * plan found so far. If there is no complete implementation yet, the
+   * planner keeps going until there is one.
+   *
+   * <p>Whether the budget ran out is reported to listeners, along with other
+   * statistics, by {@link RelOptListener#planningFinished}.
+   *
+   * @param timeBudgetMillis Maximum time, in milliseconds; 0 means no limit
+   * @param ruleBudget Maximum number of rule firings; 0 means no limit
+   */
+  public void setPlanningBudget(long timeBudgetMillis, long ruleBudget) {
+    if (timeBudgetMillis < 0 || ruleBudget < 0) {
+      throw new IllegalArgumentException("budget must not be negative");
+    }
+    this.timeBudgetMillis = timeBudgetMillis;
+    this.ruleBudget = ruleBudget;
+  }
+
   // implement RelOptPlanner
   @Override public boolean isRegistered(RelNode rel) {
     return mapRel2Subset.get(rel) != null;
@@ -520,6 +602,10 @@ protected void registerMaterializations() {
     ensureRootConverters();
     registerMaterializations();
 
+    startNanos = System.nanoTime();
+    budgetExhausted = false;
+    ruleFireCount.set(0);
+    ruleCounters.clear();
     ruleDriver.drive();
 
     if (LOGGER.isTraceEnabled()) {
@@ -539,13 +625,108 @@ protected void registerMaterializations() {
         LOGGER.debug("Provenance:\n{}", Dumpers.provenance(provenanceMap, cheapest));
       }
     }
+    final RelOptListener listener = getListener();
+    if (listener != null) {
+      final Map<String, RelOptListener.RuleStatistics> ruleStatistics =
+          new LinkedHashMap<>();
+      ruleCounters.forEach((rule, counter) ->
+          ruleStatistics.put(rule.toString(),
+              new RelOptListener.RuleStatistics(counter.fireCount.sum(),
+                  counter.nanos.sum())));
+      listener.planningFinished(
+          new RelOptListener.PlanningFinishedEvent(this, cheapest,
+              System.nanoTime() - startNanos, budgetExhausted, nextSetId,
+              mapRel2Subset.size(), ruleStatistics));
+    }
     return cheapest;
   }
 
+  /**
+   * Re-computes the cost of every relational expression that has been
+   * registered, and returns the cheapest plan, without firing any rules.
+   *
+   * <p>Call this method after {@link #findBestExp()}, if the statistics that
+   * the costs were based on (for example, the row counts of tables) have
+   * changed. Because the planner retains every alternative that its rules
+   * found, a planner that has explored a query can be kept and re-costed
+   * each time the statistics change, at a fraction of the cost of planning
+   * the query again.
+   *
+   * <p>The cost model must depend only on metadata; this method discards the
+   * cluster's {@link RelMetadataQuery}, and its caches, before it starts.
+   */
+  public RelNode recost() {
+    final RelSubset root = requireNonNull(this.root, "root");
+    root.getCluster().invalidateMetadataQuery();
+    for (RelSet set : allSets) {
+      for (RelSubset subset : set.subsets) {
+        subset.timestamp++;
+        subset.bestCost = infCost;
+        subset.upperBound = infCost;
+        subset.best = null;
+      }
+    }
+    for (RelSet set : allSets) {
+      for (RelNode rel : set.rels) {
+        propagateCostImprovements(rel);
+      }
+    }
+    return root.buildCheapestPlan(this);
+  }
+
   @Override public void checkCancel() {
     if (cancelFlag.get()) {
       throw new VolcanoTimeoutException();
     }
+    if (timeBudgetMillis > 0 || ruleBudget > 0) {
+      checkBudget();
+    }
+  }
+
+  /** Throws {@link VolcanoTimeoutException} if the planning budget has run
+   * out and the root has a complete implementation. */
+  private void checkBudget() {
+    if (!budgetExhausted) {
+      if ((ruleBudget == 0 || ruleFireCount.get() < ruleBudget)
+          && (timeBudgetMillis == 0
+              || System.nanoTime() - startNanos
+                  < timeBudgetMillis * 1_000_000L)) {
+        return;
+      }
+      final RelSubset root = this.root;
+      if (root == null || root.best == null) {
+        // Keep going until there is a plan to return
+        return;
+      }
+      budgetExhausted = true;
+    }
+    throw new VolcanoTimeoutException();
+  }
+
+  /** Logs why a rule driver stopped planning after catching
+   * {@link VolcanoTimeoutException}: either the planning budget ran out, or
+   * planning was cancelled. */
+  void logStopped() {
+    if (budgetExhausted) {
+      LOGGER.info("Volcano planning budget exhausted after {} rule firings; "
+          + "returning the best plan found so far.", ruleFireCount.get());
+    } else {
+      LOGGER.warn("Volcano planning times out, cancels the subsequent "
+          + "optimization.");
+    }
+  }
+
+  /** Records that a rule has fired.
+   *
+   * @param rule Rule
+   * @param nanos Time spent firing the rule, in nanoseconds
+   */
+  void ruleFired(RelOptRule rule, long nanos) {
+    ruleFireCount.incrementAndGet();
+    final RuleCounter counter =
+        ruleCounters.computeIfAbsent(rule, r -> new RuleCounter());
+    counter.fireCount.increment();
+    counter.nanos.add(nanos);
   }
 
   /** Ensures that the subset that is the root relational expression contains
@@ -605,6 +786,7 @@ void ensureRootConverters() {
       if (equivRel != null) {
         final RelSubset equivSubset = getSubsetNonNull(equivRel);
         if (subset.set != equivSubset.set) {
+          ParallelRuleDriver.checkSequential(this);
           merge(equivSubset.set, subset.set);
         }
       }
@@ -685,7 +867,9 @@ public void registerAbstractRelationalRules() {
   }
 
   @Override public void registerSchema(RelOptSchema schema) {
-    if (registeredSchemas.add(schema)) {
+    if (!registeredSchemas.contains(schema)) {
+      ParallelRuleDriver.checkSequential(this);
+      registeredSchemas.add(schema);
       try {
         schema.registerRules(this);
       } catch (Exception e) {
@@ -836,7 +1020,12 @@ public RelSubset getSubsetNonNull(RelNode rel) {
   }
 
   @Override public void prune(RelNode rel) {
-    prunedNodes.add(rel);
+    final VolcanoRuleCall call = ParallelRuleDriver.firingCall(this);
+    if (call != null) {
+      call.modify(() -> prunedNodes.add(rel));
+    } else {
+      prunedNodes.add(rel);
+    }
   }
 
   /**
@@ -1239,6 +1428,7 @@ static RelSet equivRoot(RelSet s) {
   private RelSubset registerImpl(
       RelNode rel,
       @Nullable RelSet set) {
+    ParallelRuleDriver.checkSequential(this);
     if (rel instanceof RelSubset) {
       return registerSubset(set, (RelSubset) rel);
     }
@@ -1648,4 +1838,12 @@ static class RuleProvenance extends Provenance {
       this.callId = callId;
     }
   }
+
+  /**
+   * Number of times that a rule has fired, and the time it took.
+   */
+  private static class RuleCounter {
+    final LongAdder fireCount = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+  }
 }
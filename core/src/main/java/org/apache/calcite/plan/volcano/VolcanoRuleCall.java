@@ -36,6 +36,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,6 +60,14 @@ public class VolcanoRuleCall extends RelOptRuleCall {
    */
   private @Nullable List<RelNode> generatedRelList;
 
+  /**
+   * Actions that modify the planner, deferred while this call fires in
+   * parallel with other calls; null if the call is not firing in parallel.
+   *
+   * @see ParallelRuleDriver
+   */
+  @Nullable List<Runnable> deferredActions;
+
   //~ Constructors -----------------------------------------------------------
 
   /**
@@ -105,14 +114,22 @@ protected VolcanoRuleCall(
           rel + " is a PhysicalNode, which is not allowed in " + rule);
     }
 
-    rel = handler.propagate(rels[0], rel);
+    final RelNode rel2 = handler.propagate(rels[0], rel);
     if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Transform to: rel#{} via {}{}", rel.getId(), getRule(),
+      LOGGER.debug("Transform to: rel#{} via {}{}", rel2.getId(), getRule(),
           equiv.isEmpty() ? "" : " with equivalences " + equiv);
       if (generatedRelList != null) {
-        generatedRelList.add(rel);
+        generatedRelList.add(rel2);
       }
     }
+    final Map<RelNode, RelNode> equiv2 =
+        deferredActions == null ? equiv : new LinkedHashMap<>(equiv);
+    modify(() -> registerProduct(rel2, equiv2));
+  }
+
+  /** Registers a relational expression produced by this call, and its
+   * equivalences. */
+  private void registerProduct(RelNode rel, Map<RelNode, RelNode> equiv) {
     try {
       // It's possible that rel is a subset or is already registered.
       // Is there still a point in continuing? Yes, because we might
@@ -204,26 +221,36 @@ protected void onMatch() {
         }
       }
 
-      if (volcanoPlanner.getListener() != null) {
+      final RelOptListener listener = volcanoPlanner.getListener();
+      if (listener != null) {
         RelOptListener.RuleAttemptedEvent event =
             new RelOptListener.RuleAttemptedEvent(
                 volcanoPlanner,
                 rels[0],
                 this,
                 true);
-        volcanoPlanner.getListener().ruleAttempted(event);
+        modify(() -> listener.ruleAttempted(event));
       }
 
       if (LOGGER.isDebugEnabled()) {
         this.generatedRelList = new ArrayList<>();
       }
 
-      volcanoPlanner.ruleCallStack.push(this);
-      try {
+      final long startNanos = System.nanoTime();
+      if (deferredActions != null) {
+        // Firing in parallel with other calls. The stack is not thread-safe;
+        // ParallelRuleDriver pushes this call while it runs the deferred
+        // actions.
         getRule().onMatch(this);
-      } finally {
-        volcanoPlanner.ruleCallStack.pop();
+      } else {
+        volcanoPlanner.ruleCallStack.push(this);
+        try {
+          getRule().onMatch(this);
+        } finally {
+          volcanoPlanner.ruleCallStack.pop();
+        }
       }
+      volcanoPlanner.ruleFired(getRule(), System.nanoTime() - startNanos);
 
       if (generatedRelList != null) {
         if (generatedRelList.isEmpty()) {
@@ -236,21 +263,37 @@ protected void onMatch() {
         this.generatedRelList = null;
       }
 
-      if (volcanoPlanner.getListener() != null) {
+      if (listener != null) {
         RelOptListener.RuleAttemptedEvent event =
             new RelOptListener.RuleAttemptedEvent(
                 volcanoPlanner,
                 rels[0],
                 this,
                 false);
-        volcanoPlanner.getListener().ruleAttempted(event);
+        modify(() -> listener.ruleAttempted(event));
       }
+    } catch (ParallelRuleDriver.SequentialFallback e) {
+      throw e;
     } catch (Exception e) {
       throw new RuntimeException("Error while applying rule " + getRule()
           + ", args " + Arrays.toString(rels), e);
     }
   }
 
+  /**
+   * Runs an action that modifies the planner; or, if this call is firing in
+   * parallel with other calls, defers the action until they have all
+   * finished.
+   */
+  void modify(Runnable action) {
+    final List<Runnable> deferredActions = this.deferredActions;
+    if (deferredActions != null) {
+      deferredActions.add(action);
+    } else {
+      action.run();
+    }
+  }
+
   /**
    * Applies this rule, with a given relational expression in the first slot.
    */
@@ -69,6 +69,8 @@
 import org.apache.calcite.rel.core.Project;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.metadata.RelMetadataCache;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
@@ -93,6 +95,7 @@
 import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.SqlOperatorTable;
 import org.apache.calcite.sql.SqlUtil;
+import org.apache.calcite.sql.dialect.CalciteSqlDialect;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.parser.SqlParseException;
 import org.apache.calcite.sql.parser.SqlParser;
@@ -450,9 +453,15 @@ protected RelOptPlanner createPlanner(
       planner.addRelTraitDef(RelCollationTraitDef.INSTANCE);
     }
     planner.setTopDownOpt(prepareContext.config().topDownOpt());
+    planner.setRuleParallelism(prepareContext.config().plannerParallelism());
+    planner.setPlanningBudget(prepareContext.config().plannerTimeBudget(),
+        prepareContext.config().plannerRuleBudget());
     RelOptUtil.registerDefaultRules(planner,
         prepareContext.config().materializationsEnabled(),
         enableBindable);
+    if (prepareContext.config().batchScan()) {
+      planner.addRule(EnumerableRules.ENUMERABLE_BATCH_SCAN_RULE);
+    }
 
     final CalcitePrepare.SparkHandler spark = prepareContext.spark();
     if (spark.enabled()) {
@@ -495,6 +504,45 @@ <T> CalciteSignature<T> prepare_(
     if (SIMPLE_SQLS.contains(query.sql)) {
       return simplePrepare(context, castNonNull(query.sql));
     }
+    final PlanCache planCache = context.getPlanCache();
+    if (planCache != null && query.sql != null) {
+      final SqlNode sqlNode = parse(context.config(), query.sql);
+      if (sqlNode.isA(SqlKind.QUERY)) {
+        // Read the modification count before preparing; if the schema
+        // changes while we are preparing, the cache will not accept the plan.
+        final long modCount = context.getMutableRootSchema().getModCount();
+        final String normalizedSql =
+            sqlNode.toSqlString(CalciteSqlDialect.DEFAULT).getSql();
+        final PlanCache.Key key =
+            PlanCache.key(normalizedSql, context.getDefaultSchemaPath(),
+                elementType, maxRowCount);
+        final CalciteSignature<T> cached = planCache.get(key, modCount);
+        if (cached != null) {
+          return cached.copy(query.sql, context.getRootSchema());
+        }
+        final CalciteSignature<T> signature =
+            prepareUncached(context, query, sqlNode, elementType,
+                maxRowCount);
+        planCache.put(key, modCount, signature);
+        return signature;
+      }
+      return prepareUncached(context, query, sqlNode, elementType,
+          maxRowCount);
+    }
+    return prepareUncached(context, query, null, elementType, maxRowCount);
+  }
+
+  /** Prepares a query without looking in the plan cache.
+   *
+   * @param sqlNode Parse tree of the query's SQL, if the caller has already
+   *                parsed it, otherwise null
+   */
+  private <T> CalciteSignature<T> prepareUncached(
+      Context context,
+      Query<T> query,
+      @Nullable SqlNode sqlNode,
+      Type elementType,
+      long maxRowCount) {
     final JavaTypeFactory typeFactory = context.getTypeFactory();
     CalciteCatalogReader catalogReader =
         new CalciteCatalogReader(
@@ -516,10 +564,13 @@ <T> CalciteSignature<T> prepare_(
       try {
         CalcitePreparingStmt preparingStmt =
             getPreparingStmt(context, elementType, catalogReader, planner);
-        return prepare2_(context, query, elementType, maxRowCount,
+        return prepare2_(context, query, sqlNode, elementType, maxRowCount,
             catalogReader, preparingStmt);
       } catch (RelOptPlanner.CannotPlanException e) {
         exception = e;
+        // Validation may have rewritten the parse tree, so the next planner
+        // parses the query again
+        sqlNode = null;
       }
     }
     throw exception;
@@ -618,33 +669,28 @@ <T> CalciteSignature<T> prepare2_(
       long maxRowCount,
       CalciteCatalogReader catalogReader,
       CalcitePreparingStmt preparingStmt) {
+    return prepare2_(context, query, null, elementType, maxRowCount,
+        catalogReader, preparingStmt);
+  }
+
+  private <T> CalciteSignature<T> prepare2_(
+      Context context,
+      Query<T> query,
+      @Nullable SqlNode parsedNode,
+      Type elementType,
+      long maxRowCount,
+      CalciteCatalogReader catalogReader,
+      CalcitePreparingStmt preparingStmt) {
     final JavaTypeFactory typeFactory = context.getTypeFactory();
 
     final RelDataType x;
     final Prepare.PreparedResult preparedResult;
     final Meta.StatementType statementType;
     if (query.sql != null) {
-      final CalciteConnectionConfig config = context.config();
-      SqlParser.Config parserConfig = parserConfig()
-          .withQuotedCasing(config.quotedCasing())
-          .withUnquotedCasing(config.unquotedCasing())
-          .withQuoting(config.quoting())
-          .withConformance(config.conformance())
-          .withCaseSensitive(config.caseSensitive());
-      final SqlParserImplFactory parserFactory =
-          config.parserFactory(SqlParserImplFactory.class, null);
-      if (parserFactory != null) {
-        parserConfig = parserConfig.withParserFactory(parserFactory);
-      }
-      SqlParser parser = createParser(query.sql,  parserConfig);
-      SqlNode sqlNode;
-      try {
-        sqlNode = parser.parseStmt();
-        statementType = getStatementType(sqlNode.getKind());
-      } catch (SqlParseException e) {
-        throw new RuntimeException(
-            "parse failed: " + e.getMessage(), e);
-      }
+      final SqlNode sqlNode = parsedNode != null
+          ? parsedNode
+          : parse(context.config(), query.sql);
+      statementType = getStatementType(sqlNode.getKind());
 
       Hook.PARSE_TREE.run(new Object[] {query.sql, sqlNode});
 
@@ -731,6 +777,28 @@ <T> CalciteSignature<T> prepare2_(
         statementType);
   }
 
+  /** Parses a SQL statement using the parser settings of a connection. */
+  private SqlNode parse(CalciteConnectionConfig config, String sql) {
+    SqlParser.Config parserConfig = parserConfig()
+        .withQuotedCasing(config.quotedCasing())
+        .withUnquotedCasing(config.unquotedCasing())
+        .withQuoting(config.quoting())
+        .withConformance(config.conformance())
+        .withCaseSensitive(config.caseSensitive());
+    final SqlParserImplFactory parserFactory =
+        config.parserFactory(SqlParserImplFactory.class, null);
+    if (parserFactory != null) {
+      parserConfig = parserConfig.withParserFactory(parserFactory);
+    }
+    SqlParser parser = createParser(sql,  parserConfig);
+    try {
+      return parser.parseStmt();
+    } catch (SqlParseException e) {
+      throw new RuntimeException(
+          "parse failed: " + e.getMessage(), e);
+    }
+  }
+
   private static SqlValidator createSqlValidator(Context context,
       CalciteCatalogReader catalogReader) {
     final SqlOperatorTable opTab0 =
@@ -994,6 +1062,14 @@ public CalcitePreparingStmt(CalcitePrepareImpl prepare,
       this.rexBuilder = cluster.getRexBuilder();
       this.typeFactory = typeFactory;
       this.convertletTable = convertletTable;
+      final RelMetadataCache metadataCache = context.getMetadataCache();
+      if (metadataCache != null) {
+        metadataCache.validate(context.getRootSchema().getModCount());
+        final Supplier<RelMetadataQuery> mqSupplier =
+            cluster.getMetadataQuerySupplier();
+        cluster.setMetadataQuerySupplier(() ->
+            mqSupplier.get().setSharedCache(metadataCache));
+      }
     }
 
     @Override protected void init(Class runtimeContextClass) {
@@ -1158,7 +1234,8 @@ protected SqlValidator createSqlValidator(CatalogReader catalogReader) {
           bindable =
               EnumerableInterpretable.toBindable(internalParameters,
                   context.spark(), enumerable,
-                  requireNonNull(prefer, "EnumerableRel.Prefer prefer"));
+                  requireNonNull(prefer, "EnumerableRel.Prefer prefer"),
+                  context.config().asyncCompile());
         } finally {
           CatalogReader.THREAD_LOCAL.remove();
         }
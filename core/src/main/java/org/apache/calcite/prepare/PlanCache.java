@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.prepare;
+
+import org.apache.calcite.jdbc.CalcitePrepare;
+import org.apache.calcite.jdbc.CalciteSchema;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of prepared queries.
+ *
+ * <p>{@link CalcitePrepareImpl} uses the cache, if the
+ * {@link CalcitePrepare.Context} has one, to avoid parsing, validating,
+ * optimizing and generating code for a query it has prepared before.
+ * A connection has a cache if its
+ * {@link org.apache.calcite.config.CalciteConnectionProperty#PLAN_CACHE_SIZE}
+ * property is positive; call
+ * {@link java.sql.Connection#unwrap(Class) unwrap(PlanCache.class)} to get
+ * it.
+ *
+ * <p>The key is the text of the query after it has been parsed and unparsed,
+ * so that queries that differ only in white space, comments or the case of
+ * unquoted identifiers and keywords share an entry. Only queries
+ * ({@code SELECT}, {@code VALUES}, set operations) are cached.
+ *
+ * <p>The cache empties itself when an object is added to or removed from the
+ * root schema; see {@link CalciteSchema#getModCount()}. It does not notice if
+ * a user-defined {@link org.apache.calcite.schema.Schema} changes the tables
+ * it defines; call {@link #invalidateAll()} in that case.
+ */
+public class PlanCache {
+  private final Cache<Key, CalcitePrepare.CalciteSignature<?>> cache;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong invalidationCount = new AtomicLong();
+
+  /** Value of {@link CalciteSchema#getModCount()} when the entries in the
+   * cache were prepared. */
+  private long modCount = -1L;
+
+  /** Creates a PlanCache.
+   *
+   * @param maximumSize Maximum number of entries; the cache discards the
+   *                    least recently used entry to make room for a new one
+   */
+  public PlanCache(int maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /** Creates a key.
+   *
+   * @param sql Normalized query text
+   * @param defaultSchemaPath Path of the default schema
+   * @param elementType Type of the rows that the query returns
+   * @param maxRowCount Maximum number of rows to return, or -1
+   */
+  static Key key(String sql, List<String> defaultSchemaPath, Type elementType,
+      long maxRowCount) {
+    return new Key(sql, ImmutableList.copyOf(defaultSchemaPath), elementType,
+        maxRowCount);
+  }
+
+  /** Returns the cached signature for a key, or null.
+   *
+   * @param key Key
+   * @param modCount Current modification count of the root schema
+   */
+  @SuppressWarnings("unchecked")
+  <T> CalcitePrepare.@Nullable CalciteSignature<T> get(Key key, long modCount) {
+    validate(modCount);
+    final CalcitePrepare.CalciteSignature<?> signature =
+        cache.getIfPresent(key);
+    if (signature == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return (CalcitePrepare.CalciteSignature<T>) signature;
+  }
+
+  /** Adds a signature to the cache.
+   *
+   * <p>Does nothing if the root schema has been modified since
+   * {@code modCount} was read; the signature may have been prepared against
+   * the old schema.
+   *
+   * @param key Key
+   * @param modCount Modification count of the root schema before the
+   *                 signature was prepared
+   * @param signature Signature
+   */
+  synchronized void put(Key key, long modCount,
+      CalcitePrepare.CalciteSignature<?> signature) {
+    if (modCount == this.modCount) {
+      cache.put(key, signature);
+    }
+  }
+
+  /** Empties the cache if the root schema has changed. */
+  private synchronized void validate(long modCount) {
+    if (modCount != this.modCount) {
+      if (this.modCount >= 0L) {
+        invalidateAll();
+      }
+      this.modCount = modCount;
+    }
+  }
+
+  /** Removes all entries. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+    invalidationCount.incrementAndGet();
+  }
+
+  /** Returns the number of entries. */
+  public long size() {
+    return cache.size();
+  }
+
+  /** Returns the number of times that a query was found in the cache. */
+  public long hitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of times that a query was not found in the cache and
+   * had to be prepared. */
+  public long missCount() {
+    return missCount.get();
+  }
+
+  /** Returns the number of times that the cache has been emptied, either
+   * because the root schema changed or by a call to {@link #invalidateAll()}. */
+  public long invalidationCount() {
+    return invalidationCount.get();
+  }
+
+  @Override public String toString() {
+    return "PlanCache(size=" + size() + ", hits=" + hitCount
+        + ", misses=" + missCount + ", invalidations=" + invalidationCount
+        + ")";
+  }
+
+  /** Key of an entry in a {@link PlanCache}. */
+  static class Key {
+    final String sql;
+    final ImmutableList<String> defaultSchemaPath;
+    final Type elementType;
+    final long maxRowCount;
+
+    Key(String sql, ImmutableList<String> defaultSchemaPath, Type elementType,
+        long maxRowCount) {
+      this.sql = sql;
+      this.defaultSchemaPath = defaultSchemaPath;
+      this.elementType = elementType;
+      this.maxRowCount = maxRowCount;
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(sql, defaultSchemaPath, elementType,
+          maxRowCount);
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      return obj == this
+          || obj instanceof Key
+          && sql.equals(((Key) obj).sql)
+          && defaultSchemaPath.equals(((Key) obj).defaultSchemaPath)
+          && elementType.equals(((Key) obj).elementType)
+          && maxRowCount == ((Key) obj).maxRowCount;
+    }
+  }
+}
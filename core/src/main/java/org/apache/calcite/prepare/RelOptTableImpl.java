@@ -34,6 +34,7 @@
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.rel.type.RelRecordType;
+import org.apache.calcite.schema.ColumnStatistic;
 import org.apache.calcite.schema.ColumnStrategy;
 import org.apache.calcite.schema.ModifiableTable;
 import org.apache.calcite.schema.Path;
@@ -321,6 +322,13 @@ public static RelOptTableImpl create(@Nullable RelOptSchema schema,
     return ImmutableList.of();
   }
 
+  @Override public @Nullable ColumnStatistic getColumnStatistic(int column) {
+    if (table != null) {
+      return table.getStatistic().getColumnStatistic(column);
+    }
+    return null;
+  }
+
   @Override public RelDataType getRowType() {
     return rowType;
   }
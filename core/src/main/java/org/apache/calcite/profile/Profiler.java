@@ -17,6 +17,8 @@
 package org.apache.calcite.profile;
 
 import org.apache.calcite.materialize.Lattice;
+import org.apache.calcite.schema.ColumnStatistic;
+import org.apache.calcite.schema.Histogram;
 import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.JsonBuilder;
 import org.apache.calcite.util.Util;
@@ -245,11 +247,21 @@ class Profile {
 
     private final Map<ImmutableBitSet, Distribution> distributionMap;
     private final List<Distribution> singletonDistributionList;
+    private final List<@Nullable Histogram> histogramList;
 
     Profile(List<Column> columns, RowCount rowCount,
         Iterable<FunctionalDependency> functionalDependencyList,
         Iterable<Distribution> distributionList, Iterable<Unique> uniqueList) {
+      this(columns, rowCount, functionalDependencyList, distributionList,
+          uniqueList, ImmutableList.of());
+    }
+
+    Profile(List<Column> columns, RowCount rowCount,
+        Iterable<FunctionalDependency> functionalDependencyList,
+        Iterable<Distribution> distributionList, Iterable<Unique> uniqueList,
+        List<@Nullable Histogram> histogramList) {
       this.rowCount = rowCount;
+      this.histogramList = new ArrayList<>(histogramList);
       this.functionalDependencyList =
           ImmutableList.copyOf(functionalDependencyList);
       this.distributionList = ImmutableList.copyOf(distributionList);
@@ -281,6 +293,28 @@ public List<Statistic> statistics() {
           .build();
     }
 
+    /** Returns statistics about the values of a column, suitable for
+     * {@link org.apache.calcite.schema.Statistic#getColumnStatistic(int)}.
+     *
+     * <p>The number of distinct values is exact if the column has few values,
+     * and otherwise is estimated by a HyperLogLog sketch. The histogram is
+     * present only if the profiler was asked to build histograms, and is
+     * built from a random sample of the values. */
+    public ColumnStatistic columnStatistic(int ordinal) {
+      final Distribution distribution = singletonDistributionList.get(ordinal);
+      final double nullFraction = rowCount.rowCount == 0
+          ? 0D
+          : (double) distribution.nullCount / rowCount.rowCount;
+      // The cardinality of a distribution counts null as a value
+      final double distinctCount =
+          Math.max(0D,
+              distribution.cardinality - (distribution.nullCount > 0 ? 1 : 0));
+      final Histogram histogram = ordinal < histogramList.size()
+          ? histogramList.get(ordinal)
+          : null;
+      return ColumnStatistic.of(distinctCount, nullFraction, histogram);
+    }
+
     public double cardinality(ImmutableBitSet columnOrdinals) {
       final ImmutableBitSet originalOrdinals = columnOrdinals;
       for (;;) {
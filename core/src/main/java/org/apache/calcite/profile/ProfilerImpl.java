@@ -22,6 +22,7 @@
 import org.apache.calcite.materialize.Lattice;
 import org.apache.calcite.rel.metadata.NullSentinel;
 import org.apache.calcite.runtime.FlatLists;
+import org.apache.calcite.schema.Histogram;
 import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.PartiallyOrderedSet;
@@ -52,6 +53,7 @@
 import java.util.NavigableSet;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -67,6 +69,12 @@
  * combinations of columns.
  */
 public class ProfilerImpl implements Profiler {
+  /** Number of distinct values at which the profiler stops counting the
+   * distinct values of a column (or combination of columns) exactly, and
+   * starts to estimate them using a HyperLogLog sketch. A distinct count less
+   * than this is exact. */
+  public static final int SKETCH_THRESHOLD = 1000;
+
   /** The number of combinations to consider per pass.
    * The number is determined by memory, but a value of 1,000 is typical.
    * You need 2KB memory per sketch, and one sketch for each combination. */
@@ -80,6 +88,14 @@ public class ProfilerImpl implements Profiler {
   /** Whether a successor is considered interesting enough to analyze. */
   private final Predicate<Pair<Space, Column>> predicate;
 
+  /** The maximum number of buckets in the histogram of each column; 0 means
+   * do not build histograms. */
+  private final int histogramBucketCount;
+
+  /** The number of values of each column that are sampled to build its
+   * histogram. */
+  private static final int HISTOGRAM_SAMPLE_SIZE = 10_000;
+
   public static Builder builder() {
     return new Builder();
   }
@@ -96,11 +112,31 @@ public static Builder builder() {
    */
   ProfilerImpl(int combinationsPerPass,
       int interestingCount, Predicate<Pair<Space, Column>> predicate) {
+    this(combinationsPerPass, interestingCount, predicate, 0);
+  }
+
+  /**
+   * Creates a {@code ProfilerImpl} that also builds histograms.
+   *
+   * @param combinationsPerPass Maximum number of columns (or combinations of
+   *   columns) to compute each pass
+   * @param interestingCount Minimum number of combinations considered
+   *   interesting
+   * @param predicate Whether a successor is considered interesting enough to
+   *   analyze
+   * @param histogramBucketCount Maximum number of buckets in the histogram of
+   *   each column, or 0 to not build histograms
+   */
+  ProfilerImpl(int combinationsPerPass,
+      int interestingCount, Predicate<Pair<Space, Column>> predicate,
+      int histogramBucketCount) {
     Preconditions.checkArgument(combinationsPerPass > 2);
     Preconditions.checkArgument(interestingCount > 2);
+    Preconditions.checkArgument(histogramBucketCount >= 0);
     this.combinationsPerPass = combinationsPerPass;
     this.interestingCount = interestingCount;
     this.predicate = predicate;
+    this.histogramBucketCount = histogramBucketCount;
   }
 
   @Override public Profile profile(Iterable<List<Comparable>> rows,
@@ -147,6 +183,12 @@ class Run {
             e2.columnOrdinals.contains(e1.columnOrdinals));
     private final List<ImmutableBitSet> keyOrdinalLists =
         new ArrayList<>();
+    /** Random sample of the non-null values of each column, from which we
+     * build histograms. Populated in pass 0. */
+    private final List<List<Comparable>> samples = new ArrayList<>();
+    /** Number of non-null values of each column seen so far in pass 0. */
+    private final int[] nonNullCounts;
+    private final Random random = new Random(0);
     private int rowCount;
 
     /**
@@ -166,6 +208,12 @@ class Run {
       }
       this.singletonSpaces =
           new ArrayList<>(Collections.nCopies(columns.size(), (Space) null));
+      this.nonNullCounts = new int[columns.size()];
+      if (histogramBucketCount > 0) {
+        for (int i = 0; i < columns.size(); i++) {
+          samples.add(new ArrayList<>());
+        }
+      }
       if (combinationsPerPass > Math.pow(2D, columns.size())) {
         // There are not many columns. We can compute all combinations in the
         // first pass.
@@ -211,8 +259,35 @@ Profile profile(Iterable<List<Comparable>> rows) {
                   Iterables.getOnlyElement(s.columns)));
         }
       }
+      final List<@Nullable Histogram> histograms = new ArrayList<>();
+      for (List<Comparable> sample : samples) {
+        sample.sort(Ordering.natural());
+        histograms.add(Histogram.ofSorted(sample, histogramBucketCount));
+      }
       return new Profile(columns, new RowCount(rowCount),
-          functionalDependencies, distributions.values(), uniques);
+          functionalDependencies, distributions.values(), uniques,
+          histograms);
+    }
+
+    /** Adds the values of a row to the samples, using reservoir sampling so
+     * that each non-null value has the same chance of being in the sample. */
+    private void sample(List<Comparable> row) {
+      for (int i = 0; i < samples.size(); i++) {
+        final Comparable value = row.get(i);
+        if (value == NullSentinel.INSTANCE) {
+          continue;
+        }
+        final List<Comparable> sample = samples.get(i);
+        final int count = nonNullCounts[i]++;
+        if (count < HISTOGRAM_SAMPLE_SIZE) {
+          sample.add(value);
+        } else {
+          final int j = random.nextInt(count + 1);
+          if (j < HISTOGRAM_SAMPLE_SIZE) {
+            sample.set(j, value);
+          }
+        }
+      }
     }
 
     /** Populates {@code spaces} with the next batch.
@@ -289,7 +364,7 @@ void pass(int pass, List<Space> spaces, Iterable<List<Comparable>> rows) {
       }
 
       for (Space space : spaces) {
-        space.collector = Collector.create(space, 1000);
+        space.collector = Collector.create(space, SKETCH_THRESHOLD);
       }
 
       int rowCount = 0;
@@ -298,6 +373,9 @@ void pass(int pass, List<Space> spaces, Iterable<List<Comparable>> rows) {
         for (Space space : spaces) {
           castNonNull(space.collector).add(row);
         }
+        if (pass == 0) {
+          sample(row);
+        }
       }
 
       // Populate unique keys.
@@ -508,9 +586,11 @@ static class Space {
   public static class Builder {
     int combinationsPerPass = 100;
     Predicate<Pair<Space, Column>> predicate = p -> true;
+    int histogramBucketCount = 0;
 
     public ProfilerImpl build() {
-      return new ProfilerImpl(combinationsPerPass, 200, predicate);
+      return new ProfilerImpl(combinationsPerPass, 200, predicate,
+          histogramBucketCount);
     }
 
     public Builder withPassSize(int passSize) {
@@ -518,6 +598,13 @@ public Builder withPassSize(int passSize) {
       return this;
     }
 
+    /** Sets the maximum number of buckets in the histogram of each column;
+     * 0, the default, means do not build histograms. */
+    public Builder withHistogramBucketCount(int histogramBucketCount) {
+      this.histogramBucketCount = histogramBucketCount;
+      return this;
+    }
+
     public Builder withMinimumSurprise(double v) {
       predicate =
           spaceColumnPair -> {
@@ -377,7 +377,10 @@ public RelWriter explainTerms(RelWriter pw) {
       Pair<String, @Nullable Object> attr1 = items1.get(i);
       Pair<String, @Nullable Object> attr2 = items2.get(i);
       if (attr1.right instanceof RelNode) {
-        result = ((RelNode) attr1.right).deepEquals(attr2.right);
+        // Inputs are usually interned (RelSubset, HepRelVertex), so
+        // identity is the common case
+        result = attr1.right == attr2.right
+            || ((RelNode) attr1.right).deepEquals(attr2.right);
       } else {
         result = attr1.equals(attr2);
       }
@@ -409,7 +412,20 @@ public RelWriter explainTerms(RelWriter pw) {
     return result;
   }
 
+  /** Returns the attributes of this relational expression's digest.
+   *
+   * <p>The list is cached in the digest until the next call to
+   * {@link #recomputeDigest()}, so that registering an expression in a
+   * planner, which hashes it and compares it with candidates of the same
+   * hash, calls {@link #explainTerms(RelWriter)} only once. */
   private List<Pair<String, @Nullable Object>> getDigestItems() {
+    if (digest instanceof InnerRelDigest) {
+      return ((InnerRelDigest) digest).items();
+    }
+    return computeDigestItems();
+  }
+
+  private List<Pair<String, @Nullable Object>> computeDigestItems() {
     RelDigestWriter rdw = new RelDigestWriter();
     explainTerms(rdw);
     if (this instanceof Hintable) {
@@ -424,12 +440,24 @@ private class InnerRelDigest implements RelDigest {
     /** Cached hash code. */
     private int hash = 0;
 
+    /** Cached digest attributes, or null if not computed. */
+    private @Nullable List<Pair<String, @Nullable Object>> items;
+
     @Override public RelNode getRel() {
       return AbstractRelNode.this;
     }
 
     @Override public void clear() {
       hash = 0;
+      items = null;
+    }
+
+    List<Pair<String, @Nullable Object>> items() {
+      List<Pair<String, @Nullable Object>> items = this.items;
+      if (items == null) {
+        items = this.items = computeDigestItems();
+      }
+      return items;
     }
 
     @Override public boolean equals(final @Nullable Object o) {
@@ -440,7 +468,9 @@ private class InnerRelDigest implements RelDigest {
         return false;
       }
       final InnerRelDigest relDigest = (InnerRelDigest) o;
-      return deepEquals(relDigest.getRel());
+      // Hash codes are cached, so comparing them first is cheap
+      return hashCode() == relDigest.hashCode()
+          && deepEquals(relDigest.getRel());
     }
 
     @Override public int hashCode() {
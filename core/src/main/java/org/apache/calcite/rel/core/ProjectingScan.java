@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.core;
+
+import org.apache.calcite.util.ImmutableIntList;
+
+/**
+ * Table scan that reads some of the columns of its table, in a given order,
+ * rather than all of them.
+ *
+ * <p>Metadata handlers use it to find the column of the table that a field
+ * of the scan reads.
+ *
+ * @see TableScan
+ */
+public interface ProjectingScan {
+  /** Returns the ordinals of the columns of the table that the fields of
+   * this scan read; field {@code i} reads column
+   * {@code getProjects().get(i)}. */
+  ImmutableIntList getProjects();
+}
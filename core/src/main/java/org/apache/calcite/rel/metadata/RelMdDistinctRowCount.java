@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.rel.metadata;
 
+import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.volcano.RelSubset;
 import org.apache.calcite.rel.RelNode;
@@ -33,6 +34,7 @@
 import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.schema.ColumnStatistic;
 import org.apache.calcite.util.Bug;
 import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.NumberUtil;
@@ -93,7 +95,31 @@ protected RelMdDistinctRowCount() {}
     if (handler != null) {
       return handler.getDistinctRowCount(scan, mq, groupKey, predicate);
     }
-    return getDistinctRowCount((RelNode) scan, mq, groupKey, predicate);
+    final Double distinctRowCount =
+        getDistinctRowCount((RelNode) scan, mq, groupKey, predicate);
+    if (distinctRowCount != null || groupKey.isEmpty()) {
+      return distinctRowCount;
+    }
+
+    // Use the number of distinct values of each column, if known, and
+    // assume that the columns are independent. Null counts as a value.
+    final RelOptTable table = scan.getTable();
+    final double rowCount = table.getRowCount();
+    double domainSize = 1D;
+    for (int column : groupKey) {
+      final ColumnStatistic stat = RelMdUtil.columnStatistic(scan, column);
+      if (stat == null || stat.distinctCount == null) {
+        return null;
+      }
+      domainSize *= stat.distinctCount
+          + (stat.nullFraction == null || stat.nullFraction > 0D ? 1D : 0D);
+    }
+    domainSize = Math.max(1D, Math.min(domainSize, rowCount));
+    if (predicate == null || predicate.isAlwaysTrue()) {
+      return domainSize;
+    }
+    return RelMdUtil.numDistinctVals(domainSize,
+        NumberUtil.multiply(rowCount, mq.getSelectivity(scan, predicate)));
   }
 
   public @Nullable Double getDistinctRowCount(Union rel, RelMetadataQuery mq,
@@ -68,7 +68,7 @@ protected RelMdSelectivity() {
     if (handler != null) {
       return handler.getSelectivity(scan, mq, predicate);
     }
-    return getSelectivity((RelNode) scan, mq, predicate);
+    return RelMdUtil.estimateSelectivity(scan, predicate);
   }
 
   public @Nullable Double getSelectivity(Union rel, RelMetadataQuery mq,
@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.rel.metadata;
 
+import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.rel.RelCollation;
 import org.apache.calcite.rel.RelNode;
@@ -25,6 +26,8 @@
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.core.Minus;
 import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.ProjectingScan;
+import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.core.Union;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexCall;
@@ -34,21 +37,30 @@
 import org.apache.calcite.rex.RexLocalRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexProgram;
+import org.apache.calcite.rex.RexUnknownAs;
 import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.rex.RexVisitorImpl;
+import org.apache.calcite.schema.ColumnStatistic;
+import org.apache.calcite.schema.Histogram;
 import org.apache.calcite.sql.SqlBasicFunction;
 import org.apache.calcite.sql.SqlFunction;
 import org.apache.calcite.sql.SqlFunctionCategory;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.type.OperandTypes;
 import org.apache.calcite.sql.type.ReturnTypes;
 import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.NumberUtil;
+import org.apache.calcite.util.RangeSets;
+import org.apache.calcite.util.Sarg;
 import org.apache.calcite.util.Util;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.PolyNull;
@@ -474,14 +486,21 @@ public static double guessSelectivity(@Nullable RexNode predicate) {
   public static double guessSelectivity(
       @Nullable RexNode predicate,
       boolean artificialOnly) {
-    double sel = 1.0;
     if ((predicate == null) || predicate.isAlwaysTrue()) {
-      return sel;
+      return 1.0;
     }
+    return guessSelectivity(RelOptUtil.conjunctions(predicate),
+        artificialOnly);
+  }
 
+  /** Returns default estimates for the selectivity of a list of
+   * conjunctions. */
+  private static double guessSelectivity(Iterable<RexNode> conjunctions,
+      boolean artificialOnly) {
+    double sel = 1.0;
     double artificialSel = 1.0;
 
-    for (RexNode pred : RelOptUtil.conjunctions(predicate)) {
+    for (RexNode pred : conjunctions) {
       if (pred.getKind() == SqlKind.IS_NOT_NULL) {
         sel *= .9;
       } else if (
@@ -505,6 +524,252 @@ public static double guessSelectivity(
     }
   }
 
+  /**
+   * Returns an estimate of the selectivity of a predicate on the rows of a
+   * table.
+   *
+   * <p>Uses the {@link ColumnStatistic column statistics} of the table to
+   * estimate the selectivity of conjunctions that compare a column with a
+   * literal, test whether a column is null, or search a column
+   * ({@link SqlKind#SEARCH}), and default estimates for other conjunctions
+   * and for columns that have no statistics. Assumes that conjunctions are
+   * independent.
+   *
+   * @param scan      Scan of a table
+   * @param predicate Predicate on the fields of the scan; null means true
+   * @return estimated selectivity
+   */
+  public static double estimateSelectivity(TableScan scan,
+      @Nullable RexNode predicate) {
+    if ((predicate == null) || predicate.isAlwaysTrue()) {
+      return 1.0;
+    }
+    double sel = 1.0;
+    final List<RexNode> guessList = new ArrayList<>();
+    for (RexNode pred : RelOptUtil.conjunctions(predicate)) {
+      final Double columnSel = columnSelectivity(scan, pred);
+      if (columnSel == null) {
+        guessList.add(pred);
+      } else {
+        sel *= columnSel;
+      }
+    }
+    if (sel < 1.0) {
+      // Do not estimate that a predicate eliminates all rows; statistics may
+      // be stale, and a row count of 0 misleads the optimizer.
+      final double rowCount = scan.getTable().getRowCount();
+      if (rowCount >= 1.0) {
+        sel = Math.max(sel, 1.0 / rowCount);
+      }
+    }
+    return sel * guessSelectivity(guessList, false);
+  }
+
+  /** Returns the statistics of the column of a scan's table that a field of
+   * the scan reads, or null if not known.
+   *
+   * <p>If the scan projects, the field's ordinal is not the ordinal of the
+   * column in the table. This method maps the field through the projection of
+   * a {@link ProjectingScan}; for other scans whose row type is not the
+   * table's row type, it returns null. */
+  public static @Nullable ColumnStatistic columnStatistic(TableScan scan,
+      int field) {
+    final RelOptTable table = scan.getTable();
+    final int column;
+    if (scan instanceof ProjectingScan) {
+      column = ((ProjectingScan) scan).getProjects().get(field);
+    } else if (RelOptUtil.areRowTypesEqual(scan.getRowType(),
+        table.getRowType(), true)) {
+      column = field;
+    } else {
+      return null;
+    }
+    return table.getColumnStatistic(column);
+  }
+
+  /** Returns the selectivity of a single conjunction, using the column
+   * statistics of a scan's table, or null if there are no suitable
+   * statistics. */
+  private static @Nullable Double columnSelectivity(TableScan scan,
+      RexNode pred) {
+    if (!(pred instanceof RexCall)) {
+      return null;
+    }
+    final RexCall call = (RexCall) pred;
+    switch (call.getKind()) {
+    case IS_NULL:
+    case IS_NOT_NULL:
+      if (!(call.operands.get(0) instanceof RexInputRef)) {
+        return null;
+      }
+      final ColumnStatistic stat =
+          columnStatistic(scan,
+              ((RexInputRef) call.operands.get(0)).getIndex());
+      if (stat == null || stat.nullFraction == null) {
+        return null;
+      }
+      return call.getKind() == SqlKind.IS_NULL
+          ? stat.nullFraction
+          : 1.0 - stat.nullFraction;
+
+    case EQUALS:
+    case NOT_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL:
+    case SEARCH:
+      break;
+
+    default:
+      return null;
+    }
+    RexNode op0 = call.operands.get(0);
+    RexNode op1 = call.operands.get(1);
+    SqlKind kind = call.getKind();
+    if (op0 instanceof RexLiteral && op1 instanceof RexInputRef) {
+      final SqlOperator reverse = call.getOperator().reverse();
+      if (reverse == null) {
+        return null;
+      }
+      kind = reverse.getKind();
+      op0 = call.operands.get(1);
+      op1 = call.operands.get(0);
+    }
+    if (!(op0 instanceof RexInputRef) || !(op1 instanceof RexLiteral)) {
+      return null;
+    }
+    final ColumnStatistic stat =
+        columnStatistic(scan, ((RexInputRef) op0).getIndex());
+    if (stat == null) {
+      return null;
+    }
+    final double nullFraction =
+        stat.nullFraction == null ? 0.0 : stat.nullFraction;
+    final RexLiteral literal = (RexLiteral) op1;
+    if (kind == SqlKind.SEARCH) {
+      final Sarg sarg = literal.getValueAs(Sarg.class);
+      if (sarg == null) {
+        return null;
+      }
+      final Double fraction = sargFraction(stat, sarg);
+      if (fraction == null) {
+        return null;
+      }
+      return Math.min(1.0,
+          fraction * (1.0 - nullFraction)
+              + (sarg.nullAs == RexUnknownAs.TRUE ? nullFraction : 0.0));
+    }
+    final Comparable value = literal.getValue();
+    if (value == null) {
+      return null;
+    }
+    final Histogram histogram = stat.histogram;
+    final Double fraction;
+    switch (kind) {
+    case EQUALS:
+      fraction = equalFraction(stat, value);
+      break;
+    case NOT_EQUALS:
+      final Double equalFraction = equalFraction(stat, value);
+      fraction = equalFraction == null ? null : 1.0 - equalFraction;
+      break;
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+      fraction = histogram == null
+          ? null
+          : histogram.fractionBelow(value,
+              kind == SqlKind.LESS_THAN_OR_EQUAL);
+      break;
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL:
+      final Double below = histogram == null
+          ? null
+          : histogram.fractionBelow(value, kind == SqlKind.GREATER_THAN);
+      fraction = below == null ? null : 1.0 - below;
+      break;
+    default:
+      return null;
+    }
+    return fraction == null ? null : fraction * (1.0 - nullFraction);
+  }
+
+  /** Returns the estimated fraction of the non-null values of a column that
+   * are equal to a given value, or null if not known. */
+  private static @Nullable Double equalFraction(ColumnStatistic stat,
+      Comparable value) {
+    final Histogram histogram = stat.histogram;
+    if (histogram != null) {
+      final Double below = histogram.fractionBelow(value, false);
+      final Double belowOrEqual = histogram.fractionBelow(value, true);
+      if (below != null && belowOrEqual != null) {
+        if (belowOrEqual == 0.0 || below == 1.0) {
+          // Value is outside the range of the histogram
+          return 0.0;
+        }
+        if (belowOrEqual > below) {
+          // Value is common enough to be the bound of several buckets
+          return belowOrEqual - below;
+        }
+      }
+    }
+    if (stat.distinctCount != null) {
+      return 1.0 / Math.max(1.0, stat.distinctCount);
+    }
+    return null;
+  }
+
+  /** Returns the estimated fraction of the non-null values of a column that
+   * satisfy a search argument, or null if not known. */
+  @SuppressWarnings("unchecked")
+  private static @Nullable Double sargFraction(ColumnStatistic stat,
+      Sarg sarg) {
+    if (sarg.isComplementedPoints()) {
+      final Double fraction = pointsFraction(stat, sarg.rangeSet.complement());
+      return fraction == null ? null : Math.max(0.0, 1.0 - fraction);
+    }
+    final Histogram histogram = stat.histogram;
+    double fraction = 0.0;
+    for (Range range : (Set<Range>) sarg.rangeSet.asRanges()) {
+      final Double f;
+      if (RangeSets.isPoint(range)) {
+        f = equalFraction(stat, range.lowerEndpoint());
+      } else if (histogram == null) {
+        return null;
+      } else {
+        f =
+            histogram.fractionBetween(
+                range.hasLowerBound() ? range.lowerEndpoint() : null,
+                range.hasLowerBound()
+                    && range.lowerBoundType() == BoundType.CLOSED,
+                range.hasUpperBound() ? range.upperEndpoint() : null,
+                range.hasUpperBound()
+                    && range.upperBoundType() == BoundType.CLOSED);
+      }
+      if (f == null) {
+        return null;
+      }
+      fraction += f;
+    }
+    return Math.min(1.0, fraction);
+  }
+
+  /** Returns the estimated fraction of the non-null values of a column that
+   * are equal to any of a set of points, or null if not known. */
+  @SuppressWarnings("unchecked")
+  private static @Nullable Double pointsFraction(ColumnStatistic stat,
+      RangeSet points) {
+    double fraction = 0.0;
+    for (Range range : (Set<Range>) points.asRanges()) {
+      final Double f = equalFraction(stat, range.lowerEndpoint());
+      if (f == null) {
+        return null;
+      }
+      fraction += f;
+    }
+    return fraction;
+  }
+
   /**
    * AND's two predicates together, either of which may be null, removing
    * redundant filters.
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.metadata;
+
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.sql.SqlExplainLevel;
+import org.apache.calcite.util.Pair;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of metadata values that is shared by several
+ * {@link RelMetadataQuery} instances, and therefore by several statements.
+ *
+ * <p>A {@link RelMetadataQuery} caches values only for the relational
+ * expressions of one statement, so row counts, distinct row counts and
+ * selectivities of the same table scans and filters are recomputed for
+ * every statement. If a query has a shared cache (see
+ * {@link RelMetadataQuery#setSharedCache}) it looks up those values here
+ * first.
+ *
+ * <p>The key of an entry is structural: it is built from the type, traits
+ * and attributes of a relational expression and, recursively, of its
+ * inputs, but not from their ids, so it is the same for equivalent
+ * expressions in different statements. An expression whose input is a
+ * {@link RelSubset} is not cached, because its metadata changes as the
+ * Volcano planner finds better plans, and a subset's id is different in
+ * each statement.
+ *
+ * <p>So the cache helps most when metadata is requested for trees of
+ * concrete expressions, such as during
+ * {@link org.apache.calcite.plan.hep.HepPlanner} programs, and for table
+ * scans. Once an expression is registered in a
+ * {@link org.apache.calcite.plan.volcano.VolcanoPlanner}, only the metadata
+ * of scans and other leaves is shared.
+ *
+ * <p>The key of a table scan contains the table's name, its row count, and a
+ * version that {@link #invalidate(List)} increments. Call that method when
+ * a table's {@link org.apache.calcite.schema.Statistic} changes in a way
+ * that does not change its row count, and {@link #invalidateAll()} when the
+ * data of a {@link org.apache.calcite.materialize.SqlStatisticProvider}
+ * changes.
+ *
+ * <p>The cache is thread-safe.
+ */
+public class RelMetadataCache {
+  /** Key in a query's cache of the structural key of a relational
+   * expression. */
+  private static final Object STRUCTURAL_KEY = new Object() {
+    @Override public String toString() {
+      return "STRUCTURAL_KEY";
+    }
+  };
+
+  private final Cache<Key, Object> cache;
+  private final Map<List<String>, Long> tableVersions =
+      new ConcurrentHashMap<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /** Value of the root schema's modification count when the entries in the
+   * cache were computed. */
+  private long modCount = -1L;
+
+  /** Creates a RelMetadataCache.
+   *
+   * @param maximumSize Maximum number of entries; the cache discards the
+   *                    least recently used entry to make room for a new one
+   */
+  public RelMetadataCache(int maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /** Empties the cache if the root schema has changed since the last call.
+   *
+   * @param modCount Current modification count of the root schema
+   */
+  public synchronized void validate(long modCount) {
+    if (modCount != this.modCount) {
+      if (this.modCount >= 0L) {
+        invalidateAll();
+      }
+      this.modCount = modCount;
+    }
+  }
+
+  /** Removes all entries. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /** Makes obsolete the entries for relational expressions that read a
+   * given table.
+   *
+   * @param qualifiedName Qualified name of the table
+   */
+  public void invalidate(List<String> qualifiedName) {
+    tableVersions.merge(ImmutableList.copyOf(qualifiedName), 1L, Long::sum);
+  }
+
+  /** Returns the number of entries. */
+  public long size() {
+    return cache.size();
+  }
+
+  /** Returns the number of times that a value was found in the cache. */
+  public long hitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of times that a value was not found in the cache and
+   * had to be computed. */
+  public long missCount() {
+    return missCount.get();
+  }
+
+  /** Returns the value of a kind of metadata for a relational expression,
+   * computing it if it is not in the cache.
+   *
+   * @param mq Metadata query
+   * @param rel Relational expression
+   * @param kind Kind of metadata, for example "rowCount"
+   * @param arg Arguments other than the relational expression, or null;
+   *            must be immutable and have value semantics
+   * @param supplier Computes the value
+   */
+  @Nullable Double get(RelMetadataQuery mq, RelNode rel, String kind,
+      @Nullable Object arg, Supplier<@Nullable Double> supplier) {
+    final StructuralKey relKey = structuralKey(mq, rel);
+    if (relKey == null) {
+      return supplier.get();
+    }
+    final Key key = new Key(mq, relKey, kind, arg);
+    final Object cached = cache.getIfPresent(key);
+    if (cached != null) {
+      hitCount.incrementAndGet();
+      return cached == NullSentinel.INSTANCE ? null : (Double) cached;
+    }
+    missCount.incrementAndGet();
+    final Double value = supplier.get();
+    cache.put(key, value == null ? NullSentinel.INSTANCE : value);
+    return value;
+  }
+
+  /** Returns the structural key of a relational expression, or null if its
+   * metadata must not be shared. */
+  private @Nullable StructuralKey structuralKey(RelMetadataQuery mq,
+      RelNode rel) {
+    if (rel instanceof DelegatingMetadataRel) {
+      return structuralKey(mq,
+          ((DelegatingMetadataRel) rel).getMetadataDelegateRel());
+    }
+    final Object cached = mq.map.get(rel, STRUCTURAL_KEY);
+    if (cached != null) {
+      return cached == NullSentinel.INSTANCE ? null : (StructuralKey) cached;
+    }
+    final StructuralKey key = computeStructuralKey(mq, rel);
+    mq.map.put(rel, STRUCTURAL_KEY, key == null ? NullSentinel.INSTANCE : key);
+    return key;
+  }
+
+  private @Nullable StructuralKey computeStructuralKey(RelMetadataQuery mq,
+      RelNode rel) {
+    if (rel instanceof RelSubset) {
+      return null;
+    }
+    final List<StructuralKey> inputKeys = new ArrayList<>();
+    for (RelNode input : rel.getInputs()) {
+      final StructuralKey inputKey = structuralKey(mq, input);
+      if (inputKey == null) {
+        return null;
+      }
+      inputKeys.add(inputKey);
+    }
+    final AttributeWriter writer = new AttributeWriter();
+    rel.explain(writer);
+    final RelOptTable table = rel.getTable();
+    final Object tableKey;
+    if (table == null) {
+      tableKey = "";
+    } else {
+      final List<String> name = table.getQualifiedName();
+      tableKey =
+          ImmutableList.of(name, tableVersions.getOrDefault(name, 0L),
+              table.getRowCount());
+    }
+    return new StructuralKey(writer.toString(), tableKey,
+        ImmutableList.copyOf(inputKeys));
+  }
+
+  /** Writer that prints the type, traits and attributes of a relational
+   * expression, but not its inputs. */
+  private static class AttributeWriter implements RelWriter {
+    private final StringBuilder sb = new StringBuilder();
+
+    @Override public void explain(RelNode rel,
+        List<Pair<String, @Nullable Object>> valueList) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public SqlExplainLevel getDetailLevel() {
+      return SqlExplainLevel.DIGEST_ATTRIBUTES;
+    }
+
+    @Override public RelWriter item(String term, @Nullable Object value) {
+      if (!(value instanceof RelNode)) {
+        sb.append(',').append(term).append('=').append(value);
+      }
+      return this;
+    }
+
+    @Override public RelWriter done(RelNode node) {
+      sb.insert(0, node.getRelTypeName() + '.' + node.getTraitSet());
+      return this;
+    }
+
+    @Override public String toString() {
+      return sb.toString();
+    }
+  }
+
+  /** Key of a relational expression that is the same for equivalent
+   * expressions in different statements. */
+  private static class StructuralKey {
+    final String attributes;
+    final Object table;
+    final ImmutableList<StructuralKey> inputs;
+    final int hash;
+
+    StructuralKey(String attributes, Object table,
+        ImmutableList<StructuralKey> inputs) {
+      this.attributes = attributes;
+      this.table = table;
+      this.inputs = inputs;
+      this.hash = Objects.hash(attributes, table, inputs);
+    }
+
+    @Override public int hashCode() {
+      return hash;
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      return obj == this
+          || obj instanceof StructuralKey
+          && hash == ((StructuralKey) obj).hash
+          && attributes.equals(((StructuralKey) obj).attributes)
+          && table.equals(((StructuralKey) obj).table)
+          && inputs.equals(((StructuralKey) obj).inputs);
+    }
+  }
+
+  /** Key of an entry in a {@link RelMetadataCache}.
+   *
+   * <p>Contains the query's class and handler provider, because a different
+   * provider may compute different values. */
+  private static class Key {
+    final Class<?> queryClass;
+    final @Nullable Object provider;
+    final StructuralKey rel;
+    final String kind;
+    final @Nullable Object arg;
+
+    Key(RelMetadataQuery mq, StructuralKey rel, String kind,
+        @Nullable Object arg) {
+      this.queryClass = mq.getClass();
+      this.provider = mq.metadataHandlerProvider();
+      this.rel = rel;
+      this.kind = kind;
+      this.arg = arg;
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(queryClass, provider, rel, kind, arg);
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      return obj == this
+          || obj instanceof Key
+          && queryClass == ((Key) obj).queryClass
+          && Objects.equals(provider, ((Key) obj).provider)
+          && rel.equals(((Key) obj).rel)
+          && kind.equals(((Key) obj).kind)
+          && Objects.equals(arg, ((Key) obj).arg);
+    }
+  }
+}
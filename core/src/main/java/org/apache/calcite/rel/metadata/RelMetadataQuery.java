@@ -28,6 +28,7 @@
 import org.apache.calcite.rex.RexTableInputRef.RelTableRef;
 import org.apache.calcite.sql.SqlExplainLevel;
 import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Pair;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -108,6 +109,9 @@ public class RelMetadataQuery extends RelMetadataQueryBase {
   private BuiltInMetadata.UniqueKeys.Handler uniqueKeysHandler;
   private BuiltInMetadata.LowerBoundCost.Handler lowerBoundCostHandler;
 
+  /** Cache shared with other queries, or null. */
+  private @Nullable RelMetadataCache sharedCache;
+
   /**
    * Creates the instance with {@link JaninoRelMetadataProvider} instance
    * from {@link #THREAD_PROVIDERS} and {@link #EMPTY} as a prototype.
@@ -224,6 +228,18 @@ public static RelMetadataQuery instance() {
     return new RelMetadataQuery();
   }
 
+  /**
+   * Sets a cache, shared with other queries, of row counts, distinct row
+   * counts and selectivities.
+   *
+   * @param sharedCache Shared cache, or null
+   * @return this query
+   */
+  public RelMetadataQuery setSharedCache(@Nullable RelMetadataCache sharedCache) {
+    this.sharedCache = sharedCache;
+    return this;
+  }
+
   /**
    * Returns the
    * {@link BuiltInMetadata.NodeTypes#getNodeTypes()}
@@ -253,6 +269,16 @@ public static RelMetadataQuery instance() {
    * determined
    */
   public /* @Nullable: CALCITE-4263 */ Double getRowCount(RelNode rel) {
+    final RelMetadataCache sharedCache = this.sharedCache;
+    if (sharedCache != null) {
+      return castNonNull(
+          sharedCache.get(this, rel, "rowCount", null,
+              () -> getRowCount_(rel)));
+    }
+    return getRowCount_(rel);
+  }
+
+  private Double getRowCount_(RelNode rel) {
     for (;;) {
       try {
         Double result = rowCountHandler.getRowCount(rel, this);
@@ -458,6 +484,17 @@ public static RelMetadataQuery instance() {
    * reliable estimate can be determined
    */
   public @Nullable Double getSelectivity(RelNode rel, @Nullable RexNode predicate) {
+    final RelMetadataCache sharedCache = this.sharedCache;
+    if (sharedCache != null) {
+      return sharedCache.get(this, rel, "selectivity",
+          predicate == null ? null : predicate.toString(),
+          () -> getSelectivity_(rel, predicate));
+    }
+    return getSelectivity_(rel, predicate);
+  }
+
+  private @Nullable Double getSelectivity_(RelNode rel,
+      @Nullable RexNode predicate) {
     for (;;) {
       try {
         Double result = selectivityHandler.getSelectivity(rel, this, predicate);
@@ -815,6 +852,19 @@ public RelDistribution distribution(RelNode rel) {
       RelNode rel,
       ImmutableBitSet groupKey,
       @Nullable RexNode predicate) {
+    final RelMetadataCache sharedCache = this.sharedCache;
+    if (sharedCache != null) {
+      return sharedCache.get(this, rel, "distinctRowCount",
+          Pair.of(groupKey, predicate == null ? null : predicate.toString()),
+          () -> getDistinctRowCount_(rel, groupKey, predicate));
+    }
+    return getDistinctRowCount_(rel, groupKey, predicate);
+  }
+
+  private @Nullable Double getDistinctRowCount_(
+      RelNode rel,
+      ImmutableBitSet groupKey,
+      @Nullable RexNode predicate) {
     for (;;) {
       try {
         Double result =
@@ -118,6 +118,11 @@ protected <H extends MetadataHandler<?>> H revise(Class<H> def) {
     return getMetadataHandlerProvider().revise(def);
   }
 
+  /** Returns the provider of metadata handlers, or null. */
+  @Nullable MetadataHandlerProvider metadataHandlerProvider() {
+    return metadataHandlerProvider;
+  }
+
   private MetadataHandlerProvider getMetadataHandlerProvider() {
     requireNonNull(metadataHandlerProvider, "metadataHandlerProvider");
     return castNonNull(metadataHandlerProvider);
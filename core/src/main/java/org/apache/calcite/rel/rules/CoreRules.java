@@ -638,6 +638,18 @@ private CoreRules() {}
   public static final MultiJoinOptimizeBushyRule MULTI_JOIN_OPTIMIZE_BUSHY =
       MultiJoinOptimizeBushyRule.Config.DEFAULT.toRule();
 
+  /** Rule that finds an optimal ordering for join operators using dynamic
+   * programming, and falls back to {@link #MULTI_JOIN_OPTIMIZE} if there
+   * are too many inputs.
+   *
+   * <p>It is triggered by the pattern {@link MultiJoin}.
+   *
+   * @see #MULTI_JOIN_OPTIMIZE
+   * @see #MULTI_JOIN_OPTIMIZE_BUSHY
+   */
+  public static final MultiJoinOptimizeDphypRule MULTI_JOIN_OPTIMIZE_DPHYP =
+      MultiJoinOptimizeDphypRule.Config.DEFAULT.toRule();
+
   /** Rule that matches a {@link LogicalJoin} whose inputs are both a
    * {@link MultiJoin} with intervening {@link LogicalProject}s,
    * and pulls the Projects up above the Join. */
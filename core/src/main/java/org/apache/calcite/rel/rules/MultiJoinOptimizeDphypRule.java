@@ -0,0 +1,616 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.rules;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexPermuteInputsShuttle;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.mapping.Mappings;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.immutables.value.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Planner rule that finds an optimal ordering for the inputs of a
+ * {@link MultiJoin} using dynamic programming.
+ *
+ * <p>It is triggered by the pattern {@link MultiJoin}.
+ *
+ * <p>It uses the DPhyp algorithm described in "Dynamic Programming Strikes
+ * Back" (Moerkotte and Neumann, SIGMOD 2008). The inputs of the MultiJoin are
+ * the nodes of a hypergraph, and each join condition is an edge. DPhyp
+ * enumerates each pair of connected sub-graphs exactly once, so, unlike
+ * {@link CoreRules#JOIN_COMMUTE} and {@link CoreRules#JOIN_ASSOCIATE} in
+ * the Volcano planner, it never considers the same join twice, and never
+ * considers a cartesian product unless the query requires one. It considers
+ * bushy trees; the result is optimal for its cost model, unlike
+ * {@link LoptOptimizeJoinRule} and {@link MultiJoinOptimizeBushyRule}, which
+ * are greedy.
+ *
+ * <p>The cost of a join tree is the sum of the number of rows produced by
+ * each of its joins. The number of rows of each input comes from
+ * {@link RelMetadataQuery#getRowCount}; the selectivity of an equi-join
+ * condition is the reciprocal of the larger number of distinct values
+ * ({@link RelMetadataQuery#getDistinctRowCount}) of its two columns.
+ *
+ * <p>Outer joins are represented as edges from the factors that the ON
+ * condition references to the null-generating factor. The rule only joins
+ * a null-generating factor on its own, as the right input of a
+ * {@link JoinRelType#LEFT} join, after all of the factors it depends on.
+ *
+ * <p>Join conditions that reference one factor, and a post-join filter, are
+ * applied in a filter above the join tree. If the inputs form more than one
+ * connected component, the rule joins the components using cartesian
+ * products.
+ *
+ * <p>The number of sub-plans grows exponentially with the number of inputs
+ * (for example, 3<sup>n</sup> for a query in which every input is joined to
+ * every other). If there are more than {@link Config#maxFactorCount()} inputs,
+ * the rule delegates to {@link LoptOptimizeJoinRule}.
+ *
+ * @see CoreRules#MULTI_JOIN_OPTIMIZE_DPHYP
+ */
+@Value.Enclosing
+public class MultiJoinOptimizeDphypRule
+    extends RelRule<MultiJoinOptimizeDphypRule.Config>
+    implements TransformationRule {
+  private final LoptOptimizeJoinRule greedyRule;
+
+  /** Creates a MultiJoinOptimizeDphypRule. */
+  protected MultiJoinOptimizeDphypRule(Config config) {
+    super(config);
+    this.greedyRule = LoptOptimizeJoinRule.Config.DEFAULT
+        .withRelBuilderFactory(config.relBuilderFactory())
+        .as(LoptOptimizeJoinRule.Config.class)
+        .toRule();
+  }
+
+  @Override public boolean matches(RelOptRuleCall call) {
+    final MultiJoin multiJoinRel = call.rel(0);
+    return !multiJoinRel.isFullOuterJoin();
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final MultiJoin multiJoinRel = call.rel(0);
+    final LoptMultiJoin multiJoin = new LoptMultiJoin(multiJoinRel);
+    final int n = multiJoin.getNumJoinFactors();
+    if (n > Math.min(config.maxFactorCount(), Long.SIZE - 1)) {
+      greedyRule.onMatch(call);
+      return;
+    }
+
+    final Graph graph = new Graph(multiJoin, call.getMetadataQuery());
+    final Plan plan = graph.solve();
+    if (plan == null) {
+      // Should not happen; components are connected by cartesian products
+      greedyRule.onMatch(call);
+      return;
+    }
+
+    final RelBuilder relBuilder = call.builder();
+    final Pair<RelNode, Mappings.TargetMapping> top =
+        build(relBuilder, multiJoin, plan);
+    relBuilder.push(top.left);
+    if (!graph.topConditions.isEmpty()) {
+      relBuilder.filter(
+          permute(graph.topConditions, top.right, top.left));
+    }
+    relBuilder.project(relBuilder.fields(top.right));
+    final RexNode postJoinFilter = multiJoinRel.getPostJoinFilter();
+    if (postJoinFilter != null) {
+      relBuilder.filter(postJoinFilter);
+    }
+    call.transformTo(relBuilder.build());
+  }
+
+  /** Converts a plan to a tree of joins; returns the tree and a mapping from
+   * the fields of the MultiJoin to the fields of the tree. */
+  private static Pair<RelNode, Mappings.TargetMapping> build(
+      RelBuilder relBuilder, LoptMultiJoin multiJoin, Plan plan) {
+    if (plan.left == null || plan.right == null) {
+      final RelNode rel = multiJoin.getJoinFactor(plan.factor);
+      final Mappings.TargetMapping mapping =
+          Mappings.offsetSource(
+              Mappings.createIdentity(rel.getRowType().getFieldCount()),
+              multiJoin.getJoinStart(plan.factor),
+              multiJoin.getNumTotalFields());
+      return Pair.of(rel, mapping);
+    }
+    final Pair<RelNode, Mappings.TargetMapping> left =
+        build(relBuilder, multiJoin, plan.left);
+    final Pair<RelNode, Mappings.TargetMapping> right =
+        build(relBuilder, multiJoin, plan.right);
+    final Mappings.TargetMapping mapping =
+        Mappings.merge(left.right,
+            Mappings.offsetTarget(right.right,
+                left.left.getRowType().getFieldCount()));
+    relBuilder.push(left.left)
+        .push(right.left)
+        .join(plan.joinType,
+            permute(plan.conditions, mapping, left.left, right.left));
+    if (!plan.postConditions.isEmpty()) {
+      final RelNode join = relBuilder.peek();
+      relBuilder.filter(permute(plan.postConditions, mapping, join));
+    }
+    return Pair.of(relBuilder.build(), mapping);
+  }
+
+  /** Converts conditions in terms of the fields of the MultiJoin to
+   * conditions in terms of the fields of some inputs. */
+  private static List<RexNode> permute(List<RexNode> conditions,
+      Mappings.TargetMapping mapping, RelNode... inputs) {
+    final RexPermuteInputsShuttle shuttle =
+        new RexPermuteInputsShuttle(mapping, inputs);
+    final List<RexNode> list = new ArrayList<>();
+    for (RexNode condition : conditions) {
+      list.add(condition.accept(shuttle));
+    }
+    return list;
+  }
+
+  /** Hypergraph whose nodes are the factors of a MultiJoin, and the dynamic
+   * programming table of the best plan for each set of nodes.
+   *
+   * <p>A set of nodes is represented as a {@code long} bit mask. */
+  private static class Graph {
+    final LoptMultiJoin multiJoin;
+    final RelMetadataQuery mq;
+    final int n;
+    /** Nodes that are null-generating factors of outer joins. */
+    long nullGenerating;
+    final List<Edge> edges = new ArrayList<>();
+    /** Conditions to apply above the join tree. */
+    final List<RexNode> topConditions = new ArrayList<>();
+    final Map<Long, Plan> dp = new HashMap<>();
+
+    Graph(LoptMultiJoin multiJoin, RelMetadataQuery mq) {
+      this.multiJoin = multiJoin;
+      this.mq = mq;
+      this.n = multiJoin.getNumJoinFactors();
+
+      for (int i = 0; i < n; i++) {
+        final RelNode factor = multiJoin.getJoinFactor(i);
+        dp.put(1L << i, new Plan(i, mq.getRowCount(factor)));
+        if (multiJoin.isNullGenerating(i)) {
+          nullGenerating |= 1L << i;
+        }
+      }
+
+      for (int i = 0; i < n; i++) {
+        if (multiJoin.isNullGenerating(i)) {
+          final long deps = mask(multiJoin.getOuterJoinFactors(i));
+          final RexNode condition =
+              requireNonNull(multiJoin.getOuterJoinCond(i),
+                  "outerJoinCond");
+          if (deps == 0) {
+            // ON condition references only the null-generating factor;
+            // depend on every factor that is not null-generating.
+            final long all = (1L << n) - 1;
+            edges.add(
+                new Edge(all & ~nullGenerating, 1L << i, condition,
+                    selectivity(condition), i));
+          } else {
+            edges.add(
+                new Edge(deps, 1L << i, condition, selectivity(condition),
+                    i));
+          }
+        }
+      }
+
+      for (RexNode condition : multiJoin.getJoinFilters()) {
+        final long factors =
+            mask(multiJoin.getFactorsRefByJoinFilter(condition));
+        if (Long.bitCount(factors) < 2) {
+          topConditions.add(condition);
+          continue;
+        }
+        long left = 0;
+        long right = 0;
+        if (condition instanceof RexCall
+            && ((RexCall) condition).getOperands().size() == 2) {
+          left = factors(((RexCall) condition).getOperands().get(0));
+          right = factors(((RexCall) condition).getOperands().get(1));
+        }
+        if (left == 0 || right == 0 || (left & right) != 0) {
+          // Not a comparison between two disjoint sets of factors. Treat it
+          // as an edge between the lowest factor and the others.
+          left = Long.lowestOneBit(factors);
+          right = factors & ~left;
+        }
+        edges.add(
+            new Edge(left, right, condition, selectivity(condition), -1));
+      }
+
+      addCartesianEdges();
+    }
+
+    /** Adds an edge, with no condition, between each pair of adjacent
+     * connected components, so that the graph is connected. */
+    private void addCartesianEdges() {
+      final List<Long> components = new ArrayList<>();
+      long remaining = (1L << n) - 1;
+      while (remaining != 0) {
+        long component = Long.lowestOneBit(remaining);
+        for (;;) {
+          long expanded = component;
+          for (Edge edge : edges) {
+            if ((edge.factors & component) != 0) {
+              expanded |= edge.factors;
+            }
+          }
+          if (expanded == component) {
+            break;
+          }
+          component = expanded;
+        }
+        components.add(component);
+        remaining &= ~component;
+      }
+      for (int i = 1; i < components.size(); i++) {
+        // Connect via factors that are not null-generating, so that a
+        // null-generating factor is only ever joined by its outer join
+        edges.add(
+            new Edge(representative(components.get(i - 1)),
+                representative(components.get(i)), null, 1d, -1));
+      }
+    }
+
+    private long representative(long component) {
+      final long candidates = component & ~nullGenerating;
+      return Long.lowestOneBit(candidates != 0 ? candidates : component);
+    }
+
+    private long mask(ImmutableBitSet bitSet) {
+      long mask = 0;
+      for (int i : bitSet) {
+        mask |= 1L << i;
+      }
+      return mask;
+    }
+
+    /** Returns the factors referenced by an expression. */
+    private long factors(RexNode e) {
+      long mask = 0;
+      for (int field : RelOptUtil.InputFinder.bits(e)) {
+        mask |= 1L << multiJoin.findRef(field);
+      }
+      return mask;
+    }
+
+    /** Estimates the selectivity of a condition. */
+    private double selectivity(RexNode condition) {
+      double selectivity = 1d;
+      for (RexNode conjunction : RelOptUtil.conjunctions(condition)) {
+        selectivity *= conjunctionSelectivity(conjunction);
+      }
+      return selectivity;
+    }
+
+    private double conjunctionSelectivity(RexNode condition) {
+      if (condition.getKind() == SqlKind.EQUALS) {
+        final List<RexNode> operands = ((RexCall) condition).getOperands();
+        if (operands.get(0) instanceof RexInputRef
+            && operands.get(1) instanceof RexInputRef) {
+          final Double ndv0 = distinctRowCount((RexInputRef) operands.get(0));
+          final Double ndv1 = distinctRowCount((RexInputRef) operands.get(1));
+          if (ndv0 != null && ndv1 != null) {
+            final double ndv = Math.max(ndv0, ndv1);
+            if (ndv >= 1d) {
+              return 1d / ndv;
+            }
+          }
+        }
+      }
+      return RelMdUtil.guessSelectivity(condition);
+    }
+
+    private @Nullable Double distinctRowCount(RexInputRef ref) {
+      final int factor = multiJoin.findRef(ref.getIndex());
+      return mq.getDistinctRowCount(multiJoin.getJoinFactor(factor),
+          ImmutableBitSet.of(ref.getIndex() - multiJoin.getJoinStart(factor)),
+          null);
+    }
+
+    /** Runs the algorithm; returns the best plan, or null. */
+    @Nullable Plan solve() {
+      for (int i = n - 1; i >= 0; i--) {
+        final long v = 1L << i;
+        emitCsg(v);
+        enumerateCsgRec(v, (v << 1) - 1);
+      }
+      return dp.get((1L << n) - 1);
+    }
+
+    /** Returns the neighborhood of a set of nodes: for each edge that leads
+     * from within {@code s} to outside both {@code s} and {@code x}, the
+     * lowest node at the other end. */
+    private long neighborhood(long s, long x) {
+      final long excluded = s | x;
+      long neighbors = 0;
+      for (Edge edge : edges) {
+        if ((edge.left & ~s) == 0 && (edge.right & excluded) == 0) {
+          neighbors |= Long.lowestOneBit(edge.right);
+        } else if ((edge.right & ~s) == 0 && (edge.left & excluded) == 0) {
+          neighbors |= Long.lowestOneBit(edge.left);
+        }
+      }
+      return neighbors;
+    }
+
+    /** Returns whether there is an edge between two disjoint sets. */
+    private boolean connected(long s1, long s2) {
+      for (Edge edge : edges) {
+        if ((edge.left & ~s1) == 0 && (edge.right & ~s2) == 0
+            || (edge.left & ~s2) == 0 && (edge.right & ~s1) == 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Extends a connected sub-graph by subsets of its neighborhood. */
+    private void enumerateCsgRec(long s1, long x) {
+      final long neighbors = neighborhood(s1, x);
+      if (neighbors == 0) {
+        return;
+      }
+      for (long sub = -neighbors & neighbors;; sub = (sub - neighbors) & neighbors) {
+        if (dp.containsKey(s1 | sub)) {
+          emitCsg(s1 | sub);
+        }
+        if (sub == neighbors) {
+          break;
+        }
+      }
+      final long x2 = x | neighbors;
+      for (long sub = -neighbors & neighbors;; sub = (sub - neighbors) & neighbors) {
+        enumerateCsgRec(s1 | sub, x2);
+        if (sub == neighbors) {
+          break;
+        }
+      }
+    }
+
+    /** Finds the complements of a connected sub-graph. */
+    private void emitCsg(long s1) {
+      final long x = s1 | ((Long.lowestOneBit(s1) << 1) - 1);
+      final long neighbors = neighborhood(s1, x);
+      for (long rest = neighbors; rest != 0;) {
+        final long v = Long.highestOneBit(rest);
+        rest &= ~v;
+        if (connected(s1, v)) {
+          emitCsgCmp(s1, v);
+        }
+        enumerateCmpRec(s1, v, x | (neighbors & ((v << 1) - 1)));
+      }
+    }
+
+    /** Extends a complement by subsets of its neighborhood. */
+    private void enumerateCmpRec(long s1, long s2, long x) {
+      final long neighbors = neighborhood(s2, x);
+      if (neighbors == 0) {
+        return;
+      }
+      for (long sub = -neighbors & neighbors;; sub = (sub - neighbors) & neighbors) {
+        if (dp.containsKey(s2 | sub) && connected(s1, s2 | sub)) {
+          emitCsgCmp(s1, s2 | sub);
+        }
+        if (sub == neighbors) {
+          break;
+        }
+      }
+      final long x2 = x | neighbors;
+      for (long sub = -neighbors & neighbors;; sub = (sub - neighbors) & neighbors) {
+        enumerateCmpRec(s1, s2 | sub, x2);
+        if (sub == neighbors) {
+          break;
+        }
+      }
+    }
+
+    /** Considers joining two disjoint connected sub-graphs, and records the
+     * join if it is valid and cheaper than the best plan so far. */
+    private void emitCsgCmp(long s1, long s2) {
+      final Plan p1 = dp.get(s1);
+      final Plan p2 = dp.get(s2);
+      if (p1 == null || p2 == null) {
+        return;
+      }
+      @Nullable Edge outerEdge = null;
+      final List<Edge> crossing = new ArrayList<>();
+      for (Edge edge : edges) {
+        if ((edge.factors & ~(s1 | s2)) != 0
+            || (edge.factors & ~s1) == 0
+            || (edge.factors & ~s2) == 0) {
+          continue;
+        }
+        if (edge.nullGeneratingFactor >= 0) {
+          // An outer join is valid only if the null-generating factor is
+          // alone on one side and everything it depends on is on the other
+          if (outerEdge != null
+              || !(s2 == edge.right && (edge.left & ~s1) == 0
+                  || s1 == edge.right && (edge.left & ~s2) == 0)) {
+            return;
+          }
+          outerEdge = edge;
+        } else {
+          crossing.add(edge);
+        }
+      }
+
+      final Plan plan;
+      if (outerEdge != null) {
+        final Plan left = s1 == outerEdge.right ? p2 : p1;
+        final Plan right = s1 == outerEdge.right ? p1 : p2;
+        // Inner conditions that reference the null-generating factor must
+        // be applied after the outer join
+        double rowCount = left.rowCount
+            * Math.max(1d, right.rowCount * outerEdge.selectivity);
+        for (Edge edge : crossing) {
+          rowCount *= edge.selectivity;
+        }
+        plan =
+            new Plan(left, right, JoinRelType.LEFT,
+                conditions(ImmutableList.of(outerEdge)),
+                conditions(crossing), rowCount);
+      } else {
+        for (Edge edge : crossing) {
+          // A null-generating factor must not be joined before its outer
+          // join
+          final long alone =
+              edge.factors & nullGenerating & (s1 | s2)
+                  & ~(Long.bitCount(s1) > 1 ? s1 : 0)
+                  & ~(Long.bitCount(s2) > 1 ? s2 : 0);
+          if (alone != 0) {
+            return;
+          }
+        }
+        double rowCount = p1.rowCount * p2.rowCount;
+        for (Edge edge : crossing) {
+          rowCount *= edge.selectivity;
+        }
+        // Put the larger input on the left; hash joins build the right
+        final Plan left = p1.rowCount >= p2.rowCount ? p1 : p2;
+        final Plan right = left == p1 ? p2 : p1;
+        plan =
+            new Plan(left, right, JoinRelType.INNER, conditions(crossing),
+                ImmutableList.of(), rowCount);
+      }
+      final Plan best = dp.get(s1 | s2);
+      if (best == null || plan.cost < best.cost) {
+        dp.put(s1 | s2, plan);
+      }
+    }
+
+    private static ImmutableList<RexNode> conditions(List<Edge> edges) {
+      final ImmutableList.Builder<RexNode> conditions = ImmutableList.builder();
+      for (Edge edge : edges) {
+        if (edge.condition != null) {
+          conditions.add(edge.condition);
+        }
+      }
+      return conditions.build();
+    }
+  }
+
+  /** Edge in the hypergraph. It connects two disjoint sets of nodes. */
+  private static class Edge {
+    final long left;
+    final long right;
+    final long factors;
+    /** Condition, in terms of the fields of the MultiJoin, or null for a
+     * cartesian product. */
+    final @Nullable RexNode condition;
+    final double selectivity;
+    /** If this edge is an outer join, the null-generating factor, whose
+     * node is {@link #right}; otherwise -1. */
+    final int nullGeneratingFactor;
+
+    Edge(long left, long right, @Nullable RexNode condition,
+        double selectivity, int nullGeneratingFactor) {
+      this.left = left;
+      this.right = right;
+      this.factors = left | right;
+      this.condition = condition;
+      this.selectivity = selectivity;
+      this.nullGeneratingFactor = nullGeneratingFactor;
+    }
+  }
+
+  /** Plan for a set of nodes: either a factor or a join of two plans. */
+  private static class Plan {
+    final int factor;
+    final @Nullable Plan left;
+    final @Nullable Plan right;
+    final JoinRelType joinType;
+    /** Join conditions, in terms of the fields of the MultiJoin. */
+    final ImmutableList<RexNode> conditions;
+    /** Conditions to apply in a filter above the join. */
+    final ImmutableList<RexNode> postConditions;
+    final double rowCount;
+    /** Sum of the number of rows produced by the joins in this plan. */
+    final double cost;
+
+    /** Creates a plan for a factor. */
+    Plan(int factor, double rowCount) {
+      this.factor = factor;
+      this.left = null;
+      this.right = null;
+      this.joinType = JoinRelType.INNER;
+      this.conditions = ImmutableList.of();
+      this.postConditions = ImmutableList.of();
+      this.rowCount = rowCount;
+      this.cost = 0d;
+    }
+
+    /** Creates a plan that joins two plans. */
+    Plan(Plan left, Plan right, JoinRelType joinType,
+        ImmutableList<RexNode> conditions,
+        ImmutableList<RexNode> postConditions, double rowCount) {
+      this.factor = -1;
+      this.left = left;
+      this.right = right;
+      this.joinType = joinType;
+      this.conditions = conditions;
+      this.postConditions = postConditions;
+      this.rowCount = rowCount;
+      this.cost = rowCount + left.cost + right.cost;
+    }
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableMultiJoinOptimizeDphypRule.Config.of()
+        .withOperandSupplier(b -> b.operand(MultiJoin.class).anyInputs());
+
+    @Override default MultiJoinOptimizeDphypRule toRule() {
+      return new MultiJoinOptimizeDphypRule(this);
+    }
+
+    /** Maximum number of inputs for which the rule searches exhaustively;
+     * above this, it uses the greedy {@link LoptOptimizeJoinRule}.
+     * Default 12. */
+    @Value.Default default int maxFactorCount() {
+      return 12;
+    }
+
+    /** Sets {@link #maxFactorCount()}. */
+    Config withMaxFactorCount(int maxFactorCount);
+  }
+}
@@ -85,6 +85,11 @@ public class RexSimplify {
 
   private static final Strong STRONG = new Strong();
 
+  /** Minimum number of comparisons with literals in an AND or OR for
+   * {@link #collapseSargTerms} to merge them before simplifying the other
+   * terms. */
+  private static final int SARG_TERM_THRESHOLD = 64;
+
   /**
    * Creates a RexSimplify.
    *
@@ -725,6 +730,87 @@ private void simplifyOrTerms(List<RexNode> terms, RexUnknownAs unknownAs) {
     }
   }
 
+  /** If a list of AND or OR terms contains many comparisons of the same
+   * expressions with literals, replaces them with one {@code SEARCH} per
+   * expression; otherwise returns the list unchanged.
+   *
+   * <p>For example, the OR terms
+   * {@code x = 1, x = 5, y = 'a', x = 3, ...} become
+   * {@code SEARCH(x, Sarg[1, 3, 5, ...]), y = 'a'}.
+   *
+   * <p>Predicates with thousands of such terms typically come from IN lists.
+   * {@link #simplifyAndTerms} and {@link #simplifyOrTerms} simplify each term
+   * using the previous terms as predicates, which takes time and memory
+   * quadratic in the number of terms; this method makes a single pass, adding
+   * each literal to a sorted range set, and leaves them a few terms to
+   * simplify.
+   *
+   * @param terms Terms of an AND or OR
+   * @param negate Whether the terms are of an AND
+   * @param unknownAs How to treat UNKNOWN values
+   */
+  private List<RexNode> collapseSargTerms(List<RexNode> terms, boolean negate,
+      RexUnknownAs unknownAs) {
+    if (terms.size() < SARG_TERM_THRESHOLD) {
+      return terms;
+    }
+    int count = 0;
+    for (RexNode term : terms) {
+      if (isSargTerm(term)) {
+        ++count;
+      }
+    }
+    if (count < SARG_TERM_THRESHOLD) {
+      return terms;
+    }
+    final SargCollector sargCollector = new SargCollector(rexBuilder, negate);
+    final List<RexNode> newTerms = new ArrayList<>();
+    for (RexNode term : terms) {
+      if (isSargTerm(term)) {
+        sargCollector.accept(term, newTerms);
+      } else {
+        newTerms.add(term);
+      }
+    }
+    final List<RexNode> list = new ArrayList<>(newTerms.size());
+    for (RexNode term : newTerms) {
+      list.add(SargCollector.fix(rexBuilder, term, unknownAs));
+    }
+    return list;
+  }
+
+  /** Returns whether a term is a comparison of an input or field with a
+   * non-null literal, or a null test of an input or field, and therefore can
+   * be merged into a {@link Sarg} without first being simplified. */
+  private static boolean isSargTerm(RexNode e) {
+    switch (e.getKind()) {
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL:
+    case EQUALS:
+    case NOT_EQUALS:
+    case SEARCH:
+      final List<RexNode> operands = ((RexCall) e).operands;
+      return isSargRef(operands.get(0)) && isNonNullLiteral(operands.get(1))
+          || isNonNullLiteral(operands.get(0)) && isSargRef(operands.get(1));
+    case IS_NULL:
+    case IS_NOT_NULL:
+      return isSargRef(((RexCall) e).operands.get(0));
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isSargRef(RexNode e) {
+    return e.getKind() == SqlKind.INPUT_REF
+        || e.getKind() == SqlKind.FIELD_ACCESS;
+  }
+
+  private static boolean isNonNullLiteral(RexNode e) {
+    return e instanceof RexLiteral && !((RexLiteral) e).isNull();
+  }
+
   /**
    * Decides whether the given node could be used as a predicate during the simplification
    * of other OR operands.
@@ -1478,7 +1564,8 @@ public RexNode simplifyAnd(RexCall e) {
   }
 
   RexNode simplifyAnd(RexCall e, RexUnknownAs unknownAs) {
-    List<RexNode> operands = RelOptUtil.conjunctions(e);
+    List<RexNode> operands =
+        collapseSargTerms(RelOptUtil.conjunctions(e), true, unknownAs);
 
     if (unknownAs == FALSE && predicateElimination) {
       simplifyAndTerms(operands, FALSE);
@@ -1932,7 +2019,8 @@ public RexNode simplifyOr(RexCall call) {
 
   private RexNode simplifyOr(RexCall call, RexUnknownAs unknownAs) {
     assert call.getKind() == SqlKind.OR;
-    final List<RexNode> terms0 = RelOptUtil.disjunctions(call);
+    final List<RexNode> terms0 =
+        collapseSargTerms(RelOptUtil.disjunctions(call), false, unknownAs);
     final List<RexNode> terms;
     if (predicateElimination) {
       terms = Util.moveToHead(terms0, e -> e.getKind() == SqlKind.IS_NULL);
@@ -3050,8 +3138,16 @@ void addAll() {
       rangeSet.add(Range.all());
     }
 
+    /** Adds a type, if it is not already present; a long list of terms
+     * usually has only one or two distinct types. */
+    private void addType(RelDataType type) {
+      if (!types.contains(type)) {
+        types.add(type);
+      }
+    }
+
     void addRange(Range<Comparable> range, RelDataType type) {
-      types.add(type);
+      addType(type);
       rangeSet.add(range);
       mergedSarg |= hasSarg;
       nullAs = nullAs.or(UNKNOWN);
@@ -3068,7 +3164,7 @@ void addSarg(Sarg sarg, boolean negate, RelDataType type) {
         r = sarg.rangeSet;
         nullAs = sarg.nullAs;
       }
-      types.add(type);
+      addType(type);
       rangeSet.addAll(r);
       mergedSarg |= !rangeSet.isEmpty();
       hasSarg = true;
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.tree.Primitive;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Predicate on one column of a {@link ColumnarBatch}.
+ *
+ * <p>A predicate either compares the values of the column with a numeric
+ * constant, or tests whether they are null. {@link #filter} evaluates it in a
+ * loop over the column's vector, without creating a row for each value.
+ *
+ * <p>As in SQL, a comparison is not true for a null value.
+ */
+public class BatchPredicate {
+  public final int column;
+  public final Op op;
+  private final boolean floating;
+  private final long longValue;
+  private final double doubleValue;
+
+  private BatchPredicate(int column, Op op, boolean floating, long longValue,
+      double doubleValue) {
+    this.column = column;
+    this.op = op;
+    this.floating = floating;
+    this.longValue = longValue;
+    this.doubleValue = doubleValue;
+  }
+
+  /** Creates a predicate that compares the values of a fixed-point column
+   * with a constant. */
+  public static BatchPredicate compare(int column, Op op, long value) {
+    checkComparison(op);
+    return new BatchPredicate(column, op, false, value, value);
+  }
+
+  /** Creates a predicate that compares the values of a floating-point column
+   * with a constant. */
+  public static BatchPredicate compare(int column, Op op, double value) {
+    checkComparison(op);
+    return new BatchPredicate(column, op, true, 0L, value);
+  }
+
+  /** Creates a predicate that tests whether the values of a column are null
+   * (or, if {@code negate}, not null). */
+  public static BatchPredicate isNull(int column, boolean negate) {
+    return new BatchPredicate(column, negate ? Op.IS_NOT_NULL : Op.IS_NULL,
+        false, 0L, 0D);
+  }
+
+  private static void checkComparison(Op op) {
+    if (op == Op.IS_NULL || op == Op.IS_NOT_NULL) {
+      throw new IllegalArgumentException("not a comparison: " + op);
+    }
+  }
+
+  @Override public String toString() {
+    return op + "($" + column
+        + (op == Op.IS_NULL || op == Op.IS_NOT_NULL ? ""
+            : ", " + (floating ? doubleValue : longValue))
+        + ")";
+  }
+
+  /** Evaluates this predicate on some rows of a batch.
+   *
+   * <p>The first {@code count} elements of {@code selection} are the
+   * ordinals of the rows to evaluate, in ascending order. The method moves
+   * the ordinals of the rows for which the predicate is true to the start of
+   * {@code selection}, keeping their order, and returns how many there are.
+   *
+   * @param batch     Batch
+   * @param selection Ordinals of rows; overwritten by the ordinals of the
+   *                  rows that match
+   * @param count     Number of rows to evaluate
+   * @return Number of rows that match
+   */
+  public int filter(ColumnarBatch batch, int[] selection, int count) {
+    final Object vector = batch.vector(column);
+    final Primitive primitive = batch.primitive(column);
+    if (primitive == null) {
+      return filterObjects((@Nullable Object[]) vector, selection, count);
+    }
+    // Primitive vectors never hold null values.
+    switch (op) {
+    case IS_NULL:
+      return 0;
+    case IS_NOT_NULL:
+      return count;
+    default:
+      break;
+    }
+    int n = 0;
+    switch (primitive) {
+    case BYTE: {
+      final byte[] values = (byte[]) vector;
+      for (int i = 0; i < count; i++) {
+        final int row = selection[i];
+        if (test(values[row])) {
+          selection[n++] = row;
+        }
+      }
+      return n;
+    }
+    case SHORT: {
+      final short[] values = (short[]) vector;
+      for (int i = 0; i < count; i++) {
+        final int row = selection[i];
+        if (test(values[row])) {
+          selection[n++] = row;
+        }
+      }
+      return n;
+    }
+    case INT: {
+      final int[] values = (int[]) vector;
+      for (int i = 0; i < count; i++) {
+        final int row = selection[i];
+        if (test(values[row])) {
+          selection[n++] = row;
+        }
+      }
+      return n;
+    }
+    case LONG: {
+      final long[] values = (long[]) vector;
+      for (int i = 0; i < count; i++) {
+        final int row = selection[i];
+        if (test(values[row])) {
+          selection[n++] = row;
+        }
+      }
+      return n;
+    }
+    case FLOAT: {
+      final float[] values = (float[]) vector;
+      for (int i = 0; i < count; i++) {
+        final int row = selection[i];
+        if (test((double) values[row])) {
+          selection[n++] = row;
+        }
+      }
+      return n;
+    }
+    case DOUBLE: {
+      final double[] values = (double[]) vector;
+      for (int i = 0; i < count; i++) {
+        final int row = selection[i];
+        if (test(values[row])) {
+          selection[n++] = row;
+        }
+      }
+      return n;
+    }
+    default:
+      throw new IllegalArgumentException("cannot compare " + primitive
+          + " vector of column " + column);
+    }
+  }
+
+  private int filterObjects(@Nullable Object[] values, int[] selection,
+      int count) {
+    int n = 0;
+    for (int i = 0; i < count; i++) {
+      final int row = selection[i];
+      final Object value = values[row];
+      final boolean b;
+      switch (op) {
+      case IS_NULL:
+        b = value == null;
+        break;
+      case IS_NOT_NULL:
+        b = value != null;
+        break;
+      default:
+        b = value != null
+            && (floating
+                ? test(((Number) value).doubleValue())
+                : test(((Number) value).longValue()));
+        break;
+      }
+      if (b) {
+        selection[n++] = row;
+      }
+    }
+    return n;
+  }
+
+  private boolean test(long value) {
+    if (floating) {
+      return test((double) value);
+    }
+    switch (op) {
+    case EQUALS:
+      return value == longValue;
+    case NOT_EQUALS:
+      return value != longValue;
+    case LESS_THAN:
+      return value < longValue;
+    case LESS_THAN_OR_EQUAL:
+      return value <= longValue;
+    case GREATER_THAN:
+      return value > longValue;
+    case GREATER_THAN_OR_EQUAL:
+      return value >= longValue;
+    default:
+      throw new AssertionError(op);
+    }
+  }
+
+  private boolean test(double value) {
+    switch (op) {
+    case EQUALS:
+      return value == doubleValue;
+    case NOT_EQUALS:
+      return value != doubleValue;
+    case LESS_THAN:
+      return value < doubleValue;
+    case LESS_THAN_OR_EQUAL:
+      return value <= doubleValue;
+    case GREATER_THAN:
+      return value > doubleValue;
+    case GREATER_THAN_OR_EQUAL:
+      return value >= doubleValue;
+    default:
+      throw new AssertionError(op);
+    }
+  }
+
+  /** Operation that a {@link BatchPredicate} applies to a value. */
+  public enum Op {
+    EQUALS,
+    NOT_EQUALS,
+    LESS_THAN,
+    LESS_THAN_OR_EQUAL,
+    GREATER_THAN,
+    GREATER_THAN_OR_EQUAL,
+    IS_NULL,
+    IS_NOT_NULL
+  }
+}
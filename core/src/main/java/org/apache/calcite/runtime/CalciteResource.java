@@ -873,6 +873,9 @@ ExInst<CalciteException> illegalArgumentForTableFunctionCall(String a0,
   @BaseMessage("Function ''{0}'' not found")
   ExInst<SqlValidatorException> functionNotFound(String name);
 
+  @BaseMessage("Cannot analyze table ''{0}''; only tables created by CREATE TABLE or CREATE MATERIALIZED VIEW can store statistics")
+  ExInst<SqlValidatorException> analyzeTableNotSupported(String name);
+
   @BaseMessage("Dialect does not support feature: ''{0}''")
   ExInst<SqlValidatorException> dialectDoesNotSupportFeature(String featureName);
 
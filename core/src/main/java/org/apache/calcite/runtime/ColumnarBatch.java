@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.tree.Primitive;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * Batch of rows stored column-wise.
+ *
+ * <p>Each column is held in a vector. If the column has a primitive type
+ * and contains no null values, the vector is an array of that primitive type
+ * (for example {@code int[]} for an {@code INTEGER NOT NULL} column);
+ * otherwise it is an {@code Object[]}.
+ *
+ * <p>A batch has a capacity, fixed when it is created, and a size, which is
+ * the number of rows currently held. An optional selection vector restricts
+ * the rows that are visible to consumers without moving any column data.
+ *
+ * <p>Producers generally re-use the same batch for successive groups of rows;
+ * consumers must not retain a reference to a batch after asking for the next
+ * one.
+ */
+public class ColumnarBatch {
+  /** Default number of rows in a batch. */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final ImmutableList<@Nullable Primitive> primitives;
+  private final Object[] vectors;
+  private final int capacity;
+  private int size;
+  private int @Nullable [] selection;
+  private int selectedCount;
+
+  private ColumnarBatch(List<@Nullable Primitive> primitives, int capacity) {
+    this.primitives = ImmutableList.copyOf(primitives);
+    this.capacity = capacity;
+    this.vectors = new Object[primitives.size()];
+    for (int i = 0; i < vectors.length; i++) {
+      final Primitive primitive = primitives.get(i);
+      vectors[i] = primitive == null
+          ? new Object[capacity]
+          : Array.newInstance(primitive.getPrimitiveClass(), capacity);
+    }
+  }
+
+  /** Creates a ColumnarBatch.
+   *
+   * @param primitives Type of each column vector; null for a column whose
+   *                   values are stored as objects
+   * @param capacity   Maximum number of rows
+   */
+  public static ColumnarBatch create(List<@Nullable Primitive> primitives,
+      int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: "
+          + capacity);
+    }
+    for (Primitive primitive : primitives) {
+      if (primitive == Primitive.VOID || primitive == Primitive.OTHER) {
+        throw new IllegalArgumentException("not a primitive: " + primitive);
+      }
+    }
+    return new ColumnarBatch(primitives, capacity);
+  }
+
+  /** Returns the maximum number of rows this batch can hold. */
+  public int capacity() {
+    return capacity;
+  }
+
+  /** Returns the number of rows in this batch, ignoring the selection
+   * vector. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the number of columns. */
+  public int columnCount() {
+    return vectors.length;
+  }
+
+  /** Returns the type of the vector of a given column, or null if the column
+   * is stored as objects. */
+  public @Nullable Primitive primitive(int column) {
+    return primitives.get(column);
+  }
+
+  /** Returns the vector of a given column. Its length is the capacity of
+   * the batch; only the first {@link #size()} elements are valid. */
+  public Object vector(int column) {
+    return vectors[column];
+  }
+
+  /** Declares that the vectors hold {@code size} rows, and clears the
+   * selection vector. */
+  public void reset(int size) {
+    if (size < 0 || size > capacity) {
+      throw new IllegalArgumentException("size " + size
+          + " out of range [0, " + capacity + "]");
+    }
+    this.size = size;
+    this.selection = null;
+    this.selectedCount = 0;
+  }
+
+  /** Restricts the visible rows to the first {@code count} ordinals in
+   * {@code selection}, which must be ascending and less than
+   * {@link #size()}. */
+  public void select(int[] selection, int count) {
+    this.selection = selection;
+    this.selectedCount = count;
+  }
+
+  /** Returns the number of visible rows. */
+  public int rowCount() {
+    return selection == null ? size : selectedCount;
+  }
+
+  /** Returns the physical ordinal of the {@code i}th visible row. */
+  public int row(int i) {
+    return selection == null ? i : selection[i];
+  }
+
+  /** Returns the value of a column in a given physical row. */
+  public @Nullable Object get(int column, int row) {
+    final Object vector = vectors[column];
+    final Primitive primitive = primitives.get(column);
+    if (primitive == null) {
+      return ((@Nullable Object[]) vector)[row];
+    }
+    switch (primitive) {
+    case BOOLEAN:
+      return ((boolean[]) vector)[row];
+    case BYTE:
+      return ((byte[]) vector)[row];
+    case CHAR:
+      return ((char[]) vector)[row];
+    case SHORT:
+      return ((short[]) vector)[row];
+    case INT:
+      return ((int[]) vector)[row];
+    case LONG:
+      return ((long[]) vector)[row];
+    case FLOAT:
+      return ((float[]) vector)[row];
+    case DOUBLE:
+      return ((double[]) vector)[row];
+    default:
+      throw new AssertionError("unexpected " + primitive);
+    }
+  }
+
+  /** Sets the value of an object column. */
+  public void set(int column, int row, @Nullable Object value) {
+    final Primitive primitive = primitives.get(column);
+    if (primitive == null) {
+      ((@Nullable Object[]) vectors[column])[row] = value;
+    } else if (value instanceof Boolean) {
+      setLong(column, row, (Boolean) value ? 1L : 0L);
+    } else if (value instanceof Character) {
+      setLong(column, row, (Character) value);
+    } else if (value instanceof Float || value instanceof Double) {
+      setDouble(column, row, ((Number) value).doubleValue());
+    } else if (value instanceof Number) {
+      setLong(column, row, ((Number) value).longValue());
+    } else {
+      throw new IllegalArgumentException("cannot store " + value
+          + " in " + primitive + " vector");
+    }
+  }
+
+  /** Sets the value of a fixed-point primitive column, narrowing
+   * {@code value} to the type of the vector. */
+  public void setLong(int column, int row, long value) {
+    final Object vector = vectors[column];
+    final Primitive primitive = primitives.get(column);
+    if (primitive == null) {
+      throw new IllegalArgumentException("column " + column
+          + " is not primitive");
+    }
+    switch (primitive) {
+    case BOOLEAN:
+      ((boolean[]) vector)[row] = value != 0;
+      break;
+    case BYTE:
+      ((byte[]) vector)[row] = (byte) value;
+      break;
+    case CHAR:
+      ((char[]) vector)[row] = (char) value;
+      break;
+    case SHORT:
+      ((short[]) vector)[row] = (short) value;
+      break;
+    case INT:
+      ((int[]) vector)[row] = (int) value;
+      break;
+    case LONG:
+      ((long[]) vector)[row] = value;
+      break;
+    case FLOAT:
+      ((float[]) vector)[row] = value;
+      break;
+    case DOUBLE:
+      ((double[]) vector)[row] = value;
+      break;
+    default:
+      throw new AssertionError("unexpected " + primitive);
+    }
+  }
+
+  /** Sets the value of a floating-point primitive column. */
+  public void setDouble(int column, int row, double value) {
+    final Object vector = vectors[column];
+    final Primitive primitive = primitives.get(column);
+    if (primitive == Primitive.DOUBLE) {
+      ((double[]) vector)[row] = value;
+    } else if (primitive == Primitive.FLOAT) {
+      ((float[]) vector)[row] = (float) value;
+    } else {
+      throw new IllegalArgumentException("column " + column
+          + " is not floating-point");
+    }
+  }
+
+  /** Copies the values of a physical row into a new array. */
+  public @Nullable Object[] toRow(int row) {
+    final @Nullable Object[] values = new Object[vectors.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = get(i, row);
+    }
+    return values;
+  }
+
+  /** Converts an {@link Enumerable} over batches into an {@link Enumerable}
+   * over the visible rows of those batches, each row represented as an
+   * object array. */
+  public static Enumerable<@Nullable Object[]> toRows(
+      Enumerable<ColumnarBatch> batches) {
+    return toRows(batches, ImmutableList.of());
+  }
+
+  /** Converts an {@link Enumerable} over batches into an {@link Enumerable}
+   * over the visible rows of those batches for which every predicate is
+   * true, each row represented as an object array.
+   *
+   * <p>The predicates are evaluated on the column vectors of each batch, and
+   * a row is created only for the rows that match all of them. */
+  public static Enumerable<@Nullable Object[]> toRows(
+      Enumerable<ColumnarBatch> batches, List<BatchPredicate> predicates) {
+    final ImmutableList<BatchPredicate> predicateList =
+        ImmutableList.copyOf(predicates);
+    return new AbstractEnumerable<@Nullable Object[]>() {
+      @Override public Enumerator<@Nullable Object[]> enumerator() {
+        return new RowEnumerator(batches.enumerator(), predicateList);
+      }
+    };
+  }
+
+  /** Enumerator over the rows of a sequence of batches. */
+  private static class RowEnumerator
+      implements Enumerator<@Nullable Object[]> {
+    private final Enumerator<ColumnarBatch> batches;
+    private final ImmutableList<BatchPredicate> predicates;
+    private int[] selection = new int[0];
+    private @Nullable ColumnarBatch batch;
+    private int i;
+    private @Nullable Object[] current = new Object[0];
+
+    RowEnumerator(Enumerator<ColumnarBatch> batches,
+        ImmutableList<BatchPredicate> predicates) {
+      this.batches = batches;
+      this.predicates = predicates;
+    }
+
+    @Override public @Nullable Object[] current() {
+      return current;
+    }
+
+    @Override public boolean moveNext() {
+      for (;;) {
+        final ColumnarBatch batch = this.batch;
+        if (batch != null && i < batch.rowCount()) {
+          current = batch.toRow(batch.row(i++));
+          return true;
+        }
+        if (!batches.moveNext()) {
+          this.batch = null;
+          return false;
+        }
+        this.batch = batches.current();
+        if (!predicates.isEmpty()) {
+          filter(this.batch);
+        }
+        i = 0;
+      }
+    }
+
+    /** Restricts the visible rows of a batch to those that match all
+     * predicates. */
+    private void filter(ColumnarBatch batch) {
+      int count = batch.rowCount();
+      if (selection.length < count) {
+        selection = new int[batch.capacity()];
+      }
+      for (int j = 0; j < count; j++) {
+        selection[j] = batch.row(j);
+      }
+      for (BatchPredicate predicate : predicates) {
+        if (count == 0) {
+          break;
+        }
+        count = predicate.filter(batch, selection, count);
+      }
+      batch.select(selection, count);
+    }
+
+    @Override public void reset() {
+      batches.reset();
+      batch = null;
+      i = 0;
+    }
+
+    @Override public void close() {
+      batches.close();
+    }
+  }
+}
@@ -67,6 +67,12 @@ public enum Hook {
    * Janino. */
   JAVA_PLAN,
 
+  /** Returns a boolean value, whether generated Java code should read the
+   * values of literals from the {@link org.apache.calcite.DataContext}
+   * rather than contain them as constants. Default is the value of
+   * {@link org.apache.calcite.config.CalciteSystemProperty#BINDABLE_CACHE_HOIST_LITERALS}. */
+  HOIST_LITERALS,
+
   /** Called before SqlToRelConverter is built. */
   SQL2REL_CONVERTER_CONFIG_BUILDER,
 
@@ -103,7 +109,20 @@ public enum Hook {
    * The hook supplies {@link RelRoot} as an argument.
    */
   @API(since = "1.22", status = API.Status.EXPERIMENTAL)
-  PLAN_BEFORE_IMPLEMENTATION;
+  PLAN_BEFORE_IMPLEMENTATION,
+
+  /** Called when an operator has finished executing, if it spilled
+   * intermediate results to temporary files. The hook supplies a
+   * {@link SpillStatistics} as an argument. */
+  SPILL,
+
+  /** Returns a boolean value, whether a statement whose code is being
+   * compiled in the background (see
+   * {@link org.apache.calcite.config.CalciteConnectionProperty#ASYNC_COMPILE})
+   * should execute the compiled code, waiting for the compiler if necessary,
+   * rather than the interpreter. Default is whether the code has been
+   * compiled. */
+  USE_COMPILED_CODE;
 
   @SuppressWarnings("ImmutableEnumChecker")
   private final List<Consumer<Object>> handlers =
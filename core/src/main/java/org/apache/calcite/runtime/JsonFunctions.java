@@ -24,9 +24,15 @@
 import org.apache.calcite.util.Util;
 
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidPathException;
@@ -39,6 +45,7 @@
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -79,6 +86,50 @@ public class JsonFunctions {
 
   private static final String JSON_ROOT_PATH = "$";
 
+  private static final Configuration JSON_PATH_STRICT_CONFIGURATION =
+      Configuration.builder()
+          .jsonProvider(JSON_PATH_JSON_PROVIDER)
+          .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
+          .build();
+
+  private static final Configuration JSON_PATH_LAX_CONFIGURATION =
+      Configuration.builder()
+          .options(Option.SUPPRESS_EXCEPTIONS)
+          .jsonProvider(JSON_PATH_JSON_PROVIDER)
+          .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
+          .build();
+
+  /** Path specs that have been parsed and compiled, such as
+   * {@code "lax $.store.book[0]"}. Usually the path spec is a literal, so the
+   * cache does not need to be large. */
+  private static final Cache<String, JsonPathSpec> JSON_PATH_SPEC_CACHE =
+      CacheBuilder.newBuilder()
+          .maximumSize(1_000)
+          .build();
+
+  /** Simple path, consisting only of member accessors such as {@code .foo}
+   * and array accessors such as {@code [3]}, that can be evaluated by
+   * streaming over the document. */
+  private static final Pattern JSON_SIMPLE_PATH =
+      Pattern.compile("\\$(?:\\.[A-Za-z_][A-Za-z_0-9]*|\\[[0-9]{1,9}\\])+");
+
+  private static final Pattern JSON_SIMPLE_PATH_STEP =
+      Pattern.compile("\\.([A-Za-z_][A-Za-z_0-9]*)|\\[([0-9]+)\\]");
+
+  /** The document most recently parsed by
+   * {@link #jsonApiCommonSyntax(String, String)} in this thread.
+   *
+   * <p>When a query calls several JSON functions on the same column, such as
+   * {@code JSON_VALUE(doc, '$.a'), JSON_VALUE(doc, '$.b')}, each call receives
+   * the same {@code String} object for a given row, and so the calls can share
+   * one parsed document. The functions that use it only read the
+   * document.
+   *
+   * <p>Each thread holds at most one document, which the next call that
+   * parses a different input replaces. */
+  private static final ThreadLocal<@Nullable ParsedDocument> LAST_DOCUMENT =
+      new ThreadLocal<>();
+
   private JsonFunctions() {
   }
 
@@ -117,59 +168,126 @@ public static JsonPathContext jsonApiCommonSyntax(JsonValueContext input) {
   }
 
   public static JsonPathContext jsonApiCommonSyntax(String input, String pathSpec) {
-    return jsonApiCommonSyntax(jsonValueExpression(input), pathSpec);
+    final JsonPathSpec spec = JsonPathSpec.of(pathSpec);
+    ParsedDocument document = LAST_DOCUMENT.get();
+    if (document == null || document.input != input) {
+      if (spec.steps != null) {
+        final Object value = streamValue(input, spec.steps);
+        if (value != null) {
+          return JsonPathContext.withJavaObj(spec.mode, value);
+        }
+      }
+      document = new ParsedDocument(input, jsonValueExpression(input));
+      LAST_DOCUMENT.set(document);
+    }
+    return jsonApiCommonSyntax(document.context, spec);
   }
 
   public static JsonPathContext jsonApiCommonSyntax(JsonValueContext input, String pathSpec) {
-    PathMode mode;
-    String pathStr;
+    return jsonApiCommonSyntax(input, JsonPathSpec.of(pathSpec));
+  }
+
+  private static JsonPathContext jsonApiCommonSyntax(JsonValueContext input,
+      JsonPathSpec spec) {
     try {
-      Matcher matcher = JSON_PATH_BASE.matcher(pathSpec);
-      if (!matcher.matches()) {
-        mode = PathMode.STRICT;
-        pathStr = pathSpec;
-      } else {
-        mode = PathMode.valueOf(castNonNull(matcher.group(1)).toUpperCase(Locale.ROOT));
-        pathStr = castNonNull(matcher.group(2));
-      }
-      DocumentContext ctx;
-      switch (mode) {
+      final Configuration configuration;
+      switch (spec.mode) {
       case STRICT:
         if (input.hasException()) {
-          return JsonPathContext.withStrictException(pathSpec, input.exc);
+          return JsonPathContext.withStrictException(spec.pathSpec, input.exc);
         }
-        ctx =
-            JsonPath.parse(input.obj(),
-                Configuration.builder()
-                    .jsonProvider(JSON_PATH_JSON_PROVIDER)
-                    .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
-                    .build());
+        configuration = JSON_PATH_STRICT_CONFIGURATION;
         break;
       case LAX:
         if (input.hasException()) {
           return JsonPathContext.withJavaObj(PathMode.LAX, null);
         }
-        ctx =
-            JsonPath.parse(input.obj(),
-                Configuration.builder()
-                    .options(Option.SUPPRESS_EXCEPTIONS)
-                    .jsonProvider(JSON_PATH_JSON_PROVIDER)
-                    .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
-                    .build());
+        configuration = JSON_PATH_LAX_CONFIGURATION;
         break;
       default:
-        throw RESOURCE.illegalJsonPathModeInPathSpec(mode.toString(), pathSpec).ex();
+        throw RESOURCE.illegalJsonPathModeInPathSpec(spec.mode.toString(),
+            spec.pathSpec).ex();
       }
+      final Object document = input.obj();
       try {
-        return JsonPathContext.withJavaObj(mode, ctx.read(pathStr));
+        return JsonPathContext.withJavaObj(spec.mode,
+            spec.path().read(document, configuration));
       } catch (Exception e) {
-        return JsonPathContext.withStrictException(pathSpec, e);
+        return JsonPathContext.withStrictException(spec.pathSpec, e);
       }
     } catch (Exception e) {
       return JsonPathContext.withUnknownException(e);
     }
   }
 
+  /** Evaluates a simple path by streaming over a JSON document, without
+   * building a tree for the parts of the document that are not on the path.
+   *
+   * <p>Returns null if the path does not lead to a non-null value, or if the
+   * document is invalid, or if an object on the path has duplicate keys; the
+   * caller must then evaluate the path against the whole document, which will
+   * produce the same result or error as it always has. */
+  private static @Nullable Object streamValue(String input,
+      List<Object> steps) {
+    final ObjectMapper mapper = JSON_PATH_JSON_PROVIDER.getObjectMapper();
+    try (JsonParser parser = mapper.getFactory().createParser(input)) {
+      if (parser.nextToken() == null) {
+        return null;
+      }
+      return streamValue(mapper, parser, steps, 0);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static @Nullable Object streamValue(ObjectMapper mapper,
+      JsonParser parser, List<Object> steps, int i) throws IOException {
+    if (i == steps.size()) {
+      return mapper.readValue(parser, Object.class);
+    }
+    final Object step = steps.get(i);
+    Object value = null;
+    JsonToken token;
+    if (step instanceof String
+        && parser.currentToken() == JsonToken.START_OBJECT) {
+      while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+        final String name = parser.currentName();
+        parser.nextToken();
+        if (name.equals(step)) {
+          if (value != null) {
+            return null;
+          }
+          value = streamValue(mapper, parser, steps, i + 1);
+          if (value == null) {
+            return null;
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return token == JsonToken.END_OBJECT ? value : null;
+    }
+    if (step instanceof Integer
+        && parser.currentToken() == JsonToken.START_ARRAY) {
+      int k = 0;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == null) {
+          return null;
+        }
+        if (k++ == (Integer) step) {
+          value = streamValue(mapper, parser, steps, i + 1);
+          if (value == null) {
+            return null;
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return value;
+    }
+    return null;
+  }
+
   public static @Nullable Boolean jsonExists(String input, String pathSpec) {
     return jsonExists(jsonApiCommonSyntax(input, pathSpec));
   }
@@ -631,12 +749,7 @@ public static String jsonRemove(String input, String... pathSpecs) {
   public static String jsonRemove(JsonValueContext input, String... pathSpecs) {
     try {
       DocumentContext ctx =
-          JsonPath.parse(input.obj(),
-              Configuration.builder()
-                  .options(Option.SUPPRESS_EXCEPTIONS)
-                  .jsonProvider(JSON_PATH_JSON_PROVIDER)
-                  .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
-                  .build());
+          JsonPath.parse(input.obj(), JSON_PATH_LAX_CONFIGURATION);
       for (String pathSpec : pathSpecs) {
         if ((pathSpec != null) && (ctx.read(pathSpec) != null)) {
           ctx.delete(pathSpec);
@@ -667,12 +780,7 @@ private static String jsonModify(JsonValueContext jsonDoc, JsonModifyMode type,
     assert kvs.length % step == 0;
     String result = null;
     DocumentContext ctx =
-        JsonPath.parse(jsonDoc.obj(),
-            Configuration.builder()
-                .options(Option.SUPPRESS_EXCEPTIONS)
-                .jsonProvider(JSON_PATH_JSON_PROVIDER)
-                .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
-                .build());
+        JsonPath.parse(jsonDoc.obj(), JSON_PATH_LAX_CONFIGURATION);
 
     for (int i = 0; i < kvs.length; i += step) {
       String k = (String) kvs[i];
@@ -826,6 +934,85 @@ private static RuntimeException toUnchecked(Exception e) {
     return Util.toUnchecked(e);
   }
 
+  /** Path spec that has been split into mode and path, and whose path has
+   * been compiled. */
+  private static class JsonPathSpec {
+    final String pathSpec;
+    final PathMode mode;
+    private final @Nullable JsonPath path;
+    private final @Nullable RuntimeException pathException;
+    /** Steps of the path, each a member name or an array index, if the path
+     * is simple; otherwise null. */
+    final @Nullable List<Object> steps;
+
+    private JsonPathSpec(String pathSpec) {
+      this.pathSpec = pathSpec;
+      final String pathStr;
+      final Matcher matcher = JSON_PATH_BASE.matcher(pathSpec);
+      if (!matcher.matches()) {
+        mode = PathMode.STRICT;
+        pathStr = pathSpec;
+      } else {
+        mode = PathMode.valueOf(castNonNull(matcher.group(1)).toUpperCase(Locale.ROOT));
+        pathStr = castNonNull(matcher.group(2));
+      }
+      JsonPath path = null;
+      RuntimeException pathException = null;
+      try {
+        path = JsonPath.compile(pathStr);
+      } catch (RuntimeException e) {
+        // Remember the error, and throw it when the path is evaluated.
+        pathException = e;
+      }
+      this.path = path;
+      this.pathException = pathException;
+      this.steps = path != null && JSON_SIMPLE_PATH.matcher(pathStr).matches()
+          ? parseSteps(pathStr)
+          : null;
+    }
+
+    static JsonPathSpec of(String pathSpec) {
+      JsonPathSpec spec = JSON_PATH_SPEC_CACHE.getIfPresent(pathSpec);
+      if (spec == null) {
+        spec = new JsonPathSpec(pathSpec);
+        JSON_PATH_SPEC_CACHE.put(pathSpec, spec);
+      }
+      return spec;
+    }
+
+    private static List<Object> parseSteps(String pathStr) {
+      final ImmutableList.Builder<Object> steps = ImmutableList.builder();
+      final Matcher matcher = JSON_SIMPLE_PATH_STEP.matcher(pathStr);
+      while (matcher.find()) {
+        final String name = matcher.group(1);
+        steps.add(name != null
+            ? name
+            : Integer.valueOf(castNonNull(matcher.group(2))));
+      }
+      return steps.build();
+    }
+
+    JsonPath path() {
+      if (path == null) {
+        throw castNonNull(pathException);
+      }
+      return path;
+    }
+  }
+
+  /** A JSON document and the result of parsing it. */
+  private static class ParsedDocument {
+    /** The document; compared by identity, not by value, so that comparison
+     * is cheap. */
+    final Object input;
+    final JsonValueContext context;
+
+    ParsedDocument(Object input, JsonValueContext context) {
+      this.input = input;
+      this.context = context;
+    }
+  }
+
   /**
    * Returned path context of JsonApiCommonSyntax, public for testing.
    */
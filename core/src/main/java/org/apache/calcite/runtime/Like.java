@@ -18,8 +18,11 @@
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
 
 /**
  * Utilities for converting SQL {@code LIKE} and {@code SIMILAR} operators
@@ -60,16 +63,19 @@ private Like() {
   static String sqlToRegexLike(
       String sqlPattern,
       @Nullable CharSequence escapeStr) {
-    final char escapeChar;
+    return sqlToRegexLike(sqlPattern, likeEscapeChar(escapeStr));
+  }
+
+  /** Returns the escape character of a LIKE pattern, or 0 if there is no
+   * escape string. */
+  private static char likeEscapeChar(@Nullable CharSequence escapeStr) {
     if (escapeStr != null) {
       if (escapeStr.length() != 1) {
         throw invalidEscapeCharacter(escapeStr.toString());
       }
-      escapeChar = escapeStr.charAt(0);
-    } else {
-      escapeChar = 0;
+      return escapeStr.charAt(0);
     }
-    return sqlToRegexLike(sqlPattern, escapeChar);
+    return 0;
   }
 
   /**
@@ -110,6 +116,30 @@ static String sqlToRegexLike(
     return javaPattern.toString();
   }
 
+  /**
+   * Returns a predicate that tests whether a string matches a SQL LIKE
+   * pattern, with optional escape string.
+   *
+   * <p>If the pattern has no {@code _} wildcards, such as {@code 'abc'},
+   * {@code 'abc%'}, {@code '%abc'} and {@code '%abc%'}, the predicate looks
+   * for the literal text between the {@code %} wildcards using
+   * {@link String#startsWith}, {@link String#endsWith} and
+   * {@link String#indexOf}. Otherwise it matches the regular expression
+   * generated by {@link #sqlToRegexLike(String, CharSequence)}.
+   */
+  static Predicate<String> likeMatcher(String sqlPattern,
+      @Nullable CharSequence escapeStr) {
+    final char escapeChar = likeEscapeChar(escapeStr);
+    final Predicate<String> matcher =
+        LiteralLikeMatcher.of(sqlPattern, escapeChar);
+    if (matcher != null) {
+      return matcher;
+    }
+    final java.util.regex.Pattern pattern =
+        java.util.regex.Pattern.compile(sqlToRegexLike(sqlPattern, escapeChar));
+    return s -> pattern.matcher(s).matches();
+  }
+
   private static RuntimeException invalidEscapeCharacter(String s) {
     return new RuntimeException(
         "Invalid escape character '" + s + "'");
@@ -322,4 +352,77 @@ static java.util.regex.Pattern posixRegexToPattern(String regex, boolean caseSen
     int flags = caseSensitive ? 0 : java.util.regex.Pattern.CASE_INSENSITIVE;
     return java.util.regex.Pattern.compile(regex, flags);
   }
+
+  /** Matcher for a LIKE pattern that has no {@code _} wildcards, and is
+   * therefore a list of literal segments separated by {@code %} wildcards. */
+  private static class LiteralLikeMatcher implements Predicate<String> {
+    /** Literal segments; there is a {@code %} between each pair. */
+    private final String[] segments;
+
+    private LiteralLikeMatcher(String[] segments) {
+      this.segments = segments;
+    }
+
+    /** Creates a LiteralLikeMatcher, or returns null if the pattern contains
+     * a {@code _} wildcard. Throws the same errors as
+     * {@link Like#sqlToRegexLike(String, char)} if the pattern is invalid. */
+    static @Nullable LiteralLikeMatcher of(String sqlPattern, char escapeChar) {
+      final List<String> segments = new ArrayList<>();
+      final StringBuilder b = new StringBuilder();
+      final int len = sqlPattern.length();
+      for (int i = 0; i < len; i++) {
+        char c = sqlPattern.charAt(i);
+        if (c == escapeChar) {
+          if (i == len - 1) {
+            throw invalidEscapeSequence(sqlPattern, i);
+          }
+          char nextChar = sqlPattern.charAt(i + 1);
+          if ((nextChar == '_')
+              || (nextChar == '%')
+              || (nextChar == escapeChar)) {
+            b.append(nextChar);
+            i++;
+          } else {
+            throw invalidEscapeSequence(sqlPattern, i);
+          }
+        } else if (c == '_') {
+          return null;
+        } else if (c == '%') {
+          segments.add(b.toString());
+          b.setLength(0);
+        } else {
+          b.append(c);
+        }
+      }
+      segments.add(b.toString());
+      return new LiteralLikeMatcher(segments.toArray(new String[0]));
+    }
+
+    @Override public boolean test(String s) {
+      final int n = segments.length;
+      if (n == 1) {
+        return s.equals(segments[0]);
+      }
+      final String first = segments[0];
+      final String last = segments[n - 1];
+      final int end = s.length() - last.length();
+      if (end < first.length()
+          || !s.startsWith(first)
+          || !s.endsWith(last)) {
+        return false;
+      }
+      // Find each middle segment, as early as possible, between the first
+      // and last segments.
+      int pos = first.length();
+      for (int i = 1; i < n - 1; i++) {
+        final String segment = segments[i];
+        final int j = s.indexOf(segment, pos);
+        if (j < 0 || j + segment.length() > end) {
+          return false;
+        }
+        pos = j + segment.length();
+      }
+      return true;
+    }
+  }
 }
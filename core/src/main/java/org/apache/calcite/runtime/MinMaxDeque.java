@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Accumulator for the {@code MIN} or {@code MAX} of a sliding window.
+ *
+ * <p>Values are added in increasing order of their row index, and removed,
+ * by row index, in the same order. The accumulator keeps only the values that
+ * may yet become the minimum (or maximum): those that are less than (or
+ * greater than) every value added after them. The first of those is the
+ * result.
+ *
+ * <p>Each value is added once and removed at most once, so moving the window
+ * one row takes constant amortized time, regardless of the size of the
+ * window.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class MinMaxDeque {
+  private final boolean min;
+  private int[] indexes = new int[8];
+  private @Nullable Comparable[] values = new Comparable[8];
+  /** Position of the first entry. */
+  private int head;
+  /** Number of entries. */
+  private int size;
+
+  /** Creates a MinMaxDeque.
+   *
+   * @param min Whether to compute the minimum; if false, the maximum
+   */
+  public MinMaxDeque(boolean min) {
+    this.min = min;
+  }
+
+  /** Adds the value of a row.
+   *
+   * @param index Row index; greater than the index of any row added since the
+   *   deque was created
+   * @param value Value; not null
+   */
+  public void add(int index, Comparable value) {
+    // Discard values that can no longer be the result, because the new value
+    // is better and will stay in the window at least as long.
+    while (size > 0) {
+      final Comparable last = castNonNull(values[slot(size - 1)]);
+      final int c = last.compareTo(value);
+      if (min ? c < 0 : c > 0) {
+        break;
+      }
+      values[slot(size - 1)] = null;
+      --size;
+    }
+    if (size == indexes.length) {
+      grow();
+    }
+    final int slot = slot(size++);
+    indexes[slot] = index;
+    values[slot] = value;
+  }
+
+  /** Removes the value of a row, if it is still held.
+   *
+   * <p>Rows must be removed in the order that they were added. */
+  public void remove(int index) {
+    if (size > 0 && indexes[head] == index) {
+      values[head] = null;
+      head = slot(1);
+      --size;
+    }
+  }
+
+  /** Returns the minimum (or maximum) of the values of the rows that have
+   * been added and not removed, or null if there are no such values. */
+  public @Nullable Object result() {
+    return size == 0 ? null : values[head];
+  }
+
+  private int slot(int i) {
+    return (head + i) % indexes.length;
+  }
+
+  private void grow() {
+    final int[] newIndexes = new int[indexes.length * 2];
+    final @Nullable Comparable[] newValues = new Comparable[indexes.length * 2];
+    for (int i = 0; i < size; i++) {
+      newIndexes[i] = indexes[slot(i)];
+      newValues[i] = values[slot(i)];
+    }
+    indexes = newIndexes;
+    values = newValues;
+    head = 0;
+  }
+}
@@ -0,0 +1,665 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.Lookup;
+import org.apache.calcite.linq4j.function.EqualityComparer;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.function.Function2;
+import org.apache.calcite.linq4j.function.Predicate2;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Implementations of relational operators that use several threads.
+ *
+ * <p>Tasks run on a {@link ForkJoinPool} that is shared by all queries in
+ * the JVM, and has one thread per processor.
+ *
+ * <ul>
+ * <li>{@link #gather} runs its input on a worker thread, and hands rows to
+ * the consumer in batches through a bounded queue, so that the producer and
+ * the consumer of the rows run concurrently.
+ * <li>{@link #concat} does the same for several inputs, such as the splits
+ * of a {@link org.apache.calcite.schema.SplittableTable}, reading several
+ * of them at a time but returning their rows in order.
+ * <li>{@link #groupBy} reads its input on the calling thread, and deals rows
+ * to workers on a hash of the grouping key. Each worker owns a disjoint set
+ * of groups, so accumulators never need to be combined.
+ * <li>{@link #hashJoin} builds its inner input on the calling thread, then
+ * probes the hash table with slices of the outer input in parallel. Rows are
+ * returned in the same order as by a sequential join.
+ * </ul>
+ *
+ * <p>The calling thread waits for each batch of tasks before reading more of
+ * its input, so memory use is bounded by the batch size.
+ */
+public class ParallelEnumerables {
+  /** Number of rows in each task. */
+  static final int TASK_SIZE = 4096;
+
+  /** Number of rows in each batch that {@link #gather} passes from producer
+   * to consumer. */
+  static final int BATCH_SIZE = 256;
+
+  /** Number of batches that the producer of {@link #gather} may get ahead of
+   * the consumer. */
+  static final int QUEUE_CAPACITY = 16;
+
+  /** Minimum number of input rows per worker that makes it worth running an
+   * operator in parallel. */
+  public static final int MIN_ROWS_PER_WORKER = 10_000;
+
+  private ParallelEnumerables() {}
+
+  /** Returns the pool in which parallel operators run their tasks. */
+  public static ForkJoinPool pool() {
+    return PoolHolder.POOL;
+  }
+
+  /** Returns an enumerable that has the same rows as its input, in the same
+   * order, but runs the input on a worker thread. */
+  public static <E> Enumerable<E> gather(Enumerable<E> source) {
+    return new AbstractEnumerable<E>() {
+      @Override public Enumerator<E> enumerator() {
+        return new GatherEnumerator<>(source);
+      }
+    };
+  }
+
+  /** Returns an enumerable that has the rows of each input in turn, reading
+   * up to {@code parallelism} inputs concurrently.
+   *
+   * <p>The rows are in the same order as
+   * {@link org.apache.calcite.linq4j.Linq4j#concat(List)}. While the consumer
+   * reads one input, the next {@code parallelism - 1} inputs are read into
+   * bounded queues. */
+  public static <E> Enumerable<E> concat(List<? extends Enumerable<E>> inputs,
+      int parallelism) {
+    if (parallelism <= 1 || inputs.size() <= 1) {
+      return Linq4j.concat(ImmutableList.<Enumerable<E>>copyOf(inputs));
+    }
+    return new AbstractEnumerable<E>() {
+      @Override public Enumerator<E> enumerator() {
+        return new ConcatEnumerator<>(inputs, parallelism);
+      }
+    };
+  }
+
+  /** Groups rows by key and aggregates each group, using up to
+   * {@code parallelism} threads.
+   *
+   * <p>Arguments other than {@code parallelism} are as for
+   * {@link EnumerableDefaults#groupBy(Enumerable, Function1, Function0,
+   * Function2, Function2, EqualityComparer)}, except that
+   * {@code comparer} may be null. */
+  public static <TSource, TKey, TAccumulate, TResult> Enumerable<TResult>
+      groupBy(Enumerable<TSource> source,
+      Function1<TSource, TKey> keySelector,
+      Function0<TAccumulate> accumulatorInitializer,
+      Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+      Function2<TKey, TAccumulate, TResult> resultSelector,
+      @Nullable EqualityComparer<TKey> comparer, int parallelism) {
+    if (parallelism <= 1) {
+      return comparer == null
+          ? EnumerableDefaults.groupBy(source, keySelector,
+              accumulatorInitializer, accumulatorAdder, resultSelector)
+          : EnumerableDefaults.groupBy(source, keySelector,
+              accumulatorInitializer, accumulatorAdder, resultSelector,
+              comparer);
+    }
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        final List<GroupByWorker<TSource, TKey, TAccumulate>> workers =
+            new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+          workers.add(
+              new GroupByWorker<>(accumulatorInitializer, accumulatorAdder,
+                  comparer));
+        }
+        List<ForkJoinTask<?>> tasks = ImmutableList.of();
+        int rowCount = 0;
+        try (Enumerator<TSource> os = source.enumerator()) {
+          while (os.moveNext()) {
+            final TSource o = os.current();
+            final TKey key = keySelector.apply(o);
+            final int worker =
+                Math.floorMod(spread(SpillingEnumerables.hash(comparer, key)),
+                    parallelism);
+            workers.get(worker).add(key, o);
+            if (++rowCount == parallelism * TASK_SIZE) {
+              // Wait for the previous batch before starting the next, so that
+              // each worker's groups are modified by one thread at a time.
+              join(tasks);
+              tasks = submitAll(workers);
+              rowCount = 0;
+            }
+          }
+        }
+        join(tasks);
+        join(submitAll(workers));
+        final List<TResult> results = new ArrayList<>();
+        for (GroupByWorker<TSource, TKey, TAccumulate> worker : workers) {
+          worker.addResults(resultSelector, results);
+        }
+        return Linq4j.enumerator(results);
+      }
+    };
+  }
+
+  /** Joins two inputs on a key, probing with the outer input using up to
+   * {@code parallelism} threads.
+   *
+   * <p>Arguments other than {@code parallelism} are as for
+   * {@link EnumerableDefaults#hashJoin(Enumerable, Enumerable, Function1,
+   * Function1, Function2, EqualityComparer, boolean, boolean, Predicate2)}.
+   * If {@code generateNullsOnLeft} (a RIGHT or FULL join), the join is
+   * sequential, because the workers would need to share the set of inner
+   * rows that have been matched. */
+  public static <TSource, TInner, TKey, TResult> Enumerable<TResult> hashJoin(
+      Enumerable<TSource> outer, Enumerable<TInner> inner,
+      Function1<TSource, TKey> outerKeySelector,
+      Function1<TInner, TKey> innerKeySelector,
+      Function2<TSource, TInner, TResult> resultSelector,
+      @Nullable EqualityComparer<TKey> comparer,
+      boolean generateNullsOnLeft, boolean generateNullsOnRight,
+      @Nullable Predicate2<TSource, TInner> predicate, int parallelism) {
+    if (parallelism <= 1 || generateNullsOnLeft) {
+      return EnumerableDefaults.hashJoin(outer, inner, outerKeySelector,
+          innerKeySelector, resultSelector, comparer, generateNullsOnLeft,
+          generateNullsOnRight, predicate);
+    }
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        final Lookup<TKey, TInner> lookup =
+            comparer == null
+                ? inner.toLookup(innerKeySelector)
+                : inner.toLookup(innerKeySelector, comparer);
+        final Function1<List<TSource>, List<TResult>> probe = rows -> {
+          final List<TResult> results = new ArrayList<>();
+          for (TSource row : rows) {
+            final TKey key = row == null ? null : outerKeySelector.apply(row);
+            final @Nullable Enumerable<TInner> inners =
+                key == null ? null : lookup.get(key);
+            int matchCount = 0;
+            if (inners != null) {
+              for (TInner innerRow : inners) {
+                if (predicate == null || predicate.apply(row, innerRow)) {
+                  results.add(resultSelector.apply(row, innerRow));
+                  ++matchCount;
+                }
+              }
+            }
+            if (matchCount == 0 && generateNullsOnRight) {
+              results.add(resultSelector.apply(row, null));
+            }
+          }
+          return results;
+        };
+        return new ProbeEnumerator<>(outer.enumerator(), probe,
+            parallelism);
+      }
+    };
+  }
+
+  /** Spreads the bits of a hash code, so that hash codes that differ only
+   * in their high bits go to different workers. */
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+
+  private static List<ForkJoinTask<?>> submitAll(
+      List<? extends GroupByWorker<?, ?, ?>> workers) {
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (GroupByWorker<?, ?, ?> worker : workers) {
+      final Runnable runnable = worker.takeBatch();
+      if (runnable != null) {
+        tasks.add(pool().submit(runnable));
+      }
+    }
+    return tasks;
+  }
+
+  private static void join(List<? extends ForkJoinTask<?>> tasks) {
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+  }
+
+  /** Holds the pool, so that it is created only when first needed. */
+  private static class PoolHolder {
+    static final ForkJoinPool POOL =
+        new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            pool -> {
+              final ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory
+                      .newThread(pool);
+              thread.setName("calcite-parallel-" + thread.getPoolIndex());
+              thread.setDaemon(true);
+              return thread;
+            },
+            null, false);
+  }
+
+  /** Worker of a parallel {@link #groupBy}. Owns the groups whose keys hash
+   * to it.
+   *
+   * @param <TSource> Input row type
+   * @param <TKey> Key type
+   * @param <TAccumulate> Accumulator type */
+  private static class GroupByWorker<TSource, TKey, TAccumulate> {
+    final Function0<TAccumulate> accumulatorInitializer;
+    final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder;
+    final @Nullable EqualityComparer<TKey> comparer;
+    /** Groups; if there is a comparer, keyed by
+     * {@link SpillingEnumerables.ComparerKey}. */
+    final Map<@Nullable Object, TAccumulate> map = new HashMap<>();
+    List<TKey> keys = new ArrayList<>();
+    List<TSource> rows = new ArrayList<>();
+
+    GroupByWorker(Function0<TAccumulate> accumulatorInitializer,
+        Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+        @Nullable EqualityComparer<TKey> comparer) {
+      this.accumulatorInitializer = accumulatorInitializer;
+      this.accumulatorAdder = accumulatorAdder;
+      this.comparer = comparer;
+    }
+
+    void add(TKey key, TSource row) {
+      keys.add(key);
+      rows.add(row);
+    }
+
+    /** Returns a task that aggregates the rows added since the last call,
+     * or null if there are none. */
+    @Nullable Runnable takeBatch() {
+      if (rows.isEmpty()) {
+        return null;
+      }
+      final List<TKey> keys = this.keys;
+      final List<TSource> rows = this.rows;
+      this.keys = new ArrayList<>();
+      this.rows = new ArrayList<>();
+      return () -> aggregate(keys, rows);
+    }
+
+    private void aggregate(List<TKey> keys, List<TSource> rows) {
+      for (int i = 0; i < rows.size(); i++) {
+        final TKey key = keys.get(i);
+        final TSource o = rows.get(i);
+        final Object mapKey =
+            comparer == null
+                ? key
+                : new SpillingEnumerables.ComparerKey<>(comparer, key);
+        TAccumulate accumulator = map.get(mapKey);
+        if (accumulator == null) {
+          accumulator = accumulatorInitializer.apply();
+          accumulator = accumulatorAdder.apply(accumulator, o);
+          map.put(mapKey, accumulator);
+        } else {
+          TAccumulate accumulator0 = accumulator;
+          accumulator = accumulatorAdder.apply(accumulator, o);
+          if (accumulator != accumulator0) {
+            map.put(mapKey, accumulator);
+          }
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    <TResult> void addResults(
+        Function2<TKey, TAccumulate, TResult> resultSelector,
+        List<TResult> results) {
+      for (Map.Entry<@Nullable Object, TAccumulate> e : map.entrySet()) {
+        final TKey key =
+            comparer == null
+                ? (TKey) e.getKey()
+                : ((SpillingEnumerables.ComparerKey<TKey>)
+                    castNonNull(e.getKey())).key;
+        results.add(resultSelector.apply(key, e.getValue()));
+      }
+      map.clear();
+    }
+  }
+
+  /** Enumerator that reads its input in chunks, splits each chunk into
+   * slices, and transforms the slices in parallel.
+   *
+   * @param <TSource> Input row type
+   * @param <TResult> Output row type */
+  private static class ProbeEnumerator<TSource, TResult>
+      implements Enumerator<TResult> {
+    private final Enumerator<TSource> input;
+    private final Function1<List<TSource>, List<TResult>> transform;
+    private final int parallelism;
+    private List<TResult> results = ImmutableList.of();
+    private int i;
+    private boolean done;
+
+    ProbeEnumerator(Enumerator<TSource> input,
+        Function1<List<TSource>, List<TResult>> transform, int parallelism) {
+      this.input = input;
+      this.transform = transform;
+      this.parallelism = parallelism;
+    }
+
+    @Override public TResult current() {
+      return results.get(i - 1);
+    }
+
+    @Override public boolean moveNext() {
+      for (;;) {
+        if (i < results.size()) {
+          ++i;
+          return true;
+        }
+        if (done) {
+          return false;
+        }
+        final List<TSource> rows = new ArrayList<>();
+        while (rows.size() < parallelism * TASK_SIZE) {
+          if (!input.moveNext()) {
+            done = true;
+            break;
+          }
+          rows.add(input.current());
+        }
+        final List<ForkJoinTask<List<TResult>>> tasks = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += TASK_SIZE) {
+          final List<TSource> slice =
+              rows.subList(start, Math.min(start + TASK_SIZE, rows.size()));
+          tasks.add(pool().submit(() -> transform.apply(slice)));
+        }
+        final List<TResult> results = new ArrayList<>();
+        for (ForkJoinTask<List<TResult>> task : tasks) {
+          results.addAll(task.join());
+        }
+        this.results = results;
+        this.i = 0;
+      }
+    }
+
+    @Override public void reset() {
+      // Tasks are joined before moveNext returns, so none is running; the
+      // chunks are transformed again as the input is re-read.
+      input.reset();
+      results = ImmutableList.of();
+      i = 0;
+      done = false;
+    }
+
+    @Override public void close() {
+      input.close();
+    }
+  }
+
+  /** Enumerator that returns the rows of several {@link GatherEnumerator}s
+   * in turn, keeping a fixed number of them running ahead of the consumer.
+   *
+   * @param <E> Row type */
+  private static class ConcatEnumerator<E> implements Enumerator<E> {
+    private final List<GatherEnumerator<E>> gathers = new ArrayList<>();
+    private final int parallelism;
+    private int i;
+    private boolean started;
+
+    ConcatEnumerator(List<? extends Enumerable<E>> inputs, int parallelism) {
+      for (Enumerable<E> input : inputs) {
+        gathers.add(new GatherEnumerator<>(input));
+      }
+      this.parallelism = parallelism;
+    }
+
+    @Override public E current() {
+      return gathers.get(i).current();
+    }
+
+    @Override public boolean moveNext() {
+      if (!started) {
+        started = true;
+        for (int j = 0; j < Math.min(parallelism, gathers.size()); j++) {
+          gathers.get(j).start();
+        }
+      }
+      for (;;) {
+        if (i >= gathers.size()) {
+          return false;
+        }
+        if (gathers.get(i).moveNext()) {
+          return true;
+        }
+        gathers.get(i).close();
+        if (i + parallelism < gathers.size()) {
+          gathers.get(i + parallelism).start();
+        }
+        ++i;
+      }
+    }
+
+    @Override public void reset() {
+      for (GatherEnumerator<E> gather : gathers) {
+        gather.reset();
+      }
+      i = 0;
+      started = false;
+    }
+
+    @Override public void close() {
+      for (GatherEnumerator<E> gather : gathers) {
+        gather.close();
+      }
+    }
+  }
+
+  /** Enumerator that runs its input on a worker thread.
+   *
+   * @param <E> Row type */
+  private static class GatherEnumerator<E> implements Enumerator<E> {
+    /** Sent by the producer after the last batch. */
+    private static final Object END = new Object();
+
+    private final Enumerable<E> source;
+    private final BlockingQueue<Object> queue =
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean cancelled;
+    /** Task that runs {@link #produce()}; null until started. */
+    private @Nullable ForkJoinTask<?> producer;
+    private boolean done;
+    private List<E> batch = ImmutableList.of();
+    private int i;
+
+    GatherEnumerator(Enumerable<E> source) {
+      this.source = source;
+    }
+
+    @Override public E current() {
+      return batch.get(i - 1);
+    }
+
+    /** Starts reading the input, if it has not started already. */
+    void start() {
+      if (producer == null) {
+        producer = pool().submit(this::produce);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public boolean moveNext() {
+      start();
+      for (;;) {
+        if (i < batch.size()) {
+          ++i;
+          return true;
+        }
+        if (done) {
+          return false;
+        }
+        final Object o = take();
+        if (o == END) {
+          done = true;
+        } else if (o instanceof Failure) {
+          done = true;
+          throw Util.throwAsRuntime(((Failure) o).throwable);
+        } else {
+          batch = (List<E>) o;
+          i = 0;
+        }
+      }
+    }
+
+    /** Removes the next element from the queue, waiting until there is one.
+     * Tells the pool that the thread is blocked, as {@link #put} does, so
+     * that a consumer running in the pool does not starve the producer. */
+    private Object take() {
+      final QueueTaker taker = new QueueTaker(queue);
+      try {
+        ForkJoinPool.managedBlock(taker);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Util.throwAsRuntime(e);
+      }
+      return castNonNull(taker.item);
+    }
+
+    /** Reads the input and sends it to the queue, in batches. Runs on a
+     * worker thread. */
+    private void produce() {
+      try (Enumerator<E> enumerator = source.enumerator()) {
+        List<E> rows = new ArrayList<>(BATCH_SIZE);
+        while (!cancelled && enumerator.moveNext()) {
+          rows.add(enumerator.current());
+          if (rows.size() == BATCH_SIZE) {
+            put(rows);
+            rows = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+        if (!rows.isEmpty()) {
+          put(rows);
+        }
+        put(END);
+      } catch (RuntimeException | Error e) {
+        put(new Failure(e));
+      }
+    }
+
+    /** Adds an element to the queue, waiting until there is room or until
+     * the consumer is closed. Tells the pool that the thread is blocked, so
+     * that the pool can start another thread if necessary. */
+    private void put(Object o) {
+      try {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override public boolean block() throws InterruptedException {
+            while (!cancelled
+                && !queue.offer(o, 100, TimeUnit.MILLISECONDS)) {
+              // the consumer is slow; keep waiting
+            }
+            return true;
+          }
+
+          @Override public boolean isReleasable() {
+            return cancelled;
+          }
+        });
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancelled = true;
+      }
+    }
+
+    /** Stops the producer, if it is running, and discards the rows that it
+     * has read. The next call to {@link #moveNext()} reads the input again
+     * from the start. */
+    @Override public void reset() {
+      close();
+      producer = null;
+      cancelled = false;
+      done = false;
+      batch = ImmutableList.of();
+      i = 0;
+    }
+
+    @Override public void close() {
+      cancelled = true;
+      queue.clear();
+      final ForkJoinTask<?> producer = this.producer;
+      if (producer != null) {
+        // Wait for the producer, so that it does not outlive the query. It
+        // stops before reading its next row, and does not block on the queue
+        // once cancelled.
+        producer.quietlyJoin();
+        queue.clear();
+      }
+    }
+  }
+
+  /** Blocker that takes an element from a queue; see
+   * {@link ForkJoinPool.ManagedBlocker}. */
+  private static class QueueTaker implements ForkJoinPool.ManagedBlocker {
+    private final BlockingQueue<Object> queue;
+    @Nullable Object item;
+
+    QueueTaker(BlockingQueue<Object> queue) {
+      this.queue = queue;
+    }
+
+    @Override public boolean block() throws InterruptedException {
+      if (item == null) {
+        item = queue.take();
+      }
+      return true;
+    }
+
+    @Override public boolean isReleasable() {
+      if (item == null) {
+        item = queue.poll();
+      }
+      return item != null;
+    }
+  }
+
+  /** Failure in the producer of a {@link GatherEnumerator}, to be re-thrown
+   * in the consumer. */
+  private static class Failure {
+    final Throwable throwable;
+
+    Failure(Throwable throwable) {
+      this.throwable = throwable;
+    }
+  }
+}
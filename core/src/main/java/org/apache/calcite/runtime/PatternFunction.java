@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.function.Deterministic;
+import org.apache.calcite.util.Unsafe;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.apache.calcite.util.Static.RESOURCE;
+
+/**
+ * Function object for the SQL functions that match a string against a
+ * pattern: {@code LIKE}, {@code ILIKE}, {@code SIMILAR TO}, {@code RLIKE},
+ * the POSIX regular expression operators and {@code REGEXP_REPLACE}.
+ *
+ * <p>The code generator creates one instance per call site, and the instance
+ * remembers the pattern it last compiled. If the pattern is a literal, as it
+ * usually is, it is therefore translated and compiled once per query rather
+ * than once per row.
+ *
+ * <p>An instance may be used by several threads at once.
+ *
+ * @see SqlFunctions#like(String, String)
+ */
+public class PatternFunction {
+  private static final int LIKE = 0;
+  private static final int ILIKE = 1;
+  private static final int SIMILAR = 2;
+  private static final int RLIKE = 3;
+  private static final int POSIX_REGEX = 4;
+  private static final int POSIX_REGEX_CASE_SENSITIVE = 5;
+  private static final int REGEXP_REPLACE = 6;
+
+  /** The most recently used pattern. It is immutable, so it is safe to
+   * replace it while another thread is using it. */
+  private volatile @Nullable Compiled compiled;
+
+  /** Creates a PatternFunction.
+   *
+   * <p>Marked deterministic so that the code generator instantiates one once
+   * per query, not once per row. */
+  @Deterministic public PatternFunction() {
+  }
+
+  /** Implements the SQL {@code LIKE} operator. */
+  public boolean like(String s, String pattern) {
+    return likeMatcher(LIKE, pattern, null).test(s);
+  }
+
+  /** Implements the SQL {@code LIKE} operator with escape. */
+  public boolean like(String s, String pattern, String escape) {
+    return likeMatcher(LIKE, pattern, escape).test(s);
+  }
+
+  /** Implements the SQL {@code ILIKE} operator. */
+  public boolean ilike(String s, String pattern) {
+    return likeMatcher(ILIKE, pattern, null).test(s);
+  }
+
+  /** Implements the SQL {@code ILIKE} operator with escape. */
+  public boolean ilike(String s, String pattern, String escape) {
+    return likeMatcher(ILIKE, pattern, escape).test(s);
+  }
+
+  /** Implements the SQL {@code SIMILAR TO} operator. */
+  public boolean similar(String s, String pattern) {
+    return likeMatcher(SIMILAR, pattern, null).test(s);
+  }
+
+  /** Implements the SQL {@code SIMILAR TO} operator with escape. */
+  public boolean similar(String s, String pattern, String escape) {
+    return likeMatcher(SIMILAR, pattern, escape).test(s);
+  }
+
+  /** Implements the SQL {@code RLIKE} operator. */
+  public boolean rlike(String s, String pattern) {
+    return regex(RLIKE, pattern, null).matcher(s).find();
+  }
+
+  /** Implements the SQL POSIX regular expression operators. */
+  public boolean posixRegex(String s, String regex, boolean caseSensitive) {
+    return regex(caseSensitive ? POSIX_REGEX_CASE_SENSITIVE : POSIX_REGEX,
+        regex, null).matcher(s).find();
+  }
+
+  /** Implements the SQL {@code REGEXP_REPLACE} function with 3 arguments. */
+  public String regexpReplace(String s, String regex, String replacement) {
+    return regexpReplace(s, regex, replacement, 1, 0, null);
+  }
+
+  /** Implements the SQL {@code REGEXP_REPLACE} function with 4 arguments. */
+  public String regexpReplace(String s, String regex, String replacement,
+      int pos) {
+    return regexpReplace(s, regex, replacement, pos, 0, null);
+  }
+
+  /** Implements the SQL {@code REGEXP_REPLACE} function with 5 arguments. */
+  public String regexpReplace(String s, String regex, String replacement,
+      int pos, int occurrence) {
+    return regexpReplace(s, regex, replacement, pos, occurrence, null);
+  }
+
+  /** Implements the SQL {@code REGEXP_REPLACE} function with 6 arguments. */
+  public String regexpReplace(String s, String regex, String replacement,
+      int pos, int occurrence, @Nullable String matchType) {
+    if (pos < 1 || pos > s.length()) {
+      throw RESOURCE.invalidInputForRegexpReplace(Integer.toString(pos)).ex();
+    }
+    final Pattern pattern = regex(REGEXP_REPLACE, regex, matchType);
+    return Unsafe.regexpReplace(s, pattern, replacement, pos, occurrence);
+  }
+
+  /** Returns a matcher for a {@code LIKE}, {@code ILIKE} or
+   * {@code SIMILAR TO} pattern, compiling it if it is not the same as the
+   * previous pattern. */
+  @SuppressWarnings("unchecked")
+  private Predicate<String> likeMatcher(int kind, String pattern,
+      @Nullable String escape) {
+    final Compiled compiled = this.compiled;
+    if (compiled != null && compiled.is(kind, pattern, escape)) {
+      return (Predicate<String>) compiled.matcher;
+    }
+    final Predicate<String> matcher;
+    switch (kind) {
+    case LIKE:
+      matcher = Like.likeMatcher(pattern, escape);
+      break;
+    case ILIKE:
+      final Pattern iPattern =
+          Pattern.compile(Like.sqlToRegexLike(pattern, escape),
+              Pattern.CASE_INSENSITIVE);
+      matcher = s -> iPattern.matcher(s).matches();
+      break;
+    default:
+      final Pattern sPattern =
+          Pattern.compile(Like.sqlToRegexSimilar(pattern, escape));
+      matcher = s -> sPattern.matcher(s).matches();
+      break;
+    }
+    this.compiled = new Compiled(kind, pattern, escape, matcher);
+    return matcher;
+  }
+
+  /** Returns the compiled form of a regular expression, compiling it if it is
+   * not the same as the previous pattern. */
+  private Pattern regex(int kind, String regex, @Nullable String flags) {
+    final Compiled compiled = this.compiled;
+    if (compiled != null && compiled.is(kind, regex, flags)) {
+      return (Pattern) compiled.matcher;
+    }
+    final Pattern pattern;
+    switch (kind) {
+    case POSIX_REGEX:
+      pattern = Like.posixRegexToPattern(regex, false);
+      break;
+    case POSIX_REGEX_CASE_SENSITIVE:
+      pattern = Like.posixRegexToPattern(regex, true);
+      break;
+    case REGEXP_REPLACE:
+      pattern = Pattern.compile(regex, SqlFunctions.makeRegexpFlags(flags));
+      break;
+    default:
+      pattern = Pattern.compile(regex);
+      break;
+    }
+    this.compiled = new Compiled(kind, regex, flags, pattern);
+    return pattern;
+  }
+
+  /** A pattern, its options (escape string or flags), and what it compiled
+   * to. */
+  private static class Compiled {
+    final int kind;
+    final String pattern;
+    final @Nullable String options;
+    final Object matcher;
+
+    Compiled(int kind, String pattern, @Nullable String options,
+        Object matcher) {
+      this.kind = kind;
+      this.pattern = pattern;
+      this.options = options;
+      this.matcher = matcher;
+    }
+
+    boolean is(int kind, String pattern, @Nullable String options) {
+      return this.kind == kind
+          && this.pattern.equals(pattern)
+          && Objects.equals(this.options, options);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+/**
+ * Statistics about the temporary files written by one execution of an
+ * operator that spills to disk.
+ *
+ * <p>An operator that has spilled passes an instance to
+ * {@link Hook#SPILL} when it is closed.
+ *
+ * @see SpillingEnumerables
+ */
+public class SpillStatistics {
+  /** Name of the operator, for example "EnumerableHashJoin#12". */
+  public final String operator;
+
+  private int fileCount;
+  private long rowCount;
+  private long byteCount;
+  private int maxDepth;
+
+  public SpillStatistics(String operator) {
+    this.operator = operator;
+  }
+
+  /** Records that a temporary file has been written. */
+  void add(int depth, long rows, long bytes) {
+    ++fileCount;
+    rowCount += rows;
+    byteCount += bytes;
+    maxDepth = Math.max(maxDepth, depth + 1);
+  }
+
+  /** Returns the number of temporary files written. */
+  public int fileCount() {
+    return fileCount;
+  }
+
+  /** Returns the number of rows written to temporary files. A row that is
+   * spilled again, because its partition was too large, is counted each
+   * time it is written. */
+  public long rowCount() {
+    return rowCount;
+  }
+
+  /** Returns the number of bytes written to temporary files. */
+  public long byteCount() {
+    return byteCount;
+  }
+
+  /** Returns the number of levels of files; 0 if nothing was spilled.
+   *
+   * <p>For a hash operator, this is the number of times that the largest
+   * partition was split; 1 if every partition fitted into memory after the
+   * first split. For a sort, it is 1 if sorted runs were merged in a single
+   * pass, plus one for each pass that merged runs into longer runs. */
+  public int maxDepth() {
+    return maxDepth;
+  }
+
+  @Override public String toString() {
+    return operator + ": files=" + fileCount + ", rows=" + rowCount
+        + ", bytes=" + byteCount + ", depth=" + maxDepth;
+  }
+}
@@ -0,0 +1,1201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.DelegatingEnumerator;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.EqualityComparer;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.function.Function2;
+import org.apache.calcite.linq4j.function.Predicate2;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementations of hash join and hash aggregation that keep their state
+ * within a memory budget by spilling rows to temporary files.
+ *
+ * <p>{@link #hashJoin} reads its build (inner) input into memory. If the
+ * input fits within the budget, it joins in memory, exactly as
+ * {@link EnumerableDefaults#hashJoin} does. Otherwise it splits both inputs
+ * into {@link #PARTITION_COUNT} files, on a hash of the join key, and joins
+ * each pair of files in turn; a pair whose build side is still too large is
+ * split again, using different bits of the hash (a "grace" hash join).
+ *
+ * <p>{@link #groupBy} aggregates in memory until the groups fill the budget.
+ * From then on, rows that belong to a group already in memory are
+ * aggregated as usual, but rows for any other key are written to files,
+ * on a hash of the key, and each file is aggregated in turn after the
+ * in-memory groups have been returned (a "hybrid" hash aggregation).
+ * Accumulators are never written to disk.
+ *
+ * <p>{@link #orderBy} is an external merge sort. It sorts rows in memory
+ * until they fill the budget, then writes them to a file as a sorted run.
+ * Runs are combined by a k-way merge that uses a tree of losers; if there
+ * are more than {@link #MERGE_FAN_IN} runs, groups of runs are first merged
+ * into longer runs. If there is a limit, each run holds only as many rows
+ * as could appear in the output. If the input fits in memory, no files are
+ * written. Like {@link EnumerableDefaults#orderBy}, the sort is stable.
+ *
+ * <p>For the hash operators, rows with equal keys always go to the same
+ * file, so the result is the
+ * same as if everything had fitted into memory, although rows may be in a
+ * different order. Spilled rows must be {@link Serializable}; rows that are
+ * not stay in memory. If a partition is still too large after
+ * {@link #MAX_DEPTH} splits (for instance if every row has the same key), the
+ * operator exceeds its budget rather than fail.
+ *
+ * <p>Memory use is estimated, by {@link #estimateSize(Object)}, not
+ * measured.
+ */
+public class SpillingEnumerables {
+  /** Number of bits of the hash code used to choose a partition. */
+  static final int PARTITION_BITS = 4;
+
+  /** Number of partitions that an input is split into when it spills. */
+  static final int PARTITION_COUNT = 1 << PARTITION_BITS;
+
+  /** Maximum number of times that an input is split. */
+  static final int MAX_DEPTH = 4;
+
+  /** Maximum number of runs that are merged at a time. */
+  static final int MERGE_FAN_IN = 64;
+
+  /** Estimated size of the object that holds a row and its sort key, in
+   * addition to the size of the row. */
+  private static final int SORT_ENTRY_OVERHEAD = 32;
+
+  /** Estimated size of a group's accumulator and hash table entry, in
+   * addition to the size of its key. */
+  private static final int GROUP_OVERHEAD = 96;
+
+  /** Number of rows written to a file between calls to
+   * {@link ObjectOutputStream#reset()}, which allows the stream to forget
+   * the objects it has written. */
+  private static final int RESET_INTERVAL = 1024;
+
+  private SpillingEnumerables() {}
+
+  /** Joins two inputs on a key, spilling to disk if the inner input does not
+   * fit in {@code memoryBudget} bytes.
+   *
+   * <p>Arguments other than {@code memoryBudget} and {@code operator} are as
+   * for {@link EnumerableDefaults#hashJoin(Enumerable, Enumerable, Function1,
+   * Function1, Function2, EqualityComparer, boolean, boolean, Predicate2)}.
+   *
+   * @param memoryBudget Maximum number of bytes of inner rows to hold in
+   *                     memory
+   * @param operator     Name of the operator, for {@link SpillStatistics} */
+  public static <TSource, TInner, TKey, TResult> Enumerable<TResult> hashJoin(
+      Enumerable<TSource> outer, Enumerable<TInner> inner,
+      Function1<TSource, TKey> outerKeySelector,
+      Function1<TInner, TKey> innerKeySelector,
+      Function2<TSource, TInner, TResult> resultSelector,
+      @Nullable EqualityComparer<TKey> comparer,
+      boolean generateNullsOnLeft, boolean generateNullsOnRight,
+      @Nullable Predicate2<TSource, TInner> predicate,
+      long memoryBudget, String operator) {
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        final Spill spill = new Spill(memoryBudget, operator);
+        final HashJoin<TSource, TInner, TKey, TResult> join =
+            new HashJoin<>(spill, outerKeySelector, innerKeySelector,
+                resultSelector, comparer, generateNullsOnLeft,
+                generateNullsOnRight, predicate);
+        return spill.wrap(() -> join.join(outer, inner, 0).enumerator());
+      }
+    };
+  }
+
+  /** Groups rows by key and aggregates each group, spilling to disk if the
+   * groups do not fit in {@code memoryBudget} bytes.
+   *
+   * <p>Arguments other than {@code memoryBudget} and {@code operator} are as
+   * for {@link EnumerableDefaults#groupBy(Enumerable, Function1, Function0,
+   * Function2, Function2, EqualityComparer)}.
+   *
+   * @param memoryBudget Maximum number of bytes of groups to hold in memory
+   * @param operator     Name of the operator, for {@link SpillStatistics} */
+  public static <TSource, TKey, TAccumulate, TResult> Enumerable<TResult>
+      groupBy(Enumerable<TSource> source,
+      Function1<TSource, TKey> keySelector,
+      Function0<TAccumulate> accumulatorInitializer,
+      Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+      Function2<TKey, TAccumulate, TResult> resultSelector,
+      @Nullable EqualityComparer<TKey> comparer,
+      long memoryBudget, String operator) {
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        final Spill spill = new Spill(memoryBudget, operator);
+        final HashAggregate<TSource, TKey, TAccumulate, TResult> aggregate =
+            new HashAggregate<>(spill, keySelector, accumulatorInitializer,
+                accumulatorAdder, resultSelector, comparer);
+        return spill.wrap(() -> aggregate.aggregate(source, 0).enumerator());
+      }
+    };
+  }
+
+  /** Sorts rows, spilling sorted runs to disk if the rows do not fit in
+   * {@code memoryBudget} bytes.
+   *
+   * <p>Arguments other than {@code memoryBudget} and {@code operator} are as
+   * for {@link EnumerableDefaults#orderBy(Enumerable, Function1, Comparator,
+   * int, int)}, except that if {@code comparator} is null, keys are sorted in
+   * their natural order.
+   *
+   * @param memoryBudget Maximum number of bytes of rows to hold in memory
+   * @param operator     Name of the operator, for {@link SpillStatistics} */
+  public static <TSource, TKey> Enumerable<TSource> orderBy(
+      Enumerable<TSource> source, Function1<TSource, TKey> keySelector,
+      @Nullable Comparator<TKey> comparator, int offset, int fetch,
+      long memoryBudget, String operator) {
+    final Comparator<TKey> comparator2 =
+        comparator != null ? comparator : naturalOrder();
+    return new AbstractEnumerable<TSource>() {
+      @Override public Enumerator<TSource> enumerator() {
+        final Spill spill = new Spill(memoryBudget, operator);
+        final ExternalSort<TSource, TKey> sort =
+            new ExternalSort<>(spill, keySelector, comparator2, offset, fetch);
+        return spill.wrap(() -> sort.sort(source).enumerator());
+      }
+    };
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> Comparator<T> naturalOrder() {
+    return (Comparator) Comparator.naturalOrder();
+  }
+
+  /** Estimates the number of bytes of heap occupied by a value. */
+  static long estimateSize(@Nullable Object o) {
+    if (o == null) {
+      return 0;
+    }
+    if (o instanceof Object[]) {
+      final Object[] values = (Object[]) o;
+      long size = 16 + 8L * values.length;
+      for (Object value : values) {
+        size += estimateSize(value);
+      }
+      return size;
+    }
+    if (o instanceof List) {
+      final List<?> values = (List<?>) o;
+      long size = 40 + 8L * values.size();
+      for (Object value : values) {
+        size += estimateSize(value);
+      }
+      return size;
+    }
+    if (o instanceof String) {
+      return 40 + 2L * ((String) o).length();
+    }
+    if (o instanceof BigDecimal) {
+      return 64;
+    }
+    return 16;
+  }
+
+  /** Returns the partition of a hash code at a given depth of
+   * partitioning. Each depth uses different bits of the hash code, so that
+   * a partition that is split again does not all go to the same place. */
+  static int partitionOf(int hashCode, int depth) {
+    // Finalization step of MurmurHash3, so that every bit of the result
+    // depends on every bit of the hash code
+    int h = hashCode;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return (h >>> (depth * PARTITION_BITS)) & (PARTITION_COUNT - 1);
+  }
+
+  /** Returns the hash code of a key, using a comparer if there is one;
+   * 0 if the key is null. */
+  static <TKey> int hash(@Nullable EqualityComparer<TKey> comparer,
+      @Nullable TKey key) {
+    if (key == null) {
+      return 0;
+    }
+    return comparer == null ? key.hashCode() : comparer.hashCode(key);
+  }
+
+  /** State shared by all partitions of one execution of a spilling
+   * operator. */
+  private static class Spill {
+    final long memoryBudget;
+    final SpillStatistics statistics;
+    final List<SpillFile<?>> files = new ArrayList<>();
+    private boolean closed;
+
+    Spill(long memoryBudget, String operator) {
+      this.memoryBudget = memoryBudget;
+      this.statistics = new SpillStatistics(operator);
+    }
+
+    /** Creates an enumerator that deletes this execution's files when it is
+     * closed. */
+    <E> Enumerator<E> wrap(Function0<Enumerator<E>> factory) {
+      final Enumerator<E> enumerator;
+      try {
+        enumerator = factory.apply();
+      } catch (RuntimeException | Error e) {
+        close();
+        throw e;
+      }
+      return new DelegatingEnumerator<E>(enumerator) {
+        @Override public void close() {
+          try {
+            super.close();
+          } finally {
+            Spill.this.close();
+          }
+        }
+      };
+    }
+
+    /** Returns whether it is worth spilling, given the row that took the
+     * operator over its budget. Later rows are checked one by one as they are
+     * written; see {@link SpillFile#add(Object)}. */
+    boolean canSpill(@Nullable Object row, int depth) {
+      return depth < MAX_DEPTH && RowFormat.canWrite(row);
+    }
+
+    /** Reads rows into a buffer until the input is exhausted, returning
+     * false, or until the buffer exceeds the memory budget, returning
+     * true. */
+    <E> boolean fill(List<E> buffer, Enumerator<E> enumerator, int depth) {
+      long bytes = 0;
+      boolean spillable = true;
+      while (enumerator.moveNext()) {
+        final E row = enumerator.current();
+        buffer.add(row);
+        if (spillable) {
+          bytes += estimateSize(row);
+          if (bytes > memoryBudget) {
+            if (canSpill(row, depth)) {
+              return true;
+            }
+            spillable = false;
+          }
+        }
+      }
+      return false;
+    }
+
+    /** Creates a file. */
+    <E> SpillFile<E> newFile() {
+      try {
+        final SpillFile<E> file = new SpillFile<>();
+        files.add(file);
+        return file;
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    /** Creates a file for each partition. */
+    <E> List<SpillFile<E>> newFiles() {
+      final List<SpillFile<E>> list = new ArrayList<>();
+      for (int i = 0; i < PARTITION_COUNT; i++) {
+        list.add(newFile());
+      }
+      return list;
+    }
+
+    /** Writes rows, first from a list then from an enumerator, to a new file
+     * for each partition. */
+    <E> List<SpillFile<E>> partition(List<E> rows, Enumerator<E> enumerator,
+        ToIntFunction<E> hasher, int depth) {
+      final List<SpillFile<E>> list = newFiles();
+      for (E row : rows) {
+        list.get(partitionOf(hasher.applyAsInt(row), depth)).add(row);
+      }
+      while (enumerator.moveNext()) {
+        final E row = enumerator.current();
+        list.get(partitionOf(hasher.applyAsInt(row), depth)).add(row);
+      }
+      finish(list, depth);
+      return list;
+    }
+
+    /** Closes files that have been written, and records statistics. */
+    void finish(List<? extends SpillFile<?>> list, int depth) {
+      for (SpillFile<?> file : list) {
+        statistics.add(depth, file.rowCount, file.finish());
+      }
+    }
+
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (SpillFile<?> file : files) {
+        file.delete();
+      }
+      files.clear();
+      if (statistics.fileCount() > 0) {
+        Hook.SPILL.run(statistics);
+      }
+    }
+  }
+
+  /** Temporary file holding rows that have been spilled.
+   *
+   * <p>A row that cannot be written, because it has a value that is not
+   * {@link Serializable}, is kept in memory, and is returned after the rows
+   * in the file.
+   *
+   * <p>The file is deleted by {@link #delete()}, or if writing fails; it is
+   * not registered for deletion when the JVM exits.
+   *
+   * @param <E> Row type */
+  private static class SpillFile<E> {
+    private final Path path;
+    private @Nullable ObjectOutputStream out;
+    /** Class loader of the rows; they may be instances of a class that was
+     * generated at run time. */
+    private @Nullable ClassLoader classLoader;
+    /** Rows that could not be written to the file. */
+    private final List<E> unwrittenRows = new ArrayList<>();
+    /** Number of rows, in the file and in memory. */
+    int rowCount;
+    private int fileRowCount;
+
+    SpillFile() throws IOException {
+      path = Files.createTempFile("calcite-spill", ".ser");
+      try {
+        out =
+            new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)));
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(path);
+        throw e;
+      }
+    }
+
+    void add(E row) {
+      ++rowCount;
+      if (!RowFormat.canWrite(row)) {
+        unwrittenRows.add(row);
+        return;
+      }
+      final ObjectOutputStream out = requireNonNull(this.out, "out");
+      if (classLoader == null && row != null) {
+        classLoader = row.getClass().getClassLoader();
+      }
+      try {
+        RowFormat.write(out, row);
+        if (++fileRowCount % RESET_INTERVAL == 0) {
+          out.reset();
+        }
+      } catch (IOException e) {
+        delete();
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    /** Closes the file for writing, and returns its size in bytes. */
+    long finish() {
+      try {
+        requireNonNull(out, "out").close();
+        out = null;
+        return Files.size(path);
+      } catch (IOException e) {
+        delete();
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    Enumerable<E> asEnumerable() {
+      final Enumerable<E> file =
+          new AbstractEnumerable<E>() {
+            @Override public Enumerator<E> enumerator() {
+              return new SpillFileEnumerator<>(path, fileRowCount,
+                  classLoader);
+            }
+          };
+      if (unwrittenRows.isEmpty()) {
+        return file;
+      }
+      return Linq4j.concat(
+          ImmutableList.of(file, Linq4j.asEnumerable(unwrittenRows)));
+    }
+
+    void delete() {
+      unwrittenRows.clear();
+      try {
+        final ObjectOutputStream out = this.out;
+        if (out != null) {
+          this.out = null;
+          out.close();
+        }
+      } catch (IOException e) {
+        // Ignore; we are about to delete the file
+      }
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        // Ignore; there is nothing more that we can do
+      }
+    }
+  }
+
+  /** Enumerator that reads the rows of a {@link SpillFile}.
+   *
+   * @param <E> Row type */
+  private static class SpillFileEnumerator<E> implements Enumerator<E> {
+    private final Path path;
+    private final int rowCount;
+    private final @Nullable ClassLoader classLoader;
+    private @Nullable ObjectInputStream in;
+    private int i;
+    private @Nullable E current;
+
+    SpillFileEnumerator(Path path, int rowCount,
+        @Nullable ClassLoader classLoader) {
+      this.path = path;
+      this.rowCount = rowCount;
+      this.classLoader = classLoader;
+    }
+
+    @Override public E current() {
+      return castNonNull(current);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public boolean moveNext() {
+      if (i >= rowCount) {
+        return false;
+      }
+      try {
+        ObjectInputStream in = this.in;
+        if (in == null) {
+          in =
+              new LoaderObjectInputStream(
+                  new BufferedInputStream(Files.newInputStream(path)),
+                  classLoader);
+          this.in = in;
+        }
+        current = (E) RowFormat.read(in);
+        ++i;
+        return true;
+      } catch (IOException | ClassNotFoundException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    @Override public void reset() {
+      close();
+      i = 0;
+      current = null;
+    }
+
+    @Override public void close() {
+      final ObjectInputStream in = this.in;
+      if (in != null) {
+        this.in = null;
+        try {
+          in.close();
+        } catch (IOException e) {
+          throw Util.toUnchecked(e);
+        }
+      }
+    }
+  }
+
+  /** Binary format of spilled rows.
+   *
+   * <p>A row that is an {@code Object[]} is written as its length followed by
+   * its values. Values of common types ({@link Integer}, {@link Long},
+   * {@link Double}, {@link Boolean}, and {@link String}s that are not too
+   * long) are written as a tag byte and the raw value; other values, and rows
+   * that are not arrays, use Java serialization. */
+  private static class RowFormat {
+    private static final byte NULL = 0;
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FALSE = 6;
+    private static final byte TRUE = 7;
+    private static final byte STRING = 8;
+
+    /** Longest string that is certain to fit in the 65,535 bytes allowed by
+     * {@link ObjectOutputStream#writeUTF(String)}. */
+    private static final int MAX_UTF_LENGTH = 65_535 / 3;
+
+    private RowFormat() {}
+
+    /** Returns whether a row can be written. Values of the common types
+     * always can; other values must be {@link Serializable}, although writing
+     * will still fail if they have fields that are not. */
+    static boolean canWrite(@Nullable Object row) {
+      if (row != null && row.getClass() == Object[].class) {
+        for (Object value : (@Nullable Object[]) row) {
+          if (value != null && !(value instanceof Serializable)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return row == null || row instanceof Serializable;
+    }
+
+    static void write(ObjectOutputStream out, @Nullable Object row)
+        throws IOException {
+      if (row != null && row.getClass() == Object[].class) {
+        final @Nullable Object[] values = (@Nullable Object[]) row;
+        out.writeByte(ARRAY);
+        out.writeInt(values.length);
+        for (Object value : values) {
+          writeValue(out, value);
+        }
+      } else {
+        writeValue(out, row);
+      }
+    }
+
+    private static void writeValue(ObjectOutputStream out,
+        @Nullable Object value) throws IOException {
+      if (value == null) {
+        out.writeByte(NULL);
+      } else if (value instanceof Integer) {
+        out.writeByte(INT);
+        out.writeInt((Integer) value);
+      } else if (value instanceof Long) {
+        out.writeByte(LONG);
+        out.writeLong((Long) value);
+      } else if (value instanceof Double) {
+        out.writeByte(DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (value instanceof Boolean) {
+        out.writeByte((Boolean) value ? TRUE : FALSE);
+      } else if (value instanceof String
+          && ((String) value).length() <= MAX_UTF_LENGTH) {
+        out.writeByte(STRING);
+        out.writeUTF((String) value);
+      } else {
+        out.writeByte(OBJECT);
+        out.writeObject(value);
+      }
+    }
+
+    static @Nullable Object read(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+      final byte tag = in.readByte();
+      if (tag == ARRAY) {
+        final @Nullable Object[] values = new Object[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = readValue(in, in.readByte());
+        }
+        return values;
+      }
+      return readValue(in, tag);
+    }
+
+    private static @Nullable Object readValue(ObjectInputStream in, byte tag)
+        throws IOException, ClassNotFoundException {
+      switch (tag) {
+      case NULL:
+        return null;
+      case INT:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case FALSE:
+        return false;
+      case TRUE:
+        return true;
+      case STRING:
+        return in.readUTF();
+      case OBJECT:
+        return in.readObject();
+      default:
+        throw new IllegalStateException("unknown tag " + tag);
+      }
+    }
+  }
+
+  /** Object input stream that looks for classes in a given class loader
+   * before the default one. */
+  private static class LoaderObjectInputStream extends ObjectInputStream {
+    private final @Nullable ClassLoader classLoader;
+
+    LoaderObjectInputStream(InputStream in, @Nullable ClassLoader classLoader)
+        throws IOException {
+      super(in);
+      this.classLoader = classLoader;
+    }
+
+    @Override protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      if (classLoader != null) {
+        try {
+          return Class.forName(desc.getName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+          // fall through, and try the default class loader
+        }
+      }
+      return super.resolveClass(desc);
+    }
+  }
+
+  /** Grace hash join.
+   *
+   * @param <TSource> Outer row type
+   * @param <TInner> Inner row type
+   * @param <TKey> Key type
+   * @param <TResult> Result row type */
+  private static class HashJoin<TSource, TInner, TKey, TResult> {
+    final Spill spill;
+    final Function1<TSource, TKey> outerKeySelector;
+    final Function1<TInner, TKey> innerKeySelector;
+    final Function2<TSource, TInner, TResult> resultSelector;
+    final @Nullable EqualityComparer<TKey> comparer;
+    final boolean generateNullsOnLeft;
+    final boolean generateNullsOnRight;
+    final @Nullable Predicate2<TSource, TInner> predicate;
+
+    HashJoin(Spill spill, Function1<TSource, TKey> outerKeySelector,
+        Function1<TInner, TKey> innerKeySelector,
+        Function2<TSource, TInner, TResult> resultSelector,
+        @Nullable EqualityComparer<TKey> comparer,
+        boolean generateNullsOnLeft, boolean generateNullsOnRight,
+        @Nullable Predicate2<TSource, TInner> predicate) {
+      this.spill = spill;
+      this.outerKeySelector = outerKeySelector;
+      this.innerKeySelector = innerKeySelector;
+      this.resultSelector = resultSelector;
+      this.comparer = comparer;
+      this.generateNullsOnLeft = generateNullsOnLeft;
+      this.generateNullsOnRight = generateNullsOnRight;
+      this.predicate = predicate;
+    }
+
+    Enumerable<TResult> join(Enumerable<TSource> outer,
+        Enumerable<TInner> inner, int depth) {
+      final List<TInner> buffer = new ArrayList<>();
+      final List<SpillFile<TInner>> innerFiles;
+      try (Enumerator<TInner> inners = inner.enumerator()) {
+        if (!spill.fill(buffer, inners, depth)) {
+          return EnumerableDefaults.hashJoin(outer, Linq4j.asEnumerable(buffer),
+              outerKeySelector, innerKeySelector, resultSelector, comparer,
+              generateNullsOnLeft, generateNullsOnRight, predicate);
+        }
+        innerFiles =
+            spill.partition(buffer, inners,
+                row -> hash(comparer, innerKeySelector.apply(row)), depth);
+      }
+      buffer.clear();
+      final List<SpillFile<TSource>> outerFiles;
+      try (Enumerator<TSource> outers = outer.enumerator()) {
+        // A null outer row has no key; it cannot match, but may need to be
+        // emitted, so send it to any partition.
+        outerFiles =
+            spill.partition(ImmutableList.of(), outers,
+                row -> row == null
+                    ? 0
+                    : hash(comparer, outerKeySelector.apply(row)),
+                depth);
+      }
+      final List<Enumerable<TResult>> results = new ArrayList<>();
+      for (int i = 0; i < PARTITION_COUNT; i++) {
+        final SpillFile<TSource> outerFile = outerFiles.get(i);
+        final SpillFile<TInner> innerFile = innerFiles.get(i);
+        if (outerFile.rowCount == 0
+            && (innerFile.rowCount == 0 || !generateNullsOnLeft)
+            || innerFile.rowCount == 0 && !generateNullsOnRight) {
+          // This partition produces no rows
+          continue;
+        }
+        results.add(
+            new AbstractEnumerable<TResult>() {
+              @Override public Enumerator<TResult> enumerator() {
+                return join(outerFile.asEnumerable(),
+                    innerFile.asEnumerable(), depth + 1).enumerator();
+              }
+            });
+      }
+      return Linq4j.concat(results);
+    }
+  }
+
+  /** Hybrid hash aggregation.
+   *
+   * @param <TSource> Input row type
+   * @param <TKey> Key type
+   * @param <TAccumulate> Accumulator type
+   * @param <TResult> Result row type */
+  private static class HashAggregate<TSource, TKey, TAccumulate, TResult> {
+    final Spill spill;
+    final Function1<TSource, TKey> keySelector;
+    final Function0<TAccumulate> accumulatorInitializer;
+    final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder;
+    final Function2<TKey, TAccumulate, TResult> resultSelector;
+    final @Nullable EqualityComparer<TKey> comparer;
+
+    HashAggregate(Spill spill, Function1<TSource, TKey> keySelector,
+        Function0<TAccumulate> accumulatorInitializer,
+        Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+        Function2<TKey, TAccumulate, TResult> resultSelector,
+        @Nullable EqualityComparer<TKey> comparer) {
+      this.spill = spill;
+      this.keySelector = keySelector;
+      this.accumulatorInitializer = accumulatorInitializer;
+      this.accumulatorAdder = accumulatorAdder;
+      this.resultSelector = resultSelector;
+      this.comparer = comparer;
+    }
+
+    Enumerable<TResult> aggregate(Enumerable<TSource> source, int depth) {
+      // If there is a comparer, the map is keyed by ComparerKey.
+      final Map<@Nullable Object, TAccumulate> map = new HashMap<>();
+      long bytes = 0;
+      @Nullable List<SpillFile<TSource>> files = null;
+      try (Enumerator<TSource> os = source.enumerator()) {
+        while (os.moveNext()) {
+          final TSource o = os.current();
+          final TKey key = keySelector.apply(o);
+          final Object mapKey =
+              comparer == null ? key : new ComparerKey<>(comparer, key);
+          TAccumulate accumulator = map.get(mapKey);
+          if (accumulator == null) {
+            if (files != null) {
+              // Memory is full, and this row does not belong to a group
+              // that is already in memory.
+              files.get(partitionOf(hash(comparer, key), depth)).add(o);
+              continue;
+            }
+            accumulator = accumulatorInitializer.apply();
+            accumulator = accumulatorAdder.apply(accumulator, o);
+            map.put(mapKey, accumulator);
+            bytes += estimateSize(key) + GROUP_OVERHEAD;
+            if (bytes > spill.memoryBudget && spill.canSpill(o, depth)) {
+              files = spill.newFiles();
+            }
+          } else {
+            TAccumulate accumulator0 = accumulator;
+            accumulator = accumulatorAdder.apply(accumulator, o);
+            if (accumulator != accumulator0) {
+              map.put(mapKey, accumulator);
+            }
+          }
+        }
+      }
+      final List<TResult> results = new ArrayList<>(map.size());
+      for (Map.Entry<@Nullable Object, TAccumulate> e : map.entrySet()) {
+        results.add(resultSelector.apply(unwrap(e.getKey()), e.getValue()));
+      }
+      map.clear();
+      if (files == null) {
+        return Linq4j.asEnumerable(results);
+      }
+      spill.finish(files, depth);
+      final List<Enumerable<TResult>> list = new ArrayList<>();
+      list.add(Linq4j.asEnumerable(results));
+      for (SpillFile<TSource> file : files) {
+        if (file.rowCount > 0) {
+          list.add(
+              new AbstractEnumerable<TResult>() {
+                @Override public Enumerator<TResult> enumerator() {
+                  return aggregate(file.asEnumerable(), depth + 1)
+                      .enumerator();
+                }
+              });
+        }
+      }
+      return Linq4j.concat(list);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TKey unwrap(@Nullable Object mapKey) {
+      return comparer == null
+          ? (TKey) mapKey
+          : ((ComparerKey<TKey>) castNonNull(mapKey)).key;
+    }
+  }
+
+  /** External merge sort.
+   *
+   * @param <TSource> Row type
+   * @param <TKey> Sort key type */
+  private static class ExternalSort<TSource, TKey> {
+    final Spill spill;
+    final Function1<TSource, TKey> keySelector;
+    final Comparator<TKey> comparator;
+    final int offset;
+    final int fetch;
+    /** Number of leading rows of a sorted run that could appear in the
+     * output; later rows can be discarded. */
+    final long limit;
+
+    ExternalSort(Spill spill, Function1<TSource, TKey> keySelector,
+        Comparator<TKey> comparator, int offset, int fetch) {
+      this.spill = spill;
+      this.keySelector = keySelector;
+      this.comparator = comparator;
+      this.offset = offset;
+      this.fetch = fetch;
+      this.limit = offset + (long) fetch;
+    }
+
+    Enumerable<TSource> sort(Enumerable<TSource> source) {
+      if (fetch == 0) {
+        return Linq4j.emptyEnumerable();
+      }
+      List<SpillFile<TSource>> runs = new ArrayList<>();
+      final List<SortEntry<TSource, TKey>> buffer = new ArrayList<>();
+      long bytes = 0;
+      boolean spillable = true;
+      try (Enumerator<TSource> os = source.enumerator()) {
+        while (os.moveNext()) {
+          final TSource o = os.current();
+          buffer.add(new SortEntry<>(keySelector.apply(o), o));
+          bytes += estimateSize(o) + SORT_ENTRY_OVERHEAD;
+          if (spillable && bytes > spill.memoryBudget) {
+            sortRun(buffer);
+            bytes = 0;
+            for (SortEntry<TSource, TKey> entry : buffer) {
+              bytes += estimateSize(entry.row) + SORT_ENTRY_OVERHEAD;
+            }
+            // If there is a small limit, sorting may have freed enough
+            // memory to carry on; otherwise write a run.
+            if (bytes > spill.memoryBudget / 2) {
+              if (canSpill(buffer)) {
+                final SpillFile<TSource> run = spill.newFile();
+                for (SortEntry<TSource, TKey> entry : buffer) {
+                  run.add(entry.row);
+                }
+                spill.finish(ImmutableList.of(run), 0);
+                runs.add(run);
+                buffer.clear();
+                bytes = 0;
+              } else {
+                spillable = false;
+              }
+            }
+          }
+        }
+      }
+      sortRun(buffer);
+      final List<TSource> rows = new ArrayList<>(buffer.size());
+      for (SortEntry<TSource, TKey> entry : buffer) {
+        rows.add(entry.row);
+      }
+      buffer.clear();
+      if (runs.isEmpty()) {
+        return slice(Linq4j.asEnumerable(rows));
+      }
+
+      // Reduce the number of runs, so that the final merge does not open too
+      // many files at once. Merge adjacent runs, so that the sort is stable.
+      int depth = 1;
+      while (runs.size() >= MERGE_FAN_IN) {
+        final List<SpillFile<TSource>> mergedRuns = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i += MERGE_FAN_IN) {
+          final List<SpillFile<TSource>> group =
+              runs.subList(i, Math.min(i + MERGE_FAN_IN, runs.size()));
+          if (group.size() == 1) {
+            mergedRuns.add(group.get(0));
+            continue;
+          }
+          final List<Enumerable<TSource>> inputs = new ArrayList<>();
+          for (SpillFile<TSource> run : group) {
+            inputs.add(run.asEnumerable());
+          }
+          final SpillFile<TSource> mergedRun = spill.newFile();
+          try (Enumerator<TSource> e = merge(inputs)) {
+            while (mergedRun.rowCount < limit && e.moveNext()) {
+              mergedRun.add(e.current());
+            }
+          }
+          spill.finish(ImmutableList.of(mergedRun), depth);
+          for (SpillFile<TSource> run : group) {
+            run.delete();
+          }
+          mergedRuns.add(mergedRun);
+        }
+        runs = mergedRuns;
+        ++depth;
+      }
+
+      // Rows still in memory are the last run.
+      final List<Enumerable<TSource>> inputs = new ArrayList<>();
+      for (SpillFile<TSource> run : runs) {
+        inputs.add(run.asEnumerable());
+      }
+      inputs.add(Linq4j.asEnumerable(rows));
+      return slice(
+          new AbstractEnumerable<TSource>() {
+            @Override public Enumerator<TSource> enumerator() {
+              return merge(inputs);
+            }
+          });
+    }
+
+    /** Returns whether a run can be written to a file. Unlike a partition,
+     * a run cannot keep some rows in memory, because they would be returned
+     * out of order; so every row must be writable. */
+    private boolean canSpill(List<SortEntry<TSource, TKey>> buffer) {
+      for (SortEntry<TSource, TKey> entry : buffer) {
+        if (!RowFormat.canWrite(entry.row)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Sorts a list of entries, stably, and discards those beyond the
+     * limit. */
+    private void sortRun(List<SortEntry<TSource, TKey>> buffer) {
+      buffer.sort((e0, e1) -> comparator.compare(e0.key, e1.key));
+      if (buffer.size() > limit) {
+        buffer.subList((int) limit, buffer.size()).clear();
+      }
+    }
+
+    private Enumerator<TSource> merge(List<Enumerable<TSource>> inputs) {
+      return new MergeEnumerator<>(inputs, keySelector, comparator);
+    }
+
+    private Enumerable<TSource> slice(Enumerable<TSource> enumerable) {
+      final Enumerable<TSource> skipped =
+          offset == 0 ? enumerable : EnumerableDefaults.skip(enumerable, offset);
+      return fetch == Integer.MAX_VALUE
+          ? skipped
+          : EnumerableDefaults.take(skipped, fetch);
+    }
+  }
+
+  /** Row and its sort key.
+   *
+   * @param <TSource> Row type
+   * @param <TKey> Sort key type */
+  private static class SortEntry<TSource, TKey> {
+    final TKey key;
+    final TSource row;
+
+    SortEntry(TKey key, TSource row) {
+      this.key = key;
+      this.row = row;
+    }
+  }
+
+  /** Enumerator that merges sorted inputs, using a tree of losers.
+   *
+   * <p>The tree has a leaf for each input, and each internal node holds the
+   * input that lost the comparison at that node; the overall winner is held
+   * separately. After the winner's input advances, only the comparisons on
+   * the path from its leaf to the root are replayed, so each row costs
+   * log<sub>2</sub>(k) comparisons for k inputs.
+   *
+   * <p>If two rows have equal keys, the row from the earlier input wins; so
+   * the merge is stable if earlier inputs hold earlier rows.
+   *
+   * <p>{@link #reset()} closes the inputs and opens them again, so a spilled
+   * run is read again from the start of its file.
+   *
+   * @param <E> Row type
+   * @param <K> Sort key type */
+  private static class MergeEnumerator<E, K> implements Enumerator<E> {
+    private final List<Enumerable<E>> sources;
+    private final List<Enumerator<E>> inputs = new ArrayList<>();
+    private final Function1<E, K> keySelector;
+    private final Comparator<K> comparator;
+    private final @Nullable Object[] keys;
+    private final boolean[] exhausted;
+    /** Element 0 is the winner; elements 1 to k - 1 are the internal nodes of
+     * the tree, each holding the input that lost there. */
+    private final int[] tree;
+    private boolean started;
+
+    MergeEnumerator(List<Enumerable<E>> sources, Function1<E, K> keySelector,
+        Comparator<K> comparator) {
+      this.sources = ImmutableList.copyOf(sources);
+      this.keySelector = keySelector;
+      this.comparator = comparator;
+      this.keys = new Object[sources.size()];
+      this.exhausted = new boolean[sources.size()];
+      this.tree = new int[Math.max(sources.size(), 1)];
+      open();
+    }
+
+    private void open() {
+      try {
+        for (Enumerable<E> source : sources) {
+          inputs.add(source.enumerator());
+        }
+      } catch (RuntimeException | Error e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public E current() {
+      return inputs.get(tree[0]).current();
+    }
+
+    @Override public boolean moveNext() {
+      final int k = inputs.size();
+      if (k == 0) {
+        return false;
+      }
+      if (!started) {
+        started = true;
+        for (int i = 0; i < k; i++) {
+          advance(i);
+        }
+        // Play the initial tournament. Node n has children 2n and 2n + 1;
+        // leaf i is node k + i.
+        final int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+          winners[k + i] = i;
+        }
+        for (int n = k - 1; n >= 1; n--) {
+          final int a = winners[2 * n];
+          final int b = winners[2 * n + 1];
+          if (beats(b, a)) {
+            winners[n] = b;
+            tree[n] = a;
+          } else {
+            winners[n] = a;
+            tree[n] = b;
+          }
+        }
+        tree[0] = k == 1 ? 0 : winners[1];
+      } else {
+        int winner = tree[0];
+        advance(winner);
+        for (int n = (winner + k) / 2; n >= 1; n /= 2) {
+          if (beats(tree[n], winner)) {
+            final int loser = winner;
+            winner = tree[n];
+            tree[n] = loser;
+          }
+        }
+        tree[0] = winner;
+      }
+      return !exhausted[tree[0]];
+    }
+
+    private void advance(int i) {
+      if (inputs.get(i).moveNext()) {
+        keys[i] = keySelector.apply(inputs.get(i).current());
+      } else {
+        exhausted[i] = true;
+        keys[i] = null;
+      }
+    }
+
+    /** Returns whether input {@code i} beats input {@code j}; that is,
+     * whether its current row should be emitted first. */
+    @SuppressWarnings("unchecked")
+    private boolean beats(int i, int j) {
+      if (exhausted[i] || exhausted[j]) {
+        return !exhausted[i];
+      }
+      final int c = comparator.compare((K) keys[i], (K) keys[j]);
+      return c < 0 || c == 0 && i < j;
+    }
+
+    @Override public void reset() {
+      close();
+      Arrays.fill(keys, null);
+      Arrays.fill(exhausted, false);
+      Arrays.fill(tree, 0);
+      started = false;
+      open();
+    }
+
+    @Override public void close() {
+      for (Enumerator<E> input : inputs) {
+        input.close();
+      }
+      inputs.clear();
+    }
+  }
+
+  /** Key whose equality is determined by an {@link EqualityComparer}.
+   *
+   * @param <TKey> Key type */
+  static class ComparerKey<TKey> {
+    final EqualityComparer<TKey> comparer;
+    final TKey key;
+
+    ComparerKey(EqualityComparer<TKey> comparer, TKey key) {
+      this.comparer = comparer;
+      this.key = key;
+    }
+
+    @Override public int hashCode() {
+      return hash(comparer, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ComparerKey)) {
+        return false;
+      }
+      final TKey otherKey = ((ComparerKey<TKey>) obj).key;
+      if (key == null || otherKey == null) {
+        return Objects.equals(key, otherKey);
+      }
+      return comparer.equal(key, otherKey);
+    }
+  }
+}
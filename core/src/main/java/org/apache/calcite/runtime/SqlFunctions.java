@@ -299,7 +299,7 @@ public static String regexpReplace(String s, String regex, String replacement,
     return Unsafe.regexpReplace(s, pattern, replacement, pos, occurrence);
   }
 
-  private static int makeRegexpFlags(@Nullable String stringFlags) {
+  static int makeRegexpFlags(@Nullable String stringFlags) {
     int flags = 0;
     if (stringFlags != null) {
       for (int i = 0; i < stringFlags.length(); ++i) {
@@ -866,14 +866,12 @@ public static ByteString overlay(ByteString s, ByteString r, int start,
 
   /** SQL {@code LIKE} function. */
   public static boolean like(String s, String pattern) {
-    final String regex = Like.sqlToRegexLike(pattern, null);
-    return Pattern.matches(regex, s);
+    return Like.likeMatcher(pattern, null).test(s);
   }
 
   /** SQL {@code LIKE} function with escape. */
   public static boolean like(String s, String pattern, String escape) {
-    final String regex = Like.sqlToRegexLike(pattern, escape);
-    return Pattern.matches(regex, s);
+    return Like.likeMatcher(pattern, escape).test(s);
   }
 
   /** SQL {@code ILIKE} function. */
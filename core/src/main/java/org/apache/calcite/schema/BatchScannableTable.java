@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.schema;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.runtime.ColumnarBatch;
+
+/**
+ * Table that can be scanned a batch of rows at a time, each batch stored
+ * column-wise.
+ *
+ * <p>A table that stores its data in columns can implement this interface
+ * to hand out its data without creating an object array for each row.
+ *
+ * <p>If {@link org.apache.calcite.config.CalciteConnectionProperty#BATCH_SCAN}
+ * is true, the planner reads such a table using
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableBatchScan}, which
+ * evaluates filters on the column vectors of each batch.
+ *
+ * @see ColumnarBatch
+ * @see ScannableTable
+ */
+public interface BatchScannableTable extends ScannableTable {
+  /** Returns an enumerator over the rows in this Table, in batches of at
+   * most {@code batchSize} rows.
+   *
+   * <p>The enumerator may return the same {@link ColumnarBatch} object,
+   * re-filled, on each call to
+   * {@link org.apache.calcite.linq4j.Enumerator#moveNext()}. */
+  Enumerable<ColumnarBatch> scanBatches(DataContext root, int batchSize);
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.schema;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Statistics about the values of a column of a {@link Table}.
+ *
+ * <p>Each of the properties may be null, meaning "not known".
+ *
+ * @see Statistic#getColumnStatistic(int)
+ */
+public class ColumnStatistic {
+  /** Statistic that knows nothing about a column. */
+  public static final ColumnStatistic UNKNOWN =
+      new ColumnStatistic(null, null, null);
+
+  /** Approximate number of distinct non-null values; for example, as
+   * estimated by a HyperLogLog sketch. */
+  public final @Nullable Double distinctCount;
+
+  /** Fraction of rows, between 0 and 1, in which the column is null. */
+  public final @Nullable Double nullFraction;
+
+  /** Equi-depth histogram of the non-null values. */
+  public final @Nullable Histogram histogram;
+
+  /** Creates a ColumnStatistic.
+   *
+   * @param distinctCount Number of distinct non-null values, or null
+   * @param nullFraction Fraction of rows that are null, or null
+   * @param histogram Histogram of non-null values, or null
+   */
+  public ColumnStatistic(@Nullable Double distinctCount,
+      @Nullable Double nullFraction, @Nullable Histogram histogram) {
+    checkArgument(distinctCount == null || distinctCount >= 0D,
+        "distinctCount must not be negative");
+    checkArgument(nullFraction == null
+            || nullFraction >= 0D && nullFraction <= 1D,
+        "nullFraction must be between 0 and 1");
+    this.distinctCount = distinctCount;
+    this.nullFraction = nullFraction;
+    this.histogram = histogram;
+  }
+
+  /** Creates a ColumnStatistic. */
+  public static ColumnStatistic of(@Nullable Double distinctCount,
+      @Nullable Double nullFraction, @Nullable Histogram histogram) {
+    return new ColumnStatistic(distinctCount, nullFraction, histogram);
+  }
+
+  @Override public String toString() {
+    return "{distinctCount: " + distinctCount
+        + ", nullFraction: " + nullFraction
+        + ", histogram: " + histogram + "}";
+  }
+
+  @Override public int hashCode() {
+    return Objects.hash(distinctCount, nullFraction, histogram);
+  }
+
+  @Override public boolean equals(@Nullable Object obj) {
+    return obj == this
+        || obj instanceof ColumnStatistic
+        && Objects.equals(distinctCount, ((ColumnStatistic) obj).distinctCount)
+        && Objects.equals(nullFraction, ((ColumnStatistic) obj).nullFraction)
+        && Objects.equals(histogram, ((ColumnStatistic) obj).histogram);
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.schema;
+
+import org.apache.calcite.util.NlsString;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Equi-depth histogram of the non-null values of a column.
+ *
+ * <p>The values are divided into buckets that each contain approximately the
+ * same number of rows. Bucket {@code i} contains the values between
+ * {@code bounds[i]} and {@code bounds[i + 1]}; a value that occurs in many
+ * rows may be the bound of several consecutive buckets, which makes it
+ * possible to estimate the frequency of common values.
+ *
+ * <p>Values are compared numerically if they are both numbers, and otherwise
+ * using {@link Comparable#compareTo} if they have the same class. Within a
+ * bucket, the position of a numeric value is estimated by linear
+ * interpolation, and of any other value is assumed to be the middle of the
+ * bucket.
+ *
+ * @see ColumnStatistic
+ */
+public class Histogram {
+  private final ImmutableList<Comparable> bounds;
+
+  private Histogram(ImmutableList<Comparable> bounds) {
+    this.bounds = bounds;
+  }
+
+  /** Creates a histogram from its bucket bounds.
+   *
+   * @param bounds Bounds of the buckets, ascending; there is one more bound
+   *               than buckets
+   */
+  public static Histogram of(List<? extends Comparable> bounds) {
+    checkArgument(bounds.size() >= 2,
+        "histogram must have at least one bucket");
+    final ImmutableList.Builder<Comparable> b = ImmutableList.builder();
+    for (Comparable bound : bounds) {
+      b.add(normalize(bound));
+    }
+    final ImmutableList<Comparable> list = b.build();
+    for (int i = 1; i < list.size(); i++) {
+      final Integer c = compare(list.get(i - 1), list.get(i));
+      checkArgument(c != null && c <= 0,
+          "bounds must be ascending and comparable: %s", list);
+    }
+    return new Histogram(list);
+  }
+
+  /** Creates a histogram from a list of values.
+   *
+   * @param sortedValues Non-null values, ascending; for example, all values of
+   *                     a column, or a random sample of them
+   * @param bucketCount Maximum number of buckets
+   * @return Histogram, or null if there are no values
+   */
+  public static @Nullable Histogram ofSorted(
+      List<? extends Comparable> sortedValues, int bucketCount) {
+    checkArgument(bucketCount > 0, "bucketCount must be positive");
+    final int n = sortedValues.size();
+    if (n == 0) {
+      return null;
+    }
+    final int buckets = Math.max(1, Math.min(bucketCount, n - 1));
+    final ImmutableList.Builder<Comparable> b = ImmutableList.builder();
+    for (int i = 0; i <= buckets; i++) {
+      b.add(sortedValues.get(boundRank(i, buckets, n)));
+    }
+    return of(b.build());
+  }
+
+  /** Returns the rank (0-based position in the sorted values) of the
+   * {@code i}th bound of a histogram with {@code bucketCount} buckets
+   * built from {@code n} values. */
+  public static int boundRank(int i, int bucketCount, long n) {
+    return (int) (i * (n - 1) / bucketCount);
+  }
+
+  /** Returns the number of buckets. */
+  public int bucketCount() {
+    return bounds.size() - 1;
+  }
+
+  /** Returns the bounds of the buckets, ascending. */
+  public List<Comparable> bounds() {
+    return bounds;
+  }
+
+  /** Returns the smallest value. */
+  public Comparable min() {
+    return bounds.get(0);
+  }
+
+  /** Returns the largest value. */
+  public Comparable max() {
+    return bounds.get(bounds.size() - 1);
+  }
+
+  /** Returns the estimated fraction of values that are less than (or, if
+   * {@code inclusive}, less than or equal to) a given value, or null if the
+   * value cannot be compared to the values in this histogram. */
+  public @Nullable Double fractionBelow(Comparable value, boolean inclusive) {
+    final Comparable v = normalize(value);
+    final int n = bucketCount();
+    final Integer cMin = compare(v, bounds.get(0));
+    final Integer cMax = compare(v, bounds.get(n));
+    if (cMin == null || cMax == null) {
+      return null;
+    }
+    if (cMin < 0 || cMin == 0 && !inclusive) {
+      return 0D;
+    }
+    if (cMax > 0 || cMax == 0 && inclusive) {
+      return 1D;
+    }
+    // Find the first bucket whose upper bound is greater than or equal to
+    // the value (or, if inclusive, greater than the value).
+    int i = 0;
+    for (;;) {
+      final int c = requireComparable(compare(bounds.get(i + 1), v));
+      if (inclusive ? c > 0 : c >= 0) {
+        break;
+      }
+      ++i;
+    }
+    return (i + interpolate(bounds.get(i), bounds.get(i + 1), v)) / n;
+  }
+
+  /** Returns the estimated fraction of values that are equal to a given
+   * value, or null if the value cannot be compared to the values in this
+   * histogram.
+   *
+   * <p>The result is non-zero only if the value is so common that it is the
+   * bound of more than one bucket; for other values, the caller should use
+   * the number of distinct values. */
+  public @Nullable Double fractionEqual(Comparable value) {
+    final Double below = fractionBelow(value, false);
+    final Double belowOrEqual = fractionBelow(value, true);
+    if (below == null || belowOrEqual == null) {
+      return null;
+    }
+    return belowOrEqual - below;
+  }
+
+  /** Returns the estimated fraction of values in a range, or null if the
+   * bounds cannot be compared to the values in this histogram.
+   *
+   * @param lower Lower bound, or null if unbounded
+   * @param lowerInclusive Whether the lower bound is inclusive
+   * @param upper Upper bound, or null if unbounded
+   * @param upperInclusive Whether the upper bound is inclusive
+   */
+  public @Nullable Double fractionBetween(@Nullable Comparable lower,
+      boolean lowerInclusive, @Nullable Comparable upper,
+      boolean upperInclusive) {
+    final Double fractionLower =
+        lower == null ? Double.valueOf(0D) : fractionBelow(lower, !lowerInclusive);
+    final Double fractionUpper =
+        upper == null ? Double.valueOf(1D) : fractionBelow(upper, upperInclusive);
+    if (fractionLower == null || fractionUpper == null) {
+      return null;
+    }
+    return Math.max(0D, fractionUpper - fractionLower);
+  }
+
+  @Override public String toString() {
+    return "Histogram" + bounds;
+  }
+
+  @Override public int hashCode() {
+    return bounds.hashCode();
+  }
+
+  @Override public boolean equals(@Nullable Object obj) {
+    return obj == this
+        || obj instanceof Histogram
+        && bounds.equals(((Histogram) obj).bounds);
+  }
+
+  /** Returns the estimated position of a value within a bucket, between 0
+   * and 1. */
+  private static double interpolate(Comparable lower, Comparable upper,
+      Comparable v) {
+    if (lower instanceof Number
+        && upper instanceof Number
+        && v instanceof Number) {
+      final double lo = ((Number) lower).doubleValue();
+      final double hi = ((Number) upper).doubleValue();
+      if (hi <= lo) {
+        return 1D;
+      }
+      final double x = (((Number) v).doubleValue() - lo) / (hi - lo);
+      return Math.max(0D, Math.min(1D, x));
+    }
+    if (requireComparable(compare(v, lower)) <= 0) {
+      return 0D;
+    }
+    if (requireComparable(compare(v, upper)) >= 0) {
+      return 1D;
+    }
+    return 0.5D;
+  }
+
+  private static int requireComparable(@Nullable Integer c) {
+    if (c == null) {
+      throw new AssertionError("values are not comparable");
+    }
+    return c;
+  }
+
+  /** Compares two values, returning null if they are not comparable. */
+  @SuppressWarnings("unchecked")
+  private static @Nullable Integer compare(Comparable v0, Comparable v1) {
+    if (v0 instanceof Number && v1 instanceof Number) {
+      return Double.compare(((Number) v0).doubleValue(),
+          ((Number) v1).doubleValue());
+    }
+    if (v0.getClass() == v1.getClass()) {
+      return v0.compareTo(v1);
+    }
+    return null;
+  }
+
+  /** Converts a value to a form that can be compared with the bounds. */
+  private static Comparable normalize(Comparable value) {
+    if (value instanceof NlsString) {
+      return ((NlsString) value).getValue();
+    }
+    if (value instanceof Character) {
+      return value.toString();
+    }
+    return value;
+  }
+}
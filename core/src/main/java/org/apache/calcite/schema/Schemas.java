@@ -26,7 +26,9 @@
 import org.apache.calcite.jdbc.CalciteConnection;
 import org.apache.calcite.jdbc.CalcitePrepare;
 import org.apache.calcite.jdbc.CalciteSchema;
+import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.QueryProvider;
 import org.apache.calcite.linq4j.Queryable;
 import org.apache.calcite.linq4j.tree.Expression;
@@ -36,6 +38,10 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelProtoDataType;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.runtime.BatchPredicate;
+import org.apache.calcite.runtime.ColumnarBatch;
+import org.apache.calcite.runtime.ParallelEnumerables;
 import org.apache.calcite.sql.type.SqlTypeUtil;
 import org.apache.calcite.tools.RelRunner;
 import org.apache.calcite.util.BuiltInMethod;
@@ -279,6 +285,44 @@ public static <E> Queryable<E> queryable(DataContext root, SchemaPlus schema,
         identity(table.getRowType(typeFactory).getFieldCount()));
   }
 
+  /** Returns an {@link org.apache.calcite.linq4j.Enumerable} over the rows of
+   * a given table, not applying any filters and projecting all columns,
+   * reading up to {@code parallelism} splits of the table concurrently. */
+  public static Enumerable<@Nullable Object[]> enumerable(
+      final SplittableTable table, final DataContext root,
+      final int parallelism) {
+    return new AbstractEnumerable<@Nullable Object[]>() {
+      @Override public Enumerator<@Nullable Object[]> enumerator() {
+        return enumerable(table, root, new ArrayList<>(), null, parallelism)
+            .enumerator();
+      }
+    };
+  }
+
+  /** Returns an {@link org.apache.calcite.linq4j.Enumerable} over the rows of
+   * a given table, reading up to {@code parallelism} splits of the table
+   * concurrently. Filters and projects are as for
+   * {@link SplittableTable#splits}. */
+  public static Enumerable<@Nullable Object[]> enumerable(
+      SplittableTable table, DataContext root, List<RexNode> filters,
+      int @Nullable [] projects, int parallelism) {
+    final List<SplittableTable.Split> splits =
+        table.splits(root, filters, projects, parallelism);
+    return ParallelEnumerables.concat(
+        Util.transform(splits, SplittableTable.Split::scan), parallelism);
+  }
+
+  /** Returns an {@link org.apache.calcite.linq4j.Enumerable} over the rows of
+   * a given table for which all of the given predicates are true, reading the
+   * table a batch at a time and evaluating the predicates on column vectors,
+   * representing each row as an object array. */
+  public static Enumerable<@Nullable Object[]> enumerable(
+      final BatchScannableTable table, final DataContext root,
+      final List<BatchPredicate> predicates) {
+    return ColumnarBatch.toRows(
+        table.scanBatches(root, ColumnarBatch.DEFAULT_CAPACITY), predicates);
+  }
+
   private static int[] identity(int count) {
     final int[] integers = new int[count];
     for (int i = 0; i < integers.length; i++) {
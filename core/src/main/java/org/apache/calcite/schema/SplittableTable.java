@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.schema;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.rex.RexNode;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+/**
+ * Table whose rows can be read in several parts, called splits, that can be
+ * read concurrently.
+ *
+ * <p>A table that implements this interface should also implement
+ * {@link ScannableTable}, {@link FilterableTable} or
+ * {@link ProjectableFilterableTable}. Calcite reads the splits only if the
+ * connection allows an operator to use more than one thread; see
+ * {@link org.apache.calcite.config.CalciteConnectionProperty#PARALLELISM}.
+ *
+ * @see ScannableTable
+ * @see ProjectableFilterableTable
+ */
+public interface SplittableTable extends Table {
+  /** Returns the splits of this Table.
+   *
+   * <p>Reading the splits one after another must return the same rows, in
+   * the same order, as a scan of the table with the same filters and
+   * projects.
+   *
+   * <p>Filters and projects have the same meaning as in
+   * {@link ProjectableFilterableTable#scan(DataContext, List, int[])}.
+   * Calcite passes filters only if the table is also a
+   * {@link FilterableTable} or {@link ProjectableFilterableTable}, and
+   * projects only if it is also a {@link ProjectableFilterableTable}.
+   *
+   * @param root Execution context
+   * @param filters Mutable list of filters. The method should keep in the
+   *                list any filters that it cannot apply.
+   * @param projects List of projects. Each is the 0-based ordinal of the column
+   *                 to project. Null means "project all columns".
+   * @param maxSplitCount Maximum number of splits; at least 1. A table may
+   *                      return fewer, for example if it is small.
+   * @return List of splits; not empty
+   */
+  List<Split> splits(DataContext root, List<RexNode> filters,
+      int @Nullable [] projects, int maxSplitCount);
+
+  /** Part of a {@link SplittableTable}. */
+  interface Split {
+    /** Returns an enumerable over the rows in this split. Each row is
+     * represented as an array of its column values. */
+    Enumerable<@Nullable Object[]> scan();
+  }
+}
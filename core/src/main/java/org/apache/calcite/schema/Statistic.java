@@ -65,4 +65,13 @@ default boolean isKey(ImmutableBitSet columns) {
   default @Nullable RelDistribution getDistribution()  {
     return null;
   }
+
+  /** Returns statistics about the values of a column, such as the number
+   * of distinct values, the fraction of nulls and a histogram.
+   *
+   * @param column Ordinal of the column
+   */
+  default @Nullable ColumnStatistic getColumnStatistic(int column) {
+    return null;
+  }
 }
@@ -17,14 +17,17 @@
 package org.apache.calcite.schema;
 
 import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelReferentialConstraint;
 import org.apache.calcite.util.ImmutableBitSet;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility functions regarding {@link Statistic}.
@@ -98,4 +101,50 @@ public static Statistic of(final @Nullable Double rowCount,
       }
     };
   }
+
+  /** Returns a statistic that is the same as a given statistic but also has
+   * statistics about the values of some columns.
+   *
+   * @param statistic Statistic about the table
+   * @param columnStatistics Statistics about columns, keyed by column ordinal;
+   *                         supersede the statistics of {@code statistic}
+   */
+  public static Statistic withColumnStatistics(final Statistic statistic,
+      final Map<Integer, ColumnStatistic> columnStatistics) {
+    final Map<Integer, ColumnStatistic> columnStatisticsCopy =
+        ImmutableMap.copyOf(columnStatistics);
+    return new Statistic() {
+      @Override public @Nullable Double getRowCount() {
+        return statistic.getRowCount();
+      }
+
+      @Override public boolean isKey(ImmutableBitSet columns) {
+        return statistic.isKey(columns);
+      }
+
+      @Override public @Nullable List<ImmutableBitSet> getKeys() {
+        return statistic.getKeys();
+      }
+
+      @Override public @Nullable List<RelReferentialConstraint> getReferentialConstraints() {
+        return statistic.getReferentialConstraints();
+      }
+
+      @Override public @Nullable List<RelCollation> getCollations() {
+        return statistic.getCollations();
+      }
+
+      @Override public @Nullable RelDistribution getDistribution() {
+        return statistic.getDistribution();
+      }
+
+      @Override public @Nullable ColumnStatistic getColumnStatistic(int column) {
+        final ColumnStatistic columnStatistic =
+            columnStatisticsCopy.get(column);
+        return columnStatistic != null
+            ? columnStatistic
+            : statistic.getColumnStatistic(column);
+      }
+    };
+  }
 }
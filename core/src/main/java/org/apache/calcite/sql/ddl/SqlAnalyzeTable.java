@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.sql.ddl;
+
+import org.apache.calcite.sql.SqlDdl;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlNumericLiteral;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.SqlSpecialOperator;
+import org.apache.calcite.sql.SqlWriter;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.util.ImmutableNullableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Parse tree for {@code ANALYZE TABLE} statement.
+ *
+ * <p>For example,
+ *
+ * <blockquote><pre>ANALYZE TABLE emp (deptno, sal) SAMPLE 10 PERCENT</pre>
+ * </blockquote>
+ *
+ * <p>collects statistics about columns {@code deptno} and {@code sal} of
+ * table {@code emp}, reading a random sample of 10% of its rows.
+ */
+public class SqlAnalyzeTable extends SqlDdl {
+  public final SqlIdentifier name;
+  public final @Nullable SqlNodeList columnList;
+  public final @Nullable SqlNumericLiteral samplePercentage;
+
+  private static final SqlOperator OPERATOR =
+      new SqlSpecialOperator("ANALYZE TABLE", SqlKind.ANALYZE_TABLE);
+
+  /** Creates a SqlAnalyzeTable. */
+  SqlAnalyzeTable(SqlParserPos pos, SqlIdentifier name,
+      @Nullable SqlNodeList columnList,
+      @Nullable SqlNumericLiteral samplePercentage) {
+    super(OPERATOR, pos);
+    this.name = Objects.requireNonNull(name, "name");
+    this.columnList = columnList; // may be null
+    this.samplePercentage = samplePercentage; // may be null
+  }
+
+  @SuppressWarnings("nullness")
+  @Override public List<SqlNode> getOperandList() {
+    return ImmutableNullableList.of(name, columnList, samplePercentage);
+  }
+
+  @Override public void unparse(SqlWriter writer, int leftPrec, int rightPrec) {
+    writer.keyword("ANALYZE");
+    writer.keyword("TABLE");
+    name.unparse(writer, leftPrec, rightPrec);
+    if (columnList != null) {
+      SqlWriter.Frame frame = writer.startList("(", ")");
+      for (SqlNode c : columnList) {
+        writer.sep(",");
+        c.unparse(writer, 0, 0);
+      }
+      writer.endList(frame);
+    }
+    if (samplePercentage != null) {
+      writer.keyword("SAMPLE");
+      samplePercentage.unparse(writer, 0, 0);
+      writer.keyword("PERCENT");
+    }
+  }
+}
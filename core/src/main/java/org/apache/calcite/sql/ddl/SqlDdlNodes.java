@@ -23,9 +23,12 @@
 import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlNumericLiteral;
 import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.parser.SqlParserPos;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 /**
  * Utilities concerning {@link SqlNode} for DDL.
  */
@@ -119,6 +122,13 @@ public static SqlDrop dropFunction(SqlParserPos pos,
     return new SqlDropFunction(pos, ifExists, name);
   }
 
+  /** Creates an ANALYZE TABLE. */
+  public static SqlAnalyzeTable analyzeTable(SqlParserPos pos,
+      SqlIdentifier name, @Nullable SqlNodeList columnList,
+      @Nullable SqlNumericLiteral samplePercentage) {
+    return new SqlAnalyzeTable(pos, name, columnList, samplePercentage);
+  }
+
   /** Creates a column declaration. */
   public static SqlNode column(SqlParserPos pos, SqlIdentifier name,
       SqlDataTypeSpec dataType, SqlNode expression, ColumnStrategy strategy) {
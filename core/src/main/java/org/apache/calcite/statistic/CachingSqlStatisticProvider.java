@@ -18,6 +18,8 @@
 
 import org.apache.calcite.materialize.SqlStatisticProvider;
 import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.metadata.NullSentinel;
+import org.apache.calcite.schema.ColumnStatistic;
 import org.apache.calcite.util.ImmutableIntList;
 import org.apache.calcite.util.Util;
 
@@ -25,6 +27,8 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -82,4 +86,22 @@ public CachingSqlStatisticProvider(SqlStatisticProvider provider,
       throw Util.throwAsRuntime(Util.causeOrSelf(e));
     }
   }
+
+  @Override public @Nullable ColumnStatistic columnStatistic(RelOptTable table,
+      int column) {
+    try {
+      final ImmutableList<Object> key =
+          ImmutableList.of("columnStatistic", table.getQualifiedName(),
+              column);
+      final Object value =
+          cache.get(key, () -> {
+            final ColumnStatistic statistic =
+                provider.columnStatistic(table, column);
+            return statistic == null ? NullSentinel.INSTANCE : statistic;
+          });
+      return value == NullSentinel.INSTANCE ? null : (ColumnStatistic) value;
+    } catch (UncheckedExecutionException | ExecutionException e) {
+      throw Util.throwAsRuntime(Util.causeOrSelf(e));
+    }
+  }
 }
@@ -25,6 +25,8 @@
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.rel2sql.RelToSqlConverter;
 import org.apache.calcite.rel.rel2sql.SqlImplementor;
+import org.apache.calcite.schema.ColumnStatistic;
+import org.apache.calcite.schema.Histogram;
 import org.apache.calcite.sql.SqlDialect;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
@@ -33,11 +35,13 @@
 import org.apache.calcite.util.Util;
 
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Ordering;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -70,6 +74,9 @@ public class QuerySqlStatisticProvider implements SqlStatisticProvider {
           CacheBuilder.newBuilder().expireAfterAccess(30, TimeUnit.MINUTES)
               .maximumSize(1_024).build());
 
+  /** Maximum number of buckets in the histogram of a column. */
+  private static final int HISTOGRAM_BUCKET_COUNT = 100;
+
   private final Consumer<String> sqlConsumer;
 
   /** Creates a QuerySqlStatisticProvider.
@@ -185,6 +192,89 @@ public QuerySqlStatisticProvider(Consumer<String> sqlConsumer) {
         });
   }
 
+  @Override public ColumnStatistic columnStatistic(RelOptTable table,
+      int column) {
+    final SqlDialect dialect = table.unwrapOrThrow(SqlDialect.class);
+    final DataSource dataSource = table.unwrapOrThrow(DataSource.class);
+    return withBuilder(
+        (cluster, relOptSchema, relBuilder) -> {
+          // Generate:
+          //   SELECT COUNT(*), COUNT(x), COUNT(DISTINCT x) FROM `T`
+          final RelOptTable.ToRelContext toRelContext =
+              ViewExpanders.simpleContext(cluster);
+          relBuilder.push(table.toRel(toRelContext))
+              .aggregate(relBuilder.groupKey(),
+                  relBuilder.count(),
+                  relBuilder.count(relBuilder.field(column)),
+                  relBuilder.count(true, null, relBuilder.field(column)));
+          final String sql = toSql(relBuilder.build(), dialect);
+          final long rowCount;
+          final long nonNullCount;
+          final double distinctCount;
+          try (Connection connection = dataSource.getConnection();
+               Statement statement = connection.createStatement();
+               ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+              throw new AssertionError("expected exactly 1 row: " + sql);
+            }
+            rowCount = resultSet.getLong(1);
+            nonNullCount = resultSet.getLong(2);
+            distinctCount = resultSet.getDouble(3);
+            if (resultSet.next()) {
+              throw new AssertionError("expected exactly 1 row: " + sql);
+            }
+          } catch (SQLException e) {
+            throw handle(e, sql);
+          }
+          final double nullFraction =
+              rowCount == 0 ? 0D : (double) (rowCount - nonNullCount) / rowCount;
+          if (nonNullCount == 0) {
+            return ColumnStatistic.of(distinctCount, nullFraction, null);
+          }
+
+          // Generate:
+          //   SELECT x FROM `T` WHERE x IS NOT NULL ORDER BY x
+          // and keep the values whose rank is a bucket bound.
+          relBuilder.push(table.toRel(toRelContext))
+              .filter(relBuilder.isNotNull(relBuilder.field(column)))
+              .project(relBuilder.field(column))
+              .sort(0);
+          final String sql2 = toSql(relBuilder.build(), dialect);
+          final int bucketCount =
+              (int) Math.max(1,
+                  Math.min(HISTOGRAM_BUCKET_COUNT, nonNullCount - 1));
+          final List<Comparable> bounds = new ArrayList<>();
+          try (Connection connection = dataSource.getConnection();
+               Statement statement = connection.createStatement();
+               ResultSet resultSet = statement.executeQuery(sql2)) {
+            int i = 0;
+            long rank = 0;
+            while (i <= bucketCount && resultSet.next()) {
+              while (i <= bucketCount
+                  && Histogram.boundRank(i, bucketCount, nonNullCount) == rank) {
+                final Object value = resultSet.getObject(1);
+                if (!(value instanceof Comparable)) {
+                  return ColumnStatistic.of(distinctCount, nullFraction, null);
+                }
+                bounds.add((Comparable) value);
+                ++i;
+              }
+              ++rank;
+            }
+          } catch (SQLException e) {
+            throw handle(e, sql2);
+          }
+          if (bounds.size() < 2) {
+            // The table changed between the queries
+            return ColumnStatistic.of(distinctCount, nullFraction, null);
+          }
+          // The database's collation may not match Java's ordering
+          bounds.sort(Ordering.natural());
+          return ColumnStatistic.of(distinctCount, nullFraction,
+              Histogram.of(bounds));
+        });
+  }
+
   private static RuntimeException handle(SQLException e, String sql) {
     return new RuntimeException("Error while executing SQL for statistics: "
         + sql, e);
@@ -186,6 +186,20 @@ public static Program of(final HepProgram hepProgram, final boolean noDag,
   public static Program heuristicJoinOrder(
       final Iterable<? extends RelOptRule> rules,
       final boolean bushy, final int minJoinCount) {
+    return heuristicJoinOrder(rules,
+        bushy
+            ? CoreRules.MULTI_JOIN_OPTIMIZE_BUSHY
+            : CoreRules.MULTI_JOIN_OPTIMIZE,
+        minJoinCount);
+  }
+
+  /** Creates a program that gathers joins into a
+   * {@link org.apache.calcite.rel.rules.MultiJoin} and orders them using a
+   * given rule, such as {@link CoreRules#MULTI_JOIN_OPTIMIZE_DPHYP}, if there
+   * are {@code minJoinCount} or more joins. */
+  public static Program heuristicJoinOrder(
+      final Iterable<? extends RelOptRule> rules,
+      final RelOptRule multiJoinRule, final int minJoinCount) {
     return (planner, rel, requiredOutputTraits, materializations, lattices) -> {
       final int joinCount = RelOptUtil.countJoins(rel);
       final Program program;
@@ -202,7 +216,7 @@ public static Program heuristicJoinOrder(
             of(hep, false, DefaultRelMetadataProvider.INSTANCE);
 
         // Create a program that contains a rule to expand a MultiJoin
-        // into heuristically ordered joins.
+        // into ordered joins.
         // We use the rule set passed in, but remove JoinCommuteRule and
         // JoinPushThroughJoinRule, because they cause exhaustive search.
         final List<RelOptRule> list = Lists.newArrayList(rules);
@@ -212,9 +226,7 @@ public static Program heuristicJoinOrder(
                 CoreRules.JOIN_ASSOCIATE,
                 JoinPushThroughJoinRule.LEFT,
                 JoinPushThroughJoinRule.RIGHT));
-        list.add(bushy
-            ? CoreRules.MULTI_JOIN_OPTIMIZE_BUSHY
-            : CoreRules.MULTI_JOIN_OPTIMIZE);
+        list.add(multiJoinRule);
         final Program program2 = ofRules(list);
 
         program = sequence(program1, program2);
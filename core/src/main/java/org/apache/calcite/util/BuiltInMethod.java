@@ -47,6 +47,7 @@
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.linq4j.function.Function2;
 import org.apache.calcite.linq4j.function.Functions;
+import org.apache.calcite.linq4j.function.LongFunction1;
 import org.apache.calcite.linq4j.function.Predicate1;
 import org.apache.calcite.linq4j.function.Predicate2;
 import org.apache.calcite.linq4j.tree.FunctionExpression;
@@ -89,15 +90,20 @@
 import org.apache.calcite.runtime.FunctionContexts;
 import org.apache.calcite.runtime.JsonFunctions;
 import org.apache.calcite.runtime.Matcher;
+import org.apache.calcite.runtime.MinMaxDeque;
+import org.apache.calcite.runtime.ParallelEnumerables;
 import org.apache.calcite.runtime.Pattern;
+import org.apache.calcite.runtime.PatternFunction;
 import org.apache.calcite.runtime.RandomFunction;
 import org.apache.calcite.runtime.ResultSetEnumerable;
 import org.apache.calcite.runtime.SortedMultiMap;
 import org.apache.calcite.runtime.SpatialTypeFunctions;
+import org.apache.calcite.runtime.SpillingEnumerables;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.runtime.SqlFunctions.FlatProductInputType;
 import org.apache.calcite.runtime.Utilities;
 import org.apache.calcite.runtime.XmlFunctions;
+import org.apache.calcite.schema.BatchScannableTable;
 import org.apache.calcite.schema.FilterableTable;
 import org.apache.calcite.schema.ModifiableTable;
 import org.apache.calcite.schema.ProjectableFilterableTable;
@@ -106,6 +112,7 @@
 import org.apache.calcite.schema.Schema;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.schema.SplittableTable;
 import org.apache.calcite.schema.Table;
 import org.apache.calcite.sql.SqlExplainLevel;
 import org.apache.calcite.sql.SqlJsonConstructorNullClause;
@@ -166,6 +173,11 @@ public enum BuiltInMethod {
       FilterableTable.class, DataContext.class),
   SCHEMAS_ENUMERABLE_PROJECTABLE_FILTERABLE(Schemas.class, "enumerable",
       ProjectableFilterableTable.class, DataContext.class),
+  SCHEMAS_ENUMERABLE_SPLITTABLE(Schemas.class, "enumerable",
+      SplittableTable.class, DataContext.class, int.class),
+  SCHEMAS_ENUMERABLE_BATCH_SCANNABLE(Schemas.class, "enumerable",
+      BatchScannableTable.class, DataContext.class, List.class),
+  SCHEMAS_TABLE(Schemas.class, "table", DataContext.class, String[].class),
   SCHEMAS_QUERYABLE(Schemas.class, "queryable", DataContext.class,
       SchemaPlus.class, Class.class, String.class),
   REFLECTIVE_SCHEMA_GET_TARGET(ReflectiveSchema.class, "getTarget"),
@@ -187,6 +199,18 @@ public enum BuiltInMethod {
       Function1.class,
       Function1.class, Function2.class, EqualityComparer.class,
       boolean.class, boolean.class, Predicate2.class),
+  HASH_JOIN_LONG(EnumerableDefaults.class, "hashJoinLong", Enumerable.class,
+      Enumerable.class, LongFunction1.class, LongFunction1.class,
+      Function2.class, boolean.class, boolean.class, Predicate2.class),
+  SPILLING_HASH_JOIN(SpillingEnumerables.class, "hashJoin", Enumerable.class,
+      Enumerable.class, Function1.class, Function1.class, Function2.class,
+      EqualityComparer.class, boolean.class, boolean.class, Predicate2.class,
+      long.class, String.class),
+  PARALLEL_HASH_JOIN(ParallelEnumerables.class, "hashJoin", Enumerable.class,
+      Enumerable.class, Function1.class, Function1.class, Function2.class,
+      EqualityComparer.class, boolean.class, boolean.class, Predicate2.class,
+      int.class),
+  PARALLEL_GATHER(ParallelEnumerables.class, "gather", Enumerable.class),
   MATCH(Enumerables.class, "match", Enumerable.class, Function1.class,
       Matcher.class, Enumerables.Emitter.class, int.class, int.class),
   PATTERN_BUILDER(Utilities.class, "patternBuilder"),
@@ -234,12 +258,21 @@ public enum BuiltInMethod {
   GROUP_BY_MULTIPLE(EnumerableDefaults.class, "groupByMultiple",
       Enumerable.class, List.class, Function0.class, Function2.class,
       Function2.class),
+  SPILLING_GROUP_BY(SpillingEnumerables.class, "groupBy", Enumerable.class,
+      Function1.class, Function0.class, Function2.class, Function2.class,
+      EqualityComparer.class, long.class, String.class),
+  PARALLEL_GROUP_BY(ParallelEnumerables.class, "groupBy", Enumerable.class,
+      Function1.class, Function0.class, Function2.class, Function2.class,
+      EqualityComparer.class, int.class),
   AGGREGATE(ExtendedEnumerable.class, "aggregate", Object.class,
       Function2.class, Function1.class),
   ORDER_BY(ExtendedEnumerable.class, "orderBy", Function1.class,
       Comparator.class),
   ORDER_BY_WITH_FETCH_AND_OFFSET(EnumerableDefaults.class, "orderBy", Enumerable.class,
       Function1.class, Comparator.class, int.class, int.class),
+  SPILLING_ORDER_BY(SpillingEnumerables.class, "orderBy", Enumerable.class,
+      Function1.class, Comparator.class, int.class, int.class, long.class,
+      String.class),
   UNION(ExtendedEnumerable.class, "union", Enumerable.class),
   CONCAT(ExtendedEnumerable.class, "concat", Enumerable.class),
   REPEAT_UNION(EnumerableDefaults.class, "repeatUnion", Enumerable.class,
@@ -339,6 +372,9 @@ public enum BuiltInMethod {
       Object.class, int.class, int.class, Function1.class, Comparator.class),
   BINARY_SEARCH6_UPPER(BinarySearch.class, "upperBound", Object[].class,
       Object.class, int.class, int.class, Function1.class, Comparator.class),
+  MIN_MAX_DEQUE_ADD(MinMaxDeque.class, "add", int.class, Comparable.class),
+  MIN_MAX_DEQUE_REMOVE(MinMaxDeque.class, "remove", int.class),
+  MIN_MAX_DEQUE_RESULT(MinMaxDeque.class, "result"),
   ARRAY_ITEM(SqlFunctions.class, "arrayItemOptional", List.class, int.class),
   MAP_ITEM(SqlFunctions.class, "mapItemOptional", Map.class, Object.class),
   ANY_ITEM(SqlFunctions.class, "itemOptional", Object.class, Object.class),
@@ -443,18 +479,25 @@ public enum BuiltInMethod {
   TRANSLATE3(SqlFunctions.class, "translate3", String.class, String.class, String.class),
   LTRIM(SqlFunctions.class, "ltrim", String.class),
   RTRIM(SqlFunctions.class, "rtrim", String.class),
-  LIKE(SqlFunctions.class, "like", String.class, String.class),
-  ILIKE(SqlFunctions.class, "ilike", String.class, String.class),
-  RLIKE(SqlFunctions.class, "rlike", String.class, String.class),
-  SIMILAR(SqlFunctions.class, "similar", String.class, String.class),
-  POSIX_REGEX(SqlFunctions.class, "posixRegex", String.class, String.class, boolean.class),
-  REGEXP_REPLACE3(SqlFunctions.class, "regexpReplace", String.class,
+  LIKE(PatternFunction.class, "like", String.class, String.class),
+  LIKE_ESCAPE(PatternFunction.class, "like", String.class, String.class,
+      String.class),
+  ILIKE(PatternFunction.class, "ilike", String.class, String.class),
+  ILIKE_ESCAPE(PatternFunction.class, "ilike", String.class, String.class,
+      String.class),
+  RLIKE(PatternFunction.class, "rlike", String.class, String.class),
+  SIMILAR(PatternFunction.class, "similar", String.class, String.class),
+  SIMILAR_ESCAPE(PatternFunction.class, "similar", String.class, String.class,
+      String.class),
+  POSIX_REGEX(PatternFunction.class, "posixRegex", String.class, String.class,
+      boolean.class),
+  REGEXP_REPLACE3(PatternFunction.class, "regexpReplace", String.class,
       String.class, String.class),
-  REGEXP_REPLACE4(SqlFunctions.class, "regexpReplace", String.class,
+  REGEXP_REPLACE4(PatternFunction.class, "regexpReplace", String.class,
       String.class, String.class, int.class),
-  REGEXP_REPLACE5(SqlFunctions.class, "regexpReplace", String.class,
+  REGEXP_REPLACE5(PatternFunction.class, "regexpReplace", String.class,
       String.class, String.class, int.class, int.class),
-  REGEXP_REPLACE6(SqlFunctions.class, "regexpReplace", String.class,
+  REGEXP_REPLACE6(PatternFunction.class, "regexpReplace", String.class,
       String.class, String.class, int.class, int.class, String.class),
   IS_TRUE(SqlFunctions.class, "isTrue", Boolean.class),
   IS_NOT_FALSE(SqlFunctions.class, "isNotFalse", Boolean.class),
@@ -16,17 +16,33 @@
  */
 package org.apache.calcite.adapter.clone;
 
+import org.apache.calcite.DataContexts;
+import org.apache.calcite.avatica.util.ByteString;
+import org.apache.calcite.config.CalciteConnectionProperty;
 import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeImpl;
 import org.apache.calcite.rel.type.RelDataTypeSystem;
+import org.apache.calcite.runtime.BatchPredicate;
+import org.apache.calcite.runtime.ColumnarBatch;
+import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.test.CalciteAssert;
 
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -353,6 +369,316 @@ class ArrayTableTest {
         "Column(representation=ObjectArray(ordinal=2), value=[Bill, Sebastian, Theodore, Eric])");
   }
 
+  /** Tests that {@link ArrayTable.Content#batchEnumerator(int)} returns the
+   * same rows as {@link ArrayTable.Content#arrayEnumerator()}, for batches
+   * that do and do not divide the row count evenly. */
+  @Test void testBatchEnumerator() {
+    final JavaTypeFactoryImpl typeFactory =
+        new JavaTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RelDataType rowType =
+        typeFactory.builder()
+            .add("empid", typeFactory.createType(int.class))
+            .add("deptno", typeFactory.createType(int.class))
+            .add("salary", typeFactory.createType(double.class))
+            .add("name", typeFactory.createType(String.class))
+            .build();
+    final Enumerable<Object[]> enumerable =
+        Linq4j.asEnumerable(
+            Arrays.asList(
+                new Object[]{100, 10, 1000.5D, "Bill"},
+                new Object[]{200, 20, 500D, "Eric"},
+                new Object[]{150, 10, 7000D, null},
+                new Object[]{160, 10, 11500D, "Theodore"},
+                new Object[]{110, 10, 11500D, "Sebastian"}));
+    final ColumnLoader<Object[]> loader =
+        new ColumnLoader<Object[]>(typeFactory, enumerable,
+            RelDataTypeImpl.proto(rowType), null);
+    final ArrayTable.Content content =
+        new ArrayTable.Content(loader.representationValues, loader.size(),
+            ImmutableList.of());
+    final List<List<@Nullable Object>> expected = new ArrayList<>();
+    try (Enumerator<@Nullable Object[]> e = content.arrayEnumerator()) {
+      while (e.moveNext()) {
+        expected.add(Arrays.asList(e.current()));
+      }
+    }
+    assertThat(expected.size(), is(5));
+    for (int batchSize : new int[] {1, 2, 5, 100}) {
+      final List<List<@Nullable Object>> actual = new ArrayList<>();
+      int batchCount = 0;
+      try (Enumerator<ColumnarBatch> e = content.batchEnumerator(batchSize)) {
+        while (e.moveNext()) {
+          final ColumnarBatch batch = e.current();
+          ++batchCount;
+          for (int i = 0; i < batch.rowCount(); i++) {
+            actual.add(Arrays.asList(batch.toRow(batch.row(i))));
+          }
+        }
+      }
+      assertThat(actual, is(expected));
+      assertThat(batchCount, is((5 + batchSize - 1) / batchSize));
+    }
+
+    // A selection vector hides rows without moving them
+    try (Enumerator<ColumnarBatch> e = content.batchEnumerator(100)) {
+      assertTrue(e.moveNext());
+      final ColumnarBatch batch = e.current();
+      batch.select(new int[] {1, 3}, 2);
+      assertThat(batch.rowCount(), is(2));
+      assertThat(Arrays.asList(batch.toRow(batch.row(1))), is(expected.get(3)));
+      assertFalse(e.moveNext());
+    }
+  }
+
+  /** Tests that {@link ArrayTable.Content#batchEnumerator(int, int, int)}
+   * returns a range of rows, so that consecutive ranges return the same rows
+   * as the whole table. */
+  @Test void testBatchEnumeratorRange() {
+    final JavaTypeFactoryImpl typeFactory =
+        new JavaTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RelDataType rowType =
+        typeFactory.builder()
+            .add("id", typeFactory.createType(int.class))
+            .add("name", typeFactory.createType(String.class))
+            .build();
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      rows.add(new Object[] {i, "name" + (i % 7)});
+    }
+    final ColumnLoader<Object[]> loader =
+        new ColumnLoader<Object[]>(typeFactory, Linq4j.asEnumerable(rows),
+            RelDataTypeImpl.proto(rowType), null);
+    final ArrayTable.Content content =
+        new ArrayTable.Content(loader.representationValues, loader.size(),
+            ImmutableList.of());
+    final List<List<@Nullable Object>> expected = new ArrayList<>();
+    try (Enumerator<@Nullable Object[]> e = content.arrayEnumerator()) {
+      while (e.moveNext()) {
+        expected.add(Arrays.asList(e.current()));
+      }
+    }
+    final List<List<@Nullable Object>> actual = new ArrayList<>();
+    final int[] offsets = {0, 1, 333, 333, 900, 1_000};
+    for (int i = 0; i < offsets.length - 1; i++) {
+      try (Enumerator<ColumnarBatch> e =
+               content.batchEnumerator(offsets[i], offsets[i + 1], 64)) {
+        while (e.moveNext()) {
+          final ColumnarBatch batch = e.current();
+          for (int j = 0; j < batch.rowCount(); j++) {
+            actual.add(Arrays.asList(batch.toRow(batch.row(j))));
+          }
+        }
+      }
+    }
+    assertThat(actual, is(expected));
+  }
+
+  /** Tests that a table loaded outside the Java heap returns the same rows,
+   * with and without batches, as a table loaded on the heap. */
+  @Test void testOffHeap() {
+    final JavaTypeFactoryImpl typeFactory =
+        new JavaTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RelDataType rowType =
+        typeFactory.builder()
+            .add("id", typeFactory.createType(long.class))
+            .add("deptno", typeFactory.createType(Integer.class))
+            .add("salary", typeFactory.createType(double.class))
+            .add("manager", typeFactory.createType(boolean.class))
+            .add("name", typeFactory.createType(String.class))
+            .build();
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 3_000; i++) {
+      rows.add(
+          new Object[] {i * 10_000_000_000L, i % 11 == 0 ? null : i % 300,
+              i * 1.5D, i % 3 == 0, i % 13 == 0 ? null : "n\u00e4me" + i % 50});
+    }
+    final ColumnLoader<Object[]> loader =
+        new ColumnLoader<Object[]>(typeFactory, Linq4j.asEnumerable(rows),
+            RelDataTypeImpl.proto(rowType), null, false);
+    final ColumnLoader<Object[]> offHeapLoader =
+        new ColumnLoader<Object[]>(typeFactory, Linq4j.asEnumerable(rows),
+            RelDataTypeImpl.proto(rowType), null, true);
+    assertThat(offHeapLoader.representationValues.get(0).representation
+        .toString(),
+        is("DirectPrimitiveArray(ordinal=0, primitive=LONG, p=LONG, "
+            + "nullable=false)"));
+    assertThat(offHeapLoader.representationValues.get(1).representation
+        .toString(),
+        is("DirectPrimitiveArray(ordinal=1, primitive=SHORT, p=INT, "
+            + "nullable=true)"));
+    assertThat(offHeapLoader.representationValues.get(3).representation
+        .getType(),
+        is(ArrayTable.RepresentationType.DIRECT_PRIMITIVE_ARRAY));
+    assertThat(offHeapLoader.representationValues.get(4).representation
+        .toString(),
+        is("DirectStringDictionary(ordinal=4, codePrimitive=BYTE)"));
+
+    final ArrayTable.Content content =
+        new ArrayTable.Content(loader.representationValues, loader.size(),
+            ImmutableList.of());
+    final ArrayTable.Content offHeapContent =
+        new ArrayTable.Content(offHeapLoader.representationValues,
+            offHeapLoader.size(), ImmutableList.of());
+    final List<List<@Nullable Object>> expected = new ArrayList<>();
+    try (Enumerator<@Nullable Object[]> e = content.arrayEnumerator()) {
+      while (e.moveNext()) {
+        expected.add(Arrays.asList(e.current()));
+      }
+    }
+    final List<List<@Nullable Object>> actual = new ArrayList<>();
+    try (Enumerator<@Nullable Object[]> e = offHeapContent.arrayEnumerator()) {
+      while (e.moveNext()) {
+        actual.add(Arrays.asList(e.current()));
+      }
+    }
+    assertThat(actual, is(expected));
+
+    actual.clear();
+    try (Enumerator<ColumnarBatch> e = offHeapContent.batchEnumerator(700)) {
+      while (e.moveNext()) {
+        final ColumnarBatch batch = e.current();
+        assertThat(batch.vector(0) instanceof long[], is(true));
+        assertThat(batch.vector(2) instanceof double[], is(true));
+        for (int i = 0; i < batch.rowCount(); i++) {
+          actual.add(Arrays.asList(batch.toRow(batch.row(i))));
+        }
+      }
+    }
+    assertThat(actual, is(expected));
+  }
+
+  /** Tests that {@link BatchPredicate}s restrict the rows of a batch scan,
+   * on primitive and object vectors, across batches. */
+  @Test void testBatchPredicates() {
+    final JavaTypeFactoryImpl typeFactory =
+        new JavaTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RelDataType rowType =
+        typeFactory.builder()
+            .add("empid", typeFactory.createType(int.class))
+            .add("deptno", typeFactory.createType(Integer.class))
+            .add("salary", typeFactory.createType(double.class))
+            .add("name", typeFactory.createType(String.class))
+            .build();
+    final List<Object[]> rows =
+        Arrays.asList(
+            new Object[]{100, 10, 1000.5D, "Bill"},
+            new Object[]{200, 20, 500D, "Eric"},
+            new Object[]{150, null, 7000D, "Sebastian"},
+            new Object[]{160, 10, 11500D, null},
+            new Object[]{110, 10, 11500D, "Theodore"},
+            new Object[]{170, 10, 5000D, "Bob"},
+            new Object[]{120, 10, 6000D, "Alice"});
+    final ColumnLoader<Object[]> loader =
+        new ColumnLoader<Object[]>(typeFactory, Linq4j.asEnumerable(rows),
+            RelDataTypeImpl.proto(rowType), null);
+    final ArrayTable.Content content =
+        new ArrayTable.Content(loader.representationValues, loader.size(),
+            ImmutableList.of());
+    final ArrayTable table =
+        new ArrayTable(Object[].class, RelDataTypeImpl.proto(rowType),
+            () -> content);
+    final List<BatchPredicate> predicates =
+        ImmutableList.of(BatchPredicate.compare(1, BatchPredicate.Op.EQUALS, 10),
+            BatchPredicate.compare(2, BatchPredicate.Op.GREATER_THAN, 5000D),
+            BatchPredicate.isNull(3, true));
+    final List<Integer> empids = new ArrayList<>();
+    for (@Nullable Object[] row
+        : Schemas.enumerable(table, DataContexts.EMPTY, predicates)) {
+      empids.add((Integer) row[0]);
+    }
+    assertThat(empids, is(Arrays.asList(110, 120)));
+
+    // Same predicates, batches of 2 rows; some batches have no matching rows
+    final List<Integer> empids2 = new ArrayList<>();
+    for (@Nullable Object[] row
+        : ColumnarBatch.toRows(table.scanBatches(DataContexts.EMPTY, 2),
+            predicates)) {
+      empids2.add((Integer) row[0]);
+    }
+    assertThat(empids2, is(empids));
+
+    // IS NULL on an object vector
+    final List<Integer> empids3 = new ArrayList<>();
+    for (@Nullable Object[] row
+        : ColumnarBatch.toRows(table.scanBatches(DataContexts.EMPTY, 3),
+            ImmutableList.of(BatchPredicate.isNull(1, false)))) {
+      empids3.add((Integer) row[0]);
+    }
+    assertThat(empids3, is(Arrays.asList(150)));
+  }
+
+  /** Tests the dictionary representations, which store an {@code int} code
+   * for each row. */
+  @Test void testDictionaries() {
+    final ColumnLoader.ValueSet strings =
+        new ColumnLoader.ValueSet(String.class);
+    strings.add("b");
+    strings.add("a");
+    strings.add(null);
+    strings.add("b");
+    strings.add("c");
+    final ColumnLoader.ValueSet longs = new ColumnLoader.ValueSet(long.class);
+    for (long v : new long[] {30L, 10L, 30L, 20L, 10L}) {
+      longs.add(v);
+    }
+    final ColumnLoader.ValueSet byteStrings =
+        new ColumnLoader.ValueSet(ByteString.class);
+    for (String s : new String[] {"ff", "00", "ff", "0a", "00"}) {
+      byteStrings.add(ByteString.of(s, 16));
+    }
+    checkDictionary(new ArrayTable.StringDictionary(), strings,
+        "[b, a, null, b, c]");
+    checkDictionary(new ArrayTable.PrimitiveDictionary(), longs,
+        "[30, 10, 30, 20, 10]");
+    checkDictionary(new ArrayTable.ByteStringDictionary(), byteStrings,
+        "[ff, 00, ff, 0a, 00]");
+
+    final ArrayTable.PrimitiveDictionary representation =
+        new ArrayTable.PrimitiveDictionary();
+    final Object dataSet = representation.freeze(longs, null);
+    assertThat(representation.getInt(dataSet, 3), is(20));
+    final Object permuted =
+        representation.permute(dataSet, new int[] {4, 3, 2, 1, 0});
+    assertThat(representation.toString(permuted), is("[10, 20, 30, 10, 30]"));
+  }
+
+  private static void checkDictionary(ArrayTable.Representation representation,
+      ColumnLoader.ValueSet valueSet, String expected) {
+    final Object dataSet = representation.freeze(valueSet, null);
+    assertThat(representation.size(dataSet), is(5));
+    assertThat(representation.toString(dataSet), is(expected));
+
+    final ColumnarBatch batch =
+        ColumnarBatch.create(
+            Collections.singletonList(representation.vectorPrimitive()), 4);
+    representation.copyTo(dataSet, 1, 4, batch, 0);
+    batch.reset(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(batch.get(0, i), is(representation.getObject(dataSet, i + 1)));
+    }
+  }
+
+  /** Tests that a query on a clone table uses
+   * {@link org.apache.calcite.adapter.enumerable.EnumerableBatchScan} if
+   * {@link CalciteConnectionProperty#BATCH_SCAN} is set, and that conditions
+   * that the scan cannot evaluate remain in a filter. */
+  @Test void testBatchScan() {
+    final String sql = "select empno, ename from \"scott\".emp\n"
+        + "where deptno = 10 and mgr is not null and ename like 'C%'";
+    CalciteAssert.that()
+        .with(CalciteAssert.Config.SCOTT)
+        .with(CalciteConnectionProperty.BATCH_SCAN, true)
+        .query(sql)
+        .explainContains("EnumerableBatchScan(table=[[scott, EMP]], "
+            + "filters=[[=(CAST($7):INTEGER, 10), IS NOT NULL($3)]])")
+        .returnsUnordered("EMPNO=7782; ENAME=CLARK");
+    CalciteAssert.that()
+        .with(CalciteAssert.Config.SCOTT)
+        .query(sql)
+        .explainContains("EnumerableTableScan(table=[[scott, EMP]])")
+        .returnsUnordered("EMPNO=7782; ENAME=CLARK");
+  }
+
   private void checkColumn(ArrayTable.Column x,
       ArrayTable.RepresentationType expectedRepresentationType,
       String expectedString) {
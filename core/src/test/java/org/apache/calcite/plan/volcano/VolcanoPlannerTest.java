@@ -19,10 +19,13 @@
 import org.apache.calcite.adapter.enumerable.EnumerableConvention;
 import org.apache.calcite.adapter.enumerable.EnumerableRules;
 import org.apache.calcite.adapter.enumerable.EnumerableUnion;
+import org.apache.calcite.config.CalciteConnectionProperty;
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.ConventionTraitDef;
 import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptListener;
+import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
 import org.apache.calcite.plan.RelOptUtil;
@@ -37,19 +40,24 @@
 import org.apache.calcite.rel.core.RelFactories;
 import org.apache.calcite.rel.externalize.RelDotWriter;
 import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.rules.CoreRules;
 import org.apache.calcite.sql.SqlExplainLevel;
+import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.tools.RelBuilder;
 import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.TestUtil;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.immutables.value.Value;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -139,6 +147,67 @@ class VolcanoPlannerTest {
     assertTrue(result instanceof PhysSingleRel);
   }
 
+  /** Tests that a planner whose budget runs out before it has found a
+   * complete plan keeps going until it has one, and that it reports
+   * statistics to listeners. */
+  @Test void testPlanningBudget() {
+    VolcanoPlanner planner = new VolcanoPlanner();
+    planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
+    planner.addRule(PhysLeafRule.INSTANCE);
+    planner.addRule(GoodSingleRule.INSTANCE);
+    planner.setPlanningBudget(0, 1);
+    final List<RelOptListener.PlanningFinishedEvent> events =
+        new ArrayList<>();
+    planner.addListener(new TestListener() {
+      @Override public void planningFinished(PlanningFinishedEvent event) {
+        events.add(event);
+      }
+    });
+
+    RelOptCluster cluster = newCluster(planner);
+    NoneLeafRel leafRel = new NoneLeafRel(cluster, "a");
+    NoneSingleRel singleRel = new NoneSingleRel(cluster, leafRel);
+    RelNode convertedRel =
+        planner.changeTraits(singleRel,
+            cluster.traitSetOf(PHYS_CALLING_CONVENTION));
+    planner.setRoot(convertedRel);
+    RelNode result = planner.chooseDelegate().findBestExp();
+    assertTrue(result instanceof PhysSingleRel);
+
+    assertThat(events.size(), equalTo(1));
+    final RelOptListener.PlanningFinishedEvent event = events.get(0);
+    assertThat(event.getRel(), sameInstance(result));
+    assertThat(event.getSetCount(), equalTo(2));
+    assertThat(event.getRuleFireCount(), equalTo(2L));
+    assertThat(
+        event.getRuleStatistics().get(PhysLeafRule.INSTANCE.toString())
+            .getFireCount(),
+        equalTo(1L));
+  }
+
+  /** Tests that {@link VolcanoPlanner#recost()} chooses a different plan
+   * when costs change, without firing rules. */
+  @Test void testRecost() {
+    VolcanoPlanner planner = new VolcanoPlanner();
+    planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
+    RelOptCluster cluster = newCluster(planner);
+    NoneLeafRel leafRel = new NoneLeafRel(cluster, "a");
+    final double[] rowCounts = {1, 2};
+    RelNode b = new CostedLeafRel(cluster, "b", rowCounts, 0);
+    RelNode c = new CostedLeafRel(cluster, "c", rowCounts, 1);
+    planner.setRoot(
+        planner.changeTraits(leafRel,
+            cluster.traitSetOf(PHYS_CALLING_CONVENTION)));
+    planner.ensureRegistered(b, leafRel);
+    planner.ensureRegistered(c, leafRel);
+    assertThat(planner.findBestExp(), sameInstance(b));
+
+    rowCounts[0] = 3;
+    assertThat(planner.recost(), sameInstance(c));
+    rowCounts[1] = 4;
+    assertThat(planner.recost(), sameInstance(b));
+  }
+
   @Test void testMemoizeInputRelNodes() {
     VolcanoPlanner planner = new VolcanoPlanner();
     planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
@@ -762,6 +831,37 @@ private void removeTrivialProject(boolean useRule) {
     assertThat(setA.equivalentSet, sameInstance(setB));
   }
 
+  /** Tests that a planner that fires rule matches in parallel produces the
+   * same plan each time, however its threads are scheduled. (The plan may
+   * differ from the plan of a planner that fires them sequentially.)
+   *
+   * @see ParallelRuleDriver */
+  @Test void testRuleParallelism() {
+    final String sql = "explain plan for\n"
+        + "select e.\"name\", d.\"name\", count(*) as c\n"
+        + "from \"hr\".\"emps\" as e\n"
+        + "join \"hr\".\"depts\" as d on e.\"deptno\" = d.\"deptno\"\n"
+        + "join \"hr\".\"dependents\" as p on p.\"empid\" = e.\"empid\"\n"
+        + "where e.\"salary\" > 1000\n"
+        + "group by e.\"name\", d.\"name\"\n"
+        + "order by 3 desc";
+    final List<String> plans = new ArrayList<>();
+    for (int parallelism : new int[] {4, 4, 4}) {
+      CalciteAssert.hr()
+          .with(CalciteConnectionProperty.PLANNER_PARALLELISM, parallelism)
+          .query(sql)
+          .returns(resultSet -> {
+            try {
+              plans.add(CalciteAssert.toString(resultSet));
+            } catch (SQLException e) {
+              throw TestUtil.rethrow(e);
+            }
+          });
+    }
+    assertThat(plans.get(1), equalTo(plans.get(0)));
+    assertThat(plans.get(2), equalTo(plans.get(0)));
+  }
+
   private void checkEvent(
       List<RelOptListener.RelEvent> eventList,
       int iEvent,
@@ -1143,6 +1243,25 @@ public void ruleProductionSucceeded(RuleProductionEvent event) {
     }
   }
 
+  /** Relational expression with zero inputs and convention PHYS whose
+   * cost is read from an array, so that a test can change it. */
+  private static class CostedLeafRel extends PhysLeafRel {
+    private final double[] rowCounts;
+    private final int ordinal;
+
+    CostedLeafRel(RelOptCluster cluster, String label, double[] rowCounts,
+        int ordinal) {
+      super(cluster, label);
+      this.rowCounts = rowCounts;
+      this.ordinal = ordinal;
+    }
+
+    @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+        RelMetadataQuery mq) {
+      return planner.getCostFactory().makeCost(rowCounts[ordinal], 0, 0);
+    }
+  }
+
   /** Rule that converts a physical RelNode to an iterator. */
   private static class PhysToIteratorRule extends ConverterRule {
     static final PhysToIteratorRule INSTANCE = Config.INSTANCE
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.prepare;
+
+import org.apache.calcite.jdbc.CalciteConnection;
+import org.apache.calcite.schema.impl.AbstractSchema;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link PlanCache}.
+ */
+class PlanCacheTest {
+  private static String firstValue(Statement statement, String sql)
+      throws SQLException {
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      assertThat(resultSet.next(), is(true));
+      return resultSet.getString(1);
+    }
+  }
+
+  /** Tests that queries that differ only in white space and case share a
+   * cached plan, and that modifying the schema empties the cache. */
+  @Test void testHitsAndInvalidation() throws SQLException {
+    try (Connection connection =
+             DriverManager.getConnection("jdbc:calcite:planCacheSize=10");
+         Statement statement = connection.createStatement()) {
+      final PlanCache planCache = connection.unwrap(PlanCache.class);
+      assertThat(
+          firstValue(statement,
+              "select y from (values (1, 'a')) as t(x, y) where x = 1"),
+          is("a"));
+      assertThat(
+          firstValue(statement,
+              "SELECT Y\nFROM (VALUES (1, 'a')) AS T (X, Y)\nWHERE X = 1"),
+          is("a"));
+      assertThat(planCache.missCount(), is(1L));
+      assertThat(planCache.hitCount(), is(1L));
+      assertThat(planCache.size(), is(1L));
+
+      // A different literal is a different query
+      assertThat(
+          firstValue(statement,
+              "select y from (values (1, 'b')) as t(x, y) where x = 1"),
+          is("b"));
+      assertThat(planCache.missCount(), is(2L));
+      assertThat(planCache.size(), is(2L));
+
+      connection.unwrap(CalciteConnection.class).getRootSchema()
+          .add("s", new AbstractSchema());
+      assertThat(
+          firstValue(statement,
+              "select y from (values (1, 'a')) as t(x, y) where x = 1"),
+          is("a"));
+      assertThat(planCache.invalidationCount(), is(1L));
+      assertThat(planCache.missCount(), is(3L));
+      assertThat(planCache.size(), is(1L));
+
+      // Removing a table that does not exist does not empty the cache
+      assertThat(
+          connection.unwrap(CalciteConnection.class).getRootSchema()
+              .removeTable("no_such_table"),
+          is(false));
+      assertThat(
+          firstValue(statement,
+              "select y from (values (1, 'a')) as t(x, y) where x = 1"),
+          is("a"));
+      assertThat(planCache.invalidationCount(), is(1L));
+      assertThat(planCache.hitCount(), is(2L));
+    }
+  }
+
+  /** Tests that a connection has no cache unless
+   * {@code planCacheSize} is positive. */
+  @Test void testDisabledByDefault() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:calcite:")) {
+      assertThrows(SQLException.class,
+          () -> connection.unwrap(PlanCache.class));
+    }
+  }
+}
@@ -20,6 +20,8 @@
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.rel.metadata.NullSentinel;
+import org.apache.calcite.schema.ColumnStatistic;
+import org.apache.calcite.schema.Histogram;
 import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.test.Matchers;
 import org.apache.calcite.util.ImmutableBitSet;
@@ -42,6 +44,7 @@
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -56,6 +59,8 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Unit tests for {@link Profiler}.
  */
@@ -369,6 +374,39 @@ class ProfilerTest {
     assertThat(q.isValid(), is(true));
   }
 
+  /** Tests {@link Profiler.Profile#columnStatistic(int)}, including the
+   * histograms built by {@link ProfilerImpl}. */
+  @Test void testColumnStatistic() {
+    // Column A has values 0 .. 499; column B has values 0 .. 6, and is null
+    // in every 10th row.
+    final List<List<Comparable>> rows = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      rows.add(
+          Arrays.<Comparable>asList(i, i % 10 == 0 ? NullSentinel.INSTANCE : i % 7));
+    }
+    final List<Profiler.Column> columns =
+        ImmutableList.of(new Profiler.Column(0, "A"),
+            new Profiler.Column(1, "B"));
+    final Profiler profiler =
+        ProfilerImpl.builder().withHistogramBucketCount(10).build();
+    final Profiler.Profile profile =
+        profiler.profile(rows, columns, ImmutableList.of());
+
+    final ColumnStatistic a = profile.columnStatistic(0);
+    assertThat(a.distinctCount, is(500D));
+    assertThat(a.nullFraction, is(0D));
+    final Histogram histogram = requireNonNull(a.histogram);
+    assertThat(histogram.bucketCount(), is(10));
+    assertThat(histogram.min().toString(), is("0"));
+    assertThat(histogram.max().toString(), is("499"));
+    assertThat(histogram.fractionBelow(250, false),
+        Matchers.within(0.5D, 0.01D));
+
+    final ColumnStatistic b = profile.columnStatistic(1);
+    assertThat(b.distinctCount, is(7D));
+    assertThat(b.nullFraction, is(0.1D));
+  }
+
   private Fluid scott() throws Exception {
     final String sql = "select * from \"scott\".emp\n"
         + "join \"scott\".dept on emp.deptno = dept.deptno";
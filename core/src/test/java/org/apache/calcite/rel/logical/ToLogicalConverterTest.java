@@ -322,6 +322,27 @@ private void verify(RelNode rel, String expectedPhysical, String expectedLogical
     assertThat(rels[0].deepHashCode() == rels[1].deepHashCode(), is(true));
   }
 
+  /** Tests that the digest of a relational expression, whose attributes are
+   * cached, changes when an input is replaced. */
+  @Test void testDigestAfterReplaceInput() {
+    final RelBuilder builder = builder();
+    RelNode[] rels = new RelNode[2];
+    for (int i = 0; i < 2; i++) {
+      rels[i] = builder.scan("EMP")
+          .sort(0)
+          .build();
+    }
+    assertThat(rels[0].getRelDigest().equals(rels[1].getRelDigest()),
+        is(true));
+    assertThat(rels[0].getRelDigest().hashCode()
+        == rels[1].getRelDigest().hashCode(), is(true));
+
+    rels[0].replaceInput(0, builder.scan("DEPT").build());
+    assertThat(rels[0].getRelDigest().equals(rels[1].getRelDigest()),
+        is(false));
+    assertThat(rels[0].deepEquals(rels[1]), is(false));
+  }
+
   @Test void testCorrelation() {
     final RelBuilder builder = builder();
     final Holder<@Nullable RexCorrelVariable> v = Holder.empty();
@@ -16,12 +16,35 @@
  */
 package org.apache.calcite.rel.metadata;
 
+import org.apache.calcite.DataContext;
+import org.apache.calcite.interpreter.Bindables;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Filter;
 import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.ColumnStatistic;
+import org.apache.calcite.schema.Histogram;
+import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
+import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.test.RelMetadataFixture;
 import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.ImmutableBitSet;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 
 import static org.apache.calcite.rel.metadata.RelMdUtil.numDistinctVals;
@@ -109,4 +132,90 @@ final RelMetadataFixture sql(String sql) {
     });
   }
 
+  /** Tests that selectivity and distinct row count of a table scan use the
+   * table's column statistics. */
+  @Test void testColumnStatistics() {
+    final SchemaPlus rootSchema = Frameworks.createRootSchema(true);
+    rootSchema.add("T", new StatisticTable());
+    final RelBuilder b =
+        RelBuilder.create(
+            Frameworks.newConfigBuilder().defaultSchema(rootSchema).build());
+    final RelNode scan = b.scan("T").build();
+    final RelMetadataQuery mq = scan.getCluster().getMetadataQuery();
+    final RexNode x = b.push(scan).field("X");
+    final RexNode y = b.field("Y");
+
+    assertThat(mq.getSelectivity(scan, b.lessThan(x, b.literal(250))),
+        within(0.25, EPSILON));
+    assertThat(
+        mq.getSelectivity(scan, b.greaterThanOrEqual(x, b.literal(900))),
+        within(0.1, EPSILON));
+    assertThat(mq.getSelectivity(scan, b.equals(y, b.literal("a"))),
+        within(0.2, EPSILON));
+    assertThat(mq.getSelectivity(scan, b.isNull(y)),
+        within(0.2, EPSILON));
+    // No value is greater than 1,000, but we estimate that at least one row
+    // matches
+    assertThat(mq.getSelectivity(scan, b.greaterThan(x, b.literal(1_000))),
+        within(0.001, EPSILON));
+    // RelBuilder converts BETWEEN to SEARCH
+    final Filter filter =
+        (Filter) b.filter(b.between(x, b.literal(100), b.literal(300)))
+            .build();
+    assertThat(mq.getSelectivity(scan, filter.getCondition()),
+        within(0.2, EPSILON));
+    assertThat(
+        mq.getSelectivity(scan,
+            b.and(b.lessThan(x, b.literal(250)),
+                b.equals(y, b.literal("a")))),
+        within(0.05, EPSILON));
+
+    // Y has 4 values plus null
+    assertThat(mq.getDistinctRowCount(scan, ImmutableBitSet.of(1), null),
+        within(5D, EPSILON));
+    assertThat(
+        mq.getDistinctRowCount(scan, ImmutableBitSet.of(0, 1), null),
+        within(1_000D, EPSILON));
+
+    // A scan that projects only Y. Its field 0 is column 1 of the table, so
+    // its statistics are Y's, not X's.
+    final RelNode projectedScan =
+        Bindables.BindableTableScan.create(scan.getCluster(),
+            ((TableScan) scan).getTable(), ImmutableList.of(),
+            ImmutableList.of(1));
+    final RexNode y0 = b.push(projectedScan).field(0);
+    assertThat(mq.getSelectivity(projectedScan, b.isNull(y0)),
+        within(0.2, EPSILON));
+    assertThat(
+        mq.getDistinctRowCount(projectedScan, ImmutableBitSet.of(0), null),
+        within(5D, EPSILON));
+  }
+
+  /** Table with two columns and statistics for each. */
+  private static class StatisticTable extends AbstractTable
+      implements ScannableTable {
+    @Override public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+      return typeFactory.builder()
+          .add("X", SqlTypeName.INTEGER)
+          .add("Y", SqlTypeName.VARCHAR, 10).nullable(true)
+          .build();
+    }
+
+    @Override public Statistic getStatistic() {
+      // X has 1,000 values uniformly distributed between 0 and 1,000;
+      // Y has 4 values and is null in 20% of rows.
+      return Statistics.withColumnStatistics(
+          Statistics.of(1_000D, ImmutableList.of()),
+          ImmutableMap.of(0,
+              ColumnStatistic.of(1_000D, 0D,
+                  Histogram.of(
+                      ImmutableList.of(0, 100, 200, 300, 400, 500, 600, 700,
+                          800, 900, 1_000))),
+              1, ColumnStatistic.of(4D, 0.2D, null)));
+    }
+
+    @Override public Enumerable<@Nullable Object[]> scan(DataContext root) {
+      return Linq4j.emptyEnumerable();
+    }
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.metadata;
+
+import org.apache.calcite.config.CalciteConnectionProperty;
+import org.apache.calcite.test.CalciteAssert;
+import org.apache.calcite.util.TestUtil;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Unit tests for {@link RelMetadataCache}.
+ */
+class RelMetadataCacheTest {
+  /** Tests that a statement uses metadata computed by a previous statement,
+   * and that invalidating a table makes the metadata obsolete. */
+  @Test void testSharedBetweenStatements() {
+    final String sql = "select e.\"name\"\n"
+        + "from \"hr\".\"emps\" as e\n"
+        + "join \"hr\".\"depts\" as d on e.\"deptno\" = d.\"deptno\"\n"
+        + "where e.\"salary\" > 1000";
+    CalciteAssert.hr()
+        .with(CalciteConnectionProperty.METADATA_CACHE_SIZE, 1000)
+        .doWithConnection(connection -> {
+          try (Statement statement = connection.createStatement()) {
+            final RelMetadataCache cache =
+                connection.unwrap(RelMetadataCache.class);
+            statement.executeQuery(sql).close();
+            assertThat(cache.missCount(), greaterThan(0L));
+            assertThat(cache.size(), greaterThan(0L));
+
+            final long hitCount = cache.hitCount();
+            statement.executeQuery(sql).close();
+            assertThat(cache.hitCount(), greaterThan(hitCount));
+
+            final long missCount = cache.missCount();
+            cache.invalidate(ImmutableList.of("hr", "emps"));
+            statement.executeQuery(sql).close();
+            assertThat(cache.missCount(), greaterThan(missCount));
+          } catch (SQLException e) {
+            throw TestUtil.rethrow(e);
+          }
+        });
+  }
+}
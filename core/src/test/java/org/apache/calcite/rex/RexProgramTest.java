@@ -1669,6 +1669,41 @@ private void checkExponentialCnf(int n) {
         .expandedSearch(expanded);
   }
 
+  /** Tests that a long OR of equalities, such as comes from a large IN list,
+   * is merged into a SEARCH, and that other terms are kept. */
+  @Test void testSimplifyLongOr() {
+    final RexNode aRef = input(tInt(true), 0);
+    final RexNode bRef = input(tInt(true), 1);
+    final List<RexNode> terms = new ArrayList<>();
+    final StringBuilder points = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      // Add values in descending order, to check that they are sorted
+      final int v = 2 * (99 - i);
+      terms.add(eq(aRef, literal(v)));
+      points.insert(0, v).insert(0, i == 99 ? "" : ", ");
+      if (i == 50) {
+        terms.add(eq(bRef, literal(7)));
+      }
+    }
+    final String expected = "OR(SEARCH($0, Sarg[" + points + "]), =($1, 7))";
+    checkSimplify(or(terms), expected);
+  }
+
+  /** Tests that a long AND of inequalities, such as comes from a large
+   * NOT IN list, is merged into a SEARCH. */
+  @Test void testSimplifyLongAnd() {
+    final RexNode aRef = input(tInt(true), 0);
+    final List<RexNode> terms = new ArrayList<>();
+    final StringBuilder ranges = new StringBuilder("(-\u221e..0)");
+    for (int i = 0; i < 100; i++) {
+      terms.add(ne(aRef, literal(i)));
+      ranges.append(", (").append(i).append("..")
+          .append(i == 99 ? "+\u221e" : String.valueOf(i + 1)).append(")");
+    }
+    final String expected = "SEARCH($0, Sarg[" + ranges + "])";
+    checkSimplify(and(terms), expected);
+  }
+
   @Test void testSimplifyRange5() {
     final RexNode aRef = input(tInt(true), 0);
     // not (a = 3 or a = 5) or a is null
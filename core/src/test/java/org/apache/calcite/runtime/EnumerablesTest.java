@@ -18,6 +18,7 @@
 
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.JoinType;
 import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.function.EqualityComparer;
@@ -40,6 +41,7 @@
 import static com.google.common.collect.Lists.newArrayList;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -969,6 +971,117 @@ public void testMatch() {
             + " null, Dept(30, Development)]"));
   }
 
+  @Test void testInnerHashJoinLong() {
+    assertThat(
+        EnumerableDefaults.hashJoinLong(
+            Linq4j.asEnumerable(
+                Arrays.asList(
+                    new Emp(10, "Fred"),
+                    new Emp(20, "Theodore"),
+                    new Emp(20, "Sebastian"),
+                    new Emp(30, "Joe"),
+                    new Emp(30, "Greg"))),
+            Linq4j.asEnumerable(
+                Arrays.asList(new Dept(15, "Marketing"), new Dept(20, "Sales"),
+                    new Dept(30, "Research"), new Dept(30, "Development"))),
+            e -> e.deptno,
+            d -> d.deptno,
+            (v0, v1) -> v0 + ", " + v1, false, false, null)
+            .toList()
+            .toString(),
+        equalTo("[Emp(20, Theodore), Dept(20, Sales),"
+            + " Emp(20, Sebastian), Dept(20, Sales),"
+            + " Emp(30, Joe), Dept(30, Research),"
+            + " Emp(30, Joe), Dept(30, Development),"
+            + " Emp(30, Greg), Dept(30, Research),"
+            + " Emp(30, Greg), Dept(30, Development)]"));
+  }
+
+  @Test void testFullHashJoinLongWithNonEquiConditions() {
+    assertThat(
+        EnumerableDefaults.hashJoinLong(
+            Linq4j.asEnumerable(
+                Arrays.asList(
+                    new Emp(10, "Fred"),
+                    new Emp(20, "Theodore"),
+                    new Emp(20, "Sebastian"),
+                    new Emp(30, "Greg"))),
+            Linq4j.asEnumerable(
+                Arrays.asList(
+                    new Dept(15, "Marketing"),
+                    new Dept(20, "Sales"),
+                    new Dept(30, "Research"),
+                    new Dept(30, "Development"))),
+            e -> e.deptno,
+            d -> d.deptno,
+            (v0, v1) -> v0 + ", " + v1, true, true,
+            (v0, v1) -> v0.deptno < 30)
+            .toList()
+            .toString(),
+        equalTo("[Emp(10, Fred), null,"
+            + " Emp(20, Theodore), Dept(20, Sales),"
+            + " Emp(20, Sebastian), Dept(20, Sales),"
+            + " Emp(30, Greg), null,"
+            + " null, Dept(15, Marketing),"
+            + " null, Dept(30, Research),"
+            + " null, Dept(30, Development)]"));
+  }
+
+  /** Tests that {@link EnumerableDefaults#hashJoinLong} returns the same rows
+   * as {@link EnumerableDefaults#hashJoin} when the build side is large
+   * enough that its hash table must grow, and keys differ only in their high
+   * bits. */
+  @Test void testLeftHashJoinLongMatchesHashJoin() {
+    final List<long[]> lefts = new ArrayList<>();
+    final List<long[]> rights = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      lefts.add(new long[] {(long) (i % 300) << 40, i});
+      if (i % 3 == 0) {
+        rights.add(new long[] {(long) (i % 200) << 40, -i});
+      }
+    }
+    final Function2<long[], long[], String> resultSelector =
+        (v0, v1) -> v0[1] + ":" + (v1 == null ? null : v1[1]);
+    final List<String> expected =
+        EnumerableDefaults.hashJoin(Linq4j.asEnumerable(lefts),
+            Linq4j.asEnumerable(rights), v -> v[0], v -> v[0],
+            resultSelector, null, false, true).toList();
+    final List<String> actual =
+        EnumerableDefaults.hashJoinLong(Linq4j.asEnumerable(lefts),
+            Linq4j.asEnumerable(rights), v -> v[0], v -> v[0],
+            resultSelector, false, true, null).toList();
+    assertThat(actual, equalTo(expected));
+  }
+
+  /** Tests that an enumerator of {@link EnumerableDefaults#hashJoinLong}
+   * returns all rows again after it is reset part-way through. */
+  @Test void testFullHashJoinLongReset() {
+    final Enumerable<String> join =
+        EnumerableDefaults.hashJoinLong(
+            Linq4j.asEnumerable(
+                Arrays.asList(
+                    new Emp(10, "Fred"),
+                    new Emp(20, "Theodore"),
+                    new Emp(30, "Greg"))),
+            Linq4j.asEnumerable(
+                Arrays.asList(new Dept(15, "Marketing"),
+                    new Dept(20, "Sales"))),
+            e -> e.deptno,
+            d -> d.deptno,
+            (v0, v1) -> v0 + ", " + v1, true, true, null);
+    final List<String> expected = join.toList();
+    try (Enumerator<String> enumerator = join.enumerator()) {
+      assertThat(enumerator.moveNext(), is(true));
+      assertThat(enumerator.moveNext(), is(true));
+      enumerator.reset();
+      final List<String> actual = new ArrayList<>();
+      while (enumerator.moveNext()) {
+        actual.add(enumerator.current());
+      }
+      assertThat(actual, equalTo(expected));
+    }
+  }
+
   @Test void testMergeUnionAllEmptyOnRight() {
     assertThat(
         EnumerableDefaults.mergeUnion(
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link MinMaxDeque}.
+ */
+class MinMaxDequeTest {
+  @Test void testEmpty() {
+    final MinMaxDeque deque = new MinMaxDeque(true);
+    assertThat(deque.result(), nullValue());
+    deque.remove(0);
+    assertThat(deque.result(), nullValue());
+
+    deque.add(0, 5);
+    assertThat(deque.result(), is(5));
+    deque.remove(0);
+    assertThat(deque.result(), nullValue());
+  }
+
+  /** Tests that a value that can no longer be the result is discarded
+   * when it is added, and that removing it later does nothing. */
+  @Test void testDiscard() {
+    final MinMaxDeque deque = new MinMaxDeque(false);
+    deque.add(0, 3);
+    deque.add(1, 7);
+    deque.add(2, 5);
+    assertThat(deque.result(), is(7));
+    deque.remove(0);
+    assertThat(deque.result(), is(7));
+    deque.remove(1);
+    assertThat(deque.result(), is(5));
+    deque.remove(2);
+    assertThat(deque.result(), nullValue());
+  }
+
+  /** Tests a frame of increasing values, so that the deque holds every value
+   * in the frame; there are more than its initial capacity, so it grows, and
+   * then wraps around as the frame slides. */
+  @Test void testGrowAndWrap() {
+    final MinMaxDeque min = new MinMaxDeque(true);
+    final MinMaxDeque max = new MinMaxDeque(false);
+    final int frame = 11;
+    for (int i = 0; i < 100; i++) {
+      min.add(i, i);
+      max.add(i, -i);
+      if (i >= frame) {
+        min.remove(i - frame);
+        max.remove(i - frame);
+      }
+      final int first = Math.max(0, i - frame + 1);
+      assertThat(min.result(), is(first));
+      assertThat(max.result(), is(-first));
+    }
+  }
+
+  /** Compares the deque with a scan of the frame, over random values that
+   * include duplicates, for several frame sizes. */
+  @Test void testRandom() {
+    final Random random = new Random(0);
+    final int[] values = new int[500];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(20);
+    }
+    for (int frame : new int[] {1, 2, 7, 8, 9, 17, 100}) {
+      for (boolean isMin : new boolean[] {true, false}) {
+        final MinMaxDeque deque = new MinMaxDeque(isMin);
+        for (int i = 0; i < values.length; i++) {
+          deque.add(i, values[i]);
+          if (i >= frame) {
+            deque.remove(i - frame);
+          }
+          assertThat("frame " + frame + ", row " + i, deque.result(),
+              is(scan(values, Math.max(0, i - frame + 1), i + 1, isMin)));
+        }
+      }
+    }
+  }
+
+  private static @Nullable Integer scan(int[] values, int start, int end,
+      boolean isMin) {
+    @Nullable Integer result = null;
+    for (int i = start; i < end; i++) {
+      if (result == null
+          || (isMin ? values[i] < result : values[i] > result)) {
+        result = values[i];
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function2;
+import org.apache.calcite.linq4j.function.Predicate2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link ParallelEnumerables}.
+ */
+class ParallelEnumerablesTest {
+  private static final Function2<Object[], Object[], String> JOIN_TO_STRING =
+      (v0, v1) -> (v0 == null ? null : v0[1]) + ":"
+          + (v1 == null ? null : v1[1]);
+
+  /** Creates rows {@code [key, name]} with {@code count} rows and
+   * {@code keyCount} distinct keys. */
+  private static Enumerable<Object[]> rows(String prefix, int count,
+      int keyCount) {
+    final List<Object[]> list = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      list.add(new Object[] {i % keyCount, prefix + i});
+    }
+    return Linq4j.asEnumerable(list);
+  }
+
+  private static List<String> sorted(Enumerable<String> enumerable) {
+    final List<String> list = new ArrayList<>(enumerable.toList());
+    list.sort(null);
+    return list;
+  }
+
+  @Test void testGroupBy() {
+    final Enumerable<Object[]> input = rows("e", 50_000, 1_234);
+    final List<String> expected =
+        sorted(
+            EnumerableDefaults.groupBy(input, v -> v[0], () -> 0,
+                (acc, v) -> acc + 1, (k, acc) -> k + ":" + acc));
+    final List<String> actual =
+        sorted(
+            ParallelEnumerables.groupBy(input, v -> v[0], () -> 0,
+                (acc, v) -> acc + 1, (k, acc) -> k + ":" + acc, null, 4));
+    assertThat(actual, hasSize(1_234));
+    assertThat(actual, equalTo(expected));
+  }
+
+  /** Tests that a join returns the same rows, in the same order, as a
+   * sequential join. */
+  @Test void testHashJoin() {
+    final Enumerable<Object[]> outer = rows("e", 30_000, 700);
+    final Enumerable<Object[]> inner = rows("d", 1_000, 1_000);
+    for (boolean generateNullsOnRight : new boolean[] {false, true}) {
+      final List<String> expected =
+          EnumerableDefaults.hashJoin(outer, inner, v -> v[0], v -> v[0],
+              JOIN_TO_STRING, null, false, generateNullsOnRight).toList();
+      final List<String> actual =
+          ParallelEnumerables.hashJoin(outer, inner, v -> v[0], v -> v[0],
+              JOIN_TO_STRING, null, false, generateNullsOnRight, null, 4)
+              .toList();
+      assertThat(actual, equalTo(expected));
+    }
+  }
+
+  @Test void testLeftHashJoinWithPredicate() {
+    final Enumerable<Object[]> outer = rows("e", 20_000, 300);
+    final Enumerable<Object[]> inner = rows("d", 2_000, 500);
+    final Predicate2<Object[], Object[]> predicate =
+        (v0, v1) -> ((String) v0[1]).length() < ((String) v1[1]).length();
+    final List<String> expected =
+        EnumerableDefaults.hashJoin(outer, inner, v -> v[0], v -> v[0],
+            JOIN_TO_STRING, null, false, true, predicate).toList();
+    final List<String> actual =
+        ParallelEnumerables.hashJoin(outer, inner, v -> v[0], v -> v[0],
+            JOIN_TO_STRING, null, false, true, predicate, 3).toList();
+    assertThat(actual, equalTo(expected));
+  }
+
+  @Test void testGather() {
+    final Enumerable<Object[]> input = rows("e", 10_000, 10);
+    final List<Object> expected = input.select(v -> v[1]).toList();
+    final List<Object> actual =
+        ParallelEnumerables.gather(input).select(v -> v[1]).toList();
+    assertThat(actual, equalTo(expected));
+  }
+
+  /** Tests that a consumer can close a gather before it has read all rows,
+   * and that closing waits for the producer, which does not block forever
+   * and does not outlive the gather. */
+  @Test void testGatherClosedEarly() {
+    final Enumerable<Object[]> rows = rows("e", 100_000, 10);
+    final AtomicBoolean inputClosed = new AtomicBoolean();
+    final Enumerable<Object[]> input = new AbstractEnumerable<Object[]>() {
+      @Override public Enumerator<Object[]> enumerator() {
+        final Enumerator<Object[]> enumerator = rows.enumerator();
+        return new Enumerator<Object[]>() {
+          @Override public Object[] current() {
+            return enumerator.current();
+          }
+
+          @Override public boolean moveNext() {
+            return enumerator.moveNext();
+          }
+
+          @Override public void reset() {
+            enumerator.reset();
+          }
+
+          @Override public void close() {
+            enumerator.close();
+            inputClosed.set(true);
+          }
+        };
+      }
+    };
+    try (Enumerator<Object[]> enumerator =
+             ParallelEnumerables.gather(input).enumerator()) {
+      assertThat(enumerator.moveNext(), is(true));
+      assertThat(enumerator.current()[1], is("e0"));
+    }
+    assertThat(inputClosed.get(), is(true));
+  }
+
+  /** Tests that {@link ParallelEnumerables#concat} returns the rows of its
+   * inputs in order, whether it reads fewer or more inputs concurrently than
+   * there are inputs. */
+  @Test void testConcat() {
+    final List<Enumerable<Object[]>> inputs = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      inputs.add(rows("e" + i + "_", 1_000 * i, 10));
+    }
+    final List<Object> expected =
+        Linq4j.concat(inputs).select(v -> v[1]).toList();
+    for (int parallelism : new int[] {1, 3, 20}) {
+      final List<Object> actual =
+          ParallelEnumerables.concat(inputs, parallelism)
+              .select(v -> v[1]).toList();
+      assertThat(actual, equalTo(expected));
+    }
+  }
+
+  /** Tests that {@link Enumerator#reset()} on a gather, a concat and a join
+   * re-runs the tasks and returns the same rows again, whether the consumer
+   * had read some or all of them. */
+  @Test void testReset() {
+    final List<Enumerable<Object[]>> inputs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      inputs.add(rows("e" + i + "_", 2_000, 10));
+    }
+    final Enumerable<Object[]> inner = rows("d", 100, 10);
+    final List<Enumerable<Object>> enumerables = new ArrayList<>();
+    enumerables.add(
+        ParallelEnumerables.gather(inputs.get(0)).select(v -> v[1]));
+    enumerables.add(
+        ParallelEnumerables.concat(inputs, 2).select(v -> v[1]));
+    enumerables.add(
+        ParallelEnumerables.hashJoin(inputs.get(1), inner, v -> v[0],
+            v -> v[0], JOIN_TO_STRING, null, false, false, null, 3)
+            .select(v -> (Object) v));
+    for (Enumerable<Object> enumerable : enumerables) {
+      final List<Object> expected = enumerable.toList();
+      try (Enumerator<Object> enumerator = enumerable.enumerator()) {
+        for (int read : new int[] {0, 300, expected.size()}) {
+          for (int i = 0; i < read; i++) {
+            assertThat(enumerator.moveNext(), is(true));
+          }
+          enumerator.reset();
+          final List<Object> actual = new ArrayList<>();
+          while (enumerator.moveNext()) {
+            actual.add(enumerator.current());
+          }
+          assertThat(actual, equalTo(expected));
+          enumerator.reset();
+        }
+      }
+    }
+  }
+
+  @Test void testGatherPropagatesFailure() {
+    final Enumerable<Object> input =
+        rows("e", 1_000, 10).select(v -> {
+          if (v[1].equals("e500")) {
+            throw new IllegalStateException("bad row");
+          }
+          return v[1];
+        });
+    final IllegalStateException e =
+        assertThrows(IllegalStateException.class,
+            () -> ParallelEnumerables.gather(input).toList());
+    assertThat(e.getMessage(), is("bad row"));
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Unit tests for {@link SpillingEnumerables}.
+ */
+class SpillingEnumerablesTest {
+  private static final Function2<Object[], Object[], String> JOIN_TO_STRING =
+      (v0, v1) -> (v0 == null ? null : v0[1]) + ":"
+          + (v1 == null ? null : v1[1]);
+
+  /** Creates rows {@code [key, name]} with {@code count} rows and
+   * {@code keyCount} distinct keys. */
+  private static Enumerable<Object[]> rows(String prefix, int count,
+      int keyCount) {
+    final List<Object[]> list = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      list.add(new Object[] {i % keyCount, prefix + i});
+    }
+    return Linq4j.asEnumerable(list);
+  }
+
+  private static List<String> sorted(Enumerable<String> enumerable) {
+    final List<String> list = new ArrayList<>(enumerable.toList());
+    list.sort(null);
+    return list;
+  }
+
+  @Test void testHashJoinWithinBudget() {
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      final List<String> actual =
+          sorted(
+              SpillingEnumerables.hashJoin(rows("e", 10, 5), rows("d", 5, 5),
+                  v -> v[0], v -> v[0], JOIN_TO_STRING, null, false, false,
+                  null, 1_000_000L, "join"));
+      assertThat(actual, hasSize(10));
+    }
+    assertThat(statistics, hasSize(0));
+  }
+
+  @Test void testFullHashJoinSpills() {
+    final Enumerable<Object[]> outer = rows("e", 3000, 700);
+    final Enumerable<Object[]> inner = rows("d", 1000, 1000);
+    final List<String> expected =
+        sorted(
+            EnumerableDefaults.hashJoin(outer, inner, v -> v[0], v -> v[0],
+                JOIN_TO_STRING, null, true, true));
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      final List<String> actual =
+          sorted(
+              SpillingEnumerables.hashJoin(outer, inner, v -> v[0], v -> v[0],
+                  JOIN_TO_STRING, null, true, true, null, 2_000L, "join"));
+      assertThat(actual, equalTo(expected));
+    }
+    assertThat(statistics, hasSize(1));
+    assertThat(statistics.get(0).operator, is("join"));
+    assertThat(statistics.get(0).fileCount(), greaterThan(0));
+    assertThat(statistics.get(0).rowCount(), greaterThan(3999L));
+    assertThat(statistics.get(0).maxDepth(), greaterThan(1));
+  }
+
+  @Test void testInnerHashJoinWithPredicateSpills() {
+    final Enumerable<Object[]> outer = rows("e", 2000, 300);
+    final Enumerable<Object[]> inner = rows("d", 2000, 300);
+    final List<String> expected =
+        sorted(
+            EnumerableDefaults.hashJoin(outer, inner, v -> v[0], v -> v[0],
+                JOIN_TO_STRING, null, false, false,
+                (v0, v1) -> ((String) v0[1]).length()
+                    < ((String) v1[1]).length()));
+    final List<String> actual =
+        sorted(
+            SpillingEnumerables.hashJoin(outer, inner, v -> v[0], v -> v[0],
+                JOIN_TO_STRING, null, false, false,
+                (v0, v1) -> ((String) v0[1]).length()
+                    < ((String) v1[1]).length(), 2_000L, "join"));
+    assertThat(actual, equalTo(expected));
+  }
+
+  /** Tests a join whose inner rows all have the same key, so that
+   * partitioning never makes the build side smaller. */
+  @Test void testHashJoinSkewedKeySpills() {
+    final Enumerable<Object[]> outer = rows("e", 10, 2);
+    final Enumerable<Object[]> inner = rows("d", 500, 1);
+    final List<String> expected =
+        sorted(
+            EnumerableDefaults.hashJoin(outer, inner, v -> v[0], v -> v[0],
+                JOIN_TO_STRING, null, false, true));
+    final List<String> actual =
+        sorted(
+            SpillingEnumerables.hashJoin(outer, inner, v -> v[0], v -> v[0],
+                JOIN_TO_STRING, null, false, true, null, 1_000L, "join"));
+    assertThat(actual, hasSize(2505));
+    assertThat(actual, equalTo(expected));
+  }
+
+  @Test void testGroupBySpills() {
+    final Enumerable<Object[]> input = rows("e", 5000, 1200);
+    final List<String> expected =
+        sorted(
+            EnumerableDefaults.groupBy(input, v -> v[0], () -> 0,
+                (acc, v) -> acc + 1, (k, acc) -> k + ":" + acc));
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      final List<String> actual =
+          sorted(
+              SpillingEnumerables.groupBy(input, v -> v[0], () -> 0,
+                  (acc, v) -> acc + 1, (k, acc) -> k + ":" + acc, null,
+                  10_000L, "aggregate"));
+      assertThat(actual, hasSize(1200));
+      assertThat(actual, equalTo(expected));
+    }
+    assertThat(statistics, hasSize(1));
+    assertThat(statistics.get(0).fileCount(), greaterThan(0));
+  }
+
+  /** Tests that a row with a value that is not serializable stays in
+   * memory, even if rows before it have been written to a file. */
+  @Test void testGroupByWithUnserializableRowsSpills() {
+    final List<Object[]> list = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      list.add(
+          new Object[] {i % 1200,
+              i % 7 == 3 ? new Object() : "e" + i});
+    }
+    final Enumerable<Object[]> input = Linq4j.asEnumerable(list);
+    final List<String> expected =
+        sorted(
+            EnumerableDefaults.groupBy(input, v -> v[0], () -> 0,
+                (acc, v) -> acc + 1, (k, acc) -> k + ":" + acc));
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      final List<String> actual =
+          sorted(
+              SpillingEnumerables.groupBy(input, v -> v[0], () -> 0,
+                  (acc, v) -> acc + 1, (k, acc) -> k + ":" + acc, null,
+                  10_000L, "aggregate"));
+      assertThat(actual, hasSize(1200));
+      assertThat(actual, equalTo(expected));
+    }
+    assertThat(statistics, hasSize(1));
+    assertThat(statistics.get(0).fileCount(), greaterThan(0));
+  }
+
+  private static List<String> names(Enumerable<Object[]> enumerable) {
+    return enumerable.select(v -> (String) v[1]).toList();
+  }
+
+  @Test void testOrderByWithinBudget() {
+    final Enumerable<Object[]> input = rows("e", 100, 7);
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      assertThat(
+          names(
+              SpillingEnumerables.orderBy(input, v -> (Integer) v[0], null, 0,
+                  Integer.MAX_VALUE, 1_000_000L, "sort")),
+          equalTo(
+              names(
+                  EnumerableDefaults.orderBy(input, v -> (Integer) v[0],
+                      null))));
+    }
+    assertThat(statistics, hasSize(0));
+  }
+
+  /** Tests that a sort that spills returns the same rows, in the same order,
+   * as an in-memory sort; in particular, that it is stable. */
+  @Test void testOrderBySpills() {
+    final Enumerable<Object[]> input = rows("e", 3000, 97);
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      assertThat(
+          names(
+              SpillingEnumerables.orderBy(input, v -> (Integer) v[0],
+                  Comparator.reverseOrder(), 0, Integer.MAX_VALUE, 10_000L,
+                  "sort")),
+          equalTo(
+              names(
+                  EnumerableDefaults.orderBy(input, v -> (Integer) v[0],
+                      Comparator.reverseOrder()))));
+    }
+    assertThat(statistics, hasSize(1));
+    assertThat(statistics.get(0).maxDepth(), is(1));
+  }
+
+  /** Tests a sort with so many runs that they must be merged in more than
+   * one pass. */
+  @Test void testOrderByMergesInSeveralPasses() {
+    final Enumerable<Object[]> input = rows("e", 5_000, 1_000);
+    final List<SpillStatistics> statistics = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.SPILL.<SpillStatistics>addThread(statistics::add)) {
+      assertThat(
+          names(
+              SpillingEnumerables.orderBy(input, v -> (String) v[1], null, 0,
+                  Integer.MAX_VALUE, 1_000L, "sort")),
+          equalTo(
+              names(
+                  EnumerableDefaults.orderBy(input, v -> (String) v[1],
+                      null))));
+    }
+    assertThat(statistics, hasSize(1));
+    assertThat(statistics.get(0).fileCount(),
+        greaterThan(SpillingEnumerables.MERGE_FAN_IN));
+    assertThat(statistics.get(0).maxDepth(), greaterThan(1));
+  }
+
+  /** Tests that {@link Enumerator#reset()} on a sort that spills reads the
+   * runs again from the start, whether the consumer had read some or all of
+   * the rows. */
+  @Test void testOrderBySpillsReset() {
+    final Enumerable<Object[]> input = rows("e", 3000, 97);
+    final List<String> expected =
+        names(EnumerableDefaults.orderBy(input, v -> (Integer) v[0], null));
+    try (Enumerator<Object[]> enumerator =
+             SpillingEnumerables.orderBy(input, v -> (Integer) v[0], null, 0,
+                 Integer.MAX_VALUE, 10_000L, "sort").enumerator()) {
+      for (int read : new int[] {0, 100, expected.size()}) {
+        for (int i = 0; i < read; i++) {
+          assertThat(enumerator.moveNext(), is(true));
+        }
+        enumerator.reset();
+        final List<String> actual = new ArrayList<>();
+        while (enumerator.moveNext()) {
+          actual.add((String) enumerator.current()[1]);
+        }
+        assertThat(actual, equalTo(expected));
+        enumerator.reset();
+      }
+    }
+  }
+
+  @Test void testOrderByWithOffsetAndFetchSpills() {
+    final Enumerable<Object[]> input = rows("e", 5000, 300);
+    for (int[] offsetFetch : new int[][] {{0, 10}, {25, 40}, {4990, 20}}) {
+      final int offset = offsetFetch[0];
+      final int fetch = offsetFetch[1];
+      assertThat(
+          names(
+              SpillingEnumerables.orderBy(input, v -> (Integer) v[0],
+                  Comparator.naturalOrder(), offset, fetch, 2_000L, "sort")),
+          equalTo(
+              names(
+                  EnumerableDefaults.orderBy(input, v -> (Integer) v[0],
+                      Comparator.naturalOrder(), offset, fetch))));
+    }
+  }
+}
@@ -18,6 +18,7 @@
 
 import org.apache.calcite.plan.RelOptListener;
 import org.apache.calcite.plan.RelOptMaterialization;
+import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.hep.HepMatchOrder;
 import org.apache.calcite.plan.hep.HepPlanner;
 import org.apache.calcite.plan.hep.HepProgram;
@@ -43,6 +44,7 @@
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -363,6 +365,23 @@ private void assertIncludesExactlyOnce(String message, String digest, String sub
     assertThat(applyTimes2, is(87L));
   }
 
+  /** Tests that incremental matching produces the same plan as
+   * non-incremental matching, but fires rules less often, because it does not
+   * retry rules on vertices that have not changed. */
+  @Test void testMatchIncremental() {
+    for (HepMatchOrder matchOrder
+        : new HepMatchOrder[] {HepMatchOrder.ARBITRARY,
+            HepMatchOrder.DEPTH_FIRST}) {
+      final HepTestListener listener1 = new HepTestListener(0);
+      final String plan1 = applyReduceRules(matchOrder, false, listener1);
+      final HepTestListener listener2 = new HepTestListener(0);
+      final String plan2 = applyReduceRules(matchOrder, true, listener2);
+      assertThat(plan2, is(plan1));
+      assertThat(listener2.getApplyTimes(),
+          lessThan(listener1.getApplyTimes()));
+    }
+  }
+
   @Test void testMaterialization() {
     HepPlanner planner = new HepPlanner(HepProgram.builder().build());
     RelNode tableRel = sql("select * from dept").toRel();
@@ -391,6 +410,20 @@ private long checkRuleApplyCount(HepMatchOrder matchOrder) {
     return listener.getApplyTimes();
   }
 
+  private String applyReduceRules(HepMatchOrder matchOrder,
+      boolean incremental, HepTestListener listener) {
+    final HepProgramBuilder programBuilder = HepProgram.builder();
+    programBuilder.addMatchOrder(matchOrder);
+    programBuilder.addMatchIncremental(incremental);
+    programBuilder.addRuleInstance(CoreRules.FILTER_REDUCE_EXPRESSIONS);
+    programBuilder.addRuleInstance(CoreRules.PROJECT_REDUCE_EXPRESSIONS);
+
+    HepPlanner planner = new HepPlanner(programBuilder.build());
+    planner.addListener(listener);
+    planner.setRoot(sql(COMPLEX_UNION_TREE).toRel());
+    return RelOptUtil.toString(planner.findBestExp());
+  }
+
   /** Listener for HepPlannerTest; counts how many times rules fire. */
   private static class HepTestListener implements RelOptListener {
     private long applyTimes;
@@ -20,6 +20,7 @@
 import org.apache.calcite.adapter.enumerable.EnumUtils;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.config.CalciteConnectionProperty;
 import org.apache.calcite.interpreter.Interpreter;
 import org.apache.calcite.linq4j.QueryProvider;
 import org.apache.calcite.plan.hep.HepPlanner;
@@ -31,6 +32,7 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.schema.ScalarFunction;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.TableFunction;
@@ -47,6 +49,7 @@
 import org.apache.calcite.tools.RelBuilder;
 import org.apache.calcite.tools.RelConversionException;
 import org.apache.calcite.tools.ValidationException;
+import org.apache.calcite.util.Holder;
 import org.apache.calcite.util.Smalls;
 import org.apache.calcite.util.Util;
 
@@ -57,10 +60,14 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -349,6 +356,20 @@ private static void assertRows(Interpreter interpreter,
             "[Ringo, 1]");
   }
 
+  /** Tests a chain of filters, projects and an aggregate; the interpreter
+   * passes each row along the chain as it is produced, rather than queueing
+   * the rows between each pair of nodes. */
+  @Test void testInterpretFilterProjectAggregate() {
+    final String sql = "select y, count(*), sum(x2)\n"
+        + "from (select x * 2 as x2, y\n"
+        + "  from (values (1, 'a'), (2, 'b'), (3, 'a'), (4, 'b'), (5, 'a'))\n"
+        + "    as t(x, y)\n"
+        + "  where x > 1)\n"
+        + "where x2 < 10\n"
+        + "group by y";
+    sql(sql).returnsRowsUnordered("[a, 1, 6]", "[b, 2, 12]");
+  }
+
   /** Tests executing a plan on a single-column
    * {@link org.apache.calcite.schema.ScannableTable} using an interpreter. */
   @Test void testInterpretSimpleScannableTable() {
@@ -565,6 +586,30 @@ private static void assertRows(Interpreter interpreter,
     sql(sql).returnsRows("[a, -1.2, 15.0, 16.1, 5.366666666666667]");
   }
 
+  /** Tests aggregates over INTEGER and DOUBLE values, which the interpreter
+   * computes using generated code. */
+  @Test void testInterpretCompiledAggregate() {
+    final String sql = "select x, count(*), count(y), sum(y), min(y), max(y),\n"
+        + "  count(*) filter (where y > 0)\n"
+        + "from (values ('a', -3), ('a', 5), ('a', cast(null as integer)),\n"
+        + "  ('b', cast(null as integer))) as t(x, y)\n"
+        + "group by x";
+    sql(sql).returnsRowsUnordered("[a, 3, 2, 2, -3, 5, 1]",
+        "[b, 1, 0, null, null, null, 0]");
+
+    reset();
+    sql("select min(d), max(d) from (values (-2.5e0), (-1.5e0)) as t(d)")
+        .returnsRows("[-2.5, -1.5]");
+
+    // COUNT(DISTINCT) cannot be generated, so this query uses the
+    // accumulators MinDouble, MaxDouble, MinBigDecimal and MaxBigDecimal
+    reset();
+    sql("select min(d), max(d), min(cast(d as decimal(2, 1))),\n"
+        + "  max(cast(d as decimal(2, 1))), count(distinct d)\n"
+        + "from (values (-2.5e0), (-1.5e0)) as t(d)")
+        .returnsRows("[-2.5, -1.5, -2.5, -1.5, 2]");
+  }
+
   @Test void testInterpretUnnest() {
     sql("select * from unnest(array[1, 2])").returnsRows("[1]", "[2]");
 
@@ -737,4 +782,65 @@ private static void assertRows(Interpreter interpreter,
                 .build())
         .returnsRows("[]", "[]");
   }
+
+  /** Tests a connection that interprets each query while its code is
+   * compiled in the background. */
+  @Test void testAsyncCompile() {
+    final CalciteAssert.AssertThat with =
+        CalciteAssert.hr()
+            .with(CalciteConnectionProperty.ASYNC_COMPILE, true);
+    // Several columns; rows are arrays
+    with.query("select \"empid\", \"name\" from \"hr\".\"emps\"\n"
+            + "where \"deptno\" = 20")
+        .returns("empid=200; name=Eric\n");
+    // One column; the interpreter's rows are converted to scalars
+    with.query("select \"name\" from \"hr\".\"emps\"\n"
+            + "where \"empid\" > 150")
+        .returns("name=Eric\n");
+    // Sort with fetch and aggregate
+    with.query("select \"deptno\", count(*) as c from \"hr\".\"emps\"\n"
+            + "group by \"deptno\" order by \"deptno\" limit 1")
+        .returns("deptno=10; C=3\n");
+  }
+
+  /** Tests that a statement compiled in the background is first executed by
+   * the interpreter, and by the compiled code once it is ready. */
+  @Test void testAsyncCompileSwitchesToCompiledCode() throws Exception {
+    final List<Boolean> compiled = new ArrayList<>();
+    final AtomicBoolean forceInterpreter = new AtomicBoolean(true);
+    try (Connection connection = CalciteAssert.hr()
+             .with(CalciteConnectionProperty.ASYNC_COMPILE, true)
+             .connect();
+         PreparedStatement statement =
+             connection.prepareStatement("select \"empid\", \"name\"\n"
+                 + "from \"hr\".\"emps\" where \"deptno\" = 20");
+         Hook.Closeable ignored =
+             Hook.USE_COMPILED_CODE.addThread((Holder<Boolean> holder) -> {
+               compiled.add(holder.get());
+               if (forceInterpreter.get()) {
+                 holder.set(false);
+               }
+             })) {
+      // The first execution uses the interpreter, even if the code happens
+      // to have been compiled already
+      try (ResultSet resultSet = statement.executeQuery()) {
+        assertThat(CalciteAssert.toString(resultSet),
+            is("empid=200; name=Eric\n"));
+      }
+      assertThat(compiled.size(), is(1));
+
+      // Later executions use the compiled code as soon as it is ready
+      forceInterpreter.set(false);
+      final long deadline = System.currentTimeMillis() + 60_000;
+      do {
+        assertThat("code not compiled in time",
+            System.currentTimeMillis() < deadline, is(true));
+        Thread.sleep(10);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          assertThat(CalciteAssert.toString(resultSet),
+              is("empid=200; name=Eric\n"));
+        }
+      } while (!Util.last(compiled));
+    }
+  }
 }
@@ -19,6 +19,7 @@
 import org.apache.calcite.avatica.util.ByteString;
 import org.apache.calcite.avatica.util.DateTimeUtils;
 import org.apache.calcite.runtime.CalciteException;
+import org.apache.calcite.runtime.PatternFunction;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.runtime.Utilities;
 
@@ -191,6 +192,68 @@ static <E> List<E> list() {
     }
   }
 
+  /** Tests {@link PatternFunction#like(String, String)}, which matches
+   * patterns that have no {@code _} wildcard without using a regular
+   * expression. */
+  @Test void testLike() {
+    final PatternFunction f = new PatternFunction();
+    assertThat(f.like("abc", "abc"), is(true));
+    assertThat(f.like("abc", "ab"), is(false));
+    assertThat(f.like("abc", "abcd"), is(false));
+    assertThat(f.like("abc", "ab%"), is(true));
+    assertThat(f.like("abc", "%bc"), is(true));
+    assertThat(f.like("abc", "%b%"), is(true));
+    assertThat(f.like("abc", "%d%"), is(false));
+    assertThat(f.like("abc", "%"), is(true));
+    assertThat(f.like("", "%"), is(true));
+    assertThat(f.like("", "%%"), is(true));
+    assertThat(f.like("", ""), is(true));
+    assertThat(f.like("a", "%a%a%"), is(false));
+    assertThat(f.like("aa", "%a%a%"), is(true));
+    assertThat(f.like("aXbXc", "a%b%c"), is(true));
+    assertThat(f.like("aXcXb", "a%b%c"), is(false));
+    // The first and last segments must not overlap
+    assertThat(f.like("aba", "ab%ba"), is(false));
+    assertThat(f.like("abba", "ab%ba"), is(true));
+    assertThat(f.like("abXba", "ab%b%ba"), is(false));
+    assertThat(f.like("abXbXba", "ab%X%ba"), is(true));
+    // '%' matches line terminators, '_' does not
+    assertThat(f.like("a\nb", "a%b"), is(true));
+    assertThat(f.like("a\nb", "a_b"), is(false));
+    assertThat(f.like("axb", "a_b"), is(true));
+    // Characters that are special in regular expressions
+    assertThat(f.like("a.c", "a.c"), is(true));
+    assertThat(f.like("abc", "a.c"), is(false));
+    assertThat(f.like("(a*)", "(a*)%"), is(true));
+
+    assertThat(f.like("a%c", "a\\%c", "\\"), is(true));
+    assertThat(f.like("abc", "a\\%c", "\\"), is(false));
+    assertThat(f.like("a_c", "a\\_c", "\\"), is(true));
+    assertThat(f.like("abc", "a\\_c", "\\"), is(false));
+    assertThat(f.like("a\\c", "a\\\\c", "\\"), is(true));
+    assertThat(f.like("a%cd", "%!%c%", "!"), is(true));
+
+    try {
+      f.like("abc", "a\\bc", "\\");
+      fail("expected error");
+    } catch (RuntimeException e) {
+      assertThat(e.getMessage(), is("Invalid escape sequence 'a\\bc', 1"));
+    }
+    try {
+      f.like("abc", "abc", "\\\\");
+      fail("expected error");
+    } catch (RuntimeException e) {
+      assertThat(e.getMessage(), is("Invalid escape character '\\\\'"));
+    }
+
+    // The same function object gives correct results if the pattern changes
+    assertThat(f.ilike("ABC", "a%"), is(true));
+    assertThat(f.similar("abc", "a(b|x)c"), is(true));
+    assertThat(f.rlike("abc", "b"), is(true));
+    assertThat(f.regexpReplace("abc", "b", "X"), is("aXc"));
+    assertThat(f.like("ABC", "a%"), is(false));
+  }
+
   @Test void testLower() {
     assertThat(lower("A bCd Iijk"), is("a bcd iijk"));
   }
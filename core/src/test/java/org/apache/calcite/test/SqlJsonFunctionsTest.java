@@ -87,6 +87,40 @@ class SqlJsonFunctionsTest {
             JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, 100)));
   }
 
+  /** Tests paths that consist only of member and array accessors, which are
+   * evaluated by streaming over the document; the results must be the same as
+   * when the path is evaluated over the parsed document. */
+  @Test void testJsonApiCommonSyntaxSimplePath() {
+    final String input = "{\"a\": {\"b\": [1, {\"c\": \"x\"}]}, \"d\": null}";
+    assertJsonApiCommonSyntax(input, "$.a.b[1].c",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.STRICT, "x")));
+    assertJsonApiCommonSyntax(input, "lax $.a.b[0]",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, 1)));
+    assertJsonApiCommonSyntax(input, "strict $.a.b",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.STRICT,
+                Arrays.asList(1, Collections.singletonMap("c", "x")))));
+    assertJsonApiCommonSyntax(input, "lax $.a.b[2]",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, null)));
+    assertJsonApiCommonSyntax(input, "lax $.d",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, null)));
+    assertJsonApiCommonSyntax(input, "lax $['a']['b'][1]['c']",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, "x")));
+    // If a key occurs more than once, the last value wins
+    assertJsonApiCommonSyntax("{\"a\": 1, \"a\": 2}", "$.a",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.STRICT, 2)));
+    // The value is found, but the document is invalid
+    assertJsonApiCommonSyntax("{\"a\": 1, \"b\": [}", "lax $.a",
+        contextMatches(
+            JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, null)));
+  }
+
   @Test void testJsonExists() {
     assertJsonExists(
         JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.STRICT, "bar"),
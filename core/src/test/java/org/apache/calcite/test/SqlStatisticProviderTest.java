@@ -21,6 +21,8 @@
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelTraitDef;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.schema.ColumnStatistic;
+import org.apache.calcite.schema.Histogram;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.sql.parser.SqlParser;
 import org.apache.calcite.statistic.CachingSqlStatisticProvider;
@@ -46,6 +48,8 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Unit test for {@link org.apache.calcite.materialize.SqlStatisticProvider}
  * and implementations of it.
@@ -90,6 +94,26 @@ public static Frameworks.ConfigBuilder config() {
     assertThat(counter.get(), is(expectedQueryCount)); // no more queries
   }
 
+  @Test void testQueryProviderColumnStatistic() {
+    final SqlStatisticProvider provider =
+        new QuerySqlStatisticProvider(Util::discard);
+    final RelBuilder relBuilder = RelBuilder.create(config().build());
+    final RelOptTable productTable =
+        requireNonNull(relBuilder.scan("product").build().getTable());
+    final ColumnStatistic statistic =
+        requireNonNull(
+            provider.columnStatistic(productTable,
+                columns(productTable, "product_id").get(0)));
+    assertThat(statistic.distinctCount, is(1_560.0d));
+    assertThat(statistic.nullFraction, is(0.0d));
+    final Histogram histogram = requireNonNull(statistic.histogram);
+    assertThat(histogram.bucketCount(), is(100));
+    assertThat(histogram.min().toString(), is("1"));
+    assertThat(histogram.max().toString(), is("1560"));
+    assertThat(histogram.fractionBelow(780, true),
+        Matchers.within(0.5d, 0.01d));
+  }
+
   private void check(SqlStatisticProvider provider) {
     final RelBuilder relBuilder = RelBuilder.create(config().build());
     final RelNode productScan = relBuilder.scan("product").build();
@@ -17,13 +17,24 @@
 package org.apache.calcite.test.enumerable;
 
 import org.apache.calcite.adapter.java.ReflectiveSchema;
+import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.test.schemata.hr.HrSchema;
+import org.apache.calcite.util.Holder;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
 /**
  * Unit test for
  * {@link org.apache.calcite.adapter.enumerable.EnumerableCalc}.
@@ -87,6 +98,25 @@ class EnumerableCalcTest {
         "empid=100; name=Bill", "empid=110; name=Theodore", "empid=150; name=Sebastian");
   }
 
+  /** Tests that queries that differ only in the values of their literals
+   * generate the same code if {@link Hook#HOIST_LITERALS} is enabled. */
+  @Test void testHoistLiterals() {
+    final Set<String> plans = new LinkedHashSet<>();
+    final String[][] names = {{"Eric", "E=202"}, {"Bill", "E=102"}};
+    for (String[] name : names) {
+      CalciteAssert.that()
+          .withSchema("s", new ReflectiveSchema(new HrSchema()))
+          .query("select \"empid\" + 2 as e from \"s\".\"emps\"\n"
+              + "where \"name\" = '" + name[0] + "'")
+          .withHook(Hook.HOIST_LITERALS,
+              (Consumer<Holder<Boolean>>) holder -> holder.set(true))
+          .withHook(Hook.JAVA_PLAN, (Consumer<String>) plans::add)
+          .returns(name[1] + "\n");
+    }
+    assertThat(plans, hasSize(1));
+    assertThat(plans.iterator().next(), not(containsString("Eric")));
+  }
+
   private void checkPosixRegex(
       String literalValue,
       SqlOperator operator,
@@ -17,6 +17,8 @@
 package org.apache.calcite.tools;
 
 import org.apache.calcite.adapter.enumerable.EnumerableConvention;
+import org.apache.calcite.adapter.enumerable.EnumerableHashJoin;
+import org.apache.calcite.adapter.enumerable.EnumerableNestedLoopJoin;
 import org.apache.calcite.adapter.enumerable.EnumerableProject;
 import org.apache.calcite.adapter.enumerable.EnumerableRules;
 import org.apache.calcite.adapter.enumerable.EnumerableTableScan;
@@ -26,6 +28,7 @@
 import org.apache.calcite.adapter.jdbc.JdbcRel;
 import org.apache.calcite.adapter.jdbc.JdbcRules;
 import org.apache.calcite.config.Lex;
+import org.apache.calcite.jdbc.CalciteConnection;
 import org.apache.calcite.plan.ConventionTraitDef;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptPlanner;
@@ -40,7 +43,9 @@
 import org.apache.calcite.rel.RelCollationTraitDef;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.rel.RelVisitor;
 import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.core.RelFactories;
 import org.apache.calcite.rel.core.TableScan;
@@ -48,6 +53,7 @@
 import org.apache.calcite.rel.logical.LogicalProject;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.rules.CoreRules;
+import org.apache.calcite.rel.rules.MultiJoinOptimizeDphypRule;
 import org.apache.calcite.rel.rules.ProjectMergeRule;
 import org.apache.calcite.rel.rules.PruneEmptyRules;
 import org.apache.calcite.rel.rules.UnionMergeRule;
@@ -84,7 +90,9 @@
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.hamcrest.Matcher;
 import org.immutables.value.Value;
 import org.junit.jupiter.api.Assertions;
@@ -92,13 +100,23 @@
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.apache.calcite.test.Matchers.sortsAs;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -1134,17 +1152,161 @@ private void checkHeuristic(String sql, String expected) throws Exception {
     checkBushy(sql, expected);
   }
 
+  /** Tests the dynamic programming join algorithm on a 5-table query. Every
+   * table is joined on a condition, so there are no cartesian products. */
+  @Test void testDphyp5() throws Exception {
+    final String sql = "select *\n"
+        + "from \"sales_fact_1997\" as s\n"
+        + "join \"customer\" as c\n"
+        + "  on s.\"customer_id\" = c.\"customer_id\"\n"
+        + "join \"product\" as p\n"
+        + "  on s.\"product_id\" = p.\"product_id\"\n"
+        + "join \"product_class\" as pc\n"
+        + "  on p.\"product_class_id\" = pc.\"product_class_id\"\n"
+        + "join \"store\" as st\n"
+        + "  on s.\"store_id\" = st.\"store_id\"\n"
+        + "where c.\"city\" = 'San Francisco'\n";
+    final String plan =
+        planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP);
+    assertThat(plan, containsString("EnumerableHashJoin"));
+    assertThat(plan, not(containsString("EnumerableNestedLoopJoin")));
+    assertThat(plan,
+        containsString("EnumerableFilter(condition=[=($9, 'San Francisco')])"));
+    for (String table
+        : new String[] {"sales_fact_1997", "customer", "product",
+            "product_class", "store"}) {
+      assertThat(plan,
+          containsString("EnumerableTableScan(table=[[foodmart2, " + table
+              + "]])"));
+    }
+    final List<String> rows =
+        runJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP);
+    assertThat(rows.isEmpty(), is(false));
+    assertThat(rows, is(runJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE)));
+  }
+
+  /** Tests the dynamic programming join algorithm where one table does not
+   * join to anything. */
+  @Test void testDphypCrossJoin() throws Exception {
+    final String sql = "select * from \"sales_fact_1997\" as s\n"
+        + "join \"customer\" as c\n"
+        + "  on s.\"customer_id\" = c.\"customer_id\"\n"
+        + "cross join \"department\" as d\n"
+        + "join \"employee\" as e\n"
+        + "  on d.\"department_id\" = e.\"department_id\"";
+    final String plan =
+        planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP);
+    assertThat(plan,
+        containsString("EnumerableNestedLoopJoin(condition=[true], "
+            + "joinType=[inner])"));
+
+    // The only cartesian product is between the two connected components;
+    // each component is a hash join.
+    final List<Join> joins =
+        joins(
+            planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP,
+                Frameworks.createRootSchema(true)));
+    assertThat(joins.size(), is(3));
+    final Join top = joins.get(0);
+    assertThat(top, instanceOf(EnumerableNestedLoopJoin.class));
+    assertThat(top.getCondition().isAlwaysTrue(), is(true));
+    final Set<Set<String>> components =
+        ImmutableSet.of(ImmutableSet.of("department", "employee"),
+            ImmutableSet.of("customer", "sales_fact_1997"));
+    final Set<Set<String>> inputs =
+        ImmutableSet.of(tableNames(top.getLeft()), tableNames(top.getRight()));
+    assertThat(inputs, is(components));
+    for (Join join : joins.subList(1, joins.size())) {
+      assertThat(join, instanceOf(EnumerableHashJoin.class));
+    }
+  }
+
+  /** Tests the dynamic programming join algorithm on a query with an outer
+   * join. The null-generating input must remain the right input of a LEFT
+   * join. */
+  @Test void testDphypLeftJoin() throws Exception {
+    final String sql = "select *\n"
+        + "from \"sales_fact_1997\" as s\n"
+        + "join \"product\" as p\n"
+        + "  on s.\"product_id\" = p.\"product_id\"\n"
+        + "left join \"customer\" as c\n"
+        + "  on s.\"customer_id\" = c.\"customer_id\"\n"
+        + "where p.\"brand_name\" = 'Washington'";
+    final String plan =
+        planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP);
+    assertThat(plan, containsString("joinType=[left]"));
+
+    // The right input of the LEFT join is customer alone; its left input
+    // contains sales_fact_1997, which the ON condition references
+    final List<Join> joins =
+        joins(
+            planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP,
+                Frameworks.createRootSchema(true)));
+    assertThat(joins.size(), is(2));
+    final List<Join> leftJoins = new ArrayList<>();
+    for (Join join : joins) {
+      if (join.getJoinType() == JoinRelType.LEFT) {
+        leftJoins.add(join);
+      }
+    }
+    assertThat(leftJoins.size(), is(1));
+    assertThat(tableNames(leftJoins.get(0).getRight()),
+        is(ImmutableSet.of("customer")));
+    assertThat(tableNames(leftJoins.get(0).getLeft()),
+        hasItem("sales_fact_1997"));
+
+    final List<String> rows =
+        runJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP);
+    assertThat(rows.isEmpty(), is(false));
+    assertThat(rows, is(runJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE)));
+  }
+
+  /** Tests that the dynamic programming join algorithm uses the greedy
+   * algorithm if there are more inputs than its limit. */
+  @Test void testDphypFallback() throws Exception {
+    final String sql = "select *\n"
+        + "from \"sales_fact_1997\" as s\n"
+        + "join \"customer\" as c\n"
+        + "  on s.\"customer_id\" = c.\"customer_id\"\n"
+        + "join \"product\" as p\n"
+        + "  on s.\"product_id\" = p.\"product_id\"\n"
+        + "join \"product_class\" as pc\n"
+        + "  on p.\"product_class_id\" = pc.\"product_class_id\"";
+    final RelOptRule rule =
+        CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP.config
+            .as(MultiJoinOptimizeDphypRule.Config.class)
+            .withMaxFactorCount(3)
+            .toRule();
+    assertThat(planJoinOrder(sql, rule),
+        is(planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE)));
+  }
+
   /** Checks that a query returns a particular plan, using a planner with
    * MultiJoinOptimizeBushyRule enabled. */
   private void checkBushy(String sql, String expected) throws Exception {
-    final SchemaPlus rootSchema = Frameworks.createRootSchema(true);
+    assertThat(planJoinOrder(sql, CoreRules.MULTI_JOIN_OPTIMIZE_BUSHY),
+        containsString(expected));
+  }
+
+  /** Plans a query, using a planner that orders joins using a given rule. */
+  private String planJoinOrder(String sql, RelOptRule multiJoinRule)
+      throws Exception {
+    return toString(
+        planJoinOrder(sql, multiJoinRule, Frameworks.createRootSchema(true)));
+  }
+
+  /** Plans a query against the FoodMart schema, which is added to a given
+   * root schema, using a planner that orders joins using a given rule. */
+  private static RelNode planJoinOrder(String sql, RelOptRule multiJoinRule,
+      SchemaPlus rootSchema) throws Exception {
     final FrameworkConfig config = Frameworks.newConfigBuilder()
         .parserConfig(SqlParser.Config.DEFAULT)
         .defaultSchema(
             CalciteAssert.addSchema(rootSchema,
                 CalciteAssert.SchemaSpec.CLONE_FOODMART))
         .traitDefs((List<RelTraitDef>) null)
-        .programs(Programs.heuristicJoinOrder(Programs.RULE_SET, true, 2))
+        .programs(
+            Programs.heuristicJoinOrder(Programs.RULE_SET, multiJoinRule, 2))
         .build();
     Planner planner = Frameworks.getPlanner(config);
     SqlNode parse = planner.parse(sql);
@@ -1153,8 +1315,58 @@ private void checkBushy(String sql, String expected) throws Exception {
     RelNode convert = planner.rel(validate).project();
     RelTraitSet traitSet = convert.getTraitSet()
         .replace(EnumerableConvention.INSTANCE);
-    RelNode transform = planner.transform(0, traitSet, convert);
-    assertThat(toString(transform), containsString(expected));
+    return planner.transform(0, traitSet, convert);
+  }
+
+  /** Plans a query using {@link #planJoinOrder(String, RelOptRule, SchemaPlus)},
+   * executes the plan, and returns its rows in sorted order. */
+  private static List<String> runJoinOrder(String sql, RelOptRule multiJoinRule)
+      throws Exception {
+    try (Connection connection = DriverManager.getConnection("jdbc:calcite:")) {
+      final CalciteConnection calciteConnection =
+          connection.unwrap(CalciteConnection.class);
+      final RelNode rel =
+          planJoinOrder(sql, multiJoinRule, calciteConnection.getRootSchema());
+      final List<String> rows = new ArrayList<>();
+      try (PreparedStatement statement =
+               connection.unwrap(RelRunner.class).prepareStatement(rel);
+           ResultSet resultSet = statement.executeQuery()) {
+        final int columnCount = resultSet.getMetaData().getColumnCount();
+        while (resultSet.next()) {
+          final StringBuilder b = new StringBuilder();
+          for (int i = 1; i <= columnCount; i++) {
+            b.append(i > 1 ? "; " : "").append(resultSet.getString(i));
+          }
+          rows.add(b.toString());
+        }
+      }
+      Collections.sort(rows);
+      return rows;
+    }
+  }
+
+  /** Returns the joins in a plan, parents before their inputs. */
+  private static List<Join> joins(RelNode rel) {
+    final List<Join> joins = new ArrayList<>();
+    new RelVisitor() {
+      @Override public void visit(RelNode node, int ordinal,
+          @Nullable RelNode parent) {
+        if (node instanceof Join) {
+          joins.add((Join) node);
+        }
+        super.visit(node, ordinal, parent);
+      }
+    }.go(rel);
+    return joins;
+  }
+
+  /** Returns the names of the tables that a relational expression reads. */
+  private static Set<String> tableNames(RelNode rel) {
+    final Set<String> names = new TreeSet<>();
+    for (RelOptTable table : RelOptUtil.findTables(rel)) {
+      names.add(Util.last(table.getQualifiedName()));
+    }
+    return names;
   }
 
   /** Rule that matches a Project on a Filter. */
@@ -32,15 +32,22 @@
 import au.com.bytecode.opencsv.CSVReader;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -107,7 +114,22 @@ public CsvEnumerator(Source source, AtomicBoolean cancelFlag, boolean stream,
     }
   }
 
-  private static RowConverter<?> converter(List<RelDataType> fieldTypes,
+  /** Creates a CsvEnumerator that reads a range of bytes of a file. The
+   * range must start and end at row boundaries, as returned by
+   * {@link #splitOffsets}; the enumerator does not skip a header row. */
+  CsvEnumerator(Source source, long start, long end, AtomicBoolean cancelFlag,
+      RowConverter<E> rowConverter) {
+    this.cancelFlag = cancelFlag;
+    this.rowConverter = rowConverter;
+    this.filterValues = null;
+    try {
+      this.reader = openCsv(source, start, end);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  static RowConverter<?> converter(List<RelDataType> fieldTypes,
       List<Integer> fields) {
     if (fields.size() == 1) {
       final int field = fields.get(0);
@@ -221,6 +243,86 @@ static CSVReader openCsv(Source source) throws IOException {
     return new CSVReader(source.reader());
   }
 
+  /** Opens a reader over bytes {@code start} (inclusive) to {@code end}
+   * (exclusive) of a CSV file. */
+  static CSVReader openCsv(Source source, long start, long end)
+      throws IOException {
+    final FileInputStream in = new FileInputStream(source.file());
+    try {
+      in.getChannel().position(start);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+    return new CSVReader(
+        new InputStreamReader(ByteStreams.limit(in, end - start),
+            StandardCharsets.UTF_8));
+  }
+
+  /** Returns the offsets at which a CSV file can be divided into ranges of
+   * rows that can be read independently, or null if the file cannot be
+   * divided.
+   *
+   * <p>The first offset is the start of the first row after the header, and
+   * the last is the length of the file. There are at most
+   * {@code maxSplitCount} ranges, each at least {@code minSplitBytes} long
+   * (except perhaps the last).
+   *
+   * <p>Only local, uncompressed files can be divided. Finding row boundaries
+   * requires reading the file, because a line feed inside a quoted value does
+   * not end a row; but this is much cheaper than parsing the rows.
+   *
+   * <p>opencsv also treats a backslash as an escape character, inside and
+   * outside quotes, with rules that are hard to mirror exactly; so the search
+   * for row boundaries stops at the first backslash. Boundaries before it are
+   * still valid, because each range is parsed from a row boundary. */
+  static long @Nullable [] splitOffsets(Source source, int maxSplitCount,
+      long minSplitBytes) throws IOException {
+    if (!"file".equals(source.protocol()) || source.path().endsWith(".gz")) {
+      return null;
+    }
+    final File file = source.file();
+    final long length = file.length();
+    final int splitCount =
+        (int) Math.min(maxSplitCount, length / Math.max(1, minSplitBytes));
+    if (splitCount <= 1) {
+      return null;
+    }
+    final long[] offsets = new long[splitCount + 1];
+    int n = 0;
+    try (InputStream in = new FileInputStream(file)) {
+      final byte[] buffer = new byte[1 << 16];
+      boolean quoted = false;
+      long position = 0;
+      long target = 0;
+    loop:
+      for (int count; (count = in.read(buffer)) > 0;) {
+        for (int i = 0; i < count; i++) {
+          final byte b = buffer[i];
+          ++position;
+          if (b == '"') {
+            quoted = !quoted;
+          } else if (b == '\\') {
+            break loop;
+          } else if (b == '\n' && !quoted && position >= target) {
+            offsets[n++] = position;
+            if (n == splitCount) {
+              break loop;
+            }
+            target = length * n / splitCount;
+          }
+        }
+      }
+    }
+    if (n == 0) {
+      // There is no row after the header
+      return null;
+    }
+    final long[] offsets2 = Arrays.copyOf(offsets, n + 1);
+    offsets2[n] = length;
+    return offsets2;
+  }
+
   @Override public E current() {
     return castNonNull(current);
   }
@@ -16,15 +16,25 @@
  */
 package org.apache.calcite.adapter.file;
 
+import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.schema.impl.AbstractTable;
 import org.apache.calcite.util.Source;
 
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Base class for table that reads CSV files.
@@ -33,6 +43,10 @@
  * with more advanced features.
  */
 public abstract class CsvTable extends AbstractTable {
+  /** Minimum number of bytes in each range of a file that is read
+   * concurrently with other ranges. */
+  static final long MIN_SPLIT_BYTES = 1 << 20;
+
   protected final Source source;
   protected final RelProtoDataType protoRowType;
   private RelDataType rowType;
@@ -66,6 +80,45 @@ public List<RelDataType> getFieldTypes(RelDataTypeFactory typeFactory) {
     return fieldTypes;
   }
 
+  /** Returns enumerables over consecutive ranges of the rows of this table.
+   * Reading them one after another returns the same rows as reading the
+   * whole file. Returns a single enumerable if the file cannot be divided
+   * (because it is small, compressed, remote, or a stream). */
+  <E> List<Enumerable<E>> scanRanges(DataContext root,
+      CsvEnumerator.RowConverter<E> rowConverter, int maxSplitCount) {
+    final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get(root);
+    final long @Nullable [] offsets;
+    try {
+      offsets = isStream()
+          ? null
+          : CsvEnumerator.splitOffsets(source, maxSplitCount, MIN_SPLIT_BYTES);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (offsets == null) {
+      return ImmutableList.of(
+          new AbstractEnumerable<E>() {
+            @Override public Enumerator<E> enumerator() {
+              return new CsvEnumerator<>(source, cancelFlag, isStream(), null,
+                  rowConverter);
+            }
+          });
+    }
+    final List<Enumerable<E>> list = new ArrayList<>();
+    for (int i = 0; i < offsets.length - 1; i++) {
+      final long start = offsets[i];
+      final long end = offsets[i + 1];
+      list.add(
+          new AbstractEnumerable<E>() {
+            @Override public Enumerator<E> enumerator() {
+              return new CsvEnumerator<>(source, start, end, cancelFlag,
+                  rowConverter);
+            }
+          });
+    }
+    return list;
+  }
+
   /** Returns whether the table represents a stream. */
   protected boolean isStream() {
     return false;
@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.adapter.file;
 
+import org.apache.calcite.adapter.enumerable.EnumUtils;
 import org.apache.calcite.adapter.enumerable.EnumerableConvention;
 import org.apache.calcite.adapter.enumerable.EnumerableRel;
 import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
@@ -106,6 +107,17 @@ protected CsvTableScan(RelOptCluster cluster, RelOptTable table,
             getRowType(),
             pref.preferArray());
 
+    final int parallelism = EnumUtils.parallelism(this);
+    if (parallelism > 1) {
+      return implementor.result(
+          physType,
+          Blocks.toBlock(
+              Expressions.call(
+                  table.getExpression(CsvTranslatableTable.class),
+                  "project", implementor.getRootExpression(),
+                  Expressions.constant(fields),
+                  Expressions.constant(parallelism, int.class))));
+    }
     return implementor.result(
         physType,
         Blocks.toBlock(
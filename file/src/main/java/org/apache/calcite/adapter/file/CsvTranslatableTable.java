@@ -26,15 +26,23 @@
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelProtoDataType;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.runtime.ParallelEnumerables;
 import org.apache.calcite.schema.QueryableTable;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.schema.SplittableTable;
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.util.ImmutableIntList;
 import org.apache.calcite.util.Source;
+import org.apache.calcite.util.Util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.lang.reflect.Type;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -44,7 +52,7 @@
  * with more advanced features.
  */
 public class CsvTranslatableTable extends CsvTable
-    implements QueryableTable, TranslatableTable {
+    implements QueryableTable, TranslatableTable, SplittableTable {
   /** Creates a CsvTable. */
   CsvTranslatableTable(Source source, RelProtoDataType protoRowType) {
     super(source, protoRowType);
@@ -68,6 +76,40 @@ public Enumerable<Object> project(final DataContext root,
     };
   }
 
+  /** Returns an enumerable over a given projection of the fields, reading up
+   * to {@code parallelism} ranges of the file concurrently. */
+  @SuppressWarnings({"unchecked", "unused"}) // called from generated code
+  public Enumerable<Object> project(final DataContext root,
+      final int[] fields, final int parallelism) {
+    return new AbstractEnumerable<Object>() {
+      @Override public Enumerator<Object> enumerator() {
+        JavaTypeFactory typeFactory = root.getTypeFactory();
+        final CsvEnumerator.RowConverter<Object> rowConverter =
+            (CsvEnumerator.RowConverter<Object>)
+                CsvEnumerator.converter(getFieldTypes(typeFactory),
+                    ImmutableIntList.of(fields));
+        return ParallelEnumerables.concat(
+            scanRanges(root, rowConverter, parallelism), parallelism)
+            .enumerator();
+      }
+    };
+  }
+
+  @Override public List<Split> splits(DataContext root, List<RexNode> filters,
+      int @Nullable [] projects, int maxSplitCount) {
+    final JavaTypeFactory typeFactory = root.getTypeFactory();
+    final List<RelDataType> fieldTypes = getFieldTypes(typeFactory);
+    final int[] fields = projects != null
+        ? projects
+        : CsvEnumerator.identityList(fieldTypes.size());
+    final List<Enumerable<@Nullable Object[]>> ranges =
+        scanRanges(root,
+            CsvEnumerator.arrayConverter(fieldTypes,
+                ImmutableIntList.of(fields), false),
+            maxSplitCount);
+    return Util.transform(ranges, range -> () -> range);
+  }
+
   @Override public Expression getExpression(SchemaPlus schema, String tableName,
       Class clazz) {
     return Schemas.tableExpression(schema, getElementType(), tableName, clazz);
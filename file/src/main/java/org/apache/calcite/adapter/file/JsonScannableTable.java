@@ -21,19 +21,29 @@
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.schema.SplittableTable;
 import org.apache.calcite.util.Source;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Table based on a JSON file.
  *
  * <p>It implements the {@link ScannableTable} interface, so Calcite gets
- * data by calling the {@link #scan(DataContext)} method.
+ * data by calling the {@link #scan(DataContext)} method. It also implements
+ * {@link SplittableTable}, so that Calcite can convert several ranges of
+ * the rows concurrently.
  */
 public class JsonScannableTable extends JsonTable
-    implements ScannableTable {
+    implements ScannableTable, SplittableTable {
+  /** Minimum number of rows in a split. */
+  static final int MIN_SPLIT_SIZE = 1024;
+
   /**
    * Creates a JsonScannableTable.
    */
@@ -53,4 +63,25 @@ public JsonScannableTable(Source source) {
       }
     };
   }
+
+  @Override public List<Split> splits(DataContext root,
+      List<RexNode> filters, int @Nullable [] projects, int maxSplitCount) {
+    final List<Object> dataList = getDataList(root.getTypeFactory());
+    final int size = dataList.size();
+    final int splitCount =
+        Math.max(1, Math.min(maxSplitCount, size / MIN_SPLIT_SIZE));
+    final List<Split> splits = new ArrayList<>();
+    for (int i = 0; i < splitCount; i++) {
+      final List<Object> rows =
+          dataList.subList((int) ((long) size * i / splitCount),
+              (int) ((long) size * (i + 1) / splitCount));
+      splits.add(() ->
+          new AbstractEnumerable<@Nullable Object[]>() {
+            @Override public Enumerator<@Nullable Object[]> enumerator() {
+              return new JsonEnumerator(rows);
+            }
+          });
+    }
+    return splits;
+  }
 }
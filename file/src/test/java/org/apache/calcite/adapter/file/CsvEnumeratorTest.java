@@ -16,10 +16,32 @@
  */
 package org.apache.calcite.adapter.file;
 
+import org.apache.calcite.util.Source;
+import org.apache.calcite.util.Sources;
+
+import au.com.bytecode.opencsv.CSVReader;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -55,4 +77,98 @@ class CsvEnumeratorTest {
     assertThrows(IllegalArgumentException.class,
         () -> CsvEnumerator.parseDecimal(4, 2, "-123.45"));
   }
+
+  /** Tests that the ranges returned by {@link CsvEnumerator#splitOffsets}
+   * start and end at row boundaries, even if quoted values contain line
+   * feeds and doubled quotes. */
+  @Test void testSplitOffsets(@TempDir Path tempDir) throws IOException {
+    final File file = tempDir.resolve("split.csv").toFile();
+    writeSplitFile(file, 2_000);
+    final Source source = Sources.of(file);
+    final long[] offsets = CsvEnumerator.splitOffsets(source, 8, 1_000);
+    assertThat(offsets, notNullValue());
+    assertThat(offsets.length, is(9));
+    assertThat(offsets[8], is(file.length()));
+    assertThat(readSplits(source, offsets), is(readAll(source)));
+
+    // A file smaller than two splits is not divided
+    assertThat(CsvEnumerator.splitOffsets(source, 8, file.length()),
+        nullValue());
+  }
+
+  /** Tests that {@link CsvEnumerator#splitOffsets} does not look for row
+   * boundaries after a backslash, which opencsv treats as an escape
+   * character even outside quotes. */
+  @Test void testSplitOffsetsWithEscape(@TempDir Path tempDir)
+      throws IOException {
+    final File file = tempDir.resolve("escape.csv").toFile();
+    writeSplitFile(file, 1_000);
+    try (PrintWriter w =
+             new PrintWriter(
+                 Files.newBufferedWriter(file.toPath(),
+                     StandardCharsets.UTF_8, StandardOpenOption.APPEND))) {
+      for (int i = 1_000; i < 2_000; i++) {
+        w.print(i + ",back\\\"slash " + i + "\n");
+      }
+    }
+    final Source source = Sources.of(file);
+    final long[] offsets = CsvEnumerator.splitOffsets(source, 8, 1_000);
+    assertThat(offsets, notNullValue());
+    assertThat(offsets.length, greaterThan(2));
+    assertThat(offsets.length, lessThan(9));
+    assertThat(offsets[offsets.length - 1], is(file.length()));
+    assertThat(readSplits(source, offsets), is(readAll(source)));
+  }
+
+  /** Writes a header and {@code rowCount} rows, some of which have quoted
+   * values that contain line feeds and doubled quotes. */
+  private static void writeSplitFile(File file, int rowCount)
+      throws IOException {
+    try (PrintWriter w =
+             new PrintWriter(Files.newBufferedWriter(file.toPath(),
+                 StandardCharsets.UTF_8))) {
+      w.print("ID:int,NAME:string\n");
+      for (int i = 0; i < rowCount; i++) {
+        switch (i % 3) {
+        case 0:
+          w.print(i + ",plain " + i + "\n");
+          break;
+        case 1:
+          w.print(i + ",\"two\nlines " + i + "\"\n");
+          break;
+        default:
+          w.print(i + ",\"quote \"\" and \"\"\nnewline " + i + "\"\n");
+          break;
+        }
+      }
+    }
+  }
+
+  /** Reads the rows of a CSV file, after its header row. */
+  private static List<List<String>> readAll(Source source)
+      throws IOException {
+    final List<List<String>> rows = new ArrayList<>();
+    try (CSVReader reader = CsvEnumerator.openCsv(source)) {
+      reader.readNext(); // skip header row
+      for (String[] row; (row = reader.readNext()) != null;) {
+        rows.add(Arrays.asList(row));
+      }
+    }
+    return rows;
+  }
+
+  /** Reads the rows of each range of a CSV file. */
+  private static List<List<String>> readSplits(Source source, long[] offsets)
+      throws IOException {
+    final List<List<String>> rows = new ArrayList<>();
+    for (int i = 0; i < offsets.length - 1; i++) {
+      try (CSVReader reader =
+               CsvEnumerator.openCsv(source, offsets[i], offsets[i + 1])) {
+        for (String[] row; (row = reader.readNext()) != null;) {
+          rows.add(Arrays.asList(row));
+        }
+      }
+    }
+    return rows;
+  }
 }
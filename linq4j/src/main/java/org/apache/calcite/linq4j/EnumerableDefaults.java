@@ -1505,6 +1505,129 @@ private static <TSource, TInner, TKey, TResult> Enumerable<TResult> hashJoinWith
     };
   }
 
+  /**
+   * Correlates the elements of two sequences based on matching keys, where
+   * each key is a primitive {@code long} value.
+   *
+   * <p>Semantics are as
+   * {@link #hashJoin(Enumerable, Enumerable, Function1, Function1, Function2, EqualityComparer, boolean, boolean, Predicate2)},
+   * but the inner input is held in a hash table that neither boxes keys nor
+   * allocates a list per key, so it uses much less memory when the inner
+   * input is large. Keys are never null; composite keys whose columns fit
+   * into 64 bits can be packed into one {@code long}.
+   */
+  public static <TSource, TInner, TResult> Enumerable<TResult> hashJoinLong(
+      final Enumerable<TSource> outer, final Enumerable<TInner> inner,
+      final LongFunction1<TSource> outerKeySelector,
+      final LongFunction1<TInner> innerKeySelector,
+      final Function2<TSource, TInner, TResult> resultSelector,
+      final boolean generateNullsOnLeft,
+      final boolean generateNullsOnRight,
+      final @Nullable Predicate2<TSource, TInner> predicate) {
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        final LongHashJoinTable<TInner> table =
+            LongHashJoinTable.of(inner, innerKeySelector);
+        // Inner rows that have matched at least one outer row; needed only
+        // if we are to emit unmatched inner rows at the end.
+        final boolean @Nullable [] matched =
+            generateNullsOnLeft ? new boolean[table.size()] : null;
+
+        return new Enumerator<TResult>() {
+          final Enumerator<TSource> outers = outer.enumerator();
+          @Nullable TSource outerValue;
+          /** Next candidate inner row for the current outer row. */
+          int innerRow = LongHashJoinTable.END;
+          /** Whether the current outer row has matched an inner row. */
+          boolean outerMatched;
+          /** Whether outer rows are exhausted; we are now emitting unmatched
+           * inner rows. */
+          boolean outersDone;
+          int unmatchedRow = -1;
+          @Nullable TResult current;
+
+          @Override public TResult current() {
+            return castNonNull(current);
+          }
+
+          @Override public boolean moveNext() {
+            if (outersDone) {
+              return moveNextUnmatched();
+            }
+            for (;;) {
+              while (innerRow != LongHashJoinTable.END) {
+                final int row = innerRow;
+                innerRow = table.next(row);
+                final TSource outer = castNonNull(outerValue);
+                final TInner inner = table.row(row);
+                if (predicate == null || predicate.apply(outer, inner)) {
+                  outerMatched = true;
+                  if (matched != null) {
+                    matched[row] = true;
+                  }
+                  current = resultSelector.apply(outer, inner);
+                  return true;
+                }
+              }
+              if (outerValue != null && !outerMatched
+                  && generateNullsOnRight) {
+                outerMatched = true;
+                current = resultSelector.apply(outerValue, castNonNull(null));
+                return true;
+              }
+              if (!outers.moveNext()) {
+                outerValue = null;
+                outersDone = true;
+                return moveNextUnmatched();
+              }
+              final TSource outer = outers.current();
+              outerValue = outer;
+              outerMatched = false;
+              innerRow = outer == null
+                  ? LongHashJoinTable.END
+                  : table.first(outerKeySelector.apply(outer));
+              if (outer == null && generateNullsOnRight) {
+                current = resultSelector.apply(outer, castNonNull(null));
+                return true;
+              }
+            }
+          }
+
+          private boolean moveNextUnmatched() {
+            if (matched == null) {
+              return false;
+            }
+            while (++unmatchedRow < matched.length) {
+              if (!matched[unmatchedRow]) {
+                current =
+                    resultSelector.apply(castNonNull(null),
+                        table.row(unmatchedRow));
+                return true;
+              }
+            }
+            return false;
+          }
+
+          @Override public void reset() {
+            outers.reset();
+            outerValue = null;
+            outerMatched = false;
+            innerRow = LongHashJoinTable.END;
+            outersDone = false;
+            unmatchedRow = -1;
+            if (matched != null) {
+              Arrays.fill(matched, false);
+            }
+          }
+
+          @Override public void close() {
+            outers.close();
+          }
+        };
+      }
+    };
+  }
+
   /**
    * For each row of the {@code outer} enumerable returns the correlated rows
    * from the {@code inner} enumerable.
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.linq4j;
+
+import org.apache.calcite.linq4j.function.LongFunction1;
+
+import java.util.Arrays;
+
+/**
+ * Hash table keyed on a primitive {@code long}, used to hold the build side
+ * of a hash join.
+ *
+ * <p>Unlike the {@link Lookup} built by
+ * {@link EnumerableDefaults#toLookup(Enumerable, org.apache.calcite.linq4j.function.Function1)},
+ * it neither boxes keys nor allocates a list per key. Keys are held in an
+ * open-addressing table with linear probing. Rows are held, in the order
+ * they were added, in a single array; rows with the same key are chained
+ * through an {@code int} array.
+ *
+ * <p>Composite keys can be used if they fit into 64 bits; for example, two
+ * {@code int} columns can be packed into one {@code long}.
+ *
+ * @param <E> Row type
+ */
+final class LongHashJoinTable<E> {
+  /** Marks an empty slot, or the end of a chain. */
+  static final int END = -1;
+
+  private static final int INITIAL_SLOT_COUNT = 16;
+
+  /** Key of each slot. Valid only if {@link #heads} is not {@link #END}. */
+  private long[] keys;
+  /** First row in each slot's chain, or {@link #END} if the slot is empty. */
+  private int[] heads;
+  /** Last row in each slot's chain. */
+  private int[] tails;
+  /** Number of occupied slots, that is, number of distinct keys. */
+  private int keyCount;
+
+  /** Rows, in the order they were added. */
+  private Object[] rows;
+  /** For each row, the next row with the same key, or {@link #END}. */
+  private int[] next;
+  private int rowCount;
+
+  LongHashJoinTable() {
+    keys = new long[INITIAL_SLOT_COUNT];
+    heads = new int[INITIAL_SLOT_COUNT];
+    tails = new int[INITIAL_SLOT_COUNT];
+    Arrays.fill(heads, END);
+    rows = new Object[INITIAL_SLOT_COUNT];
+    next = new int[INITIAL_SLOT_COUNT];
+  }
+
+  /** Creates a table containing every element of a source. */
+  static <E> LongHashJoinTable<E> of(Enumerable<E> source,
+      LongFunction1<E> keySelector) {
+    final LongHashJoinTable<E> table = new LongHashJoinTable<>();
+    try (Enumerator<E> enumerator = source.enumerator()) {
+      while (enumerator.moveNext()) {
+        final E row = enumerator.current();
+        table.add(keySelector.apply(row), row);
+      }
+    }
+    return table;
+  }
+
+  /** Returns the number of rows. */
+  int size() {
+    return rowCount;
+  }
+
+  /** Returns the number of distinct keys. */
+  int keyCount() {
+    return keyCount;
+  }
+
+  /** Adds a row. */
+  void add(long key, E row) {
+    if (rowCount == rows.length) {
+      final int capacity = rows.length * 2;
+      rows = Arrays.copyOf(rows, capacity);
+      next = Arrays.copyOf(next, capacity);
+    }
+    final int i = rowCount++;
+    rows[i] = row;
+    next[i] = END;
+
+    int slot = slot(key);
+    if (heads[slot] == END) {
+      if ((keyCount + 1) * 2 > keys.length) {
+        // Keep the load factor at or below 0.5, so that probe sequences are
+        // short.
+        rehash();
+        slot = slot(key);
+      }
+      keys[slot] = key;
+      heads[slot] = i;
+      ++keyCount;
+    } else {
+      next[tails[slot]] = i;
+    }
+    tails[slot] = i;
+  }
+
+  /** Returns the first row with a given key, or {@link #END}. Subsequent rows
+   * with the same key are found by calling {@link #next(int)}. */
+  int first(long key) {
+    return heads[slot(key)];
+  }
+
+  /** Returns the next row with the same key as a given row, or
+   * {@link #END}. */
+  int next(int row) {
+    return next[row];
+  }
+
+  /** Returns the row with a given ordinal. */
+  @SuppressWarnings("unchecked")
+  E row(int row) {
+    return (E) rows[row];
+  }
+
+  /** Returns the slot that holds a given key, or the empty slot where it
+   * would be placed. */
+  private int slot(long key) {
+    final int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (heads[slot] != END && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    final long[] oldKeys = keys;
+    final int[] oldHeads = heads;
+    final int[] oldTails = tails;
+    final int slotCount = oldKeys.length * 2;
+    keys = new long[slotCount];
+    heads = new int[slotCount];
+    tails = new int[slotCount];
+    Arrays.fill(heads, END);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldHeads[i] != END) {
+        final int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        heads[slot] = oldHeads[i];
+        tails[slot] = oldTails[i];
+      }
+    }
+  }
+
+  /** Spreads the bits of a key, so that keys that differ only in their high
+   * bits do not collide. (The finalization step of MurmurHash3.) */
+  private static int hash(long key) {
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+}
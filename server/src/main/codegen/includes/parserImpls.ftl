@@ -409,3 +409,29 @@ SqlDrop SqlDropFunction(Span s, boolean replace) :
         return SqlDdlNodes.dropFunction(s.end(this), ifExists, id);
     }
 }
+
+SqlNode SqlAnalyzeTable() :
+{
+    final Span s;
+    final SqlIdentifier id;
+    SqlNodeList columnList = null;
+    SqlNumericLiteral samplePercentage = null;
+}
+{
+    <ANALYZE> { s = span(); } <TABLE> id = CompoundIdentifier()
+    [ columnList = ParenthesizedSimpleIdentifierList() ]
+    [
+        <SAMPLE> samplePercentage = UnsignedNumericLiteral() <PERCENT> {
+            final BigDecimal rate = samplePercentage.bigDecimalValue();
+            if (rate.compareTo(BigDecimal.ZERO) <= 0
+                || rate.compareTo(BigDecimal.valueOf(100L)) > 0) {
+                throw SqlUtil.newContextException(getPos(),
+                    RESOURCE.invalidSampleSize());
+            }
+        }
+    ]
+    {
+        return SqlDdlNodes.analyzeTable(s.end(this), id, columnList,
+            samplePercentage);
+    }
+}
@@ -24,17 +24,32 @@
 import org.apache.calcite.rel.logical.LogicalTableModify;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.schema.ModifiableTable;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.impl.AbstractTable;
 
 import java.util.List;
+import java.util.Objects;
 
 /** Abstract base class for implementations of {@link ModifiableTable}. */
 abstract class AbstractModifiableTable
     extends AbstractTable implements ModifiableTable {
+  /** Statistics collected by the most recent {@code ANALYZE TABLE}. */
+  private volatile Statistic statistic = Statistics.UNKNOWN;
+
   AbstractModifiableTable(String tableName) {
     super();
   }
 
+  @Override public Statistic getStatistic() {
+    return statistic;
+  }
+
+  /** Replaces this table's statistics. */
+  void setStatistic(Statistic statistic) {
+    this.statistic = Objects.requireNonNull(statistic, "statistic");
+  }
+
   @Override public TableModify toModificationRel(
       RelOptCluster cluster,
       RelOptTable table,
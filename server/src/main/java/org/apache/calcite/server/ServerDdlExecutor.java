@@ -19,6 +19,7 @@
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.adapter.jdbc.JdbcSchema;
 import org.apache.calcite.avatica.AvaticaUtils;
+import org.apache.calcite.avatica.util.ByteString;
 import org.apache.calcite.jdbc.CalcitePrepare;
 import org.apache.calcite.jdbc.CalciteSchema;
 import org.apache.calcite.jdbc.ContextSqlValidator;
@@ -27,17 +28,25 @@
 import org.apache.calcite.materialize.MaterializationService;
 import org.apache.calcite.model.JsonSchema;
 import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.prepare.PlanCache;
+import org.apache.calcite.profile.Profiler;
+import org.apache.calcite.profile.ProfilerImpl;
 import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.rel.metadata.NullSentinel;
+import org.apache.calcite.rel.metadata.RelMetadataCache;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rel.type.RelDataTypeImpl;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.ColumnStatistic;
 import org.apache.calcite.schema.ColumnStrategy;
 import org.apache.calcite.schema.Function;
 import org.apache.calcite.schema.Schema;
 import org.apache.calcite.schema.SchemaFactory;
 import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.Table;
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.schema.Wrapper;
@@ -54,6 +63,7 @@
 import org.apache.calcite.sql.SqlSelect;
 import org.apache.calcite.sql.SqlUtil;
 import org.apache.calcite.sql.SqlWriterConfig;
+import org.apache.calcite.sql.ddl.SqlAnalyzeTable;
 import org.apache.calcite.sql.ddl.SqlAttributeDefinition;
 import org.apache.calcite.sql.ddl.SqlColumnDeclaration;
 import org.apache.calcite.sql.ddl.SqlCreateForeignSchema;
@@ -82,25 +92,34 @@
 import org.apache.calcite.tools.Planner;
 import org.apache.calcite.tools.RelConversionException;
 import org.apache.calcite.tools.ValidationException;
+import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.NlsString;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.Reader;
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
 
 import static org.apache.calcite.util.Static.RESOURCE;
 
@@ -114,6 +133,10 @@ public class ServerDdlExecutor extends DdlExecutorImpl {
   /** Singleton instance. */
   public static final ServerDdlExecutor INSTANCE = new ServerDdlExecutor();
 
+  /** Maximum number of buckets in the histogram that
+   * {@code ANALYZE TABLE} builds for each column. */
+  static final int HISTOGRAM_BUCKET_COUNT = 100;
+
   /** Parser factory. */
   @SuppressWarnings("unused") // used via reflection
   public static final SqlParserImplFactory PARSER_FACTORY =
@@ -223,6 +246,204 @@ static Comparable value(SqlNode node) {
     return v instanceof NlsString ? ((NlsString) v).getValue() : v;
   }
 
+  /** Executes an {@code ANALYZE TABLE} command.
+   *
+   * <p>Runs the profiler over the rows of the table (or, if there is a
+   * {@code SAMPLE} clause, a random sample of them), and stores the row
+   * count, unique keys and column statistics as the table's
+   * {@link Statistic}, where the planner will find them. Only tables created
+   * by {@code CREATE TABLE} and {@code CREATE MATERIALIZED VIEW} can store
+   * statistics. */
+  public void execute(SqlAnalyzeTable analyze,
+      CalcitePrepare.Context context) {
+    final Pair<CalciteSchema, String> pair =
+        schema(context, false, analyze.name);
+    final CalciteSchema.TableEntry tableEntry =
+        pair.left.getTable(pair.right, true);
+    if (tableEntry == null) {
+      // A view is a nullary function; it exists, but cannot be analyzed
+      throw SqlUtil.newContextException(analyze.name.getParserPosition(),
+          pair.left.getTableBasedOnNullaryFunction(pair.right, true) == null
+              ? RESOURCE.tableNotFound(pair.right)
+              : RESOURCE.analyzeTableNotSupported(pair.right));
+    }
+    if (!(tableEntry.getTable() instanceof AbstractModifiableTable)) {
+      throw SqlUtil.newContextException(analyze.name.getParserPosition(),
+          RESOURCE.analyzeTableNotSupported(pair.right));
+    }
+    final AbstractModifiableTable table =
+        (AbstractModifiableTable) tableEntry.getTable();
+    final RelDataType rowType = table.getRowType(context.getTypeFactory());
+
+    // Columns to analyze, in the order they will be profiled
+    final List<RelDataTypeField> fields = new ArrayList<>();
+    if (analyze.columnList == null) {
+      fields.addAll(rowType.getFieldList());
+    } else {
+      for (SqlNode c : analyze.columnList) {
+        final SqlIdentifier id = (SqlIdentifier) c;
+        final RelDataTypeField field =
+            rowType.getField(id.getSimple(), true, false);
+        if (field == null) {
+          throw SqlUtil.newContextException(id.getParserPosition(),
+              RESOURCE.columnNotFound(id.getSimple()));
+        }
+        if (!fields.contains(field)) {
+          fields.add(field);
+        }
+      }
+    }
+
+    final double fraction = analyze.samplePercentage == null
+        ? 1D
+        : analyze.samplePercentage.getValueAs(BigDecimal.class).doubleValue()
+            / 100D;
+    final List<String> qualifiedName = pair.left.path(pair.right);
+    final SqlNodeList selectList = new SqlNodeList(SqlParserPos.ZERO);
+    for (RelDataTypeField field : fields) {
+      selectList.add(new SqlIdentifier(field.getName(), SqlParserPos.ZERO));
+    }
+    final SqlNode query =
+        new SqlSelect(SqlParserPos.ZERO, null, selectList,
+            new SqlIdentifier(qualifiedName, SqlParserPos.ZERO), null, null,
+            null, null, null, null, null, null, null);
+    final FrameworkConfig config = Frameworks.newConfigBuilder()
+        .defaultSchema(context.getRootSchema().plus())
+        .build();
+    final Planner planner = Frameworks.getPlanner(config);
+    final Profiler.Profile profile;
+    final int rowCount;
+    final ImmutableBitSet uniqueColumns;
+    try {
+      final String sql = query.toSqlString(CalciteSqlDialect.DEFAULT).getSql();
+      final RelRoot r = planner.rel(planner.validate(planner.parse(sql)));
+      try (PreparedStatement statement =
+               context.getRelRunner().prepareStatement(r.rel);
+           SampledRows rows =
+               new SampledRows(statement, fields.size(), fraction)) {
+        final List<Profiler.Column> columns = new ArrayList<>();
+        for (Ord<RelDataTypeField> field : Ord.zip(fields)) {
+          columns.add(new Profiler.Column(field.i, field.e.getName()));
+        }
+        profile =
+            ProfilerImpl.builder()
+                .withHistogramBucketCount(HISTOGRAM_BUCKET_COUNT)
+                .build()
+                .profile(rows, columns, ImmutableList.of());
+        rowCount = rows.rowCount;
+        // Keys are only valid if we read all rows
+        uniqueColumns = fraction < 1D
+            ? ImmutableBitSet.of()
+            : uniqueColumns(profile, rows, fields.size());
+      }
+    } catch (SqlParseException | ValidationException
+        | RelConversionException | SQLException e) {
+      throw Util.throwAsRuntime(e);
+    }
+
+    // Keep the statistics, and the keys, of columns that were not analyzed
+    // this time
+    final Statistic previous = table.getStatistic();
+    final Map<Integer, ColumnStatistic> columnStatistics = new HashMap<>();
+    for (RelDataTypeField field : rowType.getFieldList()) {
+      final ColumnStatistic columnStatistic =
+          previous.getColumnStatistic(field.getIndex());
+      if (columnStatistic != null) {
+        columnStatistics.put(field.getIndex(), columnStatistic);
+      }
+    }
+    final ImmutableBitSet analyzedColumns =
+        ImmutableBitSet.of(Util.transform(fields, RelDataTypeField::getIndex));
+    final List<ImmutableBitSet> keys = new ArrayList<>();
+    final List<ImmutableBitSet> previousKeys = previous.getKeys();
+    if (previousKeys != null) {
+      for (ImmutableBitSet key : previousKeys) {
+        if (!key.intersects(analyzedColumns)) {
+          keys.add(key);
+        }
+      }
+    }
+    for (Ord<RelDataTypeField> field : Ord.zip(fields)) {
+      ColumnStatistic columnStatistic = profile.columnStatistic(field.i);
+      final Double distinctCount = columnStatistic.distinctCount;
+      final Double nullFraction = columnStatistic.nullFraction;
+      if (fraction < 1D
+          && distinctCount != null
+          && nullFraction != null
+          && rowCount > 0
+          && distinctCount >= rowCount * (1D - nullFraction)) {
+        // Every non-null value in the sample was distinct (as far as we
+        // know). Assume that the values of the other rows are distinct too.
+        columnStatistic =
+            ColumnStatistic.of(distinctCount / fraction, nullFraction,
+                columnStatistic.histogram);
+      }
+      if (uniqueColumns.get(field.i)) {
+        keys.add(ImmutableBitSet.of(field.e.getIndex()));
+      }
+      columnStatistics.put(field.e.getIndex(), columnStatistic);
+    }
+    table.setStatistic(
+        Statistics.withColumnStatistics(
+            Statistics.of(rowCount / fraction, keys,
+                previous.getReferentialConstraints(),
+                previous.getCollations()),
+            columnStatistics));
+
+    // Plans and metadata computed from the old statistics are now obsolete
+    final PlanCache planCache = context.getPlanCache();
+    if (planCache != null) {
+      planCache.invalidateAll();
+    }
+    final RelMetadataCache metadataCache = context.getMetadataCache();
+    if (metadataCache != null) {
+      metadataCache.invalidate(qualifiedName);
+    }
+  }
+
+  /** Returns the ordinals of the columns whose values are all distinct and
+   * not null, and which are therefore keys.
+   *
+   * <p>The profiler's distinct count of a column is exact only if it is less
+   * than {@link ProfilerImpl#SKETCH_THRESHOLD}; above that, it is a
+   * HyperLogLog estimate, which may be too high. A column that is wrongly
+   * declared a key would cause rules to return wrong results, so this method
+   * reads the rows again to check such columns exactly. */
+  private static ImmutableBitSet uniqueColumns(Profiler.Profile profile,
+      SampledRows rows, int columnCount) {
+    final ImmutableBitSet.Builder unique = ImmutableBitSet.builder();
+    final Map<Integer, Set<Comparable>> columnValues = new HashMap<>();
+    for (int i = 0; i < columnCount; i++) {
+      final ColumnStatistic columnStatistic = profile.columnStatistic(i);
+      final Double distinctCount = columnStatistic.distinctCount;
+      if (distinctCount == null
+          || !Objects.equals(columnStatistic.nullFraction, 0D)
+          || rows.rowCount == 0
+          || distinctCount < rows.rowCount) {
+        continue;
+      }
+      if (distinctCount < ProfilerImpl.SKETCH_THRESHOLD) {
+        unique.set(i);
+      } else {
+        columnValues.put(i, new HashSet<>());
+      }
+    }
+    if (!columnValues.isEmpty()) {
+      for (List<Comparable> row : rows) {
+        // Stop checking a column when it has a duplicate (or a null) value
+        columnValues.entrySet().removeIf(e -> {
+          final Comparable value = row.get(e.getKey());
+          return value == NullSentinel.INSTANCE || !e.getValue().add(value);
+        });
+        if (columnValues.isEmpty()) {
+          break;
+        }
+      }
+      columnValues.keySet().forEach(unique::set);
+    }
+    return unique.build();
+  }
+
   /** Executes a {@code CREATE FOREIGN SCHEMA} command. */
   public void execute(SqlCreateForeignSchema create,
       CalcitePrepare.Context context) {
@@ -567,6 +788,92 @@ public void execute(SqlCreateView create,
     schemaPlus.add(pair.right, viewTableMacro);
   }
 
+  /** Rows of a query, or a random sample of them, for the profiler.
+   *
+   * <p>Each call to {@link #iterator()} executes the query again, so that
+   * the rows do not need to fit in memory, and uses the same seed, so that
+   * each pass of the profiler sees the same sample.
+   *
+   * <p>If an iteration stops early, its result set remains open until the
+   * next call to {@link #iterator()} or to {@link #close()}. */
+  private static class SampledRows
+      implements Iterable<List<Comparable>>, AutoCloseable {
+    private final PreparedStatement statement;
+    private final int columnCount;
+    private final double fraction;
+
+    /** Result set of the current iteration, if it has not finished. */
+    private @Nullable ResultSet resultSet;
+
+    /** Number of rows returned by the most recent complete iteration. */
+    int rowCount;
+
+    SampledRows(PreparedStatement statement, int columnCount,
+        double fraction) {
+      this.statement = statement;
+      this.columnCount = columnCount;
+      this.fraction = fraction;
+    }
+
+    @Override public Iterator<List<Comparable>> iterator() {
+      final ResultSet resultSet;
+      try {
+        close();
+        resultSet = statement.executeQuery();
+      } catch (SQLException e) {
+        throw Util.throwAsRuntime(e);
+      }
+      this.resultSet = resultSet;
+      final Random random = new Random(0);
+      return new AbstractIterator<List<Comparable>>() {
+        int count = 0;
+
+        @Override protected @Nullable List<Comparable> computeNext() {
+          try {
+            while (resultSet.next()) {
+              if (fraction < 1D && random.nextDouble() >= fraction) {
+                continue;
+              }
+              ++count;
+              final List<Comparable> row = new ArrayList<>(columnCount);
+              for (int i = 0; i < columnCount; i++) {
+                row.add(comparable(resultSet.getObject(i + 1)));
+              }
+              return row;
+            }
+            close();
+            rowCount = count;
+            return endOfData();
+          } catch (SQLException e) {
+            throw Util.throwAsRuntime(e);
+          }
+        }
+      };
+    }
+
+    @Override public void close() throws SQLException {
+      final ResultSet resultSet = this.resultSet;
+      if (resultSet != null) {
+        this.resultSet = null;
+        resultSet.close();
+      }
+    }
+
+    /** Converts a JDBC value to a value that the profiler can compare. */
+    private static Comparable comparable(@Nullable Object o) {
+      if (o == null) {
+        return NullSentinel.INSTANCE;
+      }
+      if (o instanceof byte[]) {
+        return new ByteString((byte[]) o);
+      }
+      if (o instanceof Comparable) {
+        return (Comparable) o;
+      }
+      return o.toString();
+    }
+  }
+
   /** Column definition. */
   private static class ColumnDef {
     final SqlNode expr;
@@ -314,4 +314,20 @@ class ServerParserTest extends SqlParserTest {
     sql(sql).ok(expected);
   }
 
+  @Test void testAnalyzeTable() {
+    sql("analyze table x")
+        .ok("ANALYZE TABLE `X`");
+  }
+
+  @Test void testAnalyzeTableColumnsSample() {
+    final String sql = "analyze table s.x (a, b) sample 10 percent";
+    final String expected = "ANALYZE TABLE `S`.`X` (`A`, `B`) SAMPLE 10 PERCENT";
+    sql(sql).ok(expected);
+  }
+
+  @Test void testAnalyzeTableInvalidSample() {
+    sql("analyze table x sample 101 ^percent^")
+        .fails("TABLESAMPLE percentage must be between 0 and 100, inclusive");
+  }
+
 }
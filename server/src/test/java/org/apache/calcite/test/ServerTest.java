@@ -24,6 +24,7 @@
 import org.apache.calcite.server.DdlExecutorImpl;
 import org.apache.calcite.server.ServerDdlExecutor;
 import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.ddl.SqlAnalyzeTable;
 import org.apache.calcite.sql.ddl.SqlCreateForeignSchema;
 import org.apache.calcite.sql.ddl.SqlCreateFunction;
 import org.apache.calcite.sql.ddl.SqlCreateMaterializedView;
@@ -46,12 +47,16 @@
 import java.sql.Struct;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.apache.calcite.test.Matchers.isLinux;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -102,6 +107,7 @@ static Connection connect() throws SQLException {
     executor.execute((SqlDropMaterializedView) o, context);
     executor.execute((SqlDropFunction) o, context);
     executor.execute((SqlDropSchema) o, context);
+    executor.execute((SqlAnalyzeTable) o, context);
   }
 
   @Test void testStatement() throws Exception {
@@ -223,6 +229,84 @@ static Connection connect() throws SQLException {
     }
   }
 
+  /** Tests that {@code ANALYZE TABLE} stores statistics that the planner
+   * uses to estimate the row count of a table and the selectivity of a
+   * filter. */
+  @Test void testAnalyzeTable() throws Exception {
+    try (Connection c = connect();
+         Statement s = c.createStatement()) {
+      boolean b = s.execute("create table t (i int not null, j varchar(10))");
+      assertThat(b, is(false));
+      final StringBuilder buf = new StringBuilder("insert into t values ");
+      for (int i = 0; i < 40; i++) {
+        buf.append(i == 0 ? "" : ", ")
+            .append("(").append(i).append(", 'x").append(i % 4).append("')");
+      }
+      int x = s.executeUpdate(buf.toString());
+      assertThat(x, is(40));
+
+      final String explainScan = "explain plan including all attributes for\n"
+          + "select * from t";
+      final String explainFilter = "explain plan including all attributes for\n"
+          + "select * from t where j = 'x1'";
+      final String explainDistinct = "explain plan for\n"
+          + "select distinct i from t";
+      // Before ANALYZE TABLE, the planner assumes 100 rows
+      try (ResultSet r = s.executeQuery(explainScan)) {
+        assertThat(r.next(), is(true));
+        assertThat(r.getString(1), containsString("rowcount = 100.0"));
+      }
+
+      b = s.execute("analyze table t");
+      assertThat(b, is(false));
+      try (ResultSet r = s.executeQuery(explainScan)) {
+        assertThat(r.next(), is(true));
+        assertThat(r.getString(1), containsString("rowcount = 40.0"));
+      }
+      // Column "j" has 4 equally common values, so "j = 'x1'" matches about
+      // 1 row in 4; without statistics the planner would estimate 15%
+      try (ResultSet r = s.executeQuery(explainFilter)) {
+        assertThat(r.next(), is(true));
+        final Matcher m =
+            Pattern.compile("rowcount = ([0-9.]+)").matcher(r.getString(1));
+        assertThat(m.find(), is(true));
+        assertThat(Double.parseDouble(m.group(1)), closeTo(10D, 1D));
+      }
+      // Column "i" is a key, so DISTINCT is a no-op
+      try (ResultSet r = s.executeQuery(explainDistinct)) {
+        assertThat(r.next(), is(true));
+        assertThat(r.getString(1), not(containsString("Aggregate")));
+      }
+
+      // Analyze a sample of the rows of one column. The statistics and key of
+      // column "i" are kept.
+      b = s.execute("analyze table t (j) sample 50 percent");
+      assertThat(b, is(false));
+      try (ResultSet r = s.executeQuery(explainDistinct)) {
+        assertThat(r.next(), is(true));
+        assertThat(r.getString(1), not(containsString("Aggregate")));
+      }
+
+      SQLException e =
+          assertThrows(SQLException.class, () ->
+              s.execute("analyze table u"));
+      assertThat(e.getMessage(), containsString("Table 'U' not found"));
+      e = assertThrows(SQLException.class, () ->
+          s.execute("analyze table t (k)"));
+      assertThat(e.getMessage(), containsString("Column 'K' not found"));
+
+      // A view cannot store statistics
+      b = s.execute("create view v as select * from t");
+      assertThat(b, is(false));
+      e = assertThrows(SQLException.class, () ->
+          s.execute("analyze table v"));
+      assertThat(e.getMessage(),
+          containsString("Cannot analyze table 'V'; only tables created by "
+              + "CREATE TABLE or CREATE MATERIALIZED VIEW can store "
+              + "statistics"));
+    }
+  }
+
   @Test void testCreateFunction() throws Exception {
     try (Connection c = connect();
          Statement s = c.createStatement()) {
@@ -22,6 +22,7 @@
     jmhImplementation(platform(project(":bom")))
     jmhImplementation(project(":core"))
     jmhImplementation(project(":linq4j"))
+    jmhImplementation(project(":plus"))
     jmhImplementation("com.google.guava:guava")
     jmhImplementation("org.codehaus.janino:commons-compiler")
     jmhImplementation("org.openjdk.jmh:jmh-core")
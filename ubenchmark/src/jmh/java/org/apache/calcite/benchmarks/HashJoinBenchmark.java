@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark that compares the hash table used by
+ * {@link EnumerableDefaults#hashJoin} (a map from boxed key to a list of
+ * rows) with the primitive-keyed hash table used by
+ * {@link EnumerableDefaults#hashJoinLong}.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx4g")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class HashJoinBenchmark {
+
+  /** State holding the inputs to the join. */
+  @State(Scope.Benchmark)
+  public static class JoinState {
+    /** Number of rows in the build (right) input. */
+    @Param({"10000", "1000000"})
+    public int buildSize;
+
+    /** Average number of build rows per distinct key. */
+    @Param({"1", "10"})
+    public int duplicates;
+
+    Enumerable<Object[]> build;
+    Enumerable<Object[]> probe;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final Random random = new Random(0);
+      final int keyCount = buildSize / duplicates;
+      final List<Object[]> buildRows = new ArrayList<>(buildSize);
+      for (int i = 0; i < buildSize; i++) {
+        buildRows.add(new Object[] {random.nextInt(keyCount), "b" + i});
+      }
+      final List<Object[]> probeRows = new ArrayList<>(buildSize);
+      for (int i = 0; i < buildSize; i++) {
+        // About half of the probe rows find a match
+        probeRows.add(new Object[] {random.nextInt(keyCount * 2), "p" + i});
+      }
+      build = Linq4j.asEnumerable(buildRows);
+      probe = Linq4j.asEnumerable(probeRows);
+    }
+  }
+
+  @Benchmark
+  public int lookupImpl(JoinState state) {
+    return count(
+        EnumerableDefaults.hashJoin(state.probe, state.build,
+            row -> (Integer) row[0], row -> (Integer) row[0],
+            (left, right) -> left, null, false, false));
+  }
+
+  @Benchmark
+  public int longHashJoinTable(JoinState state) {
+    return count(
+        EnumerableDefaults.hashJoinLong(state.probe, state.build,
+            row -> (Integer) row[0], row -> (Integer) row[0],
+            (left, right) -> left, false, false, null));
+  }
+
+  private static int count(Enumerable<Object[]> enumerable) {
+    int n = 0;
+    try (Enumerator<Object[]> enumerator = enumerable.enumerator()) {
+      while (enumerator.moveNext()) {
+        ++n;
+      }
+    }
+    return n;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(HashJoinBenchmark.class.getSimpleName())
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.hep.HepMatchOrder;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgram;
+import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.rules.CoreRules;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
+import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.google.common.collect.ImmutableList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the time that join-order rules take to order the inputs of a
+ * {@link org.apache.calcite.rel.rules.MultiJoin}.
+ *
+ * <p>Compares the greedy {@link CoreRules#MULTI_JOIN_OPTIMIZE} and
+ * {@link CoreRules#MULTI_JOIN_OPTIMIZE_BUSHY} with the dynamic programming
+ * {@link CoreRules#MULTI_JOIN_OPTIMIZE_DPHYP}, on chain and star queries.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1024m")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JoinOrderBenchmark {
+  @Param({"4", "8", "12"})
+  int tableCount;
+
+  @Param({"chain", "star"})
+  String shape;
+
+  @Param({"lopt", "bushy", "dphyp"})
+  String rule;
+
+  private RelNode multiJoin;
+  private HepProgram program;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(0);
+    final SchemaPlus rootSchema = Frameworks.createRootSchema(true);
+    for (int i = 0; i < tableCount; i++) {
+      rootSchema.add("t" + i,
+          new KeyTable(Math.pow(10, 1 + random.nextInt(6))));
+    }
+    final RelBuilder b =
+        RelBuilder.create(
+            Frameworks.newConfigBuilder().defaultSchema(rootSchema).build());
+
+    // Each table has columns (id, fk). In a chain, t[i].fk references
+    // t[i + 1].id; in a star, t[i].fk references t0.id.
+    b.scan("t0");
+    for (int i = 1; i < tableCount; i++) {
+      b.scan("t" + i);
+      if (shape.equals("chain")) {
+        b.join(JoinRelType.INNER,
+            b.equals(b.field(2, 0, 2 * i - 1), b.field(2, 1, "id")));
+      } else {
+        b.join(JoinRelType.INNER,
+            b.equals(b.field(2, 0, 0), b.field(2, 1, "fk")));
+      }
+    }
+    final HepProgram toMultiJoin = new HepProgramBuilder()
+        .addMatchOrder(HepMatchOrder.BOTTOM_UP)
+        .addRuleInstance(CoreRules.JOIN_TO_MULTI_JOIN)
+        .build();
+    final HepPlanner planner = new HepPlanner(toMultiJoin);
+    planner.setRoot(b.build());
+    multiJoin = planner.findBestExp();
+
+    final RelOptRule joinOrderRule;
+    switch (rule) {
+    case "lopt":
+      joinOrderRule = CoreRules.MULTI_JOIN_OPTIMIZE;
+      break;
+    case "bushy":
+      joinOrderRule = CoreRules.MULTI_JOIN_OPTIMIZE_BUSHY;
+      break;
+    case "dphyp":
+      joinOrderRule = CoreRules.MULTI_JOIN_OPTIMIZE_DPHYP;
+      break;
+    default:
+      throw new AssertionError("unknown rule " + rule);
+    }
+    program = new HepProgramBuilder()
+        .addRuleInstance(joinOrderRule)
+        .build();
+  }
+
+  @Benchmark
+  public RelNode orderJoins() {
+    // Start each iteration without cached metadata
+    multiJoin.getCluster().invalidateMetadataQuery();
+    final HepPlanner planner = new HepPlanner(program);
+    planner.setRoot(multiJoin);
+    return planner.findBestExp();
+  }
+
+  /** Table with columns (id, fk), a row count, and a unique key on id. */
+  private static class KeyTable extends AbstractTable {
+    private final double rowCount;
+
+    KeyTable(double rowCount) {
+      this.rowCount = rowCount;
+    }
+
+    @Override public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+      return typeFactory.builder()
+          .add("id", SqlTypeName.INTEGER)
+          .add("fk", SqlTypeName.INTEGER)
+          .build();
+    }
+
+    @Override public Statistic getStatistic() {
+      return Statistics.of(rowCount, ImmutableList.of(ImmutableBitSet.of(0)));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(JoinOrderBenchmark.class.getSimpleName())
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.runtime.PatternFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the SQL {@code LIKE} operator as implemented by
+ * {@link PatternFunction}, applying typical filter patterns to many strings.
+ *
+ * <p>{@link #cached()} uses one {@code PatternFunction}, as generated code
+ * does, so the pattern is translated once; {@link #perRow()} creates a
+ * {@code PatternFunction} for each row, and so translates (and, if the pattern
+ * contains {@code _}, compiles) the pattern for each row, as generated code
+ * used to.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx4096m")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LikeBenchmark {
+  @Param({"10000000"})
+  int rowCount;
+
+  @Param({"abc", "abc%", "%xyz", "%bcd%", "ab%yz", "a_c%"})
+  String pattern;
+
+  private String[] strings;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(0);
+    strings = new String[rowCount];
+    final char[] chars = new char[20];
+    for (int i = 0; i < rowCount; i++) {
+      final int length = 3 + random.nextInt(chars.length - 3);
+      for (int j = 0; j < length; j++) {
+        chars[j] = (char) ('a' + random.nextInt(26));
+      }
+      // Make some of the strings match each pattern
+      switch (i % 4) {
+      case 0:
+        chars[0] = 'a';
+        chars[1] = 'b';
+        chars[2] = 'c';
+        break;
+      case 1:
+        chars[length - 2] = 'y';
+        chars[length - 1] = 'z';
+        break;
+      default:
+        break;
+      }
+      strings[i] = new String(chars, 0, length);
+    }
+  }
+
+  @Benchmark
+  public int cached() {
+    final PatternFunction f = new PatternFunction();
+    int count = 0;
+    for (String s : strings) {
+      if (f.like(s, pattern)) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int perRow() {
+    int count = 0;
+    for (String s : strings) {
+      if (new PatternFunction().like(s, pattern)) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(LikeBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.plan.Contexts;
+import org.apache.calcite.plan.ConventionTraitDef;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptSchema;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgram;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.FrameworkConfig;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.RelBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost of computing and comparing the digests of relational
+ * expressions, which planners do when they register an expression.
+ *
+ * <p>The expressions are a stack of {@code depth} wide projections and
+ * filters over a table with {@code columnCount} columns.
+ * {@link #build()} measures just building the expressions, so that it can be
+ * subtracted from {@link #volcanoRegister()}.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx2048m")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RelDigestBenchmark {
+  @Param({"10", "100", "1000"})
+  int columnCount;
+
+  @Param({"1", "10"})
+  int depth;
+
+  private RelOptSchema relOptSchema;
+  private RelNode rel0;
+  private RelNode rel1;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final SchemaPlus rootSchema = Frameworks.createRootSchema(true);
+    rootSchema.add("T", new WideTable(columnCount));
+    final FrameworkConfig config = Frameworks.newConfigBuilder()
+        .defaultSchema(rootSchema)
+        .build();
+    relOptSchema =
+        Frameworks.withPlanner((cluster, catalogReader, schema) ->
+            catalogReader, config);
+    final RelBuilder b = RelBuilder.create(config);
+    rel0 = build(b);
+    rel1 = build(b);
+  }
+
+  /** Builds a fresh copy of the expression in a new {@link VolcanoPlanner};
+   * does not register it. */
+  @Benchmark
+  public RelNode build() {
+    return build(newBuilder(newVolcanoPlanner()));
+  }
+
+  /** Builds a fresh copy of the expression and registers it in a
+   * {@link VolcanoPlanner}. */
+  @Benchmark
+  public RelNode volcanoRegister() {
+    final VolcanoPlanner planner = newVolcanoPlanner();
+    planner.setRoot(build(newBuilder(planner)));
+    return planner.getRoot();
+  }
+
+  /** Registers the expression in a {@link HepPlanner}, which copies each
+   * node onto vertices and looks up each copy by digest. */
+  @Benchmark
+  public RelNode hepRegister() {
+    final HepPlanner planner = new HepPlanner(HepProgram.builder().build());
+    planner.setRoot(rel0);
+    return planner.getRoot();
+  }
+
+  /** Compares the digests of two equivalent expressions whose inputs are
+   * equivalent but not the same objects. */
+  @Benchmark
+  public boolean digestEquals() {
+    rel0.recomputeDigest();
+    rel1.recomputeDigest();
+    return rel0.getRelDigest().hashCode() == rel1.getRelDigest().hashCode()
+        && rel0.getRelDigest().equals(rel1.getRelDigest());
+  }
+
+  private static VolcanoPlanner newVolcanoPlanner() {
+    final VolcanoPlanner planner = new VolcanoPlanner();
+    planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
+    return planner;
+  }
+
+  private RelBuilder newBuilder(VolcanoPlanner planner) {
+    final RelOptCluster cluster =
+        RelOptCluster.create(planner,
+            new RexBuilder(relOptSchema.getTypeFactory()));
+    return RelBuilder.proto(Contexts.empty()).create(cluster, relOptSchema);
+  }
+
+  private RelNode build(RelBuilder b) {
+    b.scan("T");
+    for (int d = 0; d < depth; d++) {
+      final List<RexNode> exprs = new ArrayList<>();
+      for (int i = 0; i < columnCount; i++) {
+        exprs.add(b.call(SqlStdOperatorTable.PLUS, b.field(i), b.literal(d)));
+      }
+      b.project(exprs)
+          .filter(b.greaterThan(b.field(0), b.literal(d)));
+    }
+    return b.build();
+  }
+
+  /** Table with a given number of integer columns. */
+  private static class WideTable extends AbstractTable {
+    private final int columnCount;
+
+    WideTable(int columnCount) {
+      this.columnCount = columnCount;
+    }
+
+    @Override public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+      final RelDataTypeFactory.Builder builder = typeFactory.builder();
+      for (int i = 0; i < columnCount; i++) {
+        builder.add("c" + i, SqlTypeName.INTEGER);
+      }
+      return builder.build();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(RelDigestBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
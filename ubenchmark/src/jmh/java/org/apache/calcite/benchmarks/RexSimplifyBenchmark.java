@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
+import org.apache.calcite.plan.RelOptPredicateList;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexSimplify;
+import org.apache.calcite.rex.RexUnknownAs;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RexSimplify} on predicates with many terms, such as
+ * {@code x = 17 OR x = 3 OR ...} and {@code x <> 17 AND x <> 3 AND ...},
+ * which are what large IN and NOT IN lists become.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx2048m")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RexSimplifyBenchmark {
+  @Param({"10", "1000", "100000"})
+  int termCount;
+
+  @Param({"or", "and"})
+  String op;
+
+  private RexSimplify simplify;
+  private RexNode predicate;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final RexBuilder rexBuilder = new RexBuilder(new JavaTypeFactoryImpl());
+    final RelDataType intType =
+        rexBuilder.getTypeFactory().createTypeWithNullability(
+            rexBuilder.getTypeFactory().createSqlType(SqlTypeName.INTEGER),
+            true);
+    final RexNode ref = rexBuilder.makeInputRef(intType, 0);
+
+    // Distinct values, in random order
+    final List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < termCount; i++) {
+      values.add(i * 3);
+    }
+    Collections.shuffle(values, new Random(0));
+
+    final List<RexNode> terms = new ArrayList<>();
+    for (int value : values) {
+      terms.add(
+          rexBuilder.makeCall(
+              op.equals("or")
+                  ? SqlStdOperatorTable.EQUALS
+                  : SqlStdOperatorTable.NOT_EQUALS,
+              ref, rexBuilder.makeExactLiteral(BigDecimal.valueOf(value))));
+    }
+    predicate =
+        rexBuilder.makeCall(
+            op.equals("or") ? SqlStdOperatorTable.OR : SqlStdOperatorTable.AND,
+            terms);
+    simplify =
+        new RexSimplify(rexBuilder, RelOptPredicateList.EMPTY,
+            RexUtil.EXECUTOR);
+  }
+
+  @Benchmark
+  public RexNode simplify() {
+    return simplify.simplifyUnknownAs(predicate, RexUnknownAs.FALSE);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(RexSimplifyBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
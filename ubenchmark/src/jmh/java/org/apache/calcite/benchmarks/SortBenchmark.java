@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.runtime.FlatLists;
+import org.apache.calcite.runtime.SpillingEnumerables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark that compares the in-memory sort,
+ * {@link EnumerableDefaults#orderBy}, with the external merge sort,
+ * {@link SpillingEnumerables#orderBy}, for various kinds of sort key.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx4g")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class SortBenchmark {
+
+  /** State holding the rows to sort. */
+  @State(Scope.Benchmark)
+  public static class SortState {
+    @Param({"100000", "1000000"})
+    public int rowCount;
+
+    /** Type of the sort key: "int", "long", "string", or "composite" (an int
+     * and a string). */
+    @Param({"int", "long", "string", "composite"})
+    public String keyType;
+
+    /** Memory budget of the external sort, in bytes. With the largest value,
+     * it never spills. */
+    @Param({"4000000", "64000000", "4000000000"})
+    public long memoryBudget;
+
+    Enumerable<Object[]> rows;
+    Function1<Object[], Comparable<?>> keySelector;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final Random random = new Random(0);
+      final List<Object[]> list = new ArrayList<>(rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        list.add(
+            new Object[] {random.nextInt(rowCount / 10), random.nextLong(),
+                "s" + random.nextInt(rowCount), random.nextDouble()});
+      }
+      rows = Linq4j.asEnumerable(list);
+      switch (keyType) {
+      case "int":
+        keySelector = row -> (Integer) row[0];
+        break;
+      case "long":
+        keySelector = row -> (Long) row[1];
+        break;
+      case "string":
+        keySelector = row -> (String) row[2];
+        break;
+      case "composite":
+        keySelector = row -> (Comparable<?>) FlatLists.of(row[0], row[2]);
+        break;
+      default:
+        throw new AssertionError("unknown key type " + keyType);
+      }
+    }
+  }
+
+  @Benchmark
+  public int inMemory(SortState state) {
+    return count(
+        EnumerableDefaults.orderBy(state.rows, state.keySelector, null));
+  }
+
+  @Benchmark
+  public int external(SortState state) {
+    return count(
+        SpillingEnumerables.orderBy(state.rows, state.keySelector, null, 0,
+            Integer.MAX_VALUE, state.memoryBudget, "sort"));
+  }
+
+  private static int count(Enumerable<Object[]> enumerable) {
+    int n = 0;
+    try (Enumerator<Object[]> enumerator = enumerable.enumerator()) {
+      while (enumerator.moveNext()) {
+        ++n;
+      }
+    }
+    return n;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(SortBenchmark.class.getSimpleName())
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.config.CalciteConnectionProperty;
+import org.apache.calcite.jdbc.Driver;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the time that the Volcano planner takes to plan TPC-H queries
+ * that join many tables, firing rule matches in one or several threads.
+ *
+ * <p>Each iteration prepares a statement, which includes parsing, validation
+ * and code generation as well as planning; the query is not executed.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1024m")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VolcanoPlannerBenchmark {
+  private static final String MODEL = "inline:{\n"
+      + "  version: '1.0',\n"
+      + "  defaultSchema: 'TPCH',\n"
+      + "  schemas: [ {\n"
+      + "    type: 'custom',\n"
+      + "    name: 'TPCH',\n"
+      + "    factory: 'org.apache.calcite.adapter.tpch.TpchSchemaFactory',\n"
+      + "    operand: {columnPrefix: false, scale: 0.01}\n"
+      + "  } ]\n"
+      + "}";
+
+  private static final Map<String, String> QUERIES =
+      ImmutableMap.of("q05", "select\n"
+              + "  n.n_name,\n"
+              + "  sum(l.l_extendedprice * (1 - l.l_discount)) as revenue\n"
+              + "from\n"
+              + "  tpch.customer c,\n"
+              + "  tpch.orders o,\n"
+              + "  tpch.lineitem l,\n"
+              + "  tpch.supplier s,\n"
+              + "  tpch.nation n,\n"
+              + "  tpch.region r\n"
+              + "where\n"
+              + "  c.c_custkey = o.o_custkey\n"
+              + "  and l.l_orderkey = o.o_orderkey\n"
+              + "  and l.l_suppkey = s.s_suppkey\n"
+              + "  and c.c_nationkey = s.s_nationkey\n"
+              + "  and s.s_nationkey = n.n_nationkey\n"
+              + "  and n.n_regionkey = r.r_regionkey\n"
+              + "  and r.r_name = 'EUROPE'\n"
+              + "group by\n"
+              + "  n.n_name\n"
+              + "order by\n"
+              + "  revenue desc",
+          "q08", "select\n"
+              + "  o_year,\n"
+              + "  sum(case\n"
+              + "    when nation = 'EGYPT' then volume\n"
+              + "    else 0\n"
+              + "  end) / sum(volume) as mkt_share\n"
+              + "from\n"
+              + "  (\n"
+              + "    select\n"
+              + "      extract(year from o.o_orderdate) as o_year,\n"
+              + "      l.l_extendedprice * (1 - l.l_discount) as volume,\n"
+              + "      n2.n_name as nation\n"
+              + "    from\n"
+              + "      tpch.part p,\n"
+              + "      tpch.supplier s,\n"
+              + "      tpch.lineitem l,\n"
+              + "      tpch.orders o,\n"
+              + "      tpch.customer c,\n"
+              + "      tpch.nation n1,\n"
+              + "      tpch.nation n2,\n"
+              + "      tpch.region r\n"
+              + "    where\n"
+              + "      p.p_partkey = l.l_partkey\n"
+              + "      and s.s_suppkey = l.l_suppkey\n"
+              + "      and l.l_orderkey = o.o_orderkey\n"
+              + "      and o.o_custkey = c.c_custkey\n"
+              + "      and c.c_nationkey = n1.n_nationkey\n"
+              + "      and n1.n_regionkey = r.r_regionkey\n"
+              + "      and r.r_name = 'MIDDLE EAST'\n"
+              + "      and s.s_nationkey = n2.n_nationkey\n"
+              + "      and p.p_type = 'PROMO BRUSHED COPPER'\n"
+              + "  ) as all_nations\n"
+              + "group by\n"
+              + "  o_year\n"
+              + "order by\n"
+              + "  o_year",
+          "q09", "select\n"
+              + "  nation,\n"
+              + "  o_year,\n"
+              + "  sum(amount) as sum_profit\n"
+              + "from\n"
+              + "  (\n"
+              + "    select\n"
+              + "      n.n_name as nation,\n"
+              + "      extract(year from o.o_orderdate) as o_year,\n"
+              + "      l.l_extendedprice * (1 - l.l_discount)\n"
+              + "        - ps.ps_supplycost * l.l_quantity as amount\n"
+              + "    from\n"
+              + "      tpch.part p,\n"
+              + "      tpch.supplier s,\n"
+              + "      tpch.lineitem l,\n"
+              + "      tpch.partsupp ps,\n"
+              + "      tpch.orders o,\n"
+              + "      tpch.nation n\n"
+              + "    where\n"
+              + "      s.s_suppkey = l.l_suppkey\n"
+              + "      and ps.ps_suppkey = l.l_suppkey\n"
+              + "      and ps.ps_partkey = l.l_partkey\n"
+              + "      and p.p_partkey = l.l_partkey\n"
+              + "      and o.o_orderkey = l.l_orderkey\n"
+              + "      and s.s_nationkey = n.n_nationkey\n"
+              + "      and p.p_name like '%green%'\n"
+              + "  ) as profit\n"
+              + "group by\n"
+              + "  nation,\n"
+              + "  o_year\n"
+              + "order by\n"
+              + "  nation,\n"
+              + "  o_year desc");
+
+  @Param({"q05", "q08", "q09"})
+  String query;
+
+  @Param({"1", "2", "4"})
+  int parallelism;
+
+  private Connection connection;
+  private String sql;
+
+  @Setup(Level.Trial)
+  public void setup() throws SQLException {
+    final Properties info = new Properties();
+    info.setProperty(CalciteConnectionProperty.MODEL.camelName(), MODEL);
+    info.setProperty(CalciteConnectionProperty.PLANNER_PARALLELISM.camelName(),
+        Integer.toString(parallelism));
+    connection = new Driver().connect("jdbc:calcite:", info);
+    sql = QUERIES.get(query);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  public PreparedStatement prepare() throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      return statement;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(VolcanoPlannerBenchmark.class.getSimpleName())
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}
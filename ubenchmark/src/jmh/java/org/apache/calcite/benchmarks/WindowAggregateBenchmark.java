@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.adapter.java.ReflectiveSchema;
+import org.apache.calcite.jdbc.CalciteConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for windowed aggregates over a sliding frame, such as
+ * {@code SUM(v) OVER (ORDER BY id ROWS 100 PRECEDING)}, on a single partition
+ * of one million rows.
+ *
+ * <p>Aggregates that can remove rows as they leave the frame take time
+ * proportional to the number of rows, regardless of the size of the frame.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx4g")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class WindowAggregateBenchmark {
+
+  /** Row of the benchmark table. */
+  public static class Row {
+    public final int id;
+    public final int v;
+
+    Row(int id, int v) {
+      this.id = id;
+      this.v = v;
+    }
+  }
+
+  /** Schema containing the benchmark table. */
+  public static class BenchmarkSchema {
+    public final Row[] t;
+
+    BenchmarkSchema(Row[] t) {
+      this.t = t;
+    }
+  }
+
+  /** State holding the connection and the query. */
+  @State(Scope.Benchmark)
+  public static class WindowState {
+    @Param({"1000000"})
+    public int rowCount;
+
+    /** Number of rows preceding the current row in the frame. */
+    @Param({"10", "1000"})
+    public int preceding;
+
+    @Param({"count", "sum", "min", "max"})
+    public String aggregate;
+
+    Connection connection;
+    String sql;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+      final Random random = new Random(0);
+      final Row[] rows = new Row[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        rows[i] = new Row(i, random.nextInt(1000));
+      }
+      connection = DriverManager.getConnection("jdbc:calcite:");
+      connection.unwrap(CalciteConnection.class).getRootSchema()
+          .add("s", new ReflectiveSchema(new BenchmarkSchema(rows)));
+      sql = "select " + aggregate + "(\"v\") over (order by \"id\" rows "
+          + preceding + " preceding) from \"s\".\"t\"";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+      connection.close();
+    }
+  }
+
+  @Benchmark
+  public long slidingWindow(WindowState state) throws SQLException {
+    long n = 0;
+    try (Statement statement = state.connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(state.sql)) {
+      while (resultSet.next()) {
+        n += resultSet.getLong(1);
+      }
+    }
+    return n;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(WindowAggregateBenchmark.class.getSimpleName())
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}